@@ -26,6 +26,7 @@ import org.apache.commons.configuration.HierarchicalINIConfiguration;
 import org.apache.commons.configuration.SubnodeConfiguration;
 import org.slf4j.LoggerFactory;
 
+import utils.Pair;
 import utils.Triple;
 import de.clusteval.data.dataset.format.DataSetFormatParser;
 import de.clusteval.data.dataset.format.InvalidDataSetFormatVersionException;
@@ -94,6 +95,18 @@ public class DataSetConfig extends RepositoryObject {
 
 	protected List<DirectedSparseMultigraph<String, String>> graphs;
 
+	/**
+	 * For every graph in {@link #graphs} the memory mapped index from node ids
+	 * used in the dataset files to vertex labels.
+	 */
+	protected List<NodeIdLabelIndex> nodeIdLabelIndices;
+
+	/**
+	 * For every graph in {@link #graphs} the dictionary of its vertex labels,
+	 * used to encode graph matchings in binary form.
+	 */
+	protected List<VertexDictionary> vertexDictionaries;
+
 	/**
 	 * Instantiates a new dataset configuration.
 	 * 
@@ -269,10 +282,66 @@ public class DataSetConfig extends RepositoryObject {
 		return this.groupToDataSet.get(groupName);
 	}
 
+	/**
+	 * @return The names of the groups of datasets, each describing one
+	 *         network, in the order of the graphs returned by
+	 *         {@link #getGraphs()}.
+	 */
+	public List<String> getGroups() {
+		return this.groups;
+	}
+
 	public List<DirectedSparseMultigraph<String, String>> getGraphs() {
 		return this.graphs;
 	}
 
+	/**
+	 * The node id indices are opened by the content hash of the dataset files
+	 * (see {@link NodeIdLabelIndex#computeContentHash(String, List)}), thus
+	 * this configuration does not have to be loaded into memory. Only if no
+	 * index exists for the current contents of the dataset files, the
+	 * datasets are parsed to create it.
+	 * 
+	 * @return For every graph of this configuration (see {@link #getGraphs()})
+	 *         the index mapping node ids used in the dataset files to vertex
+	 *         labels.
+	 * @throws IOException
+	 * @throws InvalidDataSetFormatVersionException
+	 */
+	public synchronized List<NodeIdLabelIndex> getNodeIdLabelIndices()
+			throws IOException, InvalidDataSetFormatVersionException {
+		if (this.nodeIdLabelIndices == null) {
+			List<NodeIdLabelIndex> indices = new ArrayList<NodeIdLabelIndex>();
+			for (String group : groups) {
+				Pair<DataSetFormatParser, List<DataSet>> parserAndInputs = this
+						.getParserAndInputs(group);
+				DataSetFormatParser parser = parserAndInputs.getFirst();
+				List<DataSet> inputs = parserAndInputs.getSecond();
+				String contentHash = NodeIdLabelIndex.computeContentHash(
+						parser.getClass().getSimpleName(), inputs);
+				NodeIdLabelIndex index = NodeIdLabelIndex.open(
+						this.repository.getDataSetIndexBasePath(), contentHash);
+				if (index == null)
+					index = NodeIdLabelIndex.create(
+							this.repository.getDataSetIndexBasePath(),
+							contentHash,
+							parser.getNodeIdToLabel(parser.parse(inputs)));
+				indices.add(index);
+			}
+			this.nodeIdLabelIndices = indices;
+		}
+		return this.nodeIdLabelIndices;
+	}
+
+	/**
+	 * @return For every graph returned by {@link #getGraphs()} the dictionary
+	 *         of its vertex labels. Only available while this configuration is
+	 *         loaded into memory.
+	 */
+	public List<VertexDictionary> getVertexDictionaries() {
+		return this.vertexDictionaries;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -362,6 +431,7 @@ public class DataSetConfig extends RepositoryObject {
 	 */
 	public void setDataSets(List<Triple<String, DataSet, String>> datasets) {
 		this.datasets = datasets;
+		this.initGroupToDataSets();
 	}
 
 	/**
@@ -400,6 +470,10 @@ public class DataSetConfig extends RepositoryObject {
 	 */
 	public boolean unloadFromMemory() {
 		this.graphs = null;
+		synchronized (this) {
+			this.nodeIdLabelIndices = null;
+		}
+		this.vertexDictionaries = null;
 		return true;
 	}
 
@@ -415,36 +489,81 @@ public class DataSetConfig extends RepositoryObject {
 			throws IllegalArgumentException, IOException,
 			InvalidDataSetFormatVersionException {
 		List<DirectedSparseMultigraph<String, String>> result = new ArrayList<DirectedSparseMultigraph<String, String>>();
+		List<NodeIdLabelIndex> indices = new ArrayList<NodeIdLabelIndex>();
+		List<VertexDictionary> dictionaries = new ArrayList<VertexDictionary>();
 		for (String group : groups) {
-			List<Triple<String, DataSet, String>> dataSets = groupToDataSet
-					.get(group);
-			DataSetFormatParser parser = null;
-			Set<String> optionalInputs = null;
-			List<DataSet> inputs = new ArrayList<DataSet>();
-			// find the parsable dataset
-			for (Triple<String, DataSet, String> triple : dataSets) {
-				if (triple.getSecond().getDataSetFormat() instanceof Parsable) {
-					parser = triple.getSecond().getDataSetFormat()
-							.getDataSetFormatParser();
-					optionalInputs = new HashSet<String>(
-							Arrays.asList(((Parsable) triple.getSecond()
-									.getDataSetFormat()).optionalInputs()));
-					inputs.add(triple.getSecond());
-					break;
-				}
-			}
-			if (parser == null || optionalInputs == null)
-				throw new IllegalArgumentException(
-						"No parser found to parse the datasetconfig");
-			// find optional inputs
-			for (Triple<String, DataSet, String> triple : dataSets) {
-				if (optionalInputs.contains(triple.getSecond()
-						.getDataSetFormat().getClass().getSimpleName()))
-					inputs.add(triple.getSecond());
-			}
-
-			result.add(parser.parse(inputs));
+			Pair<DataSetFormatParser, List<DataSet>> parserAndInputs = this
+					.getParserAndInputs(group);
+			DataSetFormatParser parser = parserAndInputs.getFirst();
+			List<DataSet> inputs = parserAndInputs.getSecond();
+
+			DirectedSparseMultigraph<String, String> graph = parser
+					.parse(inputs);
+			result.add(graph);
+
+			// the node id index is persisted once per content of the inputs
+			String contentHash = NodeIdLabelIndex.computeContentHash(parser
+					.getClass().getSimpleName(), inputs);
+			NodeIdLabelIndex index = NodeIdLabelIndex.open(
+					this.repository.getDataSetIndexBasePath(), contentHash);
+			if (index == null)
+				index = NodeIdLabelIndex.create(
+						this.repository.getDataSetIndexBasePath(), contentHash,
+						parser.getNodeIdToLabel(graph));
+			indices.add(index);
+
+			VertexDictionary dictionary = VertexDictionary.open(
+					this.repository.getDataSetIndexBasePath(), contentHash);
+			if (dictionary == null)
+				dictionary = VertexDictionary.create(
+						this.repository.getDataSetIndexBasePath(), contentHash,
+						graph.getVertices());
+			dictionaries.add(dictionary);
 		}
+		synchronized (this) {
+			this.nodeIdLabelIndices = indices;
+		}
+		this.vertexDictionaries = dictionaries;
 		return result;
 	}
+
+	/**
+	 * @param group
+	 *            A group of this configuration.
+	 * @return The parser of the parsable dataset of the group and the datasets
+	 *         it parses: the parsable dataset followed by the optional inputs
+	 *         of its format.
+	 * @throws IllegalArgumentException
+	 *             If the group does not contain a parsable dataset.
+	 */
+	protected Pair<DataSetFormatParser, List<DataSet>> getParserAndInputs(
+			final String group) {
+		List<Triple<String, DataSet, String>> dataSets = groupToDataSet
+				.get(group);
+		DataSetFormatParser parser = null;
+		Set<String> optionalInputs = null;
+		List<DataSet> inputs = new ArrayList<DataSet>();
+		// find the parsable dataset
+		for (Triple<String, DataSet, String> triple : dataSets) {
+			if (triple.getSecond().getDataSetFormat() instanceof Parsable) {
+				parser = triple.getSecond().getDataSetFormat()
+						.getDataSetFormatParser();
+				optionalInputs = new HashSet<String>(
+						Arrays.asList(((Parsable) triple.getSecond()
+								.getDataSetFormat()).optionalInputs()));
+				inputs.add(triple.getSecond());
+				break;
+			}
+		}
+		if (parser == null || optionalInputs == null)
+			throw new IllegalArgumentException(
+					"No parser found to parse the datasetconfig");
+		// find optional inputs
+		for (Triple<String, DataSet, String> triple : dataSets) {
+			if (optionalInputs.contains(triple.getSecond().getDataSetFormat()
+					.getClass().getSimpleName()))
+				inputs.add(triple.getSecond());
+		}
+		return Pair.getPair(parser, inputs);
+	}
 }
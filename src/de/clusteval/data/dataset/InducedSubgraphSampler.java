@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.data.dataset;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import utils.Triple;
+import de.clusteval.data.DataConfig;
+import de.clusteval.data.dataset.format.InvalidDataSetFormatVersionException;
+import de.clusteval.data.dataset.format.UnknownDataSetFormatException;
+import edu.uci.ics.jung.graph.DirectedSparseMultigraph;
+
+/**
+ * This class samples induced subgraphs of all networks of a dataset
+ * configuration and writes the dataset files restricted to the sampled
+ * vertices.
+ * 
+ * <p>
+ * The vertices of every network are ordered once and a sample of a fraction f
+ * consists of the first f*|V| vertices of every order. Thus a sample of a
+ * larger fraction contains all samples of smaller fractions. The order of the
+ * first network is a snowball order: starting from a random vertex, the
+ * neighbors of the ordered vertices are appended in random order. The orders
+ * of the other networks start with the counterparts of the vertices of the
+ * first network, in the order of the first network, before they are continued
+ * as snowball orders. Counterparts are the pairs of vertices of different
+ * networks that occur in the first two columns of the dataset files, e.g. in
+ * pairwise sequence similarities. Thus the samples of the networks keep the
+ * aligned structure as far as it is given in the data.
+ * 
+ * <p>
+ * The dataset files are restricted line by line: a line is kept, if all
+ * leading columns that are vertices are contained in the sample; header lines
+ * starting with "//" are always kept. Files whose lines do not start with a
+ * vertex, like GML or LEDA files referring to vertices by indices, cannot be
+ * restricted and are omitted from the sampled dataset configuration. They are
+ * recreated from the other files of the network by the dataset conversion,
+ * when the sampled configuration is converted to the input formats of a
+ * program.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class InducedSubgraphSampler {
+
+	/**
+	 * Creates a sampler for the networks of the given data configuration. The
+	 * dataset configuration is parsed into graphs using a copy, such that the
+	 * given configuration is not loaded into memory.
+	 * 
+	 * @param dataConfig
+	 *            The data configuration to sample from.
+	 * @param seed
+	 *            The seed of the random orders of the vertices.
+	 * @return A sampler for the data configuration.
+	 * @throws IOException
+	 * @throws UnknownDataSetFormatException
+	 * @throws InvalidDataSetFormatVersionException
+	 */
+	public static InducedSubgraphSampler forDataConfig(
+			final DataConfig dataConfig, final long seed) throws IOException,
+			UnknownDataSetFormatException, InvalidDataSetFormatVersionException {
+		DataSetConfig dataSetConfig = dataConfig.getDatasetConfig().clone();
+		dataSetConfig.loadIntoMemory();
+		List<DirectedSparseMultigraph<String, String>> graphs = dataSetConfig
+				.getGraphs();
+		dataSetConfig.unloadFromMemory();
+
+		List<File> files = new ArrayList<File>();
+		for (Triple<String, DataSet, String> dataSet : dataConfig
+				.getDatasetConfig().getDataSets())
+			files.add(new File(dataSet.getSecond().getAbsolutePath()));
+		return new InducedSubgraphSampler(graphs, files, seed);
+	}
+
+	protected Logger log;
+
+	protected final List<DirectedSparseMultigraph<String, String>> graphs;
+
+	/**
+	 * The dataset files, which are scanned for counterparts of vertices.
+	 */
+	protected final List<File> files;
+
+	protected final long seed;
+
+	/**
+	 * The vertices of all networks.
+	 */
+	protected Set<String> vertices;
+
+	/**
+	 * The order of the vertices of every network; computed on first use.
+	 */
+	protected List<List<String>> vertexOrders;
+
+	/**
+	 * @param graphs
+	 *            The networks to sample from.
+	 * @param files
+	 *            The dataset files, which are scanned for counterparts of the
+	 *            vertices of the first network in the other networks.
+	 * @param seed
+	 *            The seed of the random orders of the vertices.
+	 */
+	public InducedSubgraphSampler(
+			final List<DirectedSparseMultigraph<String, String>> graphs,
+			final List<File> files, final long seed) {
+		super();
+		this.log = LoggerFactory.getLogger(this.getClass());
+		this.graphs = graphs;
+		this.files = files;
+		this.seed = seed;
+		this.vertices = new HashSet<String>();
+		for (DirectedSparseMultigraph<String, String> graph : graphs)
+			this.vertices.addAll(graph.getVertices());
+	}
+
+	/**
+	 * @return For every network the order of its vertices, in which they are
+	 *         added to samples of increasing fractions.
+	 * @throws IOException
+	 */
+	public synchronized List<List<String>> getVertexOrders()
+			throws IOException {
+		if (this.vertexOrders == null) {
+			Random random = new Random(this.seed);
+			List<List<String>> orders = new ArrayList<List<String>>();
+			List<Map<String, List<String>>> counterparts = this
+					.findCounterparts();
+			for (int g = 0; g < this.graphs.size(); g++) {
+				List<String> start = new ArrayList<String>();
+				if (g > 0)
+					start = interleaveCounterparts(orders.get(0),
+							counterparts.get(g));
+				orders.add(snowballOrder(this.graphs.get(g), start, random));
+			}
+			this.vertexOrders = orders;
+		}
+		return this.vertexOrders;
+	}
+
+	/**
+	 * @param fraction
+	 *            The fraction of the vertices of every network to sample.
+	 * @return For every network the set of sampled vertices.
+	 * @throws IOException
+	 */
+	public List<Set<String>> sampleVertices(final double fraction)
+			throws IOException {
+		List<Set<String>> result = new ArrayList<Set<String>>();
+		for (List<String> order : this.getVertexOrders()) {
+			int size = Math.min(order.size(),
+					Math.max(1, (int) Math.round(fraction * order.size())));
+			result.add(new HashSet<String>(order.subList(0, size)));
+		}
+		return result;
+	}
+
+	/**
+	 * This method samples induced subgraphs of the networks of the given data
+	 * configuration and writes the restricted dataset files into the target
+	 * folder.
+	 * 
+	 * <p>
+	 * If the target folder contains files of an earlier invocation, they are
+	 * reused.
+	 * 
+	 * @param dataConfig
+	 *            The data configuration this sampler was created for.
+	 * @param fraction
+	 *            The fraction of the vertices of every network to sample.
+	 * @param targetFolder
+	 *            The folder to write the restricted dataset files into.
+	 * @return A copy of the data configuration, whose dataset configuration
+	 *         refers to the restricted dataset files.
+	 * @throws IOException
+	 */
+	public DataConfig sample(final DataConfig dataConfig,
+			final double fraction, final File targetFolder) throws IOException {
+		List<Set<String>> samples = this.sampleVertices(fraction);
+		Set<String> sampled = new HashSet<String>();
+		for (Set<String> sample : samples)
+			sampled.addAll(sample);
+
+		targetFolder.mkdirs();
+		DataConfig result = dataConfig.clone();
+		List<Triple<String, DataSet, String>> dataSets = new ArrayList<Triple<String, DataSet, String>>();
+		for (Triple<String, DataSet, String> dataSet : result
+				.getDatasetConfig().getDataSets()) {
+			File source = new File(dataSet.getSecond().getAbsolutePath());
+			File target = new File(targetFolder, source.getName());
+			if (!target.exists() && !this.writeSample(source, target, sampled)) {
+				this.log.debug("Omitting dataset " + source.getName()
+						+ " from the sample, since its lines do not start with vertices");
+				continue;
+			}
+			DataSet sampledDataSet = dataSet.getSecond();
+			sampledDataSet.setAbsolutePath(target);
+			dataSets.add(Triple.getTriple(dataSet.getFirst(), sampledDataSet,
+					dataSet.getThird()));
+		}
+		result.getDatasetConfig().setDataSets(dataSets);
+		return result;
+	}
+
+	/**
+	 * This method writes the lines of the source file, whose leading vertex
+	 * columns are all sampled, into the target file.
+	 * 
+	 * @param source
+	 *            The dataset file to restrict.
+	 * @param target
+	 *            The file to write the restricted dataset into.
+	 * @param sampled
+	 *            The sampled vertices of all networks.
+	 * @return False, if the lines of the source file do not start with
+	 *         vertices; then no target file is written.
+	 * @throws IOException
+	 */
+	public boolean writeSample(final File source, final File target,
+			final Set<String> sampled) throws IOException {
+		File tmpFile = new File(target.getAbsolutePath() + ".tmp");
+		BufferedReader reader = new BufferedReader(new FileReader(source));
+		try {
+			BufferedWriter writer = new BufferedWriter(new FileWriter(tmpFile));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.startsWith("//") || line.trim().isEmpty()) {
+						writer.write(line);
+						writer.newLine();
+						continue;
+					}
+					String[] columns = line.trim().split("\\s+");
+					if (!this.vertices.contains(columns[0])) {
+						writer.close();
+						tmpFile.delete();
+						return false;
+					}
+					boolean keep = true;
+					for (int i = 0; i < columns.length
+							&& this.vertices.contains(columns[i]); i++)
+						keep &= sampled.contains(columns[i]);
+					if (keep) {
+						writer.write(line);
+						writer.newLine();
+					}
+				}
+			} finally {
+				writer.close();
+			}
+		} finally {
+			reader.close();
+		}
+		if (!tmpFile.renameTo(target)) {
+			tmpFile.delete();
+			throw new IOException("Could not write sampled dataset " + target);
+		}
+		return true;
+	}
+
+	/**
+	 * @return For every network the counterparts of the vertices of the first
+	 *         network in this network, in the order they occur in the files.
+	 * @throws IOException
+	 */
+	protected List<Map<String, List<String>>> findCounterparts()
+			throws IOException {
+		List<Map<String, List<String>>> result = new ArrayList<Map<String, List<String>>>();
+		for (int g = 0; g < this.graphs.size(); g++)
+			result.add(new HashMap<String, List<String>>());
+		if (this.graphs.size() < 2)
+			return result;
+
+		DirectedSparseMultigraph<String, String> first = this.graphs.get(0);
+		for (File file : this.files) {
+			BufferedReader reader = new BufferedReader(new FileReader(file));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.startsWith("//"))
+						continue;
+					String[] columns = line.trim().split("\\s+");
+					if (columns.length < 2)
+						continue;
+					String v = columns[0];
+					String w = columns[1];
+					// edges of the first network are no counterparts
+					if (first.containsVertex(v) && first.containsVertex(w))
+						continue;
+					if (first.containsVertex(w)) {
+						v = columns[1];
+						w = columns[0];
+					} else if (!first.containsVertex(v))
+						continue;
+					for (int g = 1; g < this.graphs.size(); g++) {
+						if (!this.graphs.get(g).containsVertex(w))
+							continue;
+						Map<String, List<String>> map = result.get(g);
+						if (!map.containsKey(v))
+							map.put(v, new ArrayList<String>());
+						map.get(v).add(w);
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Orders the counterparts of the vertices of the first network, such that
+	 * every vertex of the first network contributes its first counterpart,
+	 * before any vertex contributes its second counterpart.
+	 * 
+	 * @param firstOrder
+	 *            The order of the vertices of the first network.
+	 * @param counterparts
+	 *            The counterparts of the vertices of the first network.
+	 * @return The ordered counterparts without duplicates.
+	 */
+	protected static List<String> interleaveCounterparts(
+			final List<String> firstOrder,
+			final Map<String, List<String>> counterparts) {
+		Set<String> result = new LinkedHashSet<String>();
+		boolean found = true;
+		for (int k = 0; found; k++) {
+			found = false;
+			for (String v : firstOrder) {
+				List<String> list = counterparts.get(v);
+				if (list != null && list.size() > k) {
+					result.add(list.get(k));
+					found = true;
+				}
+			}
+		}
+		return new ArrayList<String>(result);
+	}
+
+	/**
+	 * @param graph
+	 *            The network.
+	 * @param start
+	 *            The vertices the order starts with.
+	 * @param random
+	 *            The random generator used to choose between neighbors.
+	 * @return All vertices of the network, starting with the given vertices
+	 *         and continued by the neighbors of the ordered vertices; vertices
+	 *         of further components are started randomly.
+	 */
+	protected static List<String> snowballOrder(
+			final DirectedSparseMultigraph<String, String> graph,
+			final List<String> start, final Random random) {
+		List<String> remaining = sorted(graph.getVertices());
+		Collections.shuffle(remaining, random);
+
+		List<String> order = new ArrayList<String>(start);
+		Set<String> ordered = new HashSet<String>(start);
+		int next = 0;
+		int nextRemaining = 0;
+		while (order.size() < remaining.size()) {
+			if (next < order.size()) {
+				List<String> neighbors = sorted(graph.getNeighbors(order
+						.get(next++)));
+				Collections.shuffle(neighbors, random);
+				for (String neighbor : neighbors)
+					if (ordered.add(neighbor))
+						order.add(neighbor);
+			} else {
+				// start a new component
+				String v = remaining.get(nextRemaining++);
+				if (ordered.add(v))
+					order.add(v);
+			}
+		}
+		return order;
+	}
+
+	protected static List<String> sorted(final Collection<String> vertices) {
+		List<String> result = new ArrayList<String>(vertices);
+		Collections.sort(result);
+		return result;
+	}
+}
@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.data.dataset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import file.FileUtils;
+
+/**
+ * A node id index maps the node ids used inside the files of a dataset (e.g.
+ * the ids of nodes in a GML file) to the labels of the vertices of the parsed
+ * graph.
+ * 
+ * <p>
+ * The index is persisted into a file named after a hash of the contents of the
+ * dataset files, such that it is created only once per dataset content. The
+ * file contains an open addressing hash table, which is memory mapped when the
+ * index is opened. Run result format parsers can therefore translate node ids
+ * in constant time without rebuilding any maps from the graph.
+ * 
+ * <p>
+ * File layout: magic number, version, content hash, number of entries, number
+ * of slots, the slots (offsets of the entries relative to the entry section or
+ * -1) and the entries (length prefixed UTF-8 encoded id and label).
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class NodeIdLabelIndex {
+
+	protected static final int MAGIC = 0x4E494458;
+
+	protected static final int VERSION = 1;
+
+	protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The content hashes computed in this process by the paths, sizes and
+	 * modification times of the hashed files (see
+	 * {@link #computeContentHash(String, File...)}).
+	 */
+	protected static final Map<String, String> contentHashes = new HashMap<String, String>();
+
+	/**
+	 * The file this index was loaded from.
+	 */
+	protected File file;
+
+	/**
+	 * The hash of the contents of the dataset files this index belongs to.
+	 */
+	protected String contentHash;
+
+	/**
+	 * The memory mapped contents of the index file.
+	 */
+	protected ByteBuffer buffer;
+
+	protected int entryCount;
+
+	protected int slotCount;
+
+	protected int slotsOffset;
+
+	protected int entriesOffset;
+
+	/**
+	 * @param file
+	 *            The index file to open.
+	 * @throws IOException
+	 */
+	protected NodeIdLabelIndex(final File file) throws IOException {
+		super();
+		this.file = file;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			// the mapping stays valid after closing the channel
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			raf.close();
+		}
+		if (this.buffer.capacity() < 12 || this.buffer.getInt(0) != MAGIC
+				|| this.buffer.getInt(4) != VERSION)
+			throw new IOException("Invalid node id index file: " + file);
+		int hashLength = this.buffer.getInt(8);
+		byte[] hash = new byte[hashLength];
+		ByteBuffer dup = this.buffer.duplicate();
+		dup.position(12);
+		dup.get(hash);
+		this.contentHash = new String(hash, UTF8);
+		this.entryCount = this.buffer.getInt(12 + hashLength);
+		this.slotCount = this.buffer.getInt(16 + hashLength);
+		this.slotsOffset = 20 + hashLength;
+		this.entriesOffset = this.slotsOffset + 4 * this.slotCount;
+	}
+
+	/**
+	 * @return The hash of the contents of the dataset files this index belongs
+	 *         to.
+	 */
+	public String getContentHash() {
+		return this.contentHash;
+	}
+
+	/**
+	 * @return The file this index was loaded from.
+	 */
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * @return The number of node ids contained in this index.
+	 */
+	public int size() {
+		return this.entryCount;
+	}
+
+	/**
+	 * @param nodeId
+	 *            The node id to look up.
+	 * @return The label of the vertex with the given id, or null if this index
+	 *         does not contain the id.
+	 */
+	public String getLabel(final String nodeId) {
+		if (this.slotCount == 0)
+			return null;
+		final byte[] id = nodeId.getBytes(UTF8);
+		final int mask = this.slotCount - 1;
+		int slot = nodeId.hashCode() & mask;
+		for (int i = 0; i < this.slotCount; i++) {
+			int offset = this.buffer.getInt(this.slotsOffset + 4 * slot);
+			if (offset < 0)
+				return null;
+			int pos = this.entriesOffset + offset;
+			int idLength = this.buffer.getInt(pos);
+			if (idLength == id.length && equalsAt(pos + 4, id)) {
+				pos += 4 + idLength;
+				byte[] label = new byte[this.buffer.getInt(pos)];
+				ByteBuffer dup = this.buffer.duplicate();
+				dup.position(pos + 4);
+				dup.get(label);
+				return new String(label, UTF8);
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	private boolean equalsAt(final int pos, final byte[] bytes) {
+		for (int i = 0; i < bytes.length; i++)
+			if (this.buffer.get(pos + i) != bytes[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * @param indexBasePath
+	 *            The folder containing the index files.
+	 * @param contentHash
+	 *            The hash of the contents of the dataset files.
+	 * @return The memory mapped index for the given content hash, or null if
+	 *         no valid index file exists yet.
+	 */
+	public static NodeIdLabelIndex open(final String indexBasePath,
+			final String contentHash) {
+		final File indexFile = getIndexFile(indexBasePath, contentHash);
+		if (!indexFile.exists())
+			return null;
+		try {
+			NodeIdLabelIndex index = new NodeIdLabelIndex(indexFile);
+			if (index.getContentHash().equals(contentHash))
+				return index;
+		} catch (IOException e) {
+			// corrupt index file; has to be recreated
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the index file for the given content hash from the passed map
+	 * and opens it.
+	 * 
+	 * @param indexBasePath
+	 *            The folder containing the index files.
+	 * @param contentHash
+	 *            The hash of the contents of the dataset files.
+	 * @param nodeIdToLabel
+	 *            The mapping from node ids to vertex labels.
+	 * @return The memory mapped index.
+	 * @throws IOException
+	 */
+	public static NodeIdLabelIndex create(final String indexBasePath,
+			final String contentHash, final Map<String, String> nodeIdToLabel)
+			throws IOException {
+		final File indexFile = getIndexFile(indexBasePath, contentHash);
+		write(indexFile, contentHash, nodeIdToLabel);
+		return new NodeIdLabelIndex(indexFile);
+	}
+
+	protected static File getIndexFile(final String indexBasePath,
+			final String contentHash) {
+		return new File(FileUtils.buildPath(indexBasePath, contentHash
+				+ ".nodeidx"));
+	}
+
+	/**
+	 * Writes the given mapping into an index file. The file is first written
+	 * into a temporary file which is then renamed, such that concurrent readers
+	 * never see a partially written index.
+	 * 
+	 * @param indexFile
+	 *            The target file.
+	 * @param contentHash
+	 *            The hash of the contents of the dataset files.
+	 * @param nodeIdToLabel
+	 *            The mapping from node ids to vertex labels.
+	 * @throws IOException
+	 */
+	protected static void write(final File indexFile, final String contentHash,
+			final Map<String, String> nodeIdToLabel) throws IOException {
+		int slotCount = 1;
+		while (slotCount < 2 * nodeIdToLabel.size())
+			slotCount <<= 1;
+		final int mask = slotCount - 1;
+		final int[] slots = new int[slotCount];
+		Arrays.fill(slots, -1);
+
+		final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+		final DataOutputStream entries = new DataOutputStream(entryBytes);
+		for (Map.Entry<String, String> entry : nodeIdToLabel.entrySet()) {
+			int slot = entry.getKey().hashCode() & mask;
+			while (slots[slot] >= 0)
+				slot = (slot + 1) & mask;
+			slots[slot] = entries.size();
+			byte[] id = entry.getKey().getBytes(UTF8);
+			byte[] label = entry.getValue().getBytes(UTF8);
+			entries.writeInt(id.length);
+			entries.write(id);
+			entries.writeInt(label.length);
+			entries.write(label);
+		}
+		entries.flush();
+
+		indexFile.getParentFile().mkdirs();
+		final File tmpFile = new File(indexFile.getAbsolutePath() + "."
+				+ Thread.currentThread().getId() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tmpFile)));
+		try {
+			byte[] hash = contentHash.getBytes(UTF8);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(hash.length);
+			out.write(hash);
+			out.writeInt(nodeIdToLabel.size());
+			out.writeInt(slotCount);
+			for (int slot : slots)
+				out.writeInt(slot);
+			entryBytes.writeTo(out);
+		} finally {
+			out.close();
+		}
+		if (!tmpFile.renameTo(indexFile)) {
+			indexFile.delete();
+			if (!tmpFile.renameTo(indexFile)) {
+				tmpFile.delete();
+				throw new IOException("Could not write node id index "
+						+ indexFile);
+			}
+		}
+	}
+
+	/**
+	 * @param prefix
+	 *            A prefix that is hashed before the files, e.g. the name of
+	 *            the dataset format the files are parsed with.
+	 * @param dataSets
+	 *            The datasets whose file contents should be hashed.
+	 * @return A hex encoded MD5 hash of the contents of the files of the given
+	 *         datasets.
+	 * @throws IOException
+	 * @see #computeContentHash(String, File...)
+	 */
+	public static String computeContentHash(final String prefix,
+			final List<DataSet> dataSets) throws IOException {
+		final File[] files = new File[dataSets.size()];
+		for (int i = 0; i < files.length; i++)
+			files[i] = new File(dataSets.get(i).getAbsolutePath());
+		return computeContentHash(prefix, files);
+	}
+
+	/**
+	 * The files are only read, if their hash was not computed before in this
+	 * process or if one of them changed since then, i.e. if its size or its
+	 * modification time changed.
+	 * 
+	 * @param prefix
+	 *            A prefix that is hashed before the files, e.g. the name of
+	 *            the dataset format the files are parsed with.
+	 * @param files
+	 *            The files whose contents should be hashed.
+	 * @return A hex encoded MD5 hash of the contents of the given files.
+	 * @throws IOException
+	 */
+	public static String computeContentHash(final String prefix,
+			final File... files) throws IOException {
+		final StringBuilder key = new StringBuilder(prefix);
+		for (File file : files)
+			key.append("\t" + file.getAbsolutePath() + "\t" + file.length()
+					+ "\t" + file.lastModified());
+		synchronized (contentHashes) {
+			final String hash = contentHashes.get(key.toString());
+			if (hash != null)
+				return hash;
+		}
+		final String hash = hashContents(prefix, files);
+		synchronized (contentHashes) {
+			contentHashes.put(key.toString(), hash);
+		}
+		return hash;
+	}
+
+	protected static String hashContents(final String prefix,
+			final File[] files) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		digest.update(prefix.getBytes(UTF8));
+		final byte[] buf = new byte[65536];
+		for (File file : files) {
+			InputStream in = new BufferedInputStream(new FileInputStream(file));
+			try {
+				int read;
+				while ((read = in.read(buf)) > 0)
+					digest.update(buf, 0, read);
+			} finally {
+				in.close();
+			}
+		}
+		final StringBuilder sb = new StringBuilder();
+		for (byte b : digest.digest())
+			sb.append(String.format("%02x", b & 0xff));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.data.dataset;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import file.FileUtils;
+
+/**
+ * A vertex dictionary assigns every vertex label of a graph of a dataset a
+ * fixed index, namely its position in the lexicographically sorted list of
+ * all labels.
+ * 
+ * <p>
+ * Like the {@link NodeIdLabelIndex} the dictionary is persisted into a file
+ * named after the content hash of the dataset files and memory mapped when
+ * opened. Binary encoded graph matchings store vertex indices relative to
+ * this dictionary instead of the labels themselves.
+ * 
+ * <p>
+ * File layout: magic number, version, content hash, number of labels n, n+1
+ * offsets of the labels relative to the label section and the UTF-8 encoded
+ * sorted labels.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class VertexDictionary {
+
+	protected static final int MAGIC = 0x56444354;
+
+	protected static final int VERSION = 1;
+
+	protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+	protected File file;
+
+	protected String contentHash;
+
+	/**
+	 * The memory mapped contents of the dictionary file.
+	 */
+	protected ByteBuffer buffer;
+
+	protected int size;
+
+	protected int offsetsOffset;
+
+	protected int labelsOffset;
+
+	/**
+	 * @param file
+	 *            The dictionary file to open.
+	 * @throws IOException
+	 */
+	protected VertexDictionary(final File file) throws IOException {
+		super();
+		this.file = file;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			raf.close();
+		}
+		if (this.buffer.capacity() < 12 || this.buffer.getInt(0) != MAGIC
+				|| this.buffer.getInt(4) != VERSION)
+			throw new IOException("Invalid vertex dictionary file: " + file);
+		int hashLength = this.buffer.getInt(8);
+		byte[] hash = new byte[hashLength];
+		ByteBuffer dup = this.buffer.duplicate();
+		dup.position(12);
+		dup.get(hash);
+		this.contentHash = new String(hash, UTF8);
+		this.size = this.buffer.getInt(12 + hashLength);
+		this.offsetsOffset = 16 + hashLength;
+		this.labelsOffset = this.offsetsOffset + 4 * (this.size + 1);
+	}
+
+	/**
+	 * @return The hash of the contents of the dataset files this dictionary
+	 *         belongs to.
+	 */
+	public String getContentHash() {
+		return this.contentHash;
+	}
+
+	/**
+	 * @return The number of vertices in this dictionary.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param index
+	 *            The index of the vertex.
+	 * @return The label of the vertex with the given index.
+	 */
+	public String getLabel(final int index) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ this.size);
+		int start = this.buffer.getInt(this.offsetsOffset + 4 * index);
+		int end = this.buffer.getInt(this.offsetsOffset + 4 * (index + 1));
+		byte[] label = new byte[end - start];
+		ByteBuffer dup = this.buffer.duplicate();
+		dup.position(this.labelsOffset + start);
+		dup.get(label);
+		return new String(label, UTF8);
+	}
+
+	/**
+	 * @param label
+	 *            The label of the vertex.
+	 * @return The index of the vertex with the given label, or -1 if the label
+	 *         is not contained in this dictionary.
+	 */
+	public int getIndex(final String label) {
+		int low = 0;
+		int high = this.size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = this.getLabel(mid).compareTo(label);
+			if (cmp < 0)
+				low = mid + 1;
+			else if (cmp > 0)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param dictionaryBasePath
+	 *            The folder containing the dictionary files.
+	 * @param contentHash
+	 *            The hash of the contents of the dataset files.
+	 * @return The memory mapped dictionary for the given content hash, or null
+	 *         if no valid dictionary file exists.
+	 */
+	public static VertexDictionary open(final String dictionaryBasePath,
+			final String contentHash) {
+		final File file = getDictionaryFile(dictionaryBasePath, contentHash);
+		if (!file.exists())
+			return null;
+		try {
+			VertexDictionary dictionary = new VertexDictionary(file);
+			if (dictionary.getContentHash().equals(contentHash))
+				return dictionary;
+		} catch (IOException e) {
+			// corrupt dictionary file; has to be recreated
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the dictionary file for the given content hash containing the
+	 * passed labels and opens it.
+	 * 
+	 * @param dictionaryBasePath
+	 *            The folder containing the dictionary files.
+	 * @param contentHash
+	 *            The hash of the contents of the dataset files.
+	 * @param labels
+	 *            The vertex labels of the graph.
+	 * @return The memory mapped dictionary.
+	 * @throws IOException
+	 */
+	public static VertexDictionary create(final String dictionaryBasePath,
+			final String contentHash, final Collection<String> labels)
+			throws IOException {
+		final File file = getDictionaryFile(dictionaryBasePath, contentHash);
+		final List<String> sorted = new ArrayList<String>(labels);
+		Collections.sort(sorted);
+
+		file.getParentFile().mkdirs();
+		final File tmpFile = new File(file.getAbsolutePath() + "."
+				+ Thread.currentThread().getId() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tmpFile)));
+		try {
+			byte[] hash = contentHash.getBytes(UTF8);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(hash.length);
+			out.write(hash);
+			out.writeInt(sorted.size());
+			List<byte[]> encoded = new ArrayList<byte[]>(sorted.size());
+			int offset = 0;
+			for (String label : sorted) {
+				byte[] bytes = label.getBytes(UTF8);
+				encoded.add(bytes);
+				out.writeInt(offset);
+				offset += bytes.length;
+			}
+			out.writeInt(offset);
+			for (byte[] bytes : encoded)
+				out.write(bytes);
+		} finally {
+			out.close();
+		}
+		if (!tmpFile.renameTo(file)) {
+			file.delete();
+			if (!tmpFile.renameTo(file)) {
+				tmpFile.delete();
+				throw new IOException("Could not write vertex dictionary "
+						+ file);
+			}
+		}
+		return new VertexDictionary(file);
+	}
+
+	protected static File getDictionaryFile(final String dictionaryBasePath,
+			final String contentHash) {
+		return new File(FileUtils.buildPath(dictionaryBasePath, contentHash
+				+ ".vdict"));
+	}
+}
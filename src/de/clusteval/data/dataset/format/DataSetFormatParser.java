@@ -17,7 +17,11 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +45,15 @@ public abstract class DataSetFormatParser {
 	 */
 	protected int version;
 
+	/**
+	 * Formats that refer to nodes by ids different from the vertex labels (e.g.
+	 * GML) can store the mapping from ids to labels in this map during
+	 * {@link #parse(List)}. The mapping is persisted into a
+	 * {@link de.clusteval.data.dataset.NodeIdLabelIndex} by the dataset
+	 * configuration.
+	 */
+	protected Map<String, String> nodeIdToLabel;
+
 	/**
 	 * Instantiates a new data set format parser.
 	 */
@@ -75,6 +88,25 @@ public abstract class DataSetFormatParser {
 			List<DataSet> dataSets) throws IOException,
 			InvalidDataSetFormatVersionException;
 
+	/**
+	 * @param graph
+	 *            The graph parsed by {@link #parse(List)}.
+	 * @return The mapping from node ids in the dataset files to vertex labels
+	 *         of the given graph. If the parser did not fill
+	 *         {@link #nodeIdToLabel}, every vertex label is mapped to itself.
+	 */
+	public Map<String, String> getNodeIdToLabel(
+			final DirectedSparseMultigraph<String, String> graph) {
+		final Map<String, String> result = new HashMap<String, String>();
+		if (this.nodeIdToLabel != null)
+			result.putAll(this.nodeIdToLabel);
+		final Set<String> mappedLabels = new HashSet<String>(result.values());
+		for (String v : graph.getVertices())
+			if (!result.containsKey(v) && !mappedLabels.contains(v))
+				result.put(v, v);
+		return result;
+	}
+
 	/**
 	 * This method writes the contents of the dataset hold in memory to the
 	 * filesystem.
@@ -21,8 +21,14 @@ public class BackendServerConfig {
 
 	protected int numberOfThreads;
 
+	protected long memory;
+
+	protected int maxRunnablesPerClient;
+
 	protected boolean checkForRunResults;
 
+	protected boolean acceptWorkers;
+
 	/**
 	 * 
 	 */
@@ -32,7 +38,10 @@ public class BackendServerConfig {
 		// default values
 		this.numberOfThreads = Math.max((int) (Runtime.getRuntime()
 				.availableProcessors() / 2.0), 1);
+		this.memory = -1;
+		this.maxRunnablesPerClient = -1;
 		this.checkForRunResults = true;
+		this.acceptWorkers = false;
 	}
 
 	/**
@@ -42,6 +51,22 @@ public class BackendServerConfig {
 		return this.numberOfThreads;
 	}
 
+	/**
+	 * @return The memory in megabytes available to runnables executed in
+	 *         parallel, or -1 if memory should not be limited.
+	 */
+	public long getMemory() {
+		return this.memory;
+	}
+
+	/**
+	 * @return The maximal number of runnables of one client executed in
+	 *         parallel, or -1 if unlimited.
+	 */
+	public int getMaxRunnablesPerClient() {
+		return this.maxRunnablesPerClient;
+	}
+
 	/**
 	 * 
 	 * @return True, if this backend server should check for run results in its
@@ -59,4 +84,21 @@ public class BackendServerConfig {
 	public void setCheckForRunResults(final boolean checkForRunResults) {
 		this.checkForRunResults = checkForRunResults;
 	}
+
+	/**
+	 * @return True, if this backend server accepts worker nodes executing the
+	 *         programs of iterations.
+	 */
+	public boolean getAcceptWorkers() {
+		return this.acceptWorkers;
+	}
+
+	/**
+	 * @param acceptWorkers
+	 *            True, if this backend server should accept worker nodes
+	 *            executing the programs of iterations.
+	 */
+	public void setAcceptWorkers(final boolean acceptWorkers) {
+		this.acceptWorkers = acceptWorkers;
+	}
 }
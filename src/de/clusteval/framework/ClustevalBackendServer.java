@@ -54,6 +54,8 @@ import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.ConsoleAppender;
 import ch.qos.logback.core.FileAppender;
+import de.clusteval.framework.distributed.IWorkCoordinator;
+import de.clusteval.framework.distributed.WorkCoordinator;
 import de.clusteval.paramOptimization.IncompatibleParameterOptimizationMethodException;
 import de.clusteval.paramOptimization.InvalidOptimizationParameterException;
 import de.clusteval.paramOptimization.UnknownParameterOptimizationMethodException;
@@ -89,6 +91,7 @@ import de.clusteval.framework.repository.config.RepositoryConfigNotFoundExceptio
 import de.clusteval.framework.repository.config.RepositoryConfigurationException;
 import de.clusteval.framework.threading.SupervisorThread;
 import de.clusteval.program.NoOptimizableProgramParameterException;
+import de.clusteval.program.ParameterSet;
 import de.clusteval.program.Program;
 import de.clusteval.program.UnknownParameterType;
 import de.clusteval.program.UnknownProgramParameterException;
@@ -130,6 +133,13 @@ import format.Formatter;
  * -hostport xxxx under any other port.
  * 
  * <p>
+ * If started with -acceptWorkers, the server additionally registers a
+ * {@link WorkCoordinator} in the RMI registry. Worker nodes (see
+ * {@link ClustevalBackendWorker}) on other machines register there and execute
+ * the programs of iterations, whose qualities are then assessed by this
+ * server.
+ * 
+ * <p>
  * The start of the server requires a running Rserve instance. If this cannot be
  * found, the server will not start.
  * 
@@ -189,6 +199,23 @@ public class ClustevalBackendServer implements IBackendServer {
 		Option optionNoOfThreads = OptionBuilder.create("numberOfThreads");
 		serverCLIOptions.addOption(optionNoOfThreads);
 
+		OptionBuilder.withArgName("megabytes");
+		OptionBuilder.hasArg();
+		OptionBuilder
+				.withDescription("The memory in megabytes available to runnables executed in parallel. By default memory is not limited.");
+		OptionBuilder.withType(Long.class);
+		Option optionMemory = OptionBuilder.create("memory");
+		serverCLIOptions.addOption(optionMemory);
+
+		OptionBuilder.withArgName("number");
+		OptionBuilder.hasArg();
+		OptionBuilder
+				.withDescription("The maximal number of runnables of one client that should be executed in parallel. By default this number is not limited.");
+		OptionBuilder.withType(Integer.class);
+		Option optionMaxRunnablesPerClient = OptionBuilder
+				.create("maxRunnablesPerClient");
+		serverCLIOptions.addOption(optionMaxRunnablesPerClient);
+
 		OptionBuilder.withArgName("check");
 		OptionBuilder.hasArg();
 		OptionBuilder
@@ -196,6 +223,11 @@ public class ClustevalBackendServer implements IBackendServer {
 		OptionBuilder.withType(Boolean.class);
 		Option checkForRunResults = OptionBuilder.create("checkForRunResults");
 		serverCLIOptions.addOption(checkForRunResults);
+
+		OptionBuilder
+				.withDescription("Accept worker nodes, which execute the programs of iterations (see ClustevalBackendWorker).");
+		Option acceptWorkers = OptionBuilder.create("acceptWorkers");
+		serverCLIOptions.addOption(acceptWorkers);
 	}
 
 	/**
@@ -391,10 +423,20 @@ public class ClustevalBackendServer implements IBackendServer {
 				config.numberOfThreads = Integer.parseInt(cmd
 						.getOptionValue("numberOfThreads"));
 
+			if (cmd.hasOption("memory"))
+				config.memory = Long.parseLong(cmd.getOptionValue("memory"));
+
+			if (cmd.hasOption("maxRunnablesPerClient"))
+				config.maxRunnablesPerClient = Integer.parseInt(cmd
+						.getOptionValue("maxRunnablesPerClient"));
+
 			if (cmd.hasOption("checkForRunResults"))
 				config.setCheckForRunResults(Boolean.parseBoolean(cmd
 						.getOptionValue("checkForRunResults")));
 
+			if (cmd.hasOption("acceptWorkers"))
+				config.setAcceptWorkers(true);
+
 			Logger log = LoggerFactory.getLogger(ClustevalBackendServer.class);
 
 			try {
@@ -571,6 +613,14 @@ public class ClustevalBackendServer implements IBackendServer {
 					.exportObject(framework, port);
 			Registry registry = LocateRegistry.getRegistry(port);
 			registry.bind("EvalServer", stub);
+			if (config.getAcceptWorkers()) {
+				WorkCoordinator coordinator = WorkCoordinator.getInstance();
+				coordinator.setRepositoryPath(framework.repository
+						.getBasePath());
+				registry.bind(IWorkCoordinator.NAME, UnicastRemoteObject
+						.exportObject(coordinator, port));
+				log.info("Accepting worker nodes");
+			}
 			log.info("Framework up and listening on port " + port);
 			log.info("Used number of processors: " + config.numberOfThreads);
 			return true;
@@ -608,6 +658,12 @@ public class ClustevalBackendServer implements IBackendServer {
 			Registry registry = LocateRegistry.getRegistry(port);
 			registry.unbind("EvalServer");
 			UnicastRemoteObject.unexportObject(this, true);
+			if (config.getAcceptWorkers()) {
+				registry.unbind(IWorkCoordinator.NAME);
+				UnicastRemoteObject.unexportObject(
+						WorkCoordinator.getInstance(), true);
+				WorkCoordinator.getInstance().shutdown();
+			}
 		} catch (NoSuchObjectException e) {
 			e.printStackTrace();
 		} catch (AccessException e) {
@@ -649,6 +705,40 @@ public class ClustevalBackendServer implements IBackendServer {
 				.getRunStatusForClientId(clientId);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.serverclient.IBackendServer#getQueuePositionsForClientId
+	 * (java.lang.String)
+	 */
+	@Override
+	public Map<String, Pair<Integer, Long>> getQueuePositionsForClientId(
+			String clientId) throws RemoteException {
+		return this.repository.getSupervisorThread().getRunScheduler()
+				.getQueuePositionsForClientId(clientId);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.serverclient.IBackendServer#invalidateExecutionCache(java
+	 * .lang.String)
+	 */
+	@Override
+	public int invalidateExecutionCache(String programConfigName)
+			throws RemoteException {
+		int result;
+		if (programConfigName == null)
+			result = this.repository.getExecutionCache().invalidateAll();
+		else
+			result = this.repository.getExecutionCache().invalidateProgram(
+					programConfigName);
+		this.log.info("Invalidated " + result + " cached executions");
+		return result;
+	}
+
 	// TODO
 	// @Override
 	// public Map<String, Pair<Pair<RUN_STATUS, Float>, Map<Pair<String,
@@ -745,12 +835,94 @@ public class ClustevalBackendServer implements IBackendServer {
 	 * @see serverclient.EvalServer#getRunResults(java.lang.String,
 	 * java.lang.String)
 	 */
-	@SuppressWarnings("unused")
 	@Override
 	public Map<Pair<String, String>, Map<String, Double>> getRunResults(
 			String uniqueRunIdentifier) throws RemoteException {
 		Map<Pair<String, String>, Map<String, Double>> result = new HashMap<Pair<String, String>, Map<String, Double>>();
 
+		for (ParameterOptimizationResult r : this
+				.parseParameterOptimizationResults(uniqueRunIdentifier)) {
+			String dataConfig = r.getMethod().getDataConfig().getName();
+			String programConfig = r.getMethod().getProgramConfig()
+					.getName();
+			Map<String, Double> measureToOptimalQuality = new HashMap<String, Double>();
+			for (QualityMeasure measure : r.getOptimalParameterSets()
+					.keySet()) {
+				measureToOptimalQuality.put(measure.getClass()
+						.getSimpleName(),
+						r.get(r.getOptimalParameterSets().get(measure))
+								.get(measure).getValue());
+			}
+			result.put(Pair.getPair(dataConfig, programConfig),
+					measureToOptimalQuality);
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.serverclient.IBackendServer#getOptimalParameterSets(java
+	 * .lang.String, java.lang.String)
+	 */
+	@Override
+	public Map<Pair<String, String>, Map<String, String>> getOptimalParameterSets(
+			String uniqueRunIdentifier, String qualityMeasure)
+			throws RemoteException {
+		Map<Pair<String, String>, Map<String, String>> result = new HashMap<Pair<String, String>, Map<String, String>>();
+
+		for (ParameterOptimizationResult r : this
+				.parseParameterOptimizationResults(uniqueRunIdentifier)) {
+			for (QualityMeasure measure : r.getOptimalParameterSets()
+					.keySet()) {
+				if (!measure.getClass().getSimpleName().equals(qualityMeasure))
+					continue;
+				result.put(
+						Pair.getPair(r.getMethod().getDataConfig().getName(), r
+								.getMethod().getProgramConfig().getName()),
+						new HashMap<String, String>(r
+								.getOptimalParameterSets().get(measure)));
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.serverclient.IBackendServer#getParetoFronts(java.lang.String
+	 * )
+	 */
+	@Override
+	public Map<Pair<String, String>, List<Map<String, String>>> getParetoFronts(
+			String uniqueRunIdentifier) throws RemoteException {
+		Map<Pair<String, String>, List<Map<String, String>>> result = new HashMap<Pair<String, String>, List<Map<String, String>>>();
+
+		for (ParameterOptimizationResult r : this
+				.parseParameterOptimizationResults(uniqueRunIdentifier)) {
+			List<Map<String, String>> front = new ArrayList<Map<String, String>>();
+			for (ParameterSet paramSet : r.getParetoFront(r.getRun()
+					.getQualityMeasures()))
+				front.add(new HashMap<String, String>(paramSet));
+			result.put(Pair.getPair(r.getMethod().getDataConfig().getName(), r
+					.getMethod().getProgramConfig().getName()), front);
+		}
+		return result;
+	}
+
+	/**
+	 * @param uniqueRunIdentifier
+	 *            The unique run identifier of a run result stored in the
+	 *            corresponding directory of the repository.
+	 * @return The results of the parameter optimization run result, loaded
+	 *         into memory; empty if it could not be parsed.
+	 */
+	@SuppressWarnings("unused")
+	protected List<ParameterOptimizationResult> parseParameterOptimizationResults(
+			final String uniqueRunIdentifier) {
 		List<ParameterOptimizationResult> list = new ArrayList<ParameterOptimizationResult>();
 		try {
 			ParameterOptimizationResult.parseFromRunResultFolder(
@@ -758,21 +930,8 @@ public class ClustevalBackendServer implements IBackendServer {
 					new File(FileUtils.buildPath(
 							repository.getRunResultBasePath(),
 							uniqueRunIdentifier)), list, false, false, false);
-			for (ParameterOptimizationResult r : list) {
-				String dataConfig = r.getMethod().getDataConfig().getName();
-				String programConfig = r.getMethod().getProgramConfig()
-						.getName();
-				Map<String, Double> measureToOptimalQuality = new HashMap<String, Double>();
-				for (QualityMeasure measure : r.getOptimalParameterSets()
-						.keySet()) {
-					measureToOptimalQuality.put(measure.getClass()
-							.getSimpleName(),
-							r.get(r.getOptimalParameterSets().get(measure))
-									.get(measure).getValue());
-				}
-				result.put(Pair.getPair(dataConfig, programConfig),
-						measureToOptimalQuality);
-			}
+			for (ParameterOptimizationResult r : list)
+				r.loadIntoMemory();
 		} catch (GoldStandardConfigurationException e) {
 			e.printStackTrace();
 		} catch (DataSetConfigurationException e) {
@@ -861,7 +1020,7 @@ public class ClustevalBackendServer implements IBackendServer {
 			e.printStackTrace();
 		}
 
-		return result;
+		return list;
 	}
 
 	/*
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework;
+
+import java.io.File;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.Arrays;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.OptionBuilder;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import de.clusteval.framework.distributed.IWorkCoordinator;
+import de.clusteval.framework.distributed.WorkerNode;
+
+/**
+ * The worker node of a backend server. It registers at the coordinator of a
+ * backend server, that was started with the option -acceptWorkers, and
+ * executes the programs of iterations assigned to it.
+ * 
+ * <p>
+ * The repository passed to the worker node has to be the repository of the
+ * backend server, e.g. on a shared filesystem, or a synchronized copy of it
+ * (see {@link WorkerNode}).
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ClustevalBackendWorker {
+
+	/**
+	 * This variable holds the command line options of the worker node.
+	 */
+	public static Options workerCLIOptions = new Options();
+
+	static {
+		OptionBuilder.withArgName("absRepositoryPath");
+		OptionBuilder.hasArg();
+		OptionBuilder.withDescription("The absolute path to the repository");
+		Option optionAbsRepoPath = OptionBuilder.create("absRepoPath");
+		workerCLIOptions.addOption(optionAbsRepoPath);
+
+		OptionBuilder.withDescription("Print this help and usage information");
+		Option optionHelp = OptionBuilder.create("help");
+		workerCLIOptions.addOption(optionHelp);
+
+		OptionBuilder.withArgName("ip");
+		OptionBuilder.hasArg();
+		OptionBuilder.withDescription("The ip address of the backend server");
+		Option optionIp = OptionBuilder.create("ip");
+		workerCLIOptions.addOption(optionIp);
+
+		OptionBuilder.withArgName("port");
+		OptionBuilder.hasArg();
+		OptionBuilder.withDescription("The port of the backend server");
+		Option optionPort = OptionBuilder.create("port");
+		workerCLIOptions.addOption(optionPort);
+
+		OptionBuilder.withArgName("level");
+		OptionBuilder.hasArg();
+		OptionBuilder
+				.withDescription("The verbosity this worker should use during the logging process. 0=ALL, 1=TRACE, 2=DEBUG, 3=INFO, 4=WARN, 5=ERROR, 6=OFF");
+		OptionBuilder.withType(Integer.class);
+		Option optionLogLevel = OptionBuilder.create("logLevel");
+		workerCLIOptions.addOption(optionLogLevel);
+
+		OptionBuilder.withArgName("number");
+		OptionBuilder.hasArg();
+		OptionBuilder
+				.withDescription("The number of cores this worker offers. By default all available cores are offered.");
+		OptionBuilder.withType(Integer.class);
+		Option optionNoOfThreads = OptionBuilder.create("numberOfThreads");
+		workerCLIOptions.addOption(optionNoOfThreads);
+
+		OptionBuilder.withArgName("megabytes");
+		OptionBuilder.hasArg();
+		OptionBuilder
+				.withDescription("The memory in megabytes this worker offers. By default memory is not limited.");
+		OptionBuilder.withType(Long.class);
+		Option optionMemory = OptionBuilder.create("memory");
+		workerCLIOptions.addOption(optionMemory);
+	}
+
+	protected static final Level[] LOG_LEVELS = new Level[]{Level.ALL,
+			Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR,
+			Level.OFF};
+
+	/**
+	 * This method can be used to start a worker node. The args parameter can
+	 * contain the options of {@link #workerCLIOptions}.
+	 * 
+	 * @param args
+	 *            Arguments to control the behaviour of the worker node
+	 */
+	public static void main(String[] args) {
+		Logger log = LoggerFactory.getLogger(ClustevalBackendWorker.class);
+
+		CommandLineParser parser = new PosixParser();
+		try {
+			CommandLine cmd = parser.parse(workerCLIOptions, args);
+
+			if (cmd.hasOption("help")) {
+				HelpFormatter formatter = new HelpFormatter();
+				formatter.printHelp("clustevalWorker",
+						"clusteval backend worker", workerCLIOptions, "");
+				System.exit(0);
+			}
+
+			if (cmd.getArgList().size() > 0)
+				throw new ParseException("Unknown parameters: "
+						+ Arrays.toString(cmd.getArgs()));
+
+			if (cmd.hasOption("logLevel")) {
+				int level = Integer.parseInt(cmd.getOptionValue("logLevel"));
+				if (level < 0 || level >= LOG_LEVELS.length)
+					throw new ParseException(
+							"The logLevel argument requires one of the value of [0,1,2,3,4,5,6]");
+				ClustevalBackendServer.logLevel(LOG_LEVELS[level]);
+			}
+
+			String ip = cmd.hasOption("ip")
+					? cmd.getOptionValue("ip")
+					: "localhost";
+			int port = cmd.hasOption("port") ? Integer.parseInt(cmd
+					.getOptionValue("port")) : 1099;
+			int cores = cmd.hasOption("numberOfThreads") ? Integer
+					.parseInt(cmd.getOptionValue("numberOfThreads")) : Runtime
+					.getRuntime().availableProcessors();
+			long memory = cmd.hasOption("memory") ? Long.parseLong(cmd
+					.getOptionValue("memory")) : -1;
+			String repositoryPath = cmd.hasOption("absRepoPath") ? cmd
+					.getOptionValue("absRepoPath") : new File("repository")
+					.getAbsolutePath();
+
+			Registry registry = LocateRegistry.getRegistry(ip, port);
+			IWorkCoordinator coordinator = (IWorkCoordinator) registry
+					.lookup(IWorkCoordinator.NAME);
+
+			final WorkerNode worker = new WorkerNode(coordinator, cores,
+					memory, repositoryPath);
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+
+				/*
+				 * (non-Javadoc)
+				 * 
+				 * @see java.lang.Thread#run()
+				 */
+				@Override
+				public void run() {
+					try {
+						worker.stop();
+					} catch (InterruptedException e) {
+						// the worker node is terminated anyway
+					}
+				}
+			});
+			worker.start();
+			log.info("Worker node connected to " + ip + ":" + port
+					+ " using repository '" + repositoryPath + "'");
+		} catch (ParseException e) {
+			System.err.println("Parsing failed.  Reason: " + e.getMessage());
+
+			HelpFormatter formatter = new HelpFormatter();
+			formatter.printHelp("clustevalWorker", "clusteval backend worker",
+					workerCLIOptions, "");
+		} catch (RemoteException e) {
+			log.error("Could not connect to the backend server: "
+					+ e.getMessage());
+		} catch (NotBoundException e) {
+			log.error("The backend server does not accept workers; start it with -acceptWorkers");
+		}
+	}
+}
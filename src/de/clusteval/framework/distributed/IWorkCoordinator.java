@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.Collection;
+
+/**
+ * The interface of the coordinator of a backend server towards its worker
+ * nodes. Worker nodes register with the resources they offer, pull remote
+ * executions and stream back their results. All calls are initiated by the
+ * worker nodes.
+ * 
+ * @author Christian Wiwie
+ */
+public interface IWorkCoordinator extends Remote {
+
+	/**
+	 * The name the coordinator is bound to in the RMI registry of the backend
+	 * server.
+	 */
+	public static final String NAME = "WorkCoordinator";
+
+	/**
+	 * @param host
+	 *            The host name of the worker node.
+	 * @param cores
+	 *            The number of cores the worker node offers.
+	 * @param memory
+	 *            The memory in megabytes the worker node offers, or -1 if
+	 *            memory should not be limited.
+	 * @param repositoryPath
+	 *            The absolute path of the repository of the worker node.
+	 * @return The registration of the worker node.
+	 * @throws RemoteException
+	 */
+	public WorkerRegistration register(final String host, final int cores,
+			final long memory, final String repositoryPath)
+			throws RemoteException;
+
+	/**
+	 * Assigns the next remote execution fitting into the free resources of
+	 * the worker node to it. If there is none, this method blocks until there
+	 * is one or the timeout has elapsed.
+	 * 
+	 * @param workerId
+	 *            The id of the worker node.
+	 * @param timeout
+	 *            The maximal time in milliseconds to wait.
+	 * @return The remote execution or null, if there was none.
+	 * @throws RemoteException
+	 * @throws UnknownWorkerException
+	 *             If the worker node is not registered.
+	 */
+	public RemoteExecution pull(final String workerId, final long timeout)
+			throws RemoteException, UnknownWorkerException;
+
+	/**
+	 * @param workerId
+	 *            The id of the worker node.
+	 * @param result
+	 *            The result of a remote execution assigned to the worker node.
+	 * @throws RemoteException
+	 * @throws UnknownWorkerException
+	 *             If the worker node is not registered; then the remote
+	 *             execution has been rescheduled.
+	 */
+	public void complete(final String workerId,
+			final RemoteExecutionResult result) throws RemoteException,
+			UnknownWorkerException;
+
+	/**
+	 * Signals that the worker node is alive. Worker nodes that do not send
+	 * heartbeats are considered lost and their remote executions are
+	 * rescheduled.
+	 * 
+	 * @param workerId
+	 *            The id of the worker node.
+	 * @return The ids of the remote executions assigned to the worker node,
+	 *         that have been cancelled and should be terminated.
+	 * @throws RemoteException
+	 * @throws UnknownWorkerException
+	 *             If the worker node is not registered.
+	 */
+	public Collection<String> heartbeat(final String workerId)
+			throws RemoteException, UnknownWorkerException;
+
+	/**
+	 * Unregisters the worker node; its remote executions are rescheduled.
+	 * 
+	 * @param workerId
+	 *            The id of the worker node.
+	 * @throws RemoteException
+	 */
+	public void unregister(final String workerId) throws RemoteException;
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+/**
+ * Thrown, if a remote execution cannot be executed, because no worker node is
+ * registered at the coordinator; it can be executed locally instead.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class NoWorkerAvailableException extends Exception {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 6517940022371835317L;
+
+	/**
+	 * @param message
+	 * 
+	 */
+	public NoWorkerAvailableException(final String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.clusteval.framework.threading.ResourceDemand;
+
+/**
+ * The execution of a program in one iteration of a run, which is executed by
+ * a worker node.
+ * 
+ * <p>
+ * All paths are absolute paths in the repository of the coordinator. A worker
+ * node executes the invocation line in a process with the given working
+ * directory and environment, redirects the output of the process into the log
+ * file and streams back the log file and the output files, i.e. all files in
+ * the directory of the result file whose names start with the name of the
+ * result file.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class RemoteExecution implements Serializable {
+
+	private static final long serialVersionUID = 4409720871573306482L;
+
+	protected String id;
+
+	protected final String[] invocation;
+
+	protected final String directory;
+
+	protected final HashMap<String, String> environment;
+
+	protected final String logFile;
+
+	protected final String resultFile;
+
+	protected final long maxTime;
+
+	protected final ResourceDemand demand;
+
+	/**
+	 * The number of times this execution has been assigned to a worker node.
+	 */
+	protected int attempts;
+
+	/**
+	 * @param invocation
+	 *            The invocation line of the program.
+	 * @param directory
+	 *            The working directory of the process.
+	 * @param environment
+	 *            The environment of the process.
+	 * @param logFile
+	 *            The file the output of the process is written to.
+	 * @param resultFile
+	 *            The result file of the program.
+	 * @param maxTime
+	 *            The maximal time in seconds the process may run, or a
+	 *            negative value if its time is not limited.
+	 * @param demand
+	 *            The resources the process needs.
+	 */
+	public RemoteExecution(final String[] invocation, final File directory,
+			final Map<String, String> environment, final File logFile,
+			final File resultFile, final long maxTime,
+			final ResourceDemand demand) {
+		super();
+		this.invocation = invocation.clone();
+		this.directory = directory.getAbsolutePath();
+		this.environment = new HashMap<String, String>(environment);
+		this.logFile = logFile.getAbsolutePath();
+		this.resultFile = resultFile.getAbsolutePath();
+		this.maxTime = maxTime;
+		this.demand = demand;
+	}
+
+	/**
+	 * @return The id assigned by the coordinator.
+	 */
+	public String getId() {
+		return this.id;
+	}
+
+	/**
+	 * @return The invocation line of the program.
+	 */
+	public String[] getInvocation() {
+		return this.invocation;
+	}
+
+	/**
+	 * @return The absolute path of the working directory of the process.
+	 */
+	public String getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * @return The environment of the process.
+	 */
+	public Map<String, String> getEnvironment() {
+		return this.environment;
+	}
+
+	/**
+	 * @return The absolute path of the file the output of the process is
+	 *         written to.
+	 */
+	public String getLogFile() {
+		return this.logFile;
+	}
+
+	/**
+	 * @return The absolute path of the result file of the program.
+	 */
+	public String getResultFile() {
+		return this.resultFile;
+	}
+
+	/**
+	 * @return The maximal time in seconds the process may run, or a negative
+	 *         value if its time is not limited.
+	 */
+	public long getMaxTime() {
+		return this.maxTime;
+	}
+
+	/**
+	 * @return The resources the process needs.
+	 */
+	public ResourceDemand getDemand() {
+		return this.demand;
+	}
+
+	/**
+	 * @return The number of times this execution has been assigned to a
+	 *         worker node.
+	 */
+	public int getAttempts() {
+		return this.attempts;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "RemoteExecution[" + this.id + "]";
+	}
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+/**
+ * Thrown, if a remote execution failed on the worker nodes, e.g. because all
+ * worker nodes it was assigned to were lost.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class RemoteExecutionException extends Exception {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -1428856094218571037L;
+
+	/**
+	 * @param message
+	 * 
+	 */
+	public RemoteExecutionException(final String message) {
+		super(message);
+	}
+}
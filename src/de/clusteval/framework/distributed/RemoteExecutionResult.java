@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.clusteval.framework.threading.ProcessUsage;
+
+/**
+ * The result of a {@link RemoteExecution} streamed back by a worker node: the
+ * termination of the process, the resources it used and the contents of its
+ * log and output files.
+ * 
+ * <p>
+ * If the worker node uses the same repository as the coordinator, e.g. on a
+ * shared filesystem, the files are already in place and no contents are
+ * transferred.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class RemoteExecutionResult implements Serializable {
+
+	private static final long serialVersionUID = -6044385409516829437L;
+
+	protected final String executionId;
+
+	protected String workerId;
+
+	protected boolean executed;
+
+	protected String error;
+
+	protected boolean killed;
+
+	protected int exitValue;
+
+	protected long cpuTime;
+
+	protected long peakMemory;
+
+	protected long readBytes;
+
+	protected long writeBytes;
+
+	protected int sampleCount;
+
+	/**
+	 * The contents of the log and output files by their absolute paths in the
+	 * repository of the coordinator.
+	 */
+	protected final HashMap<String, byte[]> files;
+
+	/**
+	 * @param executionId
+	 *            The id of the remote execution.
+	 */
+	public RemoteExecutionResult(final String executionId) {
+		super();
+		this.executionId = executionId;
+		this.files = new HashMap<String, byte[]>();
+		this.exitValue = -1;
+	}
+
+	/**
+	 * @return The id of the remote execution.
+	 */
+	public String getExecutionId() {
+		return this.executionId;
+	}
+
+	/**
+	 * @return The id of the worker node that executed the process.
+	 */
+	public String getWorkerId() {
+		return this.workerId;
+	}
+
+	/**
+	 * @return False, if the process could not be started on the worker node
+	 *         (see {@link #getError()}).
+	 */
+	public boolean isExecuted() {
+		return this.executed;
+	}
+
+	/**
+	 * @return The reason why the process could not be started, or null.
+	 */
+	public String getError() {
+		return this.error;
+	}
+
+	/**
+	 * @return True, if the process was killed, because it was running longer
+	 *         than the maximal time.
+	 */
+	public boolean isKilled() {
+		return this.killed;
+	}
+
+	/**
+	 * @return The exit value of the process.
+	 */
+	public int getExitValue() {
+		return this.exitValue;
+	}
+
+	/**
+	 * @return The contents of the log and output files by their absolute
+	 *         paths in the repository of the coordinator.
+	 */
+	public Map<String, byte[]> getFiles() {
+		return this.files;
+	}
+
+	/**
+	 * @param usage
+	 *            The resources used by the process as sampled on the worker
+	 *            node.
+	 */
+	public void setUsage(final ProcessUsage usage) {
+		this.cpuTime = usage.getCpuTime();
+		this.peakMemory = usage.getPeakMemory();
+		this.readBytes = usage.getReadBytes();
+		this.writeBytes = usage.getWriteBytes();
+		this.sampleCount = usage.getSampleCount();
+		this.killed = usage.isKilled();
+	}
+
+	/**
+	 * Adds the resources used by the process to the given process usage.
+	 * 
+	 * @param usage
+	 *            The process usage of the iteration on the coordinator.
+	 */
+	public void addUsageTo(final ProcessUsage usage) {
+		usage.record(this.cpuTime, this.peakMemory, this.readBytes,
+				this.writeBytes, this.sampleCount);
+		usage.setKilled(this.killed);
+	}
+
+	/**
+	 * Writes the transferred files into the repository of the coordinator.
+	 * 
+	 * @throws IOException
+	 */
+	public void writeFiles() throws IOException {
+		for (Map.Entry<String, byte[]> file : this.files.entrySet()) {
+			File f = new File(file.getKey());
+			f.getParentFile().mkdirs();
+			OutputStream out = new FileOutputStream(f);
+			try {
+				out.write(file.getValue());
+			} finally {
+				out.close();
+			}
+		}
+	}
+}
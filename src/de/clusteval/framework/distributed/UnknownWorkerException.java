@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+/**
+ * Thrown by the coordinator, if a worker node is not registered (anymore),
+ * e.g. because it was considered lost. The worker node has to register again.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class UnknownWorkerException extends Exception {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -3301872561929840542L;
+
+	/**
+	 * @param message
+	 * 
+	 */
+	public UnknownWorkerException(final String message) {
+		super(message);
+	}
+}
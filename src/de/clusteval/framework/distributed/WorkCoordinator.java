@@ -0,0 +1,585 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.clusteval.framework.threading.ResourceDemand;
+
+/**
+ * The coordinator distributes remote executions to the worker nodes
+ * registered at it.
+ * 
+ * <p>
+ * Worker nodes register with the number of cores and the memory they offer
+ * and pull remote executions, as long as these fit into their free resources
+ * (see {@link ResourceDemand}). Remote executions are assigned in the order of
+ * their submission; an execution that does not fit into the free resources of
+ * a worker node may be passed by later ones. Demands larger than the
+ * resources of a worker node are reduced to them, such that such an execution
+ * runs alone on the worker node.
+ * 
+ * <p>
+ * Worker nodes that neither send heartbeats nor pull executions for longer
+ * than the worker timeout are considered lost. Their executions are
+ * rescheduled at the head of the queue, unless they have already been
+ * assigned the maximal number of times; then they fail with a
+ * {@link RemoteExecutionException}. If the last worker node is lost, all
+ * waiting executions fail with a {@link NoWorkerAvailableException}, such that
+ * they can be executed locally.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class WorkCoordinator implements IWorkCoordinator {
+
+	/**
+	 * The default time in milliseconds after which a silent worker node is
+	 * considered lost.
+	 */
+	public static final long DEFAULT_WORKER_TIMEOUT = 30000;
+
+	/**
+	 * The default maximal number of times a remote execution is assigned to
+	 * worker nodes.
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	protected static WorkCoordinator instance;
+
+	/**
+	 * @return The coordinator of this process.
+	 */
+	public static synchronized WorkCoordinator getInstance() {
+		if (instance == null)
+			instance = new WorkCoordinator(DEFAULT_WORKER_TIMEOUT,
+					DEFAULT_MAX_ATTEMPTS);
+		return instance;
+	}
+
+	/**
+	 * A submitted remote execution, which is completed when its result is
+	 * streamed back by a worker node.
+	 */
+	protected class Execution extends FutureTask<RemoteExecutionResult> {
+
+		protected final RemoteExecution execution;
+
+		/**
+		 * The worker node the execution is assigned to, or null if it is
+		 * waiting.
+		 */
+		protected Worker worker;
+
+		protected Execution(final RemoteExecution execution) {
+			super(new Callable<RemoteExecutionResult>() {
+
+				/*
+				 * (non-Javadoc)
+				 * 
+				 * @see java.util.concurrent.Callable#call()
+				 */
+				@Override
+				public RemoteExecutionResult call() throws Exception {
+					throw new UnsupportedOperationException(
+							"Remote executions are executed by worker nodes");
+				}
+			});
+			this.execution = execution;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.FutureTask#set(java.lang.Object)
+		 */
+		@Override
+		protected void set(RemoteExecutionResult v) {
+			super.set(v);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * java.util.concurrent.FutureTask#setException(java.lang.Throwable)
+		 */
+		@Override
+		protected void setException(Throwable t) {
+			super.setException(t);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.FutureTask#cancel(boolean)
+		 */
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean result = super.cancel(mayInterruptIfRunning);
+			if (result)
+				cancelled(this);
+			return result;
+		}
+	}
+
+	/**
+	 * A registered worker node together with its assigned executions.
+	 */
+	protected class Worker {
+
+		protected final String id;
+
+		protected final int cores;
+
+		protected final long memory;
+
+		protected int usedCores;
+
+		protected long usedMemory;
+
+		protected long lastContact;
+
+		protected final Map<String, Execution> executions;
+
+		/**
+		 * The ids of assigned executions that have been cancelled.
+		 */
+		protected final Set<String> cancelled;
+
+		protected Worker(final String id, final int cores, final long memory) {
+			super();
+			this.id = id;
+			this.cores = cores;
+			this.memory = memory;
+			this.lastContact = System.currentTimeMillis();
+			this.executions = new LinkedHashMap<String, Execution>();
+			this.cancelled = new HashSet<String>();
+		}
+
+		/**
+		 * @param demand
+		 *            A resource demand.
+		 * @return The demand reduced to the resources of this worker node.
+		 */
+		protected ResourceDemand fit(final ResourceDemand demand) {
+			return new ResourceDemand(Math.min(demand.getCores(), this.cores),
+					this.memory < 0 ? 0 : Math.min(demand.getMemory(),
+							this.memory));
+		}
+
+		/**
+		 * @param demand
+		 *            A resource demand.
+		 * @return True, if the demand fits into the free resources.
+		 */
+		protected boolean fits(final ResourceDemand demand) {
+			ResourceDemand fitted = this.fit(demand);
+			return this.usedCores + fitted.getCores() <= this.cores
+					&& (this.memory < 0 || this.usedMemory
+							+ fitted.getMemory() <= this.memory);
+		}
+
+		protected void assign(final Execution execution) {
+			ResourceDemand fitted = this.fit(execution.execution.demand);
+			this.usedCores += fitted.getCores();
+			this.usedMemory += fitted.getMemory();
+			this.executions.put(execution.execution.id, execution);
+			execution.worker = this;
+			execution.execution.attempts++;
+		}
+
+		protected Execution release(final String executionId) {
+			Execution execution = this.executions.remove(executionId);
+			if (execution != null) {
+				ResourceDemand fitted = this.fit(execution.execution.demand);
+				this.usedCores -= fitted.getCores();
+				this.usedMemory -= fitted.getMemory();
+				this.cancelled.remove(executionId);
+				execution.worker = null;
+			}
+			return execution;
+		}
+	}
+
+	protected final long workerTimeout;
+
+	protected final int maxAttempts;
+
+	protected final LinkedList<Execution> queue;
+
+	protected final Map<String, Worker> workers;
+
+	protected String repositoryPath;
+
+	protected long idCounter;
+
+	protected ScheduledExecutorService supervisor;
+
+	protected Logger log;
+
+	/**
+	 * @param workerTimeout
+	 *            The time in milliseconds after which a silent worker node is
+	 *            considered lost.
+	 * @param maxAttempts
+	 *            The maximal number of times a remote execution is assigned to
+	 *            worker nodes.
+	 */
+	public WorkCoordinator(final long workerTimeout, final int maxAttempts) {
+		super();
+		if (workerTimeout < 1 || maxAttempts < 1)
+			throw new IllegalArgumentException(
+					"The worker timeout and the maximal attempts have to be positive");
+		this.log = LoggerFactory.getLogger(this.getClass());
+		this.workerTimeout = workerTimeout;
+		this.maxAttempts = maxAttempts;
+		this.queue = new LinkedList<Execution>();
+		this.workers = new LinkedHashMap<String, Worker>();
+	}
+
+	/**
+	 * @param repositoryPath
+	 *            The absolute path of the repository of the backend server,
+	 *            which is replaced by worker nodes with the path of their
+	 *            repository.
+	 */
+	public synchronized void setRepositoryPath(final String repositoryPath) {
+		this.repositoryPath = repositoryPath;
+	}
+
+	/**
+	 * Submits a remote execution, which is executed by the next worker node
+	 * with enough free resources.
+	 * 
+	 * @param execution
+	 *            The remote execution.
+	 * @return A future representing the result of the execution; cancelling
+	 *         it terminates the process on the worker node.
+	 * @throws NoWorkerAvailableException
+	 *             If no worker node is registered.
+	 */
+	public synchronized Future<RemoteExecutionResult> submit(
+			final RemoteExecution execution) throws NoWorkerAvailableException {
+		if (this.workers.isEmpty())
+			throw new NoWorkerAvailableException("No worker node is registered");
+		execution.id = "execution" + (++this.idCounter);
+		execution.attempts = 0;
+		Execution result = new Execution(execution);
+		this.queue.add(result);
+		this.notifyAll();
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.framework.distributed.IWorkCoordinator#register(java.lang
+	 * .String, int, long, java.lang.String)
+	 */
+	@Override
+	public synchronized WorkerRegistration register(final String host,
+			final int cores, final long memory, final String repositoryPath) {
+		Worker worker = new Worker(host + "#" + (++this.idCounter), Math.max(
+				cores, 1), memory);
+		this.workers.put(worker.id, worker);
+		if (this.supervisor == null)
+			this.startSupervisor();
+		this.log.info("Registered worker node " + worker.id + " with "
+				+ new ResourceDemand(worker.cores, Math.max(memory, 0))
+				+ " and repository '" + repositoryPath + "'");
+		this.notifyAll();
+		return new WorkerRegistration(worker.id, this.workerTimeout / 3,
+				this.repositoryPath);
+	}
+
+	protected void startSupervisor() {
+		this.supervisor = new ScheduledThreadPoolExecutor(1,
+				new ThreadFactory() {
+
+					/*
+					 * (non-Javadoc)
+					 * 
+					 * @see
+					 * java.util.concurrent.ThreadFactory#newThread(java.lang
+					 * .Runnable)
+					 */
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "WorkCoordinator");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		this.supervisor.scheduleWithFixedDelay(new Runnable() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				checkWorkers();
+			}
+		}, this.workerTimeout / 2, this.workerTimeout / 2,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Removes worker nodes that have been silent for longer than the worker
+	 * timeout.
+	 */
+	protected synchronized void checkWorkers() {
+		long now = System.currentTimeMillis();
+		for (Worker worker : new ArrayList<Worker>(this.workers.values()))
+			if (now - worker.lastContact > this.workerTimeout) {
+				this.log.warn("Lost worker node " + worker.id + " with "
+						+ worker.executions.size() + " assigned executions");
+				this.workers.remove(worker.id);
+				this.reschedule(worker);
+			}
+	}
+
+	/**
+	 * Puts the executions of a removed worker node back into the queue.
+	 * 
+	 * @param worker
+	 *            The removed worker node.
+	 */
+	protected void reschedule(final Worker worker) {
+		List<Execution> executions = new ArrayList<Execution>(
+				worker.executions.values());
+		// the oldest execution becomes the head of the queue
+		ListIterator<Execution> it = executions.listIterator(executions.size());
+		while (it.hasPrevious()) {
+			Execution execution = it.previous();
+			worker.release(execution.execution.id);
+			if (execution.isDone())
+				continue;
+			if (execution.execution.attempts >= this.maxAttempts)
+				execution.setException(new RemoteExecutionException(
+						execution.execution + " failed on "
+								+ execution.execution.attempts
+								+ " worker nodes"));
+			else
+				this.queue.addFirst(execution);
+		}
+		if (this.workers.isEmpty()) {
+			for (Execution execution : this.queue)
+				execution.setException(new NoWorkerAvailableException(
+						"No worker node is registered"));
+			this.queue.clear();
+		}
+		this.notifyAll();
+	}
+
+	protected Worker getWorker(final String workerId)
+			throws UnknownWorkerException {
+		Worker worker = this.workers.get(workerId);
+		if (worker == null)
+			throw new UnknownWorkerException("The worker node " + workerId
+					+ " is not registered");
+		worker.lastContact = System.currentTimeMillis();
+		return worker;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.framework.distributed.IWorkCoordinator#pull(java.lang.String
+	 * , long)
+	 */
+	@Override
+	public synchronized RemoteExecution pull(final String workerId,
+			final long timeout) throws UnknownWorkerException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while (true) {
+			Worker worker = this.getWorker(workerId);
+			Iterator<Execution> it = this.queue.iterator();
+			while (it.hasNext()) {
+				Execution execution = it.next();
+				if (worker.fits(execution.execution.demand)) {
+					it.remove();
+					worker.assign(execution);
+					this.log.debug("Assigned " + execution.execution
+							+ " to worker node " + workerId);
+					return execution.execution;
+				}
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0)
+				return null;
+			try {
+				this.wait(remaining);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.framework.distributed.IWorkCoordinator#complete(java.lang
+	 * .String, de.clusteval.framework.distributed.RemoteExecutionResult)
+	 */
+	@Override
+	public void complete(final String workerId,
+			final RemoteExecutionResult result) throws UnknownWorkerException {
+		Execution execution;
+		synchronized (this) {
+			Worker worker = this.getWorker(workerId);
+			execution = worker.release(result.getExecutionId());
+			if (execution == null || execution.isDone()) {
+				this.notifyAll();
+				return;
+			}
+			if (!result.isExecuted()) {
+				this.log.warn(execution.execution
+						+ " could not be executed on worker node " + workerId
+						+ ": " + result.getError());
+				if (execution.execution.attempts < this.maxAttempts) {
+					this.queue.addFirst(execution);
+					this.notifyAll();
+					return;
+				}
+			}
+			this.notifyAll();
+		}
+		if (!result.isExecuted()) {
+			execution.setException(new RemoteExecutionException(
+					execution.execution + " could not be executed: "
+							+ result.getError()));
+			return;
+		}
+		result.workerId = workerId;
+		try {
+			result.writeFiles();
+			execution.set(result);
+		} catch (IOException e) {
+			execution.setException(new RemoteExecutionException(
+					"Could not write the files of " + execution.execution
+							+ ": " + e.getMessage()));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.framework.distributed.IWorkCoordinator#heartbeat(java.lang
+	 * .String)
+	 */
+	@Override
+	public synchronized Collection<String> heartbeat(final String workerId)
+			throws UnknownWorkerException {
+		Worker worker = this.getWorker(workerId);
+		return new ArrayList<String>(worker.cancelled);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.framework.distributed.IWorkCoordinator#unregister(java.lang
+	 * .String)
+	 */
+	@Override
+	public synchronized void unregister(final String workerId) {
+		Worker worker = this.workers.remove(workerId);
+		if (worker == null)
+			return;
+		this.log.info("Unregistered worker node " + workerId);
+		this.reschedule(worker);
+	}
+
+	protected synchronized void cancelled(final Execution execution) {
+		if (execution.worker != null)
+			// the worker node terminates the process with its next heartbeat
+			execution.worker.cancelled.add(execution.execution.id);
+		else
+			this.queue.remove(execution);
+	}
+
+	/**
+	 * @return True, if at least one worker node is registered.
+	 */
+	public synchronized boolean hasWorkers() {
+		return !this.workers.isEmpty();
+	}
+
+	/**
+	 * @return The number of registered worker nodes.
+	 */
+	public synchronized int getWorkerCount() {
+		return this.workers.size();
+	}
+
+	/**
+	 * @return The number of waiting remote executions.
+	 */
+	public synchronized int getWaitingCount() {
+		return this.queue.size();
+	}
+
+	/**
+	 * @return The number of remote executions assigned to worker nodes.
+	 */
+	public synchronized int getRunningCount() {
+		int result = 0;
+		for (Worker worker : this.workers.values())
+			result += worker.executions.size();
+		return result;
+	}
+
+	/**
+	 * Stops the supervision of the worker nodes; all waiting remote executions
+	 * fail with a {@link NoWorkerAvailableException}.
+	 */
+	public synchronized void shutdown() {
+		if (this.supervisor != null)
+			this.supervisor.shutdownNow();
+		this.supervisor = null;
+		for (Execution execution : this.queue)
+			execution.setException(new NoWorkerAvailableException(
+					"The coordinator has been shut down"));
+		this.queue.clear();
+		this.notifyAll();
+	}
+}
@@ -0,0 +1,445 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.clusteval.framework.threading.ProcessSupervisor;
+import de.clusteval.framework.threading.ProcessUsage;
+
+/**
+ * A worker node executes remote executions pulled from a
+ * {@link IWorkCoordinator}.
+ * 
+ * <p>
+ * The worker node registers with the number of cores and the memory it
+ * offers. One thread per core pulls remote executions and executes them one
+ * after another; the coordinator only assigns executions that fit into the
+ * free resources of the worker node. A further thread sends heartbeats and
+ * terminates cancelled executions. If the coordinator does not know the
+ * worker node anymore, e.g. because it was considered lost, the worker node
+ * registers again.
+ * 
+ * <p>
+ * The repository of the worker node has to contain the programs and data sets
+ * of the repository of the coordinator at the same relative paths, e.g. it is
+ * a synchronized copy. Paths in remote executions are mapped from the
+ * repository of the coordinator to the repository of the worker node. If both
+ * are the same, e.g. on a shared filesystem, no files are transferred;
+ * otherwise the log and output files are streamed back with the results.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class WorkerNode {
+
+	/**
+	 * The maximal time in milliseconds a pull waits for a remote execution.
+	 */
+	protected static final long PULL_TIMEOUT = 5000;
+
+	/**
+	 * The time in milliseconds to wait before contacting an unreachable
+	 * coordinator again.
+	 */
+	protected static final long RETRY_DELAY = 1000;
+
+	protected final IWorkCoordinator coordinator;
+
+	protected final int cores;
+
+	protected final long memory;
+
+	protected final String repositoryPath;
+
+	protected final String host;
+
+	protected WorkerRegistration registration;
+
+	/**
+	 * The threads executing remote executions by the ids of the executions.
+	 */
+	protected final Map<String, Thread> running;
+
+	protected final List<Thread> threads;
+
+	protected volatile boolean stopped;
+
+	protected Logger log;
+
+	/**
+	 * @param coordinator
+	 *            The coordinator to pull remote executions from.
+	 * @param cores
+	 *            The number of cores this worker node offers.
+	 * @param memory
+	 *            The memory in megabytes this worker node offers, or -1 if
+	 *            memory should not be limited.
+	 * @param repositoryPath
+	 *            The absolute path of the repository of this worker node.
+	 */
+	public WorkerNode(final IWorkCoordinator coordinator, final int cores,
+			final long memory, final String repositoryPath) {
+		super();
+		this.log = LoggerFactory.getLogger(this.getClass());
+		this.coordinator = coordinator;
+		this.cores = Math.max(cores, 1);
+		this.memory = memory;
+		this.repositoryPath = new File(repositoryPath).getAbsolutePath();
+		this.host = getHostName();
+		this.running = new HashMap<String, Thread>();
+		this.threads = new ArrayList<Thread>();
+	}
+
+	protected static String getHostName() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			return "localhost";
+		}
+	}
+
+	/**
+	 * Starts the threads of this worker node.
+	 */
+	public synchronized void start() {
+		for (int i = 0; i < this.cores; i++) {
+			Thread thread = new Thread(new Runnable() {
+
+				/*
+				 * (non-Javadoc)
+				 * 
+				 * @see java.lang.Runnable#run()
+				 */
+				@Override
+				public void run() {
+					work();
+				}
+			}, "WorkerNode-" + i);
+			this.threads.add(thread);
+			thread.start();
+		}
+		Thread heartbeat = new Thread(new Runnable() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				heartbeat();
+			}
+		}, "WorkerNode-Heartbeat");
+		heartbeat.setDaemon(true);
+		this.threads.add(heartbeat);
+		heartbeat.start();
+	}
+
+	/**
+	 * Stops the threads of this worker node, terminates running executions
+	 * and unregisters it at the coordinator, which reschedules the executions.
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void stop() throws InterruptedException {
+		this.stopped = true;
+		List<Thread> threads;
+		synchronized (this) {
+			threads = new ArrayList<Thread>(this.threads);
+		}
+		for (Thread thread : threads)
+			thread.interrupt();
+		for (Thread thread : threads)
+			thread.join();
+		WorkerRegistration registration = this.getRegistration(false);
+		if (registration != null)
+			try {
+				this.coordinator.unregister(registration.getWorkerId());
+			} catch (RemoteException e) {
+				this.log.warn("Could not unregister from the coordinator: "
+						+ e.getMessage());
+			}
+	}
+
+	/**
+	 * @param register
+	 *            Whether to register at the coordinator, if this worker node
+	 *            is not registered.
+	 * @return The current registration of this worker node, or null.
+	 */
+	protected synchronized WorkerRegistration getRegistration(
+			final boolean register) {
+		if (this.registration == null && register && !this.stopped) {
+			try {
+				this.registration = this.coordinator.register(this.host,
+						this.cores, this.memory, this.repositoryPath);
+				this.log.info("Registered at the coordinator as "
+						+ this.registration.getWorkerId());
+			} catch (RemoteException e) {
+				this.log.warn("Could not register at the coordinator: "
+						+ e.getMessage());
+			}
+		}
+		return this.registration;
+	}
+
+	/**
+	 * Discards the given registration, such that this worker node registers
+	 * again.
+	 * 
+	 * @param registration
+	 *            The registration that is not known by the coordinator.
+	 */
+	protected synchronized void unregistered(
+			final WorkerRegistration registration) {
+		if (this.registration == registration) {
+			this.log.warn("The coordinator does not know "
+					+ registration.getWorkerId() + " anymore");
+			this.registration = null;
+		}
+	}
+
+	/**
+	 * The loop of the threads pulling remote executions.
+	 */
+	protected void work() {
+		while (!this.stopped) {
+			WorkerRegistration registration = this.getRegistration(true);
+			try {
+				if (registration == null) {
+					Thread.sleep(RETRY_DELAY);
+					continue;
+				}
+				RemoteExecution execution = this.coordinator.pull(
+						registration.getWorkerId(), PULL_TIMEOUT);
+				if (execution == null)
+					continue;
+				RemoteExecutionResult result = this.execute(registration,
+						execution);
+				if (this.stopped)
+					// the coordinator reschedules the execution
+					break;
+				this.coordinator.complete(registration.getWorkerId(), result);
+			} catch (UnknownWorkerException e) {
+				this.unregistered(registration);
+			} catch (RemoteException e) {
+				this.log.warn("Could not contact the coordinator: "
+						+ e.getMessage());
+				try {
+					Thread.sleep(RETRY_DELAY);
+				} catch (InterruptedException e1) {
+					// checks whether this worker node was stopped
+				}
+			} catch (InterruptedException e) {
+				// checks whether this worker node was stopped
+			}
+		}
+	}
+
+	/**
+	 * The loop of the thread sending heartbeats.
+	 */
+	protected void heartbeat() {
+		while (!this.stopped) {
+			WorkerRegistration registration = this.getRegistration(false);
+			try {
+				if (registration != null) {
+					Collection<String> cancelled = this.coordinator
+							.heartbeat(registration.getWorkerId());
+					synchronized (this.running) {
+						for (String executionId : cancelled) {
+							Thread thread = this.running.get(executionId);
+							if (thread != null)
+								// the process supervisor kills the process
+								thread.interrupt();
+						}
+					}
+				}
+			} catch (UnknownWorkerException e) {
+				this.unregistered(registration);
+			} catch (RemoteException e) {
+				this.log.debug("Could not send heartbeat: " + e.getMessage());
+			}
+			try {
+				Thread.sleep(registration != null ? registration
+						.getHeartbeatInterval() : RETRY_DELAY);
+			} catch (InterruptedException e) {
+				// checks whether this worker node was stopped
+			}
+		}
+	}
+
+	/**
+	 * @param registration
+	 *            The registration of this worker node.
+	 * @param path
+	 *            An absolute path in the repository of the coordinator.
+	 * @return The path in the repository of this worker node.
+	 */
+	protected String toLocalPath(final WorkerRegistration registration,
+			final String path) {
+		if (this.isSharedRepository(registration))
+			return path;
+		return path.replace(registration.getRepositoryPath(),
+				this.repositoryPath);
+	}
+
+	/**
+	 * @param registration
+	 *            The registration of this worker node.
+	 * @param path
+	 *            An absolute path in the repository of this worker node.
+	 * @return The path in the repository of the coordinator.
+	 */
+	protected String toCoordinatorPath(final WorkerRegistration registration,
+			final String path) {
+		if (this.isSharedRepository(registration)
+				|| !path.startsWith(this.repositoryPath))
+			return path;
+		return registration.getRepositoryPath()
+				+ path.substring(this.repositoryPath.length());
+	}
+
+	/**
+	 * @param registration
+	 *            The registration of this worker node.
+	 * @return True, if this worker node uses the repository of the
+	 *         coordinator.
+	 */
+	protected boolean isSharedRepository(final WorkerRegistration registration) {
+		return registration.getRepositoryPath() == null
+				|| registration.getRepositoryPath().equals(this.repositoryPath);
+	}
+
+	/**
+	 * Executes the process of a remote execution and waits for it to
+	 * terminate.
+	 * 
+	 * @param registration
+	 *            The registration of this worker node.
+	 * @param execution
+	 *            The remote execution.
+	 * @return The result of the execution.
+	 */
+	protected RemoteExecutionResult execute(
+			final WorkerRegistration registration,
+			final RemoteExecution execution) {
+		RemoteExecutionResult result = new RemoteExecutionResult(
+				execution.getId());
+
+		String[] invocation = new String[execution.getInvocation().length];
+		for (int i = 0; i < invocation.length; i++)
+			invocation[i] = this.toLocalPath(registration,
+					execution.getInvocation()[i]);
+		File logFile = new File(this.toLocalPath(registration,
+				execution.getLogFile()));
+		File resultFile = new File(this.toLocalPath(registration,
+				execution.getResultFile()));
+		logFile.getParentFile().mkdirs();
+		resultFile.getParentFile().mkdirs();
+
+		ProcessBuilder builder = new ProcessBuilder(invocation);
+		builder.directory(new File(this.toLocalPath(registration,
+				execution.getDirectory())));
+		builder.environment().clear();
+		builder.environment().putAll(execution.getEnvironment());
+		builder.redirectErrorStream(true);
+		builder.redirectOutput(logFile);
+
+		// the file system may store modification times in seconds
+		long start = System.currentTimeMillis() / 1000 * 1000;
+		Process process;
+		try {
+			process = builder.start();
+		} catch (IOException e) {
+			result.error = e.getMessage();
+			return result;
+		}
+
+		synchronized (this.running) {
+			this.running.put(execution.getId(), Thread.currentThread());
+		}
+		ProcessUsage usage = new ProcessUsage();
+		try {
+			this.log.debug("Executing " + execution + " (attempt "
+					+ execution.getAttempts() + ")");
+			ProcessSupervisor.getInstance().waitFor(process,
+					execution.getMaxTime(), TimeUnit.SECONDS, usage);
+		} finally {
+			synchronized (this.running) {
+				this.running.remove(execution.getId());
+				// a cancellation only concerns this execution
+				if (!this.stopped)
+					Thread.interrupted();
+			}
+		}
+		result.executed = true;
+		result.setUsage(usage);
+		if (!usage.isKilled())
+			result.exitValue = process.exitValue();
+
+		if (!this.isSharedRepository(registration)) {
+			List<File> files = new ArrayList<File>();
+			files.add(logFile);
+			File[] outputs = resultFile.getParentFile().listFiles();
+			if (outputs != null)
+				for (File output : outputs)
+					if (output.getName().startsWith(resultFile.getName())
+							&& output.isFile()
+							&& output.lastModified() >= start)
+						files.add(output);
+			for (File file : files) {
+				try {
+					result.files.put(this.toCoordinatorPath(registration,
+							file.getAbsolutePath()), readFile(file));
+				} catch (IOException e) {
+					this.log.warn("Could not read the output file " + file
+							+ ": " + e.getMessage());
+				}
+			}
+		}
+		return result;
+	}
+
+	protected static byte[] readFile(final File file) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) >= 0)
+				out.write(buffer, 0, read);
+		} finally {
+			in.close();
+		}
+		return out.toByteArray();
+	}
+}
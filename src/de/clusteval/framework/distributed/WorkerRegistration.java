@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+import java.io.Serializable;
+
+/**
+ * The answer of the coordinator to the registration of a worker node.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class WorkerRegistration implements Serializable {
+
+	private static final long serialVersionUID = 2795021960113858317L;
+
+	protected final String workerId;
+
+	protected final long heartbeatInterval;
+
+	protected final String repositoryPath;
+
+	/**
+	 * @param workerId
+	 *            The id assigned to the worker node.
+	 * @param heartbeatInterval
+	 *            The interval in milliseconds, in which the worker node has to
+	 *            send heartbeats.
+	 * @param repositoryPath
+	 *            The absolute path of the repository of the coordinator.
+	 */
+	public WorkerRegistration(final String workerId,
+			final long heartbeatInterval, final String repositoryPath) {
+		super();
+		this.workerId = workerId;
+		this.heartbeatInterval = heartbeatInterval;
+		this.repositoryPath = repositoryPath;
+	}
+
+	/**
+	 * @return The id assigned to the worker node.
+	 */
+	public String getWorkerId() {
+		return this.workerId;
+	}
+
+	/**
+	 * @return The interval in milliseconds, in which the worker node has to
+	 *         send heartbeats.
+	 */
+	public long getHeartbeatInterval() {
+		return this.heartbeatInterval;
+	}
+
+	/**
+	 * @return The absolute path of the repository of the coordinator; paths
+	 *         in remote executions start with this path.
+	 */
+	public String getRepositoryPath() {
+		return this.repositoryPath;
+	}
+}
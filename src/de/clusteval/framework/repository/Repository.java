@@ -105,6 +105,7 @@ import de.clusteval.run.Run;
 import de.clusteval.run.RunAnalysisRun;
 import de.clusteval.run.RunDataAnalysisRun;
 import de.clusteval.run.RunFinderThread;
+import de.clusteval.run.result.ExecutionCache;
 import de.clusteval.run.result.ParameterOptimizationResult;
 import de.clusteval.run.result.RunResult;
 import de.clusteval.run.result.format.RunResultFormat;
@@ -446,6 +447,23 @@ public class Repository {
 	 */
 	protected String dataSetConfigBasePath;
 
+	/**
+	 * The absolute path to the directory within this repository, where the
+	 * node id indices of parsed datasets are stored.
+	 */
+	protected String dataSetIndexBasePath;
+
+	/**
+	 * The absolute path to the directory within this repository, where the
+	 * entries of the execution cache are stored.
+	 */
+	protected String executionCacheBasePath;
+
+	/**
+	 * The cache of executions of deterministic programs.
+	 */
+	protected ExecutionCache executionCache;
+
 	/**
 	 * The absolute path to the directory within this repository, where all data
 	 * statistics are stored.
@@ -1169,6 +1187,8 @@ public class Repository {
 		this.ensureFolder(this.dataSetFormatBasePath);
 		this.ensureFolder(this.dataSetTypeBasePath);
 		this.ensureFolder(this.dataSetConfigBasePath);
+		this.ensureFolder(this.dataSetIndexBasePath);
+		this.ensureFolder(this.executionCacheBasePath);
 		this.ensureFolder(this.goldStandardBasePath);
 		this.ensureFolder(this.goldStandardConfigBasePath);
 		this.ensureFolder(this.programBasePath);
@@ -1756,6 +1776,32 @@ public class Repository {
 		return dataStatisticBasePath;
 	}
 
+	/**
+	 * @return The absolute path to the directory within this repository, where
+	 *         the node id indices of parsed datasets are stored.
+	 */
+	public String getDataSetIndexBasePath() {
+		return dataSetIndexBasePath;
+	}
+
+	/**
+	 * @return The absolute path to the directory within this repository, where
+	 *         the entries of the execution cache are stored.
+	 */
+	public String getExecutionCacheBasePath() {
+		return executionCacheBasePath;
+	}
+
+	/**
+	 * @return The cache of executions of deterministic programs.
+	 */
+	public synchronized ExecutionCache getExecutionCache() {
+		if (this.executionCache == null)
+			this.executionCache = new ExecutionCache(new File(
+					this.executionCacheBasePath));
+		return this.executionCache;
+	}
+
 	/**
 	 * This method looks up and returns (if it exists) the class of the data
 	 * statistic calculator for the datastatistic class with the given name.
@@ -3396,6 +3442,10 @@ public class Repository {
 				this.supplementaryBasePath, "statistics", "rundata");
 		this.distanceMeasureBasePath = FileUtils.buildPath(
 				this.supplementaryBasePath, "distanceMeasures");
+		this.dataSetIndexBasePath = FileUtils.buildPath(
+				this.supplementaryBasePath, "indices", "dataset");
+		this.executionCacheBasePath = FileUtils.buildPath(
+				this.supplementaryBasePath, "cache", "executions");
 	}
 
 	/**
@@ -33,6 +33,7 @@ import de.clusteval.program.ProgramConfig;
 import de.clusteval.program.StringProgramParameter;
 import de.clusteval.quality.QualityMeasure;
 import de.clusteval.run.Run;
+import de.clusteval.run.result.ExecutionCache;
 import de.clusteval.utils.Finder;
 import file.FileUtils;
 
@@ -200,6 +201,19 @@ public class RunResultRepository extends Repository {
 		this.runDataStatisticBasePath = this.parent.runDataStatisticBasePath;
 		this.distanceMeasureBasePath = this.parent.distanceMeasureBasePath;
 		this.dataPreprocessorBasePath = this.parent.dataPreprocessorBasePath;
+		this.dataSetIndexBasePath = this.parent.dataSetIndexBasePath;
+		this.executionCacheBasePath = this.parent.executionCacheBasePath;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.framework.repository.Repository#getExecutionCache()
+	 */
+	@Override
+	public ExecutionCache getExecutionCache() {
+		return this.parent.getExecutionCache();
 	}
 
 	/*
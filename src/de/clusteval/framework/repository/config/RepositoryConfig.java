@@ -57,7 +57,30 @@ public class RepositoryConfig {
 	 * <li><b>[threading]</b></li>
 	 * <li><b>NameOfTheThreadSleepTime</b>: Sleeping time of the thread
 	 * 'NameOfTheThread'. This option can be used to control the frequency, with
-	 * which the threads check for changes on the filesystem.</li> </ul>
+	 * which the threads check for changes on the filesystem.</li>
+	 * <li><b>evaluationQueueSize</b>: The maximal number of finished
+	 * iterations of a run runnable, whose results are converted and assessed
+	 * while the next iterations are executed; 0 to evaluate every iteration
+	 * before the next one is started (default: 2).</li>
+	 * <li><b>evaluationThreads</b>: The maximal number of iterations of all
+	 * runs evaluated at the same time by the
+	 * {@link de.clusteval.framework.threading.EvaluationPool} (default: the
+	 * number of available cores).</li>
+	 * <li><b>evaluationPoolCapacity</b>: The maximal number of iterations of
+	 * all runs waiting for their evaluation; further iterations wait until
+	 * evaluations were started (default: 4 times the evaluation threads).</li>
+	 * <li><b>[results]</b></li>
+	 * <ul>
+	 * <li><b>binaryMatchings</b>: Whether the converted graph matchings of
+	 * runs should be stored in the compact binary format (default: false).</li>
+	 * <li><b>archiveIterations</b>: Whether the files of every iteration of
+	 * runs should be appended to an archive per program and data configuration
+	 * instead of being kept as loose files (default: false).</li>
+	 * <li><b>offHeapResults</b>: Whether the qualities and graph matchings of
+	 * finished parameter optimization runs should be kept outside of the java
+	 * heap instead of being unloaded (default: false).</li>
+	 * </ul>
+	 * </ul>
 	 * 
 	 * @param absConfigPath
 	 *            The absolute path of the repository configuration file.
@@ -102,6 +125,12 @@ public class RepositoryConfig {
 
 			long methodMaxTime = -1;
 
+			int evaluationQueueSize = 2;
+
+			int evaluationThreads = 0;
+
+			int evaluationPoolCapacity = 0;
+
 			if (props.getSections().contains("threading")) {
 				SubnodeConfiguration threading = props.getSection("threading");
 				Iterator<String> it = threading.getKeys();
@@ -109,6 +138,21 @@ public class RepositoryConfig {
 					String key = it.next();
 					if (key.equals("methodMaxTime")) {
 						methodMaxTime = threading.getLong(key);
+					} else if (key.equals("evaluationQueueSize")) {
+						evaluationQueueSize = threading.getInt(key);
+						if (evaluationQueueSize < 0)
+							throw new RepositoryConfigurationException(
+									"The option 'evaluationQueueSize' must not be negative");
+					} else if (key.equals("evaluationThreads")) {
+						evaluationThreads = threading.getInt(key);
+						if (evaluationThreads < 1)
+							throw new RepositoryConfigurationException(
+									"The option 'evaluationThreads' must be positive");
+					} else if (key.equals("evaluationPoolCapacity")) {
+						evaluationPoolCapacity = threading.getInt(key);
+						if (evaluationPoolCapacity < 1)
+							throw new RepositoryConfigurationException(
+									"The option 'evaluationPoolCapacity' must be positive");
 					} else if (key.endsWith("SleepTime")) {
 						String subKey = key.substring(0,
 								key.indexOf("SleepTime"));
@@ -124,8 +168,26 @@ public class RepositoryConfig {
 				}
 			}
 
-			return new RepositoryConfig(mysqlConfig, threadingSleepTimes,
-					methodMaxTime);
+			RepositoryConfig result = new RepositoryConfig(mysqlConfig,
+					threadingSleepTimes, methodMaxTime);
+			result.setEvaluationQueueSize(evaluationQueueSize);
+			result.setEvaluationThreads(evaluationThreads);
+			result.setEvaluationPoolCapacity(evaluationPoolCapacity);
+
+			if (props.getSections().contains("results")) {
+				SubnodeConfiguration results = props.getSection("results");
+				if (results.containsKey("binaryMatchings"))
+					result.setBinaryMatchings(results
+							.getBoolean("binaryMatchings"));
+				if (results.containsKey("archiveIterations"))
+					result.setArchiveIterations(results
+							.getBoolean("archiveIterations"));
+				if (results.containsKey("offHeapResults"))
+					result.setOffHeapResults(results
+							.getBoolean("offHeapResults"));
+			}
+
+			return result;
 		} catch (ConfigurationException e) {
 			throw new RepositoryConfigurationException(e.getMessage());
 		} catch (NoSuchElementException e) {
@@ -146,6 +208,42 @@ public class RepositoryConfig {
 
 	protected long methodMaxTime;
 
+	/**
+	 * The maximal number of finished iterations of a run runnable, that are
+	 * evaluated while the next iterations are executed.
+	 */
+	protected int evaluationQueueSize = 2;
+
+	/**
+	 * The maximal number of iterations of all runs evaluated at the same time,
+	 * or 0 for the number of available cores.
+	 */
+	protected int evaluationThreads;
+
+	/**
+	 * The maximal number of iterations of all runs waiting for their
+	 * evaluation, or 0 for the default capacity.
+	 */
+	protected int evaluationPoolCapacity;
+
+	/**
+	 * Whether converted graph matchings are stored in the binary format of
+	 * {@link de.clusteval.graphmatching.GraphMatchingBinaryCodec}.
+	 */
+	protected boolean binaryMatchings;
+
+	/**
+	 * Whether the files of every iteration are appended to a
+	 * {@link de.clusteval.run.result.IterationArchive}.
+	 */
+	protected boolean archiveIterations;
+
+	/**
+	 * Whether the results of finished parameter optimization runs are moved
+	 * into a {@link de.clusteval.run.result.OffHeapResultStore}.
+	 */
+	protected boolean offHeapResults;
+
 	/**
 	 * Creates a new repository configuration.
 	 * 
@@ -193,4 +291,109 @@ public class RepositoryConfig {
 		return this.methodMaxTime;
 	}
 
+	/**
+	 * @return The maximal number of finished iterations of a run runnable,
+	 *         that are evaluated while the next iterations are executed.
+	 * @see #evaluationQueueSize
+	 */
+	public int getEvaluationQueueSize() {
+		return this.evaluationQueueSize;
+	}
+
+	/**
+	 * @param evaluationQueueSize
+	 *            The maximal number of finished iterations of a run runnable,
+	 *            that are evaluated while the next iterations are executed; 0
+	 *            to evaluate every iteration before the next one.
+	 */
+	public void setEvaluationQueueSize(final int evaluationQueueSize) {
+		this.evaluationQueueSize = evaluationQueueSize;
+	}
+
+	/**
+	 * @return The maximal number of iterations of all runs evaluated at the
+	 *         same time, or 0 for the number of available cores.
+	 * @see #evaluationThreads
+	 */
+	public int getEvaluationThreads() {
+		return this.evaluationThreads;
+	}
+
+	/**
+	 * @param evaluationThreads
+	 *            The maximal number of iterations of all runs evaluated at
+	 *            the same time, or 0 for the number of available cores.
+	 */
+	public void setEvaluationThreads(final int evaluationThreads) {
+		this.evaluationThreads = evaluationThreads;
+	}
+
+	/**
+	 * @return The maximal number of iterations of all runs waiting for their
+	 *         evaluation, or 0 for the default capacity.
+	 * @see #evaluationPoolCapacity
+	 */
+	public int getEvaluationPoolCapacity() {
+		return this.evaluationPoolCapacity;
+	}
+
+	/**
+	 * @param evaluationPoolCapacity
+	 *            The maximal number of iterations of all runs waiting for
+	 *            their evaluation, or 0 for the default capacity.
+	 */
+	public void setEvaluationPoolCapacity(final int evaluationPoolCapacity) {
+		this.evaluationPoolCapacity = evaluationPoolCapacity;
+	}
+
+	/**
+	 * @return True, if converted graph matchings are stored in binary format.
+	 */
+	public boolean getBinaryMatchings() {
+		return this.binaryMatchings;
+	}
+
+	/**
+	 * @param binaryMatchings
+	 *            Whether converted graph matchings should be stored in binary
+	 *            format.
+	 */
+	public void setBinaryMatchings(final boolean binaryMatchings) {
+		this.binaryMatchings = binaryMatchings;
+	}
+
+	/**
+	 * @return True, if the files of every iteration are appended to an
+	 *         archive.
+	 */
+	public boolean getArchiveIterations() {
+		return this.archiveIterations;
+	}
+
+	/**
+	 * @param archiveIterations
+	 *            Whether the files of every iteration should be appended to an
+	 *            archive.
+	 */
+	public void setArchiveIterations(final boolean archiveIterations) {
+		this.archiveIterations = archiveIterations;
+	}
+
+	/**
+	 * @return True, if the results of finished parameter optimization runs
+	 *         are kept outside of the java heap.
+	 */
+	public boolean getOffHeapResults() {
+		return this.offHeapResults;
+	}
+
+	/**
+	 * @param offHeapResults
+	 *            Whether the results of finished parameter optimization runs
+	 *            should be kept outside of the java heap.
+	 */
+	public void setOffHeapResults(final boolean offHeapResults) {
+		this.offHeapResults = offHeapResults;
+	}
+
 }
@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The pool shared by all runnables of this process to convert the results of
+ * finished iterations and to assess their qualities.
+ * 
+ * <p>
+ * Runnables submit their evaluations and wait for the returned futures, thus
+ * the number of evaluations executed at the same time is bounded by the
+ * parallelism of this pool, independent of how many runs are active. The
+ * evaluations are executed by the work stealing {@link QualityMeasurePool},
+ * such that the quality measures they evaluate in parallel are picked up by
+ * idle workers.
+ * 
+ * <p>
+ * Every evaluation belongs to a run and to a source within that run, i.e. the
+ * runnable that submitted it. Waiting evaluations are started in the order
+ * given by a {@link FairShareQueue} with the runs as clients, thus a run with
+ * many or expensive evaluations cannot starve the other runs. Evaluations of
+ * the same source are executed one after another in the order of their
+ * submission.
+ * 
+ * <p>
+ * The number of waiting evaluations is bounded by the capacity of this pool;
+ * submitting further evaluations blocks until evaluations were started.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class EvaluationPool {
+
+	/**
+	 * The default maximal number of waiting evaluations per unit of
+	 * parallelism.
+	 */
+	public static final int DEFAULT_CAPACITY_PER_THREAD = 4;
+
+	protected static EvaluationPool instance;
+
+	/**
+	 * @return The pool of this process, with one unit of parallelism per
+	 *         available core.
+	 */
+	public static synchronized EvaluationPool getInstance() {
+		if (instance == null) {
+			instance = new EvaluationPool(1, 1);
+			instance.configure(0, 0);
+		}
+		return instance;
+	}
+
+	/**
+	 * A submitted evaluation together with its run and source.
+	 * 
+	 * @param <V>
+	 *            The type of the result of the evaluation.
+	 */
+	protected class Task<V> extends FutureTask<V> {
+
+		protected final String runId;
+
+		protected final String sourceId;
+
+		protected final long submitTime;
+
+		protected long startTime;
+
+		protected Task(final Callable<V> callable, final String runId,
+				final String sourceId) {
+			super(callable);
+			this.runId = runId;
+			this.sourceId = sourceId;
+			this.submitTime = System.currentTimeMillis();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.FutureTask#cancel(boolean)
+		 */
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean result = super.cancel(mayInterruptIfRunning);
+			if (result)
+				cancelled(this);
+			return result;
+		}
+	}
+
+	/**
+	 * The maximal number of evaluations executed at the same time.
+	 */
+	protected int parallelism;
+
+	/**
+	 * The maximal number of waiting evaluations.
+	 */
+	protected int capacity;
+
+	protected final FairShareQueue<Task<?>> queue;
+
+	/**
+	 * Accepts only evaluations of sources without running evaluation.
+	 */
+	protected final FairShareQueue.Filter<Task<?>> idleSourceFilter;
+
+	/**
+	 * The sources with a running evaluation.
+	 */
+	protected final Set<String> busySources;
+
+	protected int runningCount;
+
+	protected int maxWaitingCount;
+
+	protected long startedCount;
+
+	protected long finishedCount;
+
+	protected long totalWaitTime;
+
+	protected long maxWaitTime;
+
+	protected long totalRunTime;
+
+	/**
+	 * @param parallelism
+	 *            The maximal number of evaluations executed at the same time.
+	 * @param capacity
+	 *            The maximal number of waiting evaluations.
+	 */
+	public EvaluationPool(final int parallelism, final int capacity) {
+		super();
+		this.queue = new FairShareQueue<Task<?>>();
+		this.busySources = new HashSet<String>();
+		this.idleSourceFilter = new FairShareQueue.Filter<Task<?>>() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see
+			 * de.clusteval.framework.threading.FairShareQueue.Filter#accept
+			 * (java.lang.Object)
+			 */
+			@Override
+			public boolean accept(Task<?> task) {
+				return !busySources.contains(task.sourceId);
+			}
+		};
+		this.setParallelism(parallelism);
+		this.setCapacity(capacity);
+	}
+
+	/**
+	 * @param parallelism
+	 *            The maximal number of evaluations executed at the same time.
+	 */
+	public synchronized void setParallelism(final int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException(
+					"The parallelism has to be at least 1");
+		this.parallelism = parallelism;
+		this.admit();
+	}
+
+	/**
+	 * @param threads
+	 *            The maximal number of evaluations executed at the same time,
+	 *            or 0 for the number of available cores.
+	 * @param capacity
+	 *            The maximal number of waiting evaluations, or 0 for
+	 *            {@link #DEFAULT_CAPACITY_PER_THREAD} times the parallelism.
+	 */
+	public synchronized void configure(final int threads, final int capacity) {
+		int parallelism = threads > 0 ? threads : Runtime.getRuntime()
+				.availableProcessors();
+		this.setParallelism(parallelism);
+		this.setCapacity(capacity > 0 ? capacity : parallelism
+				* DEFAULT_CAPACITY_PER_THREAD);
+	}
+
+	/**
+	 * @param capacity
+	 *            The maximal number of waiting evaluations.
+	 */
+	public synchronized void setCapacity(final int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException(
+					"The capacity has to be at least 1");
+		this.capacity = capacity;
+		this.notifyAll();
+	}
+
+	/**
+	 * Submits an evaluation. If the pool is at its capacity, this method
+	 * blocks until an evaluation was started.
+	 * 
+	 * @param callable
+	 *            The evaluation.
+	 * @param runId
+	 *            The id of the run the evaluation belongs to.
+	 * @param sourceId
+	 *            The id of the source within the run; evaluations of the same
+	 *            source are executed one after another.
+	 * @return A future representing the evaluation.
+	 * @throws InterruptedException
+	 *             If the current thread was interrupted while waiting for free
+	 *             capacity; then the evaluation was not submitted.
+	 */
+	public <V> Future<V> submit(final Callable<V> callable,
+			final String runId, final String sourceId)
+			throws InterruptedException {
+		Task<V> task = new Task<V>(callable, runId, sourceId);
+		synchronized (this) {
+			while (this.queue.size() >= this.capacity)
+				this.wait();
+			this.queue.add(task, runId, sourceId, 1.0, 0, 1);
+			this.admit();
+			this.maxWaitingCount = Math.max(this.maxWaitingCount,
+					this.queue.size());
+		}
+		return task;
+	}
+
+	/**
+	 * Starts waiting evaluations, as long as the parallelism permits.
+	 */
+	protected synchronized void admit() {
+		while (this.runningCount < this.parallelism) {
+			Task<?> task = this.queue.poll(this.idleSourceFilter);
+			if (task == null)
+				break;
+			this.start(task);
+		}
+		this.notifyAll();
+	}
+
+	protected synchronized void cancelled(final Task<?> task) {
+		if (this.queue.remove(task))
+			this.admit();
+	}
+
+	protected void start(final Task<?> task) {
+		this.runningCount++;
+		this.busySources.add(task.sourceId);
+
+		task.startTime = System.currentTimeMillis();
+		long waitTime = task.startTime - task.submitTime;
+		this.startedCount++;
+		this.totalWaitTime += waitTime;
+		this.maxWaitTime = Math.max(this.maxWaitTime, waitTime);
+
+		this.getExecutor().execute(new Runnable() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				try {
+					task.run();
+				} finally {
+					release(task);
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return The pool executing the evaluations.
+	 */
+	protected ForkJoinPool getExecutor() {
+		return QualityMeasurePool.getInstance();
+	}
+
+	protected synchronized void release(final Task<?> task) {
+		this.runningCount--;
+		this.busySources.remove(task.sourceId);
+		this.queue.finished(task.runId);
+		this.finishedCount++;
+		this.totalRunTime += System.currentTimeMillis() - task.startTime;
+		this.admit();
+	}
+
+	/**
+	 * @return The maximal number of evaluations executed at the same time.
+	 */
+	public synchronized int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * @return The maximal number of waiting evaluations.
+	 */
+	public synchronized int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * @return The number of running evaluations.
+	 */
+	public synchronized int getRunningCount() {
+		return this.runningCount;
+	}
+
+	/**
+	 * @return The number of waiting evaluations, i.e. the depth of the queue.
+	 */
+	public synchronized int getWaitingCount() {
+		return this.queue.size();
+	}
+
+	/**
+	 * @return The maximal number of evaluations that were waiting at the same
+	 *         time.
+	 */
+	public synchronized int getMaxWaitingCount() {
+		return this.maxWaitingCount;
+	}
+
+	/**
+	 * @return The number of evaluations started so far.
+	 */
+	public synchronized long getStartedCount() {
+		return this.startedCount;
+	}
+
+	/**
+	 * @return The number of evaluations finished so far.
+	 */
+	public synchronized long getFinishedCount() {
+		return this.finishedCount;
+	}
+
+	/**
+	 * @return The average time in milliseconds the started evaluations waited
+	 *         in the queue.
+	 */
+	public synchronized double getAverageWaitTime() {
+		if (this.startedCount == 0)
+			return 0.0;
+		return this.totalWaitTime / (double) this.startedCount;
+	}
+
+	/**
+	 * @return The maximal time in milliseconds a started evaluation waited in
+	 *         the queue.
+	 */
+	public synchronized long getMaxWaitTime() {
+		return this.maxWaitTime;
+	}
+
+	/**
+	 * @return The average time in milliseconds the finished evaluations were
+	 *         executed.
+	 */
+	public synchronized double getAverageRunTime() {
+		if (this.finishedCount == 0)
+			return 0.0;
+		return this.totalRunTime / (double) this.finishedCount;
+	}
+}
@@ -0,0 +1,579 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A queue that shares its elements fairly between clients and, within each
+ * client, between runs.
+ * 
+ * <p>
+ * Every element belongs to a run of a client and has a cost, e.g. the number
+ * of cores it occupies. Elements are taken by deficit round robin on two
+ * levels: the clients with waiting elements take turns, and every client in
+ * turn shares its turns between its runs. In every round a client (run) is
+ * credited its weight times the quantum and it can take elements as long as
+ * their costs are covered by its credit. Thus, over time, clients (runs) take
+ * elements with costs proportional to their weights, independent of how many
+ * elements they enqueued.
+ * 
+ * <p>
+ * Clients and runs also have priorities. Elements of a client (run) with a
+ * higher priority are always taken before those of clients (runs) with lower
+ * priorities. Finally, the number of taken elements of a client that were not
+ * yet reported as finished (see {@link #finished(String)}) can be limited.
+ * 
+ * <p>
+ * Within a run elements are taken in the order they were added. Elements have
+ * to be distinct.
+ * 
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Christian Wiwie
+ * 
+ * @param <E>
+ *            The type of the elements.
+ */
+public class FairShareQueue<E> {
+
+	/**
+	 * A filter for elements of the queue.
+	 * 
+	 * @param <E>
+	 *            The type of the elements.
+	 */
+	public interface Filter<E> {
+
+		/**
+		 * @param element
+		 *            The element.
+		 * @return True, if the element can be taken.
+		 */
+		public boolean accept(E element);
+	}
+
+	protected static class Entry<E> {
+
+		protected final E element;
+
+		protected final int cost;
+
+		protected Entry(final E element, final int cost) {
+			super();
+			this.element = element;
+			this.cost = cost;
+		}
+	}
+
+	/**
+	 * The weight, priority and credit of a client or run.
+	 */
+	protected static class Share {
+
+		protected double weight = 1.0;
+
+		protected int priority;
+
+		protected double deficit;
+
+		protected void copyFrom(final Share other) {
+			this.weight = other.weight;
+			this.priority = other.priority;
+			this.deficit = other.deficit;
+		}
+	}
+
+	protected static class RunQueue<E> extends Share {
+
+		protected final ClientQueue<E> client;
+
+		protected final String runId;
+
+		protected final LinkedList<Entry<E>> entries;
+
+		protected RunQueue(final ClientQueue<E> client, final String runId) {
+			super();
+			this.client = client;
+			this.runId = runId;
+			this.entries = new LinkedList<Entry<E>>();
+		}
+	}
+
+	protected static class ClientQueue<E> extends Share {
+
+		protected final String clientId;
+
+		/**
+		 * The maximal number of taken and not finished elements, or -1 if
+		 * unlimited.
+		 */
+		protected int maxRunning = -1;
+
+		protected int running;
+
+		/**
+		 * The runs of this client with waiting elements in round robin order.
+		 */
+		protected final List<RunQueue<E>> runs;
+
+		protected final Map<String, RunQueue<E>> runMap;
+
+		/**
+		 * The position in {@link #runs} where the next turn starts.
+		 */
+		protected int cursor;
+
+		/**
+		 * Whether the run at {@link #cursor} took the last element.
+		 */
+		protected boolean cursorServed;
+
+		protected ClientQueue(final String clientId) {
+			super();
+			this.clientId = clientId;
+			this.runs = new ArrayList<RunQueue<E>>();
+			this.runMap = new HashMap<String, RunQueue<E>>();
+		}
+
+		protected boolean isCapped() {
+			return this.maxRunning >= 0 && this.running >= this.maxRunning;
+		}
+	}
+
+	/**
+	 * The element that would be taken next, together with the number of
+	 * rounds needed on client and run level until its cost is covered.
+	 */
+	protected static class Selection<E> {
+
+		protected final RunQueue<E> run;
+
+		protected final Entry<E> entry;
+
+		protected final double runRounds;
+
+		protected double clientRounds;
+
+		protected Selection(final RunQueue<E> run, final Entry<E> entry,
+				final double runRounds) {
+			super();
+			this.run = run;
+			this.entry = entry;
+			this.runRounds = runRounds;
+		}
+	}
+
+	/**
+	 * The credit a client or run with weight 1 gets in every round.
+	 */
+	protected final double quantum;
+
+	/**
+	 * All clients that ever had elements in this queue.
+	 */
+	protected final Map<String, ClientQueue<E>> clientMap;
+
+	/**
+	 * The clients with waiting elements in round robin order.
+	 */
+	protected final List<ClientQueue<E>> clients;
+
+	/**
+	 * The position in {@link #clients} where the next turn starts.
+	 */
+	protected int cursor;
+
+	/**
+	 * Whether the client at {@link #cursor} took the last element.
+	 */
+	protected boolean cursorServed;
+
+	protected final Map<E, RunQueue<E>> elementToRun;
+
+	/**
+	 * The maximal number of taken and not finished elements of clients
+	 * without explicit share, or -1 if unlimited.
+	 */
+	protected int defaultMaxRunning;
+
+	/**
+	 * Creates a queue with a quantum of 1.
+	 */
+	public FairShareQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * @param quantum
+	 *            The credit a client or run with weight 1 gets in every round.
+	 */
+	public FairShareQueue(final double quantum) {
+		super();
+		if (quantum <= 0.0)
+			throw new IllegalArgumentException("The quantum has to be positive");
+		this.quantum = quantum;
+		this.clientMap = new HashMap<String, ClientQueue<E>>();
+		this.clients = new ArrayList<ClientQueue<E>>();
+		this.elementToRun = new HashMap<E, RunQueue<E>>();
+		this.defaultMaxRunning = -1;
+	}
+
+	protected ClientQueue<E> getClient(final String clientId) {
+		ClientQueue<E> client = this.clientMap.get(clientId);
+		if (client == null) {
+			client = new ClientQueue<E>(clientId);
+			client.maxRunning = this.defaultMaxRunning;
+			this.clientMap.put(clientId, client);
+		}
+		return client;
+	}
+
+	/**
+	 * @param clientId
+	 *            The id of the client.
+	 * @param weight
+	 *            The weight of the client.
+	 * @param priority
+	 *            The priority of the client.
+	 * @param maxRunning
+	 *            The maximal number of taken and not finished elements of the
+	 *            client, or -1 if unlimited.
+	 */
+	public void setClientShare(final String clientId, final double weight,
+			final int priority, final int maxRunning) {
+		if (weight <= 0.0)
+			throw new IllegalArgumentException("The weight has to be positive");
+		ClientQueue<E> client = this.getClient(clientId);
+		client.weight = weight;
+		client.priority = priority;
+		client.maxRunning = maxRunning;
+	}
+
+	/**
+	 * @param defaultMaxRunning
+	 *            The maximal number of taken and not finished elements of
+	 *            clients without explicit share, or -1 if unlimited.
+	 */
+	public void setDefaultMaxRunning(final int defaultMaxRunning) {
+		this.defaultMaxRunning = defaultMaxRunning;
+	}
+
+	/**
+	 * Adds an element to the queue.
+	 * 
+	 * <p>
+	 * The weight and priority of the run are taken from the first element
+	 * added for the run while it has waiting elements.
+	 * 
+	 * @param element
+	 *            The element.
+	 * @param clientId
+	 *            The id of the client the element belongs to.
+	 * @param runId
+	 *            The id of the run the element belongs to.
+	 * @param runWeight
+	 *            The weight of the run.
+	 * @param runPriority
+	 *            The priority of the run.
+	 * @param cost
+	 *            The cost of the element.
+	 */
+	public void add(final E element, final String clientId,
+			final String runId, final double runWeight, final int runPriority,
+			final int cost) {
+		if (runWeight <= 0.0)
+			throw new IllegalArgumentException("The weight has to be positive");
+		ClientQueue<E> client = this.getClient(clientId);
+		RunQueue<E> run = client.runMap.get(runId);
+		if (run == null) {
+			run = new RunQueue<E>(client, runId);
+			run.weight = runWeight;
+			run.priority = runPriority;
+			client.runMap.put(runId, run);
+			client.runs.add(run);
+			if (client.runs.size() == 1)
+				this.clients.add(client);
+		}
+		run.entries.add(new Entry<E>(element, Math.max(cost, 0)));
+		this.elementToRun.put(element, run);
+	}
+
+	/**
+	 * @param element
+	 *            The element to remove.
+	 * @return True, if the element was waiting in this queue.
+	 */
+	public boolean remove(final E element) {
+		RunQueue<E> run = this.elementToRun.remove(element);
+		if (run == null)
+			return false;
+		Iterator<Entry<E>> it = run.entries.iterator();
+		while (it.hasNext())
+			if (it.next().element.equals(element)) {
+				it.remove();
+				break;
+			}
+		this.removeIfEmpty(run);
+		return true;
+	}
+
+	protected void removeIfEmpty(final RunQueue<E> run) {
+		if (!run.entries.isEmpty())
+			return;
+		ClientQueue<E> client = run.client;
+		client.runMap.remove(run.runId);
+		int index = client.runs.indexOf(run);
+		client.runs.remove(index);
+		if (index < client.cursor)
+			client.cursor--;
+		else if (index == client.cursor)
+			client.cursorServed = false;
+		if (client.cursor >= client.runs.size())
+			client.cursor = 0;
+
+		if (client.runs.isEmpty()) {
+			// as in deficit round robin, idle clients lose their credit
+			client.deficit = 0.0;
+			index = this.clients.indexOf(client);
+			this.clients.remove(index);
+			if (index < this.cursor)
+				this.cursor--;
+			else if (index == this.cursor)
+				this.cursorServed = false;
+			if (this.cursor >= this.clients.size())
+				this.cursor = 0;
+		}
+	}
+
+	/**
+	 * @return The number of waiting elements.
+	 */
+	public int size() {
+		return this.elementToRun.size();
+	}
+
+	/**
+	 * @return True, if there are no waiting elements.
+	 */
+	public boolean isEmpty() {
+		return this.elementToRun.isEmpty();
+	}
+
+	/**
+	 * @return All waiting elements, grouped by client and run.
+	 */
+	public List<E> getElements() {
+		List<E> result = new ArrayList<E>();
+		for (ClientQueue<E> client : this.clients)
+			for (RunQueue<E> run : client.runs)
+				for (Entry<E> entry : run.entries)
+					result.add(entry.element);
+		return result;
+	}
+
+	protected double roundsNeeded(final Share share, final int cost) {
+		if (cost <= share.deficit)
+			return 0.0;
+		return Math.ceil((cost - share.deficit)
+				/ (this.quantum * share.weight));
+	}
+
+	/**
+	 * In deficit round robin the current client (run) continues as long as its
+	 * credit covers the next element. A new round starts with the next client
+	 * (run), thus the current one comes last if credit is needed.
+	 */
+	protected static int ringOrder(final int index, final double rounds,
+			final int size, final boolean cursorServed) {
+		if (index == 0 && cursorServed && rounds > 0.0)
+			return size;
+		return index;
+	}
+
+	protected static boolean isBetter(final int priority, final double rounds,
+			final int order, final int bestPriority, final double bestRounds,
+			final int bestOrder) {
+		if (priority != bestPriority)
+			return priority > bestPriority;
+		if (rounds != bestRounds)
+			return rounds < bestRounds;
+		return order < bestOrder;
+	}
+
+	protected Selection<E> select(final Filter<? super E> filter) {
+		Selection<E> best = null;
+		int bestOrder = 0;
+		for (int i = 0; i < this.clients.size(); i++) {
+			ClientQueue<E> client = this.clients.get((this.cursor + i)
+					% this.clients.size());
+			if (client.isCapped())
+				continue;
+			Selection<E> selection = this.select(client, filter);
+			if (selection == null)
+				continue;
+			selection.clientRounds = this.roundsNeeded(client,
+					selection.entry.cost);
+			int order = ringOrder(i, selection.clientRounds,
+					this.clients.size(), this.cursorServed);
+			if (best == null
+					|| isBetter(client.priority, selection.clientRounds,
+							order, best.run.client.priority,
+							best.clientRounds, bestOrder)) {
+				best = selection;
+				bestOrder = order;
+			}
+		}
+		return best;
+	}
+
+	protected Selection<E> select(final ClientQueue<E> client,
+			final Filter<? super E> filter) {
+		Selection<E> best = null;
+		int bestOrder = 0;
+		for (int i = 0; i < client.runs.size(); i++) {
+			RunQueue<E> run = client.runs.get((client.cursor + i)
+					% client.runs.size());
+			Entry<E> entry = null;
+			for (Entry<E> candidate : run.entries)
+				if (filter == null || filter.accept(candidate.element)) {
+					entry = candidate;
+					break;
+				}
+			if (entry == null)
+				continue;
+			double rounds = this.roundsNeeded(run, entry.cost);
+			int order = ringOrder(i, rounds, client.runs.size(),
+					client.cursorServed);
+			if (best == null
+					|| isBetter(run.priority, rounds, order,
+							best.run.priority, best.runRounds, bestOrder)) {
+				best = new Selection<E>(run, entry, rounds);
+				bestOrder = order;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param filter
+	 *            Only elements accepted by this filter are considered, or null
+	 *            to consider all elements.
+	 * @return The element that would be taken next by
+	 *         {@link #poll(Filter)}, or null if there is none.
+	 */
+	public E peek(final Filter<? super E> filter) {
+		Selection<E> selection = this.select(filter);
+		if (selection == null)
+			return null;
+		return selection.entry.element;
+	}
+
+	/**
+	 * Takes the next element. Since the element is considered running until
+	 * {@link #finished(String)} is invoked for its client, the caller is
+	 * responsible to do so.
+	 * 
+	 * @param filter
+	 *            Only elements accepted by this filter are considered, or null
+	 *            to consider all elements.
+	 * @return The next element, or null if there is none.
+	 */
+	public E poll(final Filter<? super E> filter) {
+		Selection<E> selection = this.select(filter);
+		if (selection == null)
+			return null;
+		RunQueue<E> run = selection.run;
+		ClientQueue<E> client = run.client;
+
+		// credit the rounds needed to every competing client and run
+		if (selection.clientRounds > 0.0)
+			for (ClientQueue<E> other : this.clients)
+				if (other.priority == client.priority && !other.isCapped())
+					other.deficit += selection.clientRounds * this.quantum
+							* other.weight;
+		if (selection.runRounds > 0.0)
+			for (RunQueue<E> other : client.runs)
+				if (other.priority == run.priority)
+					other.deficit += selection.runRounds * this.quantum
+							* other.weight;
+		client.deficit -= selection.entry.cost;
+		run.deficit -= selection.entry.cost;
+
+		// continue with this client and run as long as their credit lasts
+		this.cursor = this.clients.indexOf(client);
+		this.cursorServed = true;
+		client.cursor = client.runs.indexOf(run);
+		client.cursorServed = true;
+
+		run.entries.remove(selection.entry);
+		this.elementToRun.remove(selection.entry.element);
+		client.running++;
+		this.removeIfEmpty(run);
+		return selection.entry.element;
+	}
+
+	/**
+	 * Reports that an element taken by {@link #poll(Filter)} finished.
+	 * 
+	 * @param clientId
+	 *            The id of the client of the finished element.
+	 */
+	public void finished(final String clientId) {
+		ClientQueue<E> client = this.clientMap.get(clientId);
+		if (client != null && client.running > 0)
+			client.running--;
+	}
+
+	/**
+	 * Simulates the order in which the waiting elements would be taken, if
+	 * all of them could be taken in a row and no further elements were added.
+	 * Limits of running elements are not considered.
+	 * 
+	 * @return The waiting elements in the order they would be taken.
+	 */
+	public List<E> getOrder() {
+		FairShareQueue<E> copy = new FairShareQueue<E>(this.quantum);
+		for (ClientQueue<E> client : this.clients) {
+			ClientQueue<E> clientCopy = copy.getClient(client.clientId);
+			clientCopy.copyFrom(client);
+			clientCopy.cursor = client.cursor;
+			clientCopy.cursorServed = client.cursorServed;
+			copy.clients.add(clientCopy);
+			for (RunQueue<E> run : client.runs) {
+				RunQueue<E> runCopy = new RunQueue<E>(clientCopy, run.runId);
+				runCopy.copyFrom(run);
+				runCopy.entries.addAll(run.entries);
+				clientCopy.runs.add(runCopy);
+				clientCopy.runMap.put(run.runId, runCopy);
+				for (Entry<E> entry : run.entries)
+					copy.elementToRun.put(entry.element, runCopy);
+			}
+		}
+		copy.cursor = this.cursor;
+		copy.cursorServed = this.cursorServed;
+
+		List<E> result = new ArrayList<E>(this.size());
+		E element;
+		while ((element = copy.poll(null)) != null)
+			result.add(element);
+		return result;
+	}
+}
@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The process supervisor enforces maximal run times of started processes.
+ * 
+ * <p>
+ * Instead of polling every process, one timer thread shared by all processes
+ * kills a process as soon as its maximal run time is exceeded. The thread
+ * waiting for the process just blocks until the process terminates. Output of
+ * the processes should be redirected to files (see
+ * {@link ProcessBuilder#redirectOutput(File)}), such that no threads are
+ * needed to read it.
+ * 
+ * <p>
+ * Processes are killed together with all their descendants, which are
+ * determined using the /proc filesystem. If it is not available, only the
+ * process itself is killed.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ProcessSupervisor {
+
+	protected static ProcessSupervisor instance;
+
+	/**
+	 * @return The process supervisor shared by all runnables.
+	 */
+	public static synchronized ProcessSupervisor getInstance() {
+		if (instance == null)
+			instance = new ProcessSupervisor();
+		return instance;
+	}
+
+	/**
+	 * The delay of the first sample of the resources used by a process in
+	 * milliseconds.
+	 */
+	protected static final long FIRST_SAMPLE_DELAY = 10;
+
+	protected final ScheduledThreadPoolExecutor timer;
+
+	protected volatile long samplingInterval = 1000;
+
+	protected Logger log;
+
+	/**
+	 * Creates a new process supervisor with its own timer thread.
+	 */
+	public ProcessSupervisor() {
+		super();
+		this.log = LoggerFactory.getLogger(this.getClass());
+		this.timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see
+			 * java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+			 */
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ProcessSupervisor");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		// do not keep cancelled timeouts of terminated processes
+		this.timer.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * This method blocks until the given process terminates. If the process
+	 * runs longer than the given maximal time, it is killed together with all
+	 * its descendants.
+	 * 
+	 * <p>
+	 * If the current thread is interrupted while waiting, the process tree is
+	 * killed as well and the interrupted status of the thread is restored.
+	 * 
+	 * @param process
+	 *            The process to wait for.
+	 * @param maxTime
+	 *            The maximal time the process may run, or a negative value if
+	 *            its time is not limited.
+	 * @param unit
+	 *            The unit of the maximal time.
+	 * @return True, if the process terminated by itself; false, if it was
+	 *         killed.
+	 */
+	public boolean waitFor(final Process process, final long maxTime,
+			final TimeUnit unit) {
+		return this.waitFor(process, maxTime, unit, null);
+	}
+
+	/**
+	 * This method behaves like {@link #waitFor(Process, long, TimeUnit)}, but
+	 * additionally samples the resources used by the process tree into the
+	 * given process usage, while the process is running.
+	 * 
+	 * <p>
+	 * Samples are taken by the timer thread of this supervisor, first shortly
+	 * after the start of the process and then with increasing delays up to the
+	 * sampling interval (see {@link #setSamplingInterval(long)}).
+	 * 
+	 * @param process
+	 *            The process to wait for.
+	 * @param maxTime
+	 *            The maximal time the process may run, or a negative value if
+	 *            its time is not limited.
+	 * @param unit
+	 *            The unit of the maximal time.
+	 * @param usage
+	 *            The process usage to sample into, or null.
+	 * @return True, if the process terminated by itself; false, if it was
+	 *         killed.
+	 */
+	public boolean waitFor(final Process process, final long maxTime,
+			final TimeUnit unit, final ProcessUsage usage) {
+		final int pid = getPid(process);
+		final Sampler sampler;
+		if (usage != null && pid > 0) {
+			sampler = new Sampler(pid, usage);
+			sampler.schedule();
+		} else
+			sampler = null;
+
+		final boolean[] killed = new boolean[1];
+		ScheduledFuture<?> timeout = null;
+		if (maxTime >= 0)
+			timeout = this.timer.schedule(new Runnable() {
+
+				/*
+				 * (non-Javadoc)
+				 * 
+				 * @see java.lang.Runnable#run()
+				 */
+				@Override
+				public void run() {
+					synchronized (killed) {
+						killed[0] = true;
+					}
+					// the last chance to see the resources of the tree
+					if (sampler != null)
+						sampler.run();
+					killTree(process);
+				}
+			}, maxTime, unit);
+
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					process.waitFor();
+					break;
+				} catch (InterruptedException e) {
+					if (!interrupted) {
+						interrupted = true;
+						synchronized (killed) {
+							killed[0] = true;
+						}
+						this.killTree(process);
+					}
+				}
+			}
+		} finally {
+			if (timeout != null)
+				timeout.cancel(false);
+			if (sampler != null)
+				sampler.cancel();
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+		synchronized (killed) {
+			if (usage != null)
+				usage.setKilled(killed[0]);
+			return !killed[0];
+		}
+	}
+
+	/**
+	 * Samples the resources of one process tree on the timer thread, with
+	 * delays doubling from {@link ProcessSupervisor#FIRST_SAMPLE_DELAY} up to
+	 * the sampling interval.
+	 */
+	protected class Sampler implements Runnable {
+
+		protected final int pid;
+
+		protected final ProcessUsage usage;
+
+		protected long delay;
+
+		protected ScheduledFuture<?> future;
+
+		protected boolean cancelled;
+
+		protected Sampler(final int pid, final ProcessUsage usage) {
+			super();
+			this.pid = pid;
+			this.usage = usage;
+			this.delay = FIRST_SAMPLE_DELAY;
+		}
+
+		protected synchronized void schedule() {
+			if (this.cancelled)
+				return;
+			this.future = timer.schedule(this, this.delay,
+					TimeUnit.MILLISECONDS);
+			this.delay = Math.min(this.delay * 2, samplingInterval);
+		}
+
+		protected synchronized void cancel() {
+			this.cancelled = true;
+			if (this.future != null)
+				this.future.cancel(false);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (this.cancelled)
+					return;
+			}
+			this.usage.sample(this.pid);
+			this.schedule();
+		}
+	}
+
+	/**
+	 * @param samplingInterval
+	 *            The maximal time between two samples of the resources used by
+	 *            a process in milliseconds.
+	 */
+	public void setSamplingInterval(final long samplingInterval) {
+		this.samplingInterval = Math.max(FIRST_SAMPLE_DELAY, samplingInterval);
+	}
+
+	/**
+	 * @return The maximal time between two samples of the resources used by a
+	 *         process in milliseconds.
+	 */
+	public long getSamplingInterval() {
+		return this.samplingInterval;
+	}
+
+	/**
+	 * @return The executor of the timer of this supervisor, which can be used
+	 *         to schedule further timeouts without starting threads.
+	 */
+	public ScheduledExecutorService getTimer() {
+		return this.timer;
+	}
+
+	/**
+	 * Kills the given process and all its descendants.
+	 * 
+	 * @param process
+	 *            The process to kill.
+	 */
+	public void killTree(final Process process) {
+		int pid = getPid(process);
+		if (pid > 0) {
+			// determine the descendants before the process is killed, since
+			// afterwards they are adopted by init
+			List<Integer> descendants = getDescendants(pid);
+			if (!descendants.isEmpty()) {
+				List<String> command = new ArrayList<String>();
+				command.add("kill");
+				command.add("-KILL");
+				for (Integer descendant : descendants)
+					command.add(descendant.toString());
+				try {
+					Process kill = new ProcessBuilder(command)
+							.redirectErrorStream(true).start();
+					kill.getInputStream().close();
+					kill.waitFor();
+				} catch (IOException e) {
+					this.log.warn("Could not kill the descendants of process "
+							+ pid + ": " + e.getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		process.destroy();
+	}
+
+	/**
+	 * @param process
+	 *            The process.
+	 * @return The id of the process in the operating system, or -1 if it
+	 *         cannot be determined.
+	 */
+	public static int getPid(final Process process) {
+		try {
+			// since Java 9
+			Method method = Process.class.getMethod("pid");
+			return ((Number) method.invoke(process)).intValue();
+		} catch (NoSuchMethodException e) {
+			// older Java versions
+		} catch (Exception e) {
+			return -1;
+		}
+		try {
+			Field field = process.getClass().getDeclaredField("pid");
+			field.setAccessible(true);
+			return field.getInt(process);
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @param pid
+	 *            The id of a process.
+	 * @return The ids of all descendants of the given process, determined
+	 *         using the /proc filesystem.
+	 */
+	public static List<Integer> getDescendants(final int pid) {
+		List<Integer> result = new ArrayList<Integer>();
+		File[] procDirs = new File("/proc").listFiles();
+		if (procDirs == null)
+			return result;
+
+		Map<Integer, List<Integer>> children = new HashMap<Integer, List<Integer>>();
+		for (File procDir : procDirs) {
+			int child;
+			try {
+				child = Integer.parseInt(procDir.getName());
+			} catch (NumberFormatException e) {
+				continue;
+			}
+			int parent = getParentPid(procDir);
+			if (parent < 0)
+				continue;
+			if (!children.containsKey(parent))
+				children.put(parent, new ArrayList<Integer>());
+			children.get(parent).add(child);
+		}
+
+		List<Integer> todo = new ArrayList<Integer>();
+		todo.add(pid);
+		while (!todo.isEmpty()) {
+			List<Integer> directChildren = children.get(todo.remove(todo
+					.size() - 1));
+			if (directChildren == null)
+				continue;
+			result.addAll(directChildren);
+			todo.addAll(directChildren);
+		}
+		return result;
+	}
+
+	/**
+	 * @param procDir
+	 *            The directory of a process in the /proc filesystem.
+	 * @return The id of the parent process, or -1 if it cannot be read.
+	 */
+	protected static int getParentPid(final File procDir) {
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(new File(
+					procDir, "stat")));
+			try {
+				String stat = reader.readLine();
+				if (stat == null)
+					return -1;
+				// the name of the process is in parentheses and may contain
+				// spaces; the state and the parent id follow it
+				String[] fields = stat.substring(stat.lastIndexOf(')') + 2)
+						.split(" ");
+				return Integer.parseInt(fields[1]);
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			// the process terminated in the meantime
+			return -1;
+		} catch (RuntimeException e) {
+			return -1;
+		}
+	}
+}
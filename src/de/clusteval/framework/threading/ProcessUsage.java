@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The resources used by a process and all its descendants, as sampled from the
+ * /proc filesystem by the {@link ProcessSupervisor}.
+ * 
+ * <p>
+ * Every sample reads /proc/&lt;pid&gt;/stat, status and io of all processes of
+ * the tree:
+ * <ul>
+ * <li><b>CPU time</b>: user and system time of all processes of the tree,
+ * including the times of their already terminated children. Since the times of
+ * a terminated child are added to its parent, the sum over the tree does not
+ * decrease when processes terminate.</li>
+ * <li><b>Peak memory</b>: the maximal resident set size of the tree, i.e. the
+ * maximum of the summed VmRSS over all samples and the VmHWM of every single
+ * process.</li>
+ * <li><b>Read and written bytes</b>: the rchar and wchar counters of all
+ * processes of the tree. These count all bytes passed to read and write
+ * system calls, independent of whether they were served by the page cache.</li>
+ * </ul>
+ * 
+ * <p>
+ * Resources used after the last sample of a process are not contained. Thus
+ * for very short processes the values are lower bounds.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ProcessUsage {
+
+	/**
+	 * The length of a clock tick used in /proc/&lt;pid&gt;/stat in
+	 * milliseconds; USER_HZ is 100 on all common Linux platforms.
+	 */
+	protected static final long MILLIS_PER_TICK = 10;
+
+	/**
+	 * The last sampled read bytes of every process of the tree.
+	 */
+	protected Map<Integer, Long> readBytes;
+
+	/**
+	 * The last sampled written bytes of every process of the tree.
+	 */
+	protected Map<Integer, Long> writeBytes;
+
+	/**
+	 * The maximal CPU time in ticks of the tree over all samples.
+	 */
+	protected long maxCpuTicks;
+
+	protected long peakMemory;
+
+	protected int sampleCount;
+
+	protected boolean killed;
+
+	/**
+	 * Creates a new empty process usage.
+	 */
+	public ProcessUsage() {
+		super();
+		this.readBytes = new HashMap<Integer, Long>();
+		this.writeBytes = new HashMap<Integer, Long>();
+	}
+
+	/**
+	 * Samples the resources currently used by the given process and its
+	 * descendants.
+	 * 
+	 * @param pid
+	 *            The id of the root process of the tree.
+	 */
+	public void sample(final int pid) {
+		List<Integer> pids = new ArrayList<Integer>();
+		pids.add(pid);
+		pids.addAll(ProcessSupervisor.getDescendants(pid));
+
+		long treeCpuTicks = 0;
+		long treeMemory = 0;
+		long maxProcessMemory = 0;
+		Map<Integer, Long> read = new HashMap<Integer, Long>();
+		Map<Integer, Long> written = new HashMap<Integer, Long>();
+		boolean sampled = false;
+		for (Integer p : pids) {
+			File procDir = new File("/proc", p.toString());
+
+			String[] stat = readStat(procDir);
+			if (stat == null)
+				// the process terminated in the meantime
+				continue;
+			sampled = true;
+			// utime, stime, cutime and cstime
+			treeCpuTicks += Long.parseLong(stat[11])
+					+ Long.parseLong(stat[12]) + Long.parseLong(stat[13])
+					+ Long.parseLong(stat[14]);
+
+			Map<String, Long> status = readKeyValues(new File(procDir,
+					"status"));
+			if (status.containsKey("VmRSS"))
+				treeMemory += status.get("VmRSS") * 1024;
+			if (status.containsKey("VmHWM"))
+				maxProcessMemory = Math.max(maxProcessMemory,
+						status.get("VmHWM") * 1024);
+
+			Map<String, Long> io = readKeyValues(new File(procDir, "io"));
+			if (io.containsKey("rchar"))
+				read.put(p, io.get("rchar"));
+			if (io.containsKey("wchar"))
+				written.put(p, io.get("wchar"));
+		}
+		if (!sampled)
+			return;
+
+		synchronized (this) {
+			this.sampleCount++;
+			this.maxCpuTicks = Math.max(this.maxCpuTicks, treeCpuTicks);
+			this.peakMemory = Math.max(this.peakMemory,
+					Math.max(treeMemory, maxProcessMemory));
+			this.readBytes.putAll(read);
+			this.writeBytes.putAll(written);
+		}
+	}
+
+	/**
+	 * @param procDir
+	 *            The directory of a process in the /proc filesystem.
+	 * @return The fields of /proc/&lt;pid&gt;/stat following the name of the
+	 *         process, starting with the state; null if the file cannot be
+	 *         read.
+	 */
+	protected static String[] readStat(final File procDir) {
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(new File(
+					procDir, "stat")));
+			try {
+				String stat = reader.readLine();
+				if (stat == null)
+					return null;
+				// the name of the process is in parentheses and may contain
+				// spaces
+				String[] fields = stat.substring(stat.lastIndexOf(')') + 2)
+						.split(" ");
+				if (fields.length < 15)
+					return null;
+				return fields;
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			return null;
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param file
+	 *            A file of the /proc filesystem with lines of the form
+	 *            "key: value [unit]".
+	 * @return The numerical values of the file by their keys; empty if the
+	 *         file cannot be read.
+	 */
+	protected static Map<String, Long> readKeyValues(final File file) {
+		Map<String, Long> result = new HashMap<String, Long>();
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(file));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					int colon = line.indexOf(':');
+					if (colon < 0)
+						continue;
+					String[] value = line.substring(colon + 1).trim()
+							.split("\\s+");
+					try {
+						result.put(line.substring(0, colon),
+								Long.parseLong(value[0]));
+					} catch (NumberFormatException e) {
+						// not a numerical value
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			// the process terminated or the file is not accessible
+		}
+		return result;
+	}
+
+	/**
+	 * Records the resources used by a process that was sampled elsewhere, e.g.
+	 * by the process supervisor of a worker node.
+	 * 
+	 * @param cpuTime
+	 *            The CPU time in milliseconds.
+	 * @param peakMemory
+	 *            The peak resident set size in bytes.
+	 * @param readBytes
+	 *            The number of read bytes.
+	 * @param writeBytes
+	 *            The number of written bytes.
+	 * @param sampleCount
+	 *            The number of successful samples.
+	 */
+	public synchronized void record(final long cpuTime, final long peakMemory,
+			final long readBytes, final long writeBytes, final int sampleCount) {
+		this.maxCpuTicks = Math.max(this.maxCpuTicks, cpuTime
+				/ MILLIS_PER_TICK);
+		this.peakMemory = Math.max(this.peakMemory, peakMemory);
+		// there is no process with id 0
+		this.readBytes.put(0, readBytes);
+		this.writeBytes.put(0, writeBytes);
+		this.sampleCount += sampleCount;
+	}
+
+	/**
+	 * @return The number of successful samples; if this is 0, no usage could be
+	 *         determined.
+	 */
+	public synchronized int getSampleCount() {
+		return this.sampleCount;
+	}
+
+	/**
+	 * @return True, if the process was killed by the {@link ProcessSupervisor}
+	 *         instead of terminating by itself.
+	 */
+	public synchronized boolean isKilled() {
+		return this.killed;
+	}
+
+	/**
+	 * @param killed
+	 *            Whether the process was killed by the
+	 *            {@link ProcessSupervisor}.
+	 */
+	public synchronized void setKilled(final boolean killed) {
+		this.killed = killed;
+	}
+
+	/**
+	 * @return The CPU time (user and system) used by the process tree in
+	 *         milliseconds.
+	 */
+	public synchronized long getCpuTime() {
+		return this.maxCpuTicks * MILLIS_PER_TICK;
+	}
+
+	/**
+	 * @return The peak resident set size of the process tree in bytes.
+	 */
+	public synchronized long getPeakMemory() {
+		return this.peakMemory;
+	}
+
+	/**
+	 * @return The number of bytes read by the process tree.
+	 */
+	public synchronized long getReadBytes() {
+		return sum(this.readBytes);
+	}
+
+	/**
+	 * @return The number of bytes written by the process tree.
+	 */
+	public synchronized long getWriteBytes() {
+		return sum(this.writeBytes);
+	}
+
+	protected static long sum(final Map<Integer, Long> values) {
+		long result = 0;
+		for (Long value : values.values())
+			result += value;
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		return "ProcessUsage[cpuTime=" + this.getCpuTime() + "ms, peakMemory="
+				+ this.getPeakMemory() + "B, read=" + this.getReadBytes()
+				+ "B, written=" + this.getWriteBytes() + "B]";
+	}
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The work stealing pool shared by all runnables of this process to calculate
+ * the qualities of clusterings. Quality measures that declare themselves
+ * thread safe (see
+ * {@link de.clusteval.quality.QualityMeasure#isThreadSafe()}) are evaluated
+ * as separate tasks of this pool, such that expensive measures do not delay
+ * the cheap ones of the same clustering.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class QualityMeasurePool {
+
+	protected static ForkJoinPool instance;
+
+	/**
+	 * @return The pool, with one worker thread per available core.
+	 */
+	public static synchronized ForkJoinPool getInstance() {
+		if (instance == null)
+			instance = new ForkJoinPool(Runtime.getRuntime()
+					.availableProcessors());
+		return instance;
+	}
+}
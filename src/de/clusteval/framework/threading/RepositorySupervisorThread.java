@@ -187,9 +187,15 @@ public class RepositorySupervisorThread extends SupervisorThread {
 						DataSetGeneratorFinderThread.class), threadSleepTimes,
 				checkOnce);
 
-		this.threads.put(RunSchedulerThread.class, new RunSchedulerThread(this,
+		RunSchedulerThread runScheduler = new RunSchedulerThread(this,
 				this.repository, ClustevalBackendServer
-						.getBackendServerConfiguration().getNumberOfThreads()));
+						.getBackendServerConfiguration().getNumberOfThreads(),
+				ClustevalBackendServer.getBackendServerConfiguration()
+						.getMemory());
+		runScheduler.getExecutor().setDefaultMaxRunningPerClient(
+				ClustevalBackendServer.getBackendServerConfiguration()
+						.getMaxRunnablesPerClient());
+		this.threads.put(RunSchedulerThread.class, runScheduler);
 		this.start();
 	}
 }
@@ -0,0 +1,582 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An executor that admits tasks according to the resources they declare
+ * instead of a fixed number of threads.
+ * 
+ * <p>
+ * The executor has a budget of cores and memory. Submitted tasks wait in a
+ * queue until their {@link ResourceDemand} fits into the remaining budget.
+ * Every task belongs to a run of a client and waiting tasks are started in the
+ * order given by a {@link FairShareQueue}, where the cost of a task is the
+ * number of cores it occupies. Thus clients and runs share the cores according
+ * to their weights and priorities, and the number of running tasks of a client
+ * can be limited. Tasks of the same run are started in the order of their
+ * submission.
+ * 
+ * <p>
+ * Tasks fitting into the remaining budget may start before the task that is
+ * next in the queue, if the latter does not fit yet. To avoid that large tasks
+ * starve, a task can be bypassed only a limited number of times; afterwards no
+ * further tasks are started until it fits.
+ * 
+ * <p>
+ * Demands larger than the budget are reduced to the budget, such that such a
+ * task runs alone.
+ * 
+ * <p>
+ * Tasks without declared resources use {@link ResourceDemand#DEFAULT}, thus
+ * with a core budget of n this executor behaves like a fixed thread pool of n
+ * threads.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ResourceAwareExecutor {
+
+	/**
+	 * The default number of times a waiting task can be bypassed by later
+	 * tasks.
+	 */
+	public static final int DEFAULT_MAX_BYPASSES = 16;
+
+	/**
+	 * The client of tasks submitted without a client.
+	 */
+	public static final String DEFAULT_CLIENT = "";
+
+	/**
+	 * A submitted task together with its demand.
+	 */
+	protected class Task extends FutureTask<Object> {
+
+		protected final ResourceDemand demand;
+
+		protected final String clientId;
+
+		protected final String runId;
+
+		protected final long submitTime;
+
+		protected long startTime;
+
+		protected int bypasses;
+
+		protected Task(final Runnable runnable, final ResourceDemand demand,
+				final String clientId, final String runId) {
+			super(runnable, null);
+			this.demand = demand;
+			this.clientId = clientId;
+			this.runId = runId;
+			this.submitTime = System.currentTimeMillis();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.FutureTask#cancel(boolean)
+		 */
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean result = super.cancel(mayInterruptIfRunning);
+			if (result)
+				cancelled(this);
+			return result;
+		}
+	}
+
+	/**
+	 * The queue position and estimated start time of a waiting task.
+	 */
+	public static class QueuePosition {
+
+		protected final int position;
+
+		protected final long estimatedStartTime;
+
+		protected QueuePosition(final int position,
+				final long estimatedStartTime) {
+			super();
+			this.position = position;
+			this.estimatedStartTime = estimatedStartTime;
+		}
+
+		/**
+		 * @return The number of waiting tasks that will be started before.
+		 */
+		public int getPosition() {
+			return this.position;
+		}
+
+		/**
+		 * @return The estimated time in milliseconds since the epoch, when the
+		 *         task will be started, or -1 if it cannot be estimated yet.
+		 */
+		public long getEstimatedStartTime() {
+			return this.estimatedStartTime;
+		}
+	}
+
+	protected final int coreBudget;
+
+	/**
+	 * The memory budget in megabytes, or -1 if memory is not limited.
+	 */
+	protected final long memoryBudget;
+
+	protected final int maxBypasses;
+
+	/**
+	 * The threads executing the admitted tasks.
+	 */
+	protected final ExecutorService threadPool;
+
+	/**
+	 * The submitted tasks that have not been started yet.
+	 */
+	protected final FairShareQueue<Task> queue;
+
+	/**
+	 * Accepts the waiting tasks that fit into the remaining budget.
+	 */
+	protected final FairShareQueue.Filter<Task> fitsFilter;
+
+	/**
+	 * The tasks that are running right now.
+	 */
+	protected final List<Task> running;
+
+	protected int usedCores;
+
+	protected long usedMemory;
+
+	protected int runningCount;
+
+	protected boolean isShutdown;
+
+	protected final long creationTime;
+
+	protected long startedCount;
+
+	protected long finishedCount;
+
+	/**
+	 * The sum of the run times of the finished tasks in milliseconds.
+	 */
+	protected long totalRunTime;
+
+	protected long totalWaitTime;
+
+	protected long maxWaitTime;
+
+	/**
+	 * The integral of the used cores over time in core milliseconds.
+	 */
+	protected double busyCoreTime;
+
+	protected long lastUpdateTime;
+
+	/**
+	 * @param coreBudget
+	 *            The number of cores available to tasks.
+	 * @param memoryBudget
+	 *            The memory available to tasks in megabytes, or -1 if memory
+	 *            should not be limited.
+	 */
+	public ResourceAwareExecutor(final int coreBudget, final long memoryBudget) {
+		this(coreBudget, memoryBudget, DEFAULT_MAX_BYPASSES);
+	}
+
+	/**
+	 * @param coreBudget
+	 *            The number of cores available to tasks.
+	 * @param memoryBudget
+	 *            The memory available to tasks in megabytes, or -1 if memory
+	 *            should not be limited.
+	 * @param maxBypasses
+	 *            The number of times a waiting task can be bypassed by later
+	 *            tasks.
+	 */
+	public ResourceAwareExecutor(final int coreBudget,
+			final long memoryBudget, final int maxBypasses) {
+		super();
+		if (coreBudget < 1)
+			throw new IllegalArgumentException(
+					"The core budget has to be at least 1");
+		this.coreBudget = coreBudget;
+		this.memoryBudget = memoryBudget;
+		this.maxBypasses = maxBypasses;
+		this.threadPool = Executors.newCachedThreadPool();
+		this.queue = new FairShareQueue<Task>();
+		this.fitsFilter = new FairShareQueue.Filter<Task>() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see
+			 * de.clusteval.framework.threading.FairShareQueue.Filter#accept
+			 * (java.lang.Object)
+			 */
+			@Override
+			public boolean accept(Task task) {
+				return fits(task.demand);
+			}
+		};
+		this.running = new ArrayList<Task>();
+		this.creationTime = System.currentTimeMillis();
+		this.lastUpdateTime = this.creationTime;
+	}
+
+	/**
+	 * @param runnable
+	 *            The task to execute.
+	 * @param demand
+	 *            The resources the task occupies while it is executed.
+	 * @return A future representing the execution of the task.
+	 */
+	public Future<?> submit(final Runnable runnable, final ResourceDemand demand) {
+		return this.submit(runnable, demand, DEFAULT_CLIENT, DEFAULT_CLIENT,
+				1.0, 0);
+	}
+
+	/**
+	 * @param runnable
+	 *            The task to execute.
+	 * @param demand
+	 *            The resources the task occupies while it is executed.
+	 * @param clientId
+	 *            The id of the client the task belongs to.
+	 * @param runId
+	 *            The id of the run the task belongs to.
+	 * @param runWeight
+	 *            The weight of the run when sharing the cores between the runs
+	 *            of the client.
+	 * @param runPriority
+	 *            The priority of the run among the runs of the client.
+	 * @return A future representing the execution of the task.
+	 */
+	public Future<?> submit(final Runnable runnable,
+			final ResourceDemand demand, final String clientId,
+			final String runId, final double runWeight, final int runPriority) {
+		Task task = new Task(runnable, this.limitToBudget(demand), clientId,
+				runId);
+		synchronized (this) {
+			if (this.isShutdown)
+				throw new RejectedExecutionException(
+						"The executor has been shut down");
+			this.queue.add(task, clientId, runId, runWeight, runPriority,
+					Math.max(task.demand.getCores(), 1));
+			this.admit();
+		}
+		return task;
+	}
+
+	/**
+	 * @param clientId
+	 *            The id of the client.
+	 * @param weight
+	 *            The weight of the client when sharing the cores between
+	 *            clients.
+	 * @param priority
+	 *            The priority of the client.
+	 * @param maxRunning
+	 *            The maximal number of running tasks of the client, or -1 if
+	 *            unlimited.
+	 */
+	public synchronized void setClientShare(final String clientId,
+			final double weight, final int priority, final int maxRunning) {
+		this.queue.setClientShare(clientId, weight, priority, maxRunning);
+		this.admit();
+	}
+
+	protected ResourceDemand limitToBudget(final ResourceDemand demand) {
+		long memory = demand.getMemory();
+		if (this.memoryBudget >= 0)
+			memory = Math.min(memory, this.memoryBudget);
+		return new ResourceDemand(Math.min(demand.getCores(), this.coreBudget),
+				memory);
+	}
+
+	protected boolean fits(final ResourceDemand demand) {
+		return this.usedCores + demand.getCores() <= this.coreBudget
+				&& (this.memoryBudget < 0 || this.usedMemory
+						+ demand.getMemory() <= this.memoryBudget);
+	}
+
+	/**
+	 * @param maxRunning
+	 *            The maximal number of running tasks of clients without
+	 *            explicit share, or -1 if unlimited.
+	 */
+	public synchronized void setDefaultMaxRunningPerClient(final int maxRunning) {
+		this.queue.setDefaultMaxRunning(maxRunning);
+	}
+
+	/**
+	 * Starts all waiting tasks that fit into the remaining budget.
+	 */
+	protected synchronized void admit() {
+		while (true) {
+			Task next = this.queue.peek(null);
+			if (next == null)
+				break;
+			// reserve the free resources for the next task
+			if (next.bypasses >= this.maxBypasses && !this.fits(next.demand))
+				break;
+			Task task = this.queue.poll(this.fitsFilter);
+			if (task == null)
+				break;
+			if (task != next)
+				next.bypasses++;
+			this.start(task);
+		}
+		if (this.isShutdown && this.queue.isEmpty() && this.runningCount == 0)
+			this.threadPool.shutdown();
+	}
+
+	protected synchronized void cancelled(final Task task) {
+		if (this.queue.remove(task))
+			this.admit();
+	}
+
+	protected void start(final Task task) {
+		this.updateBusyCoreTime();
+		this.usedCores += task.demand.getCores();
+		this.usedMemory += task.demand.getMemory();
+		this.runningCount++;
+		this.running.add(task);
+
+		task.startTime = System.currentTimeMillis();
+		long waitTime = task.startTime - task.submitTime;
+		this.startedCount++;
+		this.totalWaitTime += waitTime;
+		this.maxWaitTime = Math.max(this.maxWaitTime, waitTime);
+
+		this.threadPool.execute(new Runnable() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				try {
+					task.run();
+				} finally {
+					release(task);
+				}
+			}
+		});
+	}
+
+	protected synchronized void release(final Task task) {
+		this.updateBusyCoreTime();
+		this.usedCores -= task.demand.getCores();
+		this.usedMemory -= task.demand.getMemory();
+		this.runningCount--;
+		this.running.remove(task);
+		this.queue.finished(task.clientId);
+		this.finishedCount++;
+		this.totalRunTime += System.currentTimeMillis() - task.startTime;
+		this.admit();
+	}
+
+	protected void updateBusyCoreTime() {
+		long now = System.currentTimeMillis();
+		this.busyCoreTime += (double) this.usedCores
+				* (now - this.lastUpdateTime);
+		this.lastUpdateTime = now;
+	}
+
+	/**
+	 * No further tasks are accepted. Waiting tasks are still executed.
+	 */
+	public synchronized void shutdown() {
+		this.isShutdown = true;
+		this.admit();
+	}
+
+	/**
+	 * No further tasks are accepted and waiting tasks are cancelled. Running
+	 * tasks are interrupted.
+	 */
+	public synchronized void shutdownNow() {
+		this.isShutdown = true;
+		for (Task task : this.queue.getElements())
+			task.cancel(false);
+		this.threadPool.shutdownNow();
+	}
+
+	/**
+	 * @return True, if {@link #shutdown()} or {@link #shutdownNow()} has been
+	 *         invoked.
+	 */
+	public synchronized boolean isShutdown() {
+		return this.isShutdown;
+	}
+
+	/**
+	 * @return The number of cores available to tasks.
+	 */
+	public int getCoreBudget() {
+		return this.coreBudget;
+	}
+
+	/**
+	 * @return The memory available to tasks in megabytes, or -1 if memory is
+	 *         not limited.
+	 */
+	public long getMemoryBudget() {
+		return this.memoryBudget;
+	}
+
+	/**
+	 * @return The number of cores occupied by running tasks.
+	 */
+	public synchronized int getUsedCores() {
+		return this.usedCores;
+	}
+
+	/**
+	 * @return The memory in megabytes occupied by running tasks.
+	 */
+	public synchronized long getUsedMemory() {
+		return this.usedMemory;
+	}
+
+	/**
+	 * @return The number of running tasks.
+	 */
+	public synchronized int getRunningCount() {
+		return this.runningCount;
+	}
+
+	/**
+	 * @return The number of tasks waiting for resources.
+	 */
+	public synchronized int getWaitingCount() {
+		return this.queue.size();
+	}
+
+	/**
+	 * This method estimates the start times of waiting tasks by simulating
+	 * the order of the queue. It assumes that every task runs as long as the
+	 * finished tasks did on average and that the cores are the limiting
+	 * resource.
+	 * 
+	 * @param clientId
+	 *            The id of the client.
+	 * @return For every run of the client with waiting tasks the position and
+	 *         estimated start time of the next waiting task of that run.
+	 */
+	public synchronized Map<String, QueuePosition> getQueuePositions(
+			final String clientId) {
+		Map<String, QueuePosition> result = new HashMap<String, QueuePosition>();
+		long now = System.currentTimeMillis();
+		double averageRunTime = this.finishedCount > 0
+				? this.totalRunTime / (double) this.finishedCount
+				: -1.0;
+
+		// core milliseconds needed before the next task can start
+		double coreTimeAhead = 0.0;
+		for (Task task : this.running)
+			coreTimeAhead += task.demand.getCores()
+					* Math.max(averageRunTime - (now - task.startTime), 0.0);
+		coreTimeAhead -= (this.coreBudget - this.usedCores) * averageRunTime;
+
+		int position = 0;
+		for (Task task : this.queue.getOrder()) {
+			if (task.clientId.equals(clientId)
+					&& !result.containsKey(task.runId)) {
+				long estimatedStartTime = -1;
+				if (averageRunTime >= 0.0)
+					estimatedStartTime = now
+							+ (long) Math.max(coreTimeAhead / this.coreBudget,
+									0.0);
+				result.put(task.runId, new QueuePosition(position,
+						estimatedStartTime));
+			}
+			coreTimeAhead += task.demand.getCores() * averageRunTime;
+			position++;
+		}
+		return result;
+	}
+
+	/**
+	 * @return The fraction of the core budget occupied right now.
+	 */
+	public synchronized double getCoreUtilization() {
+		return this.usedCores / (double) this.coreBudget;
+	}
+
+	/**
+	 * @return The fraction of the memory budget occupied right now, or NaN if
+	 *         memory is not limited.
+	 */
+	public synchronized double getMemoryUtilization() {
+		if (this.memoryBudget <= 0)
+			return Double.NaN;
+		return this.usedMemory / (double) this.memoryBudget;
+	}
+
+	/**
+	 * @return The average fraction of the core budget occupied since this
+	 *         executor was created.
+	 */
+	public synchronized double getAverageCoreUtilization() {
+		this.updateBusyCoreTime();
+		long elapsed = this.lastUpdateTime - this.creationTime;
+		if (elapsed == 0)
+			return this.getCoreUtilization();
+		return this.busyCoreTime / ((double) this.coreBudget * elapsed);
+	}
+
+	/**
+	 * @return The number of tasks started so far.
+	 */
+	public synchronized long getStartedCount() {
+		return this.startedCount;
+	}
+
+	/**
+	 * @return The average time in milliseconds the started tasks waited for
+	 *         their resources.
+	 */
+	public synchronized double getAverageWaitTime() {
+		if (this.startedCount == 0)
+			return 0.0;
+		return this.totalWaitTime / (double) this.startedCount;
+	}
+
+	/**
+	 * @return The maximal time in milliseconds a started task waited for its
+	 *         resources.
+	 */
+	public synchronized long getMaxWaitTime() {
+		return this.maxWaitTime;
+	}
+}
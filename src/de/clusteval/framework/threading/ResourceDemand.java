@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.io.Serializable;
+
+/**
+ * The resources a runnable is expected to occupy while it is executed: a
+ * number of cores and an amount of memory in megabytes.
+ * 
+ * <p>
+ * Resource demands are immutable.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ResourceDemand implements Serializable {
+
+	private static final long serialVersionUID = 4129046203398143025L;
+
+	/**
+	 * The demand of a runnable that did not declare its resources: one core
+	 * and no memory, which corresponds to one thread of a fixed size thread
+	 * pool.
+	 */
+	public static final ResourceDemand DEFAULT = new ResourceDemand(1, 0);
+
+	protected final int cores;
+
+	protected final long memory;
+
+	/**
+	 * @param cores
+	 *            The number of cores.
+	 * @param memory
+	 *            The memory in megabytes.
+	 */
+	public ResourceDemand(final int cores, final long memory) {
+		super();
+		if (cores < 0 || memory < 0)
+			throw new IllegalArgumentException(
+					"Resource demands cannot be negative: " + cores + " cores, "
+							+ memory + " MB");
+		this.cores = cores;
+		this.memory = memory;
+	}
+
+	/**
+	 * @return The number of cores.
+	 */
+	public int getCores() {
+		return this.cores;
+	}
+
+	/**
+	 * @return The memory in megabytes.
+	 */
+	public long getMemory() {
+		return this.memory;
+	}
+
+	/**
+	 * @param factor
+	 *            The factor.
+	 * @return The demand of the given number of runnables with this demand
+	 *         each.
+	 */
+	public ResourceDemand times(final int factor) {
+		return new ResourceDemand(this.cores * factor, this.memory * factor);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof ResourceDemand))
+			return false;
+		ResourceDemand other = (ResourceDemand) obj;
+		return this.cores == other.cores && this.memory == other.memory;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * this.cores + (int) (this.memory ^ (this.memory >>> 32));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.cores + " cores, " + this.memory + " MB";
+	}
+}
@@ -17,15 +17,16 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +77,13 @@ public class RunSchedulerThread extends ClustevalThread {
 	 */
 	protected Map<String, Collection<Run>> clientToRunResumes;
 
+	/**
+	 * A map containing the client id of every run and run resume that is
+	 * executed right now. Runs are compared by identity, since clones of the
+	 * same run are equal.
+	 */
+	protected Map<Run, String> runToClient;
+
 	/**
 	 * The repository this run scheduler belongs to. This scheduler can only
 	 * control runs that are contained in this repository.
@@ -85,11 +93,11 @@ public class RunSchedulerThread extends ClustevalThread {
 	protected Logger log;
 
 	/**
-	 * A thread pool containing all threads that were started to execute runs.
-	 * This data structure allows convenient control over the number of threads
-	 * to be started in parallel.
+	 * The executor executing the runnables of runs. It starts runnables as
+	 * soon as the cores and memory they declare (see
+	 * {@link RunRunnable#getResourceDemand()}) are available.
 	 */
-	protected ScheduledThreadPoolExecutor threadPool;
+	protected ResourceAwareExecutor threadPool;
 
 	/**
 	 * Constructor of run scheduler threads.
@@ -104,15 +112,43 @@ public class RunSchedulerThread extends ClustevalThread {
 	 */
 	public RunSchedulerThread(final SupervisorThread supervisorThread,
 			final Repository repository, final int numberThreads) {
+		this(supervisorThread, repository, numberThreads, -1);
+	}
+
+	/**
+	 * Constructor of run scheduler threads.
+	 * 
+	 * @param supervisorThread
+	 * 
+	 * @param repository
+	 *            The repository this run scheduler belongs to. This scheduler
+	 *            can only control runs that are contained in this repository.
+	 * @param numberCores
+	 *            The number of cores available to runnables executed in
+	 *            parallel.
+	 * @param memory
+	 *            The memory in megabytes available to runnables executed in
+	 *            parallel, or -1 if memory should not be limited.
+	 */
+	public RunSchedulerThread(final SupervisorThread supervisorThread,
+			final Repository repository, final int numberCores,
+			final long memory) {
 		super(supervisorThread);
 		this.setName(this.getName().replace("Thread", "RunScheduler"));
 		this.runQueue = new ConcurrentLinkedQueue<Triple<String, String, Boolean>>();
 		this.clientToRuns = new HashMap<String, Collection<Run>>();
 		this.clientToRunResumes = new HashMap<String, Collection<Run>>();
+		this.runToClient = Collections
+				.synchronizedMap(new IdentityHashMap<Run, String>());
 		this.repository = repository;
 		this.log = LoggerFactory.getLogger(this.getClass());
-		this.threadPool = new ScheduledThreadPoolExecutor(numberThreads);
-		this.threadPool.setMaximumPoolSize(this.threadPool.getCorePoolSize());
+		this.threadPool = new ResourceAwareExecutor(numberCores, memory);
+		// the evaluation pool is shared by all repositories of this process
+		if (repository.getRepositoryConfig() != null)
+			EvaluationPool.getInstance().configure(
+					repository.getRepositoryConfig().getEvaluationThreads(),
+					repository.getRepositoryConfig()
+							.getEvaluationPoolCapacity());
 		this.start();
 	}
 
@@ -449,6 +485,7 @@ public class RunSchedulerThread extends ClustevalThread {
 					if (this.clientToRuns.get(clientId).contains(run))
 						this.clientToRuns.get(clientId).remove(run);
 					this.clientToRuns.get(clientId).add(run);
+					this.runToClient.put(run, clientId);
 
 					Thread t = new Thread() {
 
@@ -465,6 +502,8 @@ public class RunSchedulerThread extends ClustevalThread {
 								e1.printStackTrace();
 							} catch (RunRunnableInitializationException e) {
 								e.printStackTrace();
+							} finally {
+								runToClient.remove(run);
 							}
 						}
 					};
@@ -486,6 +525,7 @@ public class RunSchedulerThread extends ClustevalThread {
 						if (this.clientToRunResumes.get(clientId).contains(run))
 							this.clientToRunResumes.get(clientId).remove(run);
 						this.clientToRunResumes.get(clientId).add(run);
+						this.runToClient.put(run, clientId);
 
 						Thread t = new Thread() {
 
@@ -506,6 +546,8 @@ public class RunSchedulerThread extends ClustevalThread {
 									e1.printStackTrace();
 								} catch (RunRunnableInitializationException e) {
 									e.printStackTrace();
+								} finally {
+									runToClient.remove(run);
 								}
 							}
 						};
@@ -539,9 +581,10 @@ public class RunSchedulerThread extends ClustevalThread {
 	}
 
 	/**
-	 * This method takes a {@link RunRunnable} and adds it to the thread pool of
-	 * this run scheduler thread. The thread pool then determines, when the
-	 * runnable can and will be performed depending on the available ressources.
+	 * This method takes a {@link RunRunnable} and adds it to the executor of
+	 * this run scheduler thread. The executor then determines, when the
+	 * runnable can and will be performed depending on the available ressources
+	 * and the resources declared by the runnable.
 	 * 
 	 * @param runRunnable
 	 *            The new runnable to perform.
@@ -549,6 +592,86 @@ public class RunSchedulerThread extends ClustevalThread {
 	 *         the execution of the runnable.
 	 */
 	public Future<?> registerRunRunnable(RunRunnable runRunnable) {
-		return this.threadPool.submit(runRunnable);
+		Run run = runRunnable.getRun();
+		String clientId = this.runToClient.get(run);
+		if (clientId == null)
+			clientId = ResourceAwareExecutor.DEFAULT_CLIENT;
+		return this.threadPool.submit(runRunnable,
+				runRunnable.getResourceDemand(), clientId,
+				run.getRunIdentificationString(), run.getSchedulingWeight(),
+				run.getSchedulingPriority());
+	}
+
+	/**
+	 * This method sets how the runnables of the given client share the cores
+	 * with the runnables of other clients.
+	 * 
+	 * @param clientId
+	 *            The id of the client.
+	 * @param weight
+	 *            The weight of the client. Clients get cores proportional to
+	 *            their weights.
+	 * @param priority
+	 *            The priority of the client. Runnables of clients with higher
+	 *            priorities are started first.
+	 * @param maxRunnables
+	 *            The maximal number of runnables of the client executed in
+	 *            parallel, or -1 if unlimited.
+	 */
+	public void setClientShare(final String clientId, final double weight,
+			final int priority, final int maxRunnables) {
+		this.threadPool.setClientShare(clientId, weight, priority,
+				maxRunnables);
+	}
+
+	/**
+	 * This method is invoked by
+	 * {@link ClustevalBackendServer#getQueuePositionsForClientId(String)}.
+	 * 
+	 * <p>
+	 * For runs that were scheduled but did not create their runnables yet, the
+	 * position is the number of waiting runnables and no start time is
+	 * estimated.
+	 * 
+	 * @param clientId
+	 *            The id of the client.
+	 * @return A map containing the id of every run and run resume of the
+	 *         client with waiting runnables, together with the position of
+	 *         its next waiting runnable in the queue and the estimated start
+	 *         time of that runnable in milliseconds since the epoch (-1 if it
+	 *         cannot be estimated yet).
+	 */
+	public Map<String, Pair<Integer, Long>> getQueuePositionsForClientId(
+			final String clientId) {
+		Map<String, Pair<Integer, Long>> result = new HashMap<String, Pair<Integer, Long>>();
+
+		Map<String, ResourceAwareExecutor.QueuePosition> positions = this.threadPool
+				.getQueuePositions(clientId);
+		List<Run> runs = new ArrayList<Run>();
+		if (this.clientToRuns.containsKey(clientId))
+			runs.addAll(this.clientToRuns.get(clientId));
+		if (this.clientToRunResumes.containsKey(clientId))
+			runs.addAll(this.clientToRunResumes.get(clientId));
+		for (Run run : runs) {
+			ResourceAwareExecutor.QueuePosition position = positions.get(run
+					.getRunIdentificationString());
+			if (position != null)
+				result.put(run.getName(), Pair.getPair(position.getPosition(),
+						position.getEstimatedStartTime()));
+		}
+
+		int waiting = this.threadPool.getWaitingCount();
+		for (Triple<String, String, Boolean> triple : this.runQueue)
+			if (triple.getFirst().equals(clientId))
+				result.put(triple.getSecond(), Pair.getPair(waiting, -1L));
+		return result;
+	}
+
+	/**
+	 * @return The executor of this run scheduler, which provides utilization
+	 *         and wait time metrics.
+	 */
+	public ResourceAwareExecutor getExecutor() {
+		return this.threadPool;
 	}
 }
@@ -23,6 +23,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import utils.Pair;
 import de.clusteval.data.DataConfig;
@@ -30,10 +33,12 @@ import de.clusteval.data.dataset.format.InvalidDataSetFormatVersionException;
 import de.clusteval.data.dataset.format.UnknownDataSetFormatException;
 import de.clusteval.data.goldstandard.format.UnknownGoldStandardFormatException;
 import de.clusteval.framework.repository.Repository;
+import de.clusteval.framework.threading.QualityMeasurePool;
 import de.clusteval.program.ParameterSet;
 import de.clusteval.quality.QualityMeasure;
 import de.clusteval.quality.QualityMeasureValue;
 import de.clusteval.quality.QualitySet;
+import de.clusteval.quality.ResourceUsageQualityMeasure;
 
 /**
  * @author Christian Wiwie
@@ -55,6 +60,12 @@ public class GraphMatching implements Iterable<Pair<String, String>> {
 
 	protected Map<String, String> graph1ToGraph2;
 
+	/**
+	 * The optional scores of the matched pairs. Only initialized, if any pair
+	 * was added together with a score.
+	 */
+	protected Map<Pair<String, String>, Double> scores;
+
 	protected QualitySet qualities;
 
 	/**
@@ -77,6 +88,9 @@ public class GraphMatching implements Iterable<Pair<String, String>> {
 		super();
 		this.mappings = cloneMappings(other.mappings);
 		updateMap();
+		if (other.scores != null)
+			this.scores = new HashMap<Pair<String, String>, Double>(
+					other.scores);
 		this.qualities = other.qualities;
 	}
 
@@ -149,6 +163,37 @@ public class GraphMatching implements Iterable<Pair<String, String>> {
 		this.graph1ToGraph2.put(pair.getFirst(), pair.getSecond());
 	}
 
+	/**
+	 * @param pair
+	 *            The matched pair to add.
+	 * @param score
+	 *            The score of the matched pair.
+	 */
+	public void addMatching(final Pair<String, String> pair, final double score) {
+		this.addMatching(pair);
+		if (this.scores == null)
+			this.scores = new HashMap<Pair<String, String>, Double>();
+		this.scores.put(pair, score);
+	}
+
+	/**
+	 * @param pair
+	 *            The matched pair.
+	 * @return The score of the given pair, or null if no score is available.
+	 */
+	public Double getScore(final Pair<String, String> pair) {
+		if (this.scores == null)
+			return null;
+		return this.scores.get(pair);
+	}
+
+	/**
+	 * @return True, if any of the matched pairs has a score.
+	 */
+	public boolean hasScores() {
+		return this.scores != null;
+	}
+
 	public int size() {
 		return this.mappings.size();
 	}
@@ -212,6 +257,12 @@ public class GraphMatching implements Iterable<Pair<String, String>> {
 	/**
 	 * Assess quality.
 	 * 
+	 * <p>
+	 * The goldstandard is loaded only once and shared by all quality measures.
+	 * Thread safe quality measures (see {@link QualityMeasure#isThreadSafe()})
+	 * are evaluated in parallel in the {@link QualityMeasurePool}, while the
+	 * remaining ones are evaluated one after another by the calling thread.
+	 * 
 	 * @param dataConfig
 	 * 
 	 * @param qualityMeasures
@@ -230,42 +281,191 @@ public class GraphMatching implements Iterable<Pair<String, String>> {
 			throws UnknownGoldStandardFormatException, IOException,
 			UnknownDataSetFormatException, InvalidDataSetFormatVersionException {
 		final QualitySet resultSet = new QualitySet();
+		List<QualityMeasure> measures = new ArrayList<QualityMeasure>();
 		for (QualityMeasure qualityMeasure : qualityMeasures) {
+			// resource usages are set by the executing runnable
+			if (qualityMeasure instanceof ResourceUsageQualityMeasure)
+				continue;
 			// do not calculate, when there is no goldstandard
 			if (qualityMeasure.requiresGoldstandard()
 					&& !dataConfig.hasGoldStandardConfig())
 				continue;
-			QualityMeasureValue quality;
-			try {
-				GraphMatching goldStandard = null;
-				if (dataConfig.hasGoldStandardConfig())
-					goldStandard = dataConfig.getGoldstandardConfig()
-							.getGoldstandard().getClustering();
-				quality = qualityMeasure.getQualityOf(this, goldStandard,
-						dataConfig);
-				if (dataConfig.hasGoldStandardConfig())
-					dataConfig.getGoldstandardConfig().getGoldstandard()
-							.unloadFromMemory();
-				// we rethrow some exceptions, since they mean, that we
-				// cannot calculate ANY quality measures for this data
-			} catch (UnknownGoldStandardFormatException e) {
-				throw e;
-			} catch (IOException e) {
-				throw e;
-			} catch (UnknownDataSetFormatException e) {
-				throw e;
-			} catch (InvalidDataSetFormatVersionException e) {
-				throw e;
-			} catch (Exception e) {
-				// all the remaining exceptions are catched, because they
-				// mean, that the quality measure calculation is flawed
-				quality = QualityMeasureValue.getForDouble(Double.NaN);
+			measures.add(qualityMeasure);
+		}
+		if (measures.isEmpty())
+			return resultSet;
+
+		final GraphMatching goldStandard;
+		if (dataConfig.hasGoldStandardConfig())
+			goldStandard = dataConfig.getGoldstandardConfig().getGoldstandard()
+					.getClustering();
+		else
+			goldStandard = null;
+		try {
+			Map<QualityMeasure, Future<QualityMeasureValue>> tasks = new HashMap<QualityMeasure, Future<QualityMeasureValue>>();
+			for (final QualityMeasure qualityMeasure : measures) {
+				if (!qualityMeasure.isThreadSafe())
+					continue;
+				tasks.put(qualityMeasure, QualityMeasurePool.getInstance()
+						.submit(new Callable<QualityMeasureValue>() {
+
+							/*
+							 * (non-Javadoc)
+							 * 
+							 * @see java.util.concurrent.Callable#call()
+							 */
+							@Override
+							public QualityMeasureValue call() throws Exception {
+								return assessQuality(dataConfig,
+										qualityMeasure, goldStandard);
+							}
+						}));
+			}
+
+			Map<QualityMeasure, QualityMeasureValue> qualities = new HashMap<QualityMeasure, QualityMeasureValue>();
+			Exception exception = null;
+			for (QualityMeasure qualityMeasure : measures) {
+				if (tasks.containsKey(qualityMeasure))
+					continue;
+				try {
+					qualities.put(qualityMeasure, assessQuality(dataConfig,
+							qualityMeasure, goldStandard));
+				} catch (Exception e) {
+					exception = e;
+					break;
+				}
+			}
+			// wait for all tasks, such that none of them uses the goldstandard
+			// after it has been unloaded
+			for (Map.Entry<QualityMeasure, Future<QualityMeasureValue>> task : tasks
+					.entrySet()) {
+				try {
+					qualities.put(task.getKey(), getUninterruptibly(task
+							.getValue()));
+				} catch (ExecutionException e) {
+					if (exception == null)
+						exception = unwrap(e);
+				}
 			}
-			resultSet.put(qualityMeasure, quality);
+			if (exception != null)
+				rethrow(exception);
+
+			for (QualityMeasure qualityMeasure : measures)
+				resultSet.put(qualityMeasure, qualities.get(qualityMeasure));
+		} finally {
+			if (dataConfig.hasGoldStandardConfig())
+				dataConfig.getGoldstandardConfig().getGoldstandard()
+						.unloadFromMemory();
 		}
 		return resultSet;
 	}
 
+	/**
+	 * @param dataConfig
+	 * @param qualityMeasure
+	 *            The quality measure to evaluate.
+	 * @param goldStandard
+	 *            The loaded goldstandard or null.
+	 * @return The quality of this clustering; NaN, if the quality measure
+	 *         failed.
+	 * @throws UnknownGoldStandardFormatException
+	 * @throws IOException
+	 * @throws UnknownDataSetFormatException
+	 * @throws InvalidDataSetFormatVersionException
+	 */
+	protected QualityMeasureValue assessQuality(final DataConfig dataConfig,
+			final QualityMeasure qualityMeasure,
+			final GraphMatching goldStandard)
+			throws UnknownGoldStandardFormatException, IOException,
+			UnknownDataSetFormatException, InvalidDataSetFormatVersionException {
+		try {
+			return qualityMeasure.getQualityOf(this, goldStandard, dataConfig);
+			// we rethrow some exceptions, since they mean, that we
+			// cannot calculate ANY quality measures for this data
+		} catch (UnknownGoldStandardFormatException e) {
+			throw e;
+		} catch (IOException e) {
+			throw e;
+		} catch (UnknownDataSetFormatException e) {
+			throw e;
+		} catch (InvalidDataSetFormatVersionException e) {
+			throw e;
+		} catch (Exception e) {
+			// all the remaining exceptions are catched, because they
+			// mean, that the quality measure calculation is flawed
+			return QualityMeasureValue.getForDouble(Double.NaN);
+		}
+	}
+
+	/**
+	 * Waits for the future, even if the current thread is interrupted. The
+	 * interrupt status is restored afterwards.
+	 * 
+	 * @param future
+	 * @return The result of the future.
+	 * @throws ExecutionException
+	 */
+	protected static <T> T getUninterruptibly(final Future<T> future)
+			throws ExecutionException {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @param e
+	 * @return The exception thrown by the quality measure, which may be
+	 *         wrapped several times by the pool.
+	 */
+	protected static Exception unwrap(final ExecutionException e) {
+		Throwable cause = e;
+		while (cause.getCause() != null
+				&& (cause instanceof ExecutionException || cause.getClass()
+						.equals(RuntimeException.class)))
+			cause = cause.getCause();
+		if (cause instanceof Error)
+			throw (Error) cause;
+		if (cause instanceof Exception)
+			return (Exception) cause;
+		return e;
+	}
+
+	/**
+	 * Rethrows the exceptions that mean, that we cannot calculate ANY quality
+	 * measures for this data.
+	 * 
+	 * @param e
+	 * @throws UnknownGoldStandardFormatException
+	 * @throws IOException
+	 * @throws UnknownDataSetFormatException
+	 * @throws InvalidDataSetFormatVersionException
+	 */
+	protected static void rethrow(final Exception e)
+			throws UnknownGoldStandardFormatException, IOException,
+			UnknownDataSetFormatException, InvalidDataSetFormatVersionException {
+		if (e instanceof UnknownGoldStandardFormatException)
+			throw (UnknownGoldStandardFormatException) e;
+		if (e instanceof IOException)
+			throw (IOException) e;
+		if (e instanceof UnknownDataSetFormatException)
+			throw (UnknownDataSetFormatException) e;
+		if (e instanceof InvalidDataSetFormatVersionException)
+			throw (InvalidDataSetFormatVersionException) e;
+		if (e instanceof RuntimeException)
+			throw (RuntimeException) e;
+		throw new RuntimeException(e);
+	}
+
 	/**
 	 * @param qualitySet
 	 *            Set the qualities of this clustering.
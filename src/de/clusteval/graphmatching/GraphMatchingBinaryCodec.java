@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.graphmatching;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import utils.Pair;
+import de.clusteval.data.dataset.VertexDictionary;
+import de.clusteval.program.ParameterSet;
+
+/**
+ * A compact binary encoding of graph matchings.
+ * 
+ * <p>
+ * Instead of the vertex labels, the matched pairs are stored as indices into
+ * the {@link VertexDictionary} of the two graphs of the dataset. The pairs are
+ * sorted and every index is stored as a variable length encoded difference to
+ * the previous pair. The header references the content hashes of the two
+ * dictionaries, such that a matching can only be decoded with the dictionaries
+ * of the dataset it was calculated on.
+ * 
+ * <p>
+ * File layout:
+ * <ul>
+ * <li>magic number and version</li>
+ * <li>number of parameters, followed by name and value of every parameter</li>
+ * <li>content hashes of the dictionaries of the first and second graph</li>
+ * <li>number of pairs and a flag, whether scores are stored</li>
+ * <li>for every pair the difference to the index of the first vertex of the
+ * previous pair and the index of the second vertex (relative to the previous
+ * pair, if the first vertex is the same)</li>
+ * <li>the scores of the pairs, if available</li>
+ * <li>pairs whose vertices are not contained in the dictionaries, stored with
+ * their labels</li>
+ * </ul>
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class GraphMatchingBinaryCodec {
+
+	/**
+	 * The magic number at the beginning of every binary matching file.
+	 */
+	public static final int MAGIC = 0x43454742;
+
+	protected static final int VERSION = 1;
+
+	/**
+	 * @param file
+	 *            The file to check.
+	 * @return True, if the given file contains a binary encoded matching.
+	 * @throws IOException
+	 */
+	public static boolean isBinary(final File file) throws IOException {
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			return in.readInt() == MAGIC;
+		} catch (EOFException e) {
+			return false;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Encodes the given matching and writes it into the target file. The file
+	 * is first written into a temporary file and then renamed, such that the
+	 * target file can be a text file containing the same matching.
+	 * 
+	 * @param target
+	 *            The file to write the encoded matching into.
+	 * @param params
+	 *            The parameter set of the matching.
+	 * @param matching
+	 *            The matching to encode.
+	 * @param dictionary1
+	 *            The vertex dictionary of the first graph.
+	 * @param dictionary2
+	 *            The vertex dictionary of the second graph.
+	 * @throws IOException
+	 */
+	public static void encode(final File target,
+			final Map<String, String> params, final GraphMatching matching,
+			final VertexDictionary dictionary1,
+			final VertexDictionary dictionary2) throws IOException {
+		// map the labels to indices; pairs with unknown labels are kept apart
+		final List<Pair<String, String>> unknown = new ArrayList<Pair<String, String>>();
+		long[] encoded = new long[matching.size()];
+		int count = 0;
+		for (Pair<String, String> pair : matching) {
+			int first = dictionary1.getIndex(pair.getFirst());
+			int second = dictionary2.getIndex(pair.getSecond());
+			if (first < 0 || second < 0) {
+				unknown.add(pair);
+				continue;
+			}
+			encoded[count++] = ((long) first << 32) | second;
+		}
+		encoded = Arrays.copyOf(encoded, count);
+		Arrays.sort(encoded);
+
+		final boolean hasScores = matching.hasScores();
+		final File tmpFile = new File(target.getAbsolutePath() + ".bin.tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tmpFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			writeVarInt(out, params.size());
+			for (Map.Entry<String, String> entry : params.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeUTF(entry.getValue());
+			}
+			out.writeUTF(dictionary1.getContentHash());
+			out.writeUTF(dictionary2.getContentHash());
+			writeVarInt(out, encoded.length);
+			out.writeBoolean(hasScores);
+
+			int previousFirst = 0;
+			int previousSecond = 0;
+			for (long code : encoded) {
+				int first = (int) (code >>> 32);
+				int second = (int) code;
+				writeVarInt(out, first - previousFirst);
+				if (first == previousFirst)
+					writeVarInt(out, second - previousSecond);
+				else
+					writeVarInt(out, second);
+				previousFirst = first;
+				previousSecond = second;
+			}
+			if (hasScores) {
+				for (long code : encoded) {
+					Double score = matching.getScore(Pair.getPair(
+							dictionary1.getLabel((int) (code >>> 32)),
+							dictionary2.getLabel((int) code)));
+					out.writeDouble(score != null ? score : Double.NaN);
+				}
+			}
+
+			writeVarInt(out, unknown.size());
+			for (Pair<String, String> pair : unknown) {
+				out.writeUTF(pair.getFirst());
+				out.writeUTF(pair.getSecond());
+				if (hasScores) {
+					Double score = matching.getScore(pair);
+					out.writeDouble(score != null ? score : Double.NaN);
+				}
+			}
+		} finally {
+			out.close();
+		}
+		if (!tmpFile.renameTo(target)) {
+			target.delete();
+			if (!tmpFile.renameTo(target)) {
+				tmpFile.delete();
+				throw new IOException("Could not write binary matching "
+						+ target);
+			}
+		}
+	}
+
+	/**
+	 * @param file
+	 *            The file containing the encoded matching.
+	 * @param dictionaryBasePath
+	 *            The folder containing the vertex dictionaries.
+	 * @return The parameter set and the decoded matching.
+	 * @throws IOException
+	 *             If the file is not a binary matching or the referenced
+	 *             dictionaries do not exist.
+	 */
+	public static Pair<ParameterSet, GraphMatching> decode(final File file,
+			final String dictionaryBasePath) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a binary matching file: " + file);
+			int version = in.readByte();
+			if (version != VERSION)
+				throw new IOException("Unsupported binary matching version "
+						+ version + ": " + file);
+
+			final ParameterSet paramSet = new ParameterSet();
+			int paramCount = readVarInt(in);
+			for (int i = 0; i < paramCount; i++)
+				paramSet.put(in.readUTF().intern(), in.readUTF());
+
+			final VertexDictionary dictionary1 = openDictionary(
+					dictionaryBasePath, in.readUTF());
+			final VertexDictionary dictionary2 = openDictionary(
+					dictionaryBasePath, in.readUTF());
+
+			final int count = readVarInt(in);
+			final boolean hasScores = in.readBoolean();
+			final int[] firsts = new int[count];
+			final int[] seconds = new int[count];
+			int previousFirst = 0;
+			int previousSecond = 0;
+			for (int i = 0; i < count; i++) {
+				int first = previousFirst + readVarInt(in);
+				int second = readVarInt(in);
+				if (first == previousFirst)
+					second += previousSecond;
+				firsts[i] = first;
+				seconds[i] = second;
+				previousFirst = first;
+				previousSecond = second;
+			}
+
+			final GraphMatching matching = new GraphMatching();
+			for (int i = 0; i < count; i++) {
+				Pair<String, String> pair = Pair.getPair(
+						dictionary1.getLabel(firsts[i]),
+						dictionary2.getLabel(seconds[i]));
+				if (hasScores)
+					matching.addMatching(pair, in.readDouble());
+				else
+					matching.addMatching(pair);
+			}
+
+			int unknownCount = readVarInt(in);
+			for (int i = 0; i < unknownCount; i++) {
+				Pair<String, String> pair = Pair.getPair(in.readUTF(),
+						in.readUTF());
+				if (hasScores)
+					matching.addMatching(pair, in.readDouble());
+				else
+					matching.addMatching(pair);
+			}
+			return Pair.getPair(paramSet, matching);
+		} finally {
+			in.close();
+		}
+	}
+
+	protected static VertexDictionary openDictionary(
+			final String dictionaryBasePath, final String contentHash)
+			throws IOException {
+		VertexDictionary dictionary = VertexDictionary.open(
+				dictionaryBasePath, contentHash);
+		if (dictionary == null)
+			throw new IOException("The vertex dictionary " + contentHash
+					+ " referenced by the binary matching does not exist");
+		return dictionary;
+	}
+
+	protected static void writeVarInt(final DataOutputStream out, int value)
+			throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	protected static int readVarInt(final DataInputStream in)
+			throws IOException {
+		int result = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = in.readUnsignedByte();
+			result |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return result;
+	}
+}
@@ -13,16 +13,18 @@
  */
 package de.clusteval.graphmatching;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import utils.Pair;
-import utils.parse.TextFileParser;
 import utils.text.TextFileMapParser;
-import de.clusteval.framework.repository.NoRepositoryFoundException;
 import de.clusteval.framework.repository.Repository;
 import de.clusteval.program.ParameterSet;
 import de.clusteval.quality.QualityMeasure;
@@ -33,12 +35,22 @@ import de.clusteval.quality.UnknownQualityMeasureException;
 /**
  * A parser for files containing parameter sets and clusterings.
  * 
+ * <p>
+ * The parser reads the file character by character and adds every matched
+ * pair to the resulting {@link GraphMatching} as soon as it has been read. It
+ * supports the line based format written by {@link GraphMatchingWriter} as
+ * well as the legacy format, in which all pairs are stored in one line
+ * ("a,b;c,d;"). Files encoded by {@link GraphMatchingBinaryCodec} are
+ * detected and decoded using the vertex dictionaries of the repository.
+ * 
  * @author Christian Wiwie
  */
-public class GraphMatchingParser extends TextFileParser {
+public class GraphMatchingParser {
 
 	protected Repository repository;
 
+	protected String absoluteFilePath;
+
 	protected boolean parseQualities;
 
 	/**
@@ -51,6 +63,19 @@ public class GraphMatchingParser extends TextFileParser {
 	 */
 	protected List<String> params;
 
+	/**
+	 * The version of the matching format of the parsed file. Files without a
+	 * version in their header are in the legacy format (version 1), binary
+	 * encoded files have version 0.
+	 */
+	protected int formatVersion;
+
+	/**
+	 * The character that terminated the last token read by
+	 * {@link #readToken(Reader, char, char)}, or -1 at the end of the file.
+	 */
+	private int lastDelimiter;
+
 	/**
 	 * Instantiates a new clustering parser.
 	 * 
@@ -67,74 +92,132 @@ public class GraphMatchingParser extends TextFileParser {
 	public GraphMatchingParser(final Repository repository,
 			final String absFilePath, final boolean parseQualities)
 			throws IOException {
-		super(absFilePath, new int[]{0}, new int[]{1});
+		super();
+		if (!new File(absFilePath).exists())
+			throw new FileNotFoundException(absFilePath);
 		this.repository = repository;
-		this.setLockTargetFile(true);
+		this.absoluteFilePath = absFilePath;
 		this.params = new ArrayList<String>();
 		this.parseQualities = parseQualities;
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Parses the file.
 	 * 
-	 * @see utils.parse.TextFileParser#processLine(java.lang.String[],
-	 * java.lang.String[])
+	 * @return This parser.
+	 * @throws IOException
 	 */
-	@Override
-	protected void processLine(String[] key, String[] value) {
-		String parameterString = key.length > 0 ? key[0] : "";
-		String[] params = parameterString.equals("")
-				? new String[0]
-				: parameterString.split(",");
+	public GraphMatchingParser process() throws IOException {
+		if (GraphMatchingBinaryCodec.isBinary(new File(this.absoluteFilePath))) {
+			if (this.repository == null)
+				throw new IOException(
+						"Binary matchings can only be parsed with a repository");
+			this.formatVersion = 0;
+			this.result = GraphMatchingBinaryCodec.decode(new File(
+					this.absoluteFilePath), this.repository
+					.getDataSetIndexBasePath());
+			this.finishProcess();
+			return this;
+		}
+		final BufferedReader reader = new BufferedReader(new FileReader(
+				this.absoluteFilePath));
+		try {
+			this.parse(reader);
+		} finally {
+			reader.close();
+		}
+		this.finishProcess();
+		return this;
+	}
 
-		if (this.currentLine == 0) {
-			for (String param : params)
-				this.params.add(param.intern());
+	protected void parse(final Reader reader) throws IOException {
+		// header: parameter names, column name and optional format version
+		String parameterString = readToken(reader, '\t', '\n');
+		if (this.lastDelimiter == -1 && parameterString.isEmpty())
 			return;
+		if (!parameterString.isEmpty())
+			for (String param : parameterString.split(","))
+				this.params.add(param.intern());
+		this.formatVersion = 1;
+		if (this.lastDelimiter == '\t') {
+			readToken(reader, '\t', '\n');
+			if (this.lastDelimiter == '\t') {
+				this.formatVersion = Integer.parseInt(readToken(reader, '\n',
+						'\n').trim());
+			}
 		}
 
-		GraphMatching result;
-		try {
-
-			Repository repo = Repository.getRepositoryForPath(absoluteFilePath);
-			if (repo.getParent() != null)
-				repo = repo.getParent();
+		if (this.lastDelimiter == -1)
+			return;
 
-			result = new GraphMatching();
+		// parameter values
+		final char valueDelimiter = this.formatVersion == 1 ? '\t' : '\n';
+		String valueString = readToken(reader, valueDelimiter, '\n');
+		String[] values = valueString.isEmpty()
+				? new String[0]
+				: valueString.split(",");
+		final ParameterSet paramValues = new ParameterSet();
+		for (int pos = 0; pos < this.params.size(); pos++) {
+			paramValues.put(this.params.get(pos), values[pos]);
+		}
 
-			ParameterSet paramValues = new ParameterSet();
-			for (int pos = 0; pos < this.params.size(); pos++) {
-				paramValues.put(this.params.get(pos), params[pos]);
+		final GraphMatching matching = new GraphMatching();
+		if (this.formatVersion == 1) {
+			// legacy format: all pairs in the remainder of the line
+			while (this.lastDelimiter != -1 && this.lastDelimiter != '\n') {
+				String first = readToken(reader, ',', ';');
+				if (this.lastDelimiter != ',')
+					break;
+				String second = readToken(reader, ';', '\n');
+				matching.addMatching(Pair.getPair(first, second));
 			}
-
-			String matchingsString = value[0];
-			String[] matchings = matchingsString.split(";");
-			for (String matching : matchings) {
-				String[] items = matching.split(",");
-				result.addMatching(Pair.getPair(items[0], items[1]));
+		} else {
+			// one pair per line, optionally followed by a score
+			while (this.lastDelimiter != -1) {
+				String first = readToken(reader, '\t', '\n');
+				if (this.lastDelimiter != '\t')
+					continue;
+				String second = readToken(reader, '\t', '\n');
+				if (this.lastDelimiter == '\t')
+					matching.addMatching(Pair.getPair(first, second),
+							Double.parseDouble(readToken(reader, '\n', '\n')));
+				else
+					matching.addMatching(Pair.getPair(first, second));
 			}
-
-			this.result = Pair.getPair(paramValues, result);
-		} catch (NoRepositoryFoundException e) {
-			e.printStackTrace();
-		} catch (Exception e) {
-			e.printStackTrace();
 		}
+		this.result = Pair.getPair(paramValues, matching);
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Reads characters until one of the given delimiters, a line break or the
+	 * end of the file is reached. Carriage returns are ignored.
 	 * 
-	 * @see utils.parse.TextFileParser#finishProcess()
+	 * @return The characters read, without the delimiter.
 	 */
-	@Override
-	public void finishProcess() {
+	private String readToken(final Reader reader, final char delimiter1,
+			final char delimiter2) throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		int c;
+		while ((c = reader.read()) != -1) {
+			if (c == delimiter1 || c == delimiter2 || c == '\n')
+				break;
+			if (c != '\r')
+				sb.append((char) c);
+		}
+		this.lastDelimiter = c;
+		return sb.toString();
+	}
+
+	/**
+	 * Parses the qualities of the matching, if requested.
+	 */
+	protected void finishProcess() {
 		// parse qualities
 		// TODO
 		if (parseQualities) {
 			final File qualityFile = new File(this.absoluteFilePath.replace(
 					".conv", ".qual"));
-			if (qualityFile.exists()) {
+			if (qualityFile.exists() && this.result != null) {
 				try {
 					TextFileMapParser parser = new TextFileMapParser(
 							qualityFile.getAbsolutePath(), 0, 1);
@@ -157,8 +240,13 @@ public class GraphMatchingParser extends TextFileParser {
 				}
 			}
 		}
+	}
 
-		super.finishProcess();
+	/**
+	 * @return The version of the matching format of the parsed file.
+	 */
+	public int getFormatVersion() {
+		return this.formatVersion;
 	}
 
 	/**
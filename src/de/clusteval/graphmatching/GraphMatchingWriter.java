@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.graphmatching;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+
+import utils.Pair;
+
+/**
+ * A writer for graph matchings in the line based matching format (version
+ * {@link #FORMAT_VERSION}).
+ * 
+ * <p>
+ * The first line contains the comma separated parameter names, the column
+ * name "Matching" and the version of the format, separated by tabs. The second
+ * line contains the comma separated parameter values. Every following line
+ * contains one matched pair of vertices separated by a tab, optionally
+ * followed by a score of the pair:
+ * 
+ * <pre>
+ * alpha,beta	Matching	2
+ * 0.1,0.5
+ * a	b
+ * c	d	0.93
+ * </pre>
+ * 
+ * <p>
+ * Pairs are written one at a time, such that no string representation of the
+ * complete matching has to be built in memory. The legacy format which stores
+ * all pairs in one line ("a,b;c,d;") can still be read by
+ * {@link GraphMatchingParser}.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class GraphMatchingWriter implements Closeable {
+
+	/**
+	 * The version of the matching format written by this class.
+	 */
+	public static final int FORMAT_VERSION = 2;
+
+	protected static final String LINE_SEPARATOR = System
+			.getProperty("line.separator");
+
+	/**
+	 * @param params
+	 *            The parameter names and values of the matching.
+	 * @return The header lines of a matching file, containing the parameter
+	 *         names, the format version and the parameter values.
+	 */
+	public static String formatHeader(final Map<String, String> params) {
+		StringBuilder sb = new StringBuilder();
+		String[] paramNames = params.keySet().toArray(new String[0]);
+
+		for (String paramName : paramNames) {
+			sb.append(paramName);
+			sb.append(",");
+		}
+		if (paramNames.length > 0)
+			sb.deleteCharAt(sb.length() - 1);
+		sb.append("\t");
+		sb.append("Matching");
+		sb.append("\t");
+		sb.append(FORMAT_VERSION);
+		sb.append(LINE_SEPARATOR);
+
+		for (String paramName : paramNames) {
+			sb.append(params.get(paramName));
+			sb.append(",");
+		}
+		if (paramNames.length > 0)
+			sb.deleteCharAt(sb.length() - 1);
+		sb.append(LINE_SEPARATOR);
+		return sb.toString();
+	}
+
+	/**
+	 * @param first
+	 *            The vertex of the first graph.
+	 * @param second
+	 *            The vertex of the second graph.
+	 * @return The line representing the matched pair.
+	 */
+	public static String formatPair(final String first, final String second) {
+		return first + "\t" + second + LINE_SEPARATOR;
+	}
+
+	/**
+	 * @param first
+	 *            The vertex of the first graph.
+	 * @param second
+	 *            The vertex of the second graph.
+	 * @param score
+	 *            The score of the matched pair.
+	 * @return The line representing the matched pair together with its score.
+	 */
+	public static String formatPair(final String first, final String second,
+			final double score) {
+		return first + "\t" + second + "\t" + score + LINE_SEPARATOR;
+	}
+
+	protected BufferedWriter writer;
+
+	/**
+	 * Creates the target file and writes the header.
+	 * 
+	 * @param file
+	 *            The file to write the matching into.
+	 * @param params
+	 *            The parameter names and values of the matching.
+	 * @throws IOException
+	 */
+	public GraphMatchingWriter(final File file, final Map<String, String> params)
+			throws IOException {
+		super();
+		this.writer = new BufferedWriter(new FileWriter(file));
+		this.writer.write(formatHeader(params));
+	}
+
+	/**
+	 * @param first
+	 *            The vertex of the first graph.
+	 * @param second
+	 *            The vertex of the second graph.
+	 * @throws IOException
+	 */
+	public void writePair(final String first, final String second)
+			throws IOException {
+		this.writer.write(first);
+		this.writer.write('\t');
+		this.writer.write(second);
+		this.writer.write(LINE_SEPARATOR);
+	}
+
+	/**
+	 * @param first
+	 *            The vertex of the first graph.
+	 * @param second
+	 *            The vertex of the second graph.
+	 * @param score
+	 *            The score of the matched pair.
+	 * @throws IOException
+	 */
+	public void writePair(final String first, final String second,
+			final double score) throws IOException {
+		this.writer.write(first);
+		this.writer.write('\t');
+		this.writer.write(second);
+		this.writer.write('\t');
+		this.writer.write(Double.toString(score));
+		this.writer.write(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Writes all pairs of the given matching, including their scores if
+	 * available.
+	 * 
+	 * @param matching
+	 *            The matching to write.
+	 * @throws IOException
+	 */
+	public void writeMatching(final GraphMatching matching) throws IOException {
+		for (Pair<String, String> pair : matching) {
+			Double score = matching.getScore(pair);
+			if (score != null)
+				this.writePair(pair.getFirst(), pair.getSecond(), score);
+			else
+				this.writePair(pair.getFirst(), pair.getSecond());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		this.writer.close();
+	}
+}
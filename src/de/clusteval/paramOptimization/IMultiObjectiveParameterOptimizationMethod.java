@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.util.List;
+
+import de.clusteval.quality.QualityMeasure;
+
+/**
+ * Parameter optimization methods implementing this interface optimize several
+ * quality measures at the same time. At the end of the run the Pareto front
+ * regarding these measures is written next to the complete file of the
+ * result (see
+ * {@link de.clusteval.run.result.ParameterOptimizationResult#getParetoFront(List)}
+ * ).
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public interface IMultiObjectiveParameterOptimizationMethod {
+
+	/**
+	 * @return The quality measures optimized at the same time.
+	 */
+	public List<QualityMeasure> getOptimizationCriteria();
+}
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+
+/**
+ * Helper methods to compare quality sets regarding several quality measures
+ * at once, as done by NSGA-II.
+ * 
+ * <p>
+ * A quality set dominates another one, if it is at least as good regarding
+ * every quality measure and better regarding at least one of them. Missing
+ * values are treated like values of iterations that did not terminate, i.e.
+ * as worse than every other value.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class NonDominatedSorting {
+
+	/**
+	 * @param measure
+	 *            The quality measure.
+	 * @param qualities
+	 *            A quality set or null.
+	 * @return The value of the measure in the quality set; not terminated, if
+	 *         it is missing.
+	 */
+	protected static QualityMeasureValue getValue(final QualityMeasure measure,
+			final QualitySet qualities) {
+		if (qualities == null || qualities.get(measure) == null)
+			return QualityMeasureValue.getForNotTerminated();
+		return qualities.get(measure);
+	}
+
+	/**
+	 * @param qualities1
+	 *            The first quality set.
+	 * @param qualities2
+	 *            The second quality set.
+	 * @param measures
+	 *            The quality measures to compare.
+	 * @return True, if the first quality set dominates the second one.
+	 */
+	public static boolean dominates(final QualitySet qualities1,
+			final QualitySet qualities2, final List<QualityMeasure> measures) {
+		boolean better = false;
+		for (QualityMeasure measure : measures) {
+			QualityMeasureValue q1 = getValue(measure, qualities1);
+			QualityMeasureValue q2 = getValue(measure, qualities2);
+			if (measure.isBetterThan(q2, q1))
+				return false;
+			better |= measure.isBetterThan(q1, q2);
+		}
+		return better;
+	}
+
+	/**
+	 * Sorts the quality sets into fronts: the first front contains the quality
+	 * sets not dominated by any other one, the second front those only
+	 * dominated by quality sets of the first front, and so on.
+	 * 
+	 * @param qualities
+	 *            The quality sets to sort.
+	 * @param measures
+	 *            The quality measures to compare.
+	 * @return The fronts containing the indices of the quality sets in
+	 *         ascending order.
+	 */
+	public static List<List<Integer>> sort(final List<QualitySet> qualities,
+			final List<QualityMeasure> measures) {
+		int n = qualities.size();
+		List<List<Integer>> dominated = new ArrayList<List<Integer>>();
+		int[] dominationCount = new int[n];
+		for (int i = 0; i < n; i++)
+			dominated.add(new ArrayList<Integer>());
+		for (int i = 0; i < n; i++)
+			for (int j = i + 1; j < n; j++) {
+				if (dominates(qualities.get(i), qualities.get(j), measures)) {
+					dominated.get(i).add(j);
+					dominationCount[j]++;
+				} else if (dominates(qualities.get(j), qualities.get(i),
+						measures)) {
+					dominated.get(j).add(i);
+					dominationCount[i]++;
+				}
+			}
+
+		List<List<Integer>> result = new ArrayList<List<Integer>>();
+		List<Integer> front = new ArrayList<Integer>();
+		for (int i = 0; i < n; i++)
+			if (dominationCount[i] == 0)
+				front.add(i);
+		while (!front.isEmpty()) {
+			result.add(front);
+			List<Integer> next = new ArrayList<Integer>();
+			for (int i : front)
+				for (int j : dominated.get(i))
+					if (--dominationCount[j] == 0)
+						next.add(j);
+			Collections.sort(next);
+			front = next;
+		}
+		return result;
+	}
+
+	/**
+	 * The crowding distance of a quality set is the sum over all quality
+	 * measures of the distance between its two neighbors in the front,
+	 * normalized by the range of the measure in the front. The best and worst
+	 * quality sets regarding a measure have an infinite distance.
+	 * 
+	 * @param qualities
+	 *            The quality sets.
+	 * @param front
+	 *            The indices of the quality sets of one front.
+	 * @param measures
+	 *            The quality measures to compare.
+	 * @return The crowding distances of the quality sets of the front, in the
+	 *         order of the front.
+	 */
+	public static double[] crowdingDistances(final List<QualitySet> qualities,
+			final List<Integer> front, final List<QualityMeasure> measures) {
+		double[] result = new double[front.size()];
+		if (front.size() <= 2) {
+			Arrays.fill(result, Double.POSITIVE_INFINITY);
+			return result;
+		}
+		for (final QualityMeasure measure : measures) {
+			List<Integer> positions = new ArrayList<Integer>();
+			for (int i = 0; i < front.size(); i++)
+				positions.add(i);
+			// sort from best to worst value
+			Collections.sort(positions, new Comparator<Integer>() {
+
+				/*
+				 * (non-Javadoc)
+				 * 
+				 * @see java.util.Comparator#compare(java.lang.Object,
+				 * java.lang.Object)
+				 */
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					QualityMeasureValue q1 = getValue(measure,
+							qualities.get(front.get(o1)));
+					QualityMeasureValue q2 = getValue(measure,
+							qualities.get(front.get(o2)));
+					if (measure.isBetterThan(q1, q2))
+						return -1;
+					if (measure.isBetterThan(q2, q1))
+						return 1;
+					return 0;
+				}
+			});
+			result[positions.get(0)] = Double.POSITIVE_INFINITY;
+			result[positions.get(positions.size() - 1)] = Double.POSITIVE_INFINITY;
+
+			// values of iterations that did not terminate are at the end
+			double[] values = new double[positions.size()];
+			double best = Double.NaN, worst = Double.NaN;
+			for (int k = 0; k < positions.size(); k++) {
+				values[k] = getDistanceValue(measure,
+						qualities.get(front.get(positions.get(k))));
+				if (Double.isNaN(values[k]))
+					continue;
+				if (Double.isNaN(best))
+					best = values[k];
+				worst = values[k];
+			}
+			double range = Math.abs(best - worst);
+			if (Double.isNaN(range) || Double.isInfinite(range)
+					|| range == 0.0)
+				continue;
+			for (int k = 1; k < positions.size() - 1; k++) {
+				if (Double.isNaN(values[k - 1]) || Double.isNaN(values[k + 1]))
+					continue;
+				result[positions.get(k)] += Math.abs(values[k + 1]
+						- values[k - 1])
+						/ range;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param measure
+	 *            The quality measure.
+	 * @param qualities
+	 *            A quality set or null.
+	 * @return The value used to calculate crowding distances; values of
+	 *         iterations that did not terminate are mapped to NaN.
+	 */
+	protected static double getDistanceValue(final QualityMeasure measure,
+			final QualitySet qualities) {
+		QualityMeasureValue value = getValue(measure, qualities);
+		if (!value.isTerminated())
+			return Double.NaN;
+		return value.getValue();
+	}
+}
@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.clusteval.program.ParameterSet;
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+
+/**
+ * A snapshot of the internal state of a parameter optimization method after
+ * an iteration, which allows to resume a parameter optimization run without
+ * replaying all of its iterations (see
+ * {@link ParameterOptimizationMethod#reset(java.io.File)}).
+ * 
+ * <p>
+ * Besides the state of the method, a checkpoint contains the number and the
+ * parameter set of the last iteration it covers. The state is a map from
+ * names to serializable values; parameter sets, quality values and quality
+ * sets are stored in their string representation by the put and get methods
+ * of this class.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ParameterOptimizationCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = -2816384620149355512L;
+
+	/**
+	 * The name of the class of the parameter optimization method.
+	 */
+	protected final String methodClassName;
+
+	/**
+	 * The number of the last iteration covered by this checkpoint.
+	 */
+	protected final long iterationNumber;
+
+	/**
+	 * The parameter set of the last iteration covered by this checkpoint.
+	 */
+	protected final LinkedHashMap<String, String> parameterSet;
+
+	protected final HashMap<String, Serializable> state;
+
+	/**
+	 * @param methodClassName
+	 *            The name of the class of the parameter optimization method.
+	 * @param iterationNumber
+	 *            The number of the last iteration covered by this checkpoint.
+	 * @param parameterSet
+	 *            The parameter set of the last iteration.
+	 */
+	public ParameterOptimizationCheckpoint(final String methodClassName,
+			final long iterationNumber, final ParameterSet parameterSet) {
+		super();
+		this.methodClassName = methodClassName;
+		this.iterationNumber = iterationNumber;
+		this.parameterSet = encode(parameterSet);
+		this.state = new HashMap<String, Serializable>();
+	}
+
+	/**
+	 * @return The name of the class of the parameter optimization method.
+	 */
+	public String getMethodClassName() {
+		return this.methodClassName;
+	}
+
+	/**
+	 * @return The number of the last iteration covered by this checkpoint.
+	 */
+	public long getIterationNumber() {
+		return this.iterationNumber;
+	}
+
+	/**
+	 * @return The parameter set of the last iteration covered by this
+	 *         checkpoint.
+	 */
+	public ParameterSet getParameterSet() {
+		return decode(this.parameterSet);
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @param value
+	 *            A serializable value, e.g. a number, an array or a random
+	 *            number generator.
+	 */
+	public void put(final String key, final Serializable value) {
+		this.state.put(key, value);
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @return The value.
+	 * @throws ParameterOptimizationException
+	 *             If this checkpoint does not contain the value.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Serializable> T get(final String key)
+			throws ParameterOptimizationException {
+		if (!this.state.containsKey(key))
+			throw new ParameterOptimizationException(
+					"The checkpoint does not contain '" + key + "'");
+		return (T) this.state.get(key);
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @param points
+	 *            Points of a parameter space; may contain null.
+	 */
+	public void putPoints(final String key, final List<double[]> points) {
+		ArrayList<double[]> copy = new ArrayList<double[]>();
+		for (double[] point : points)
+			copy.add(point == null ? null : point.clone());
+		this.put(key, copy);
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @return The points.
+	 * @throws ParameterOptimizationException
+	 */
+	public List<double[]> getPoints(final String key)
+			throws ParameterOptimizationException {
+		ArrayList<double[]> points = this.get(key);
+		return new ArrayList<double[]>(points);
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @param values
+	 *            Quality values; may contain null.
+	 */
+	public void putValues(final String key,
+			final List<QualityMeasureValue> values) {
+		ArrayList<String> encoded = new ArrayList<String>();
+		for (QualityMeasureValue value : values)
+			encoded.add(value == null ? null : value.toString());
+		this.put(key, encoded);
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @return The quality values.
+	 * @throws ParameterOptimizationException
+	 */
+	public List<QualityMeasureValue> getValues(final String key)
+			throws ParameterOptimizationException {
+		ArrayList<String> encoded = this.get(key);
+		List<QualityMeasureValue> result = new ArrayList<QualityMeasureValue>();
+		for (String value : encoded)
+			result.add(value == null ? null : QualityMeasureValue
+					.parseFromString(value));
+		return result;
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @param parameterSets
+	 *            Parameter sets; may contain null.
+	 */
+	public void putParameterSets(final String key,
+			final List<ParameterSet> parameterSets) {
+		ArrayList<LinkedHashMap<String, String>> encoded = new ArrayList<LinkedHashMap<String, String>>();
+		for (ParameterSet parameterSet : parameterSets)
+			encoded.add(parameterSet == null ? null : encode(parameterSet));
+		this.put(key, encoded);
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @return The parameter sets.
+	 * @throws ParameterOptimizationException
+	 */
+	public List<ParameterSet> getParameterSets(final String key)
+			throws ParameterOptimizationException {
+		ArrayList<LinkedHashMap<String, String>> encoded = this.get(key);
+		List<ParameterSet> result = new ArrayList<ParameterSet>();
+		for (LinkedHashMap<String, String> parameterSet : encoded)
+			result.add(parameterSet == null ? null : decode(parameterSet));
+		return result;
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @param qualities
+	 *            Quality sets; may contain null.
+	 */
+	public void putQualities(final String key, final List<QualitySet> qualities) {
+		ArrayList<HashMap<String, String>> encoded = new ArrayList<HashMap<String, String>>();
+		for (QualitySet qualitySet : qualities) {
+			if (qualitySet == null) {
+				encoded.add(null);
+				continue;
+			}
+			HashMap<String, String> values = new HashMap<String, String>();
+			for (Map.Entry<QualityMeasure, QualityMeasureValue> entry : qualitySet
+					.entrySet())
+				values.put(entry.getKey().getClass().getSimpleName(), entry
+						.getValue().toString());
+			encoded.add(values);
+		}
+		this.put(key, encoded);
+	}
+
+	/**
+	 * @param key
+	 *            The name of the value.
+	 * @param measures
+	 *            The quality measures of the run; values of other measures
+	 *            are ignored.
+	 * @return The quality sets.
+	 * @throws ParameterOptimizationException
+	 */
+	public List<QualitySet> getQualities(final String key,
+			final List<QualityMeasure> measures)
+			throws ParameterOptimizationException {
+		ArrayList<HashMap<String, String>> encoded = this.get(key);
+		List<QualitySet> result = new ArrayList<QualitySet>();
+		for (HashMap<String, String> values : encoded) {
+			if (values == null) {
+				result.add(null);
+				continue;
+			}
+			QualitySet qualitySet = new QualitySet();
+			for (QualityMeasure measure : measures) {
+				String value = values.get(measure.getClass().getSimpleName());
+				if (value != null)
+					qualitySet.put(measure,
+							QualityMeasureValue.parseFromString(value));
+			}
+			result.add(qualitySet);
+		}
+		return result;
+	}
+
+	protected static LinkedHashMap<String, String> encode(
+			final ParameterSet parameterSet) {
+		return new LinkedHashMap<String, String>(parameterSet);
+	}
+
+	protected static ParameterSet decode(
+			final Map<String, String> parameterSet) {
+		ParameterSet result = new ParameterSet();
+		for (Map.Entry<String, String> entry : parameterSet.entrySet())
+			result.put(entry.getKey(), entry.getValue());
+		return result;
+	}
+
+	/**
+	 * Writes this checkpoint to a temporary file first, which then replaces
+	 * the given file. Thus a run that is terminated while the checkpoint is
+	 * written keeps its previous checkpoint.
+	 * 
+	 * @param file
+	 *            The checkpoint file.
+	 * @throws IOException
+	 */
+	public void write(final File file) throws IOException {
+		File tmpFile = new File(file.getAbsolutePath() + ".tmp");
+		ObjectOutputStream out = new ObjectOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmpFile)));
+		try {
+			out.writeObject(this);
+		} finally {
+			out.close();
+		}
+		if (!tmpFile.renameTo(file)) {
+			file.delete();
+			if (!tmpFile.renameTo(file))
+				throw new IOException("Could not replace checkpoint " + file);
+		}
+	}
+
+	/**
+	 * @param file
+	 *            The checkpoint file.
+	 * @return The checkpoint or null, if the file does not exist or cannot be
+	 *         read.
+	 */
+	public static ParameterOptimizationCheckpoint read(final File file) {
+		if (!file.exists())
+			return null;
+		try {
+			ObjectInputStream in = new ObjectInputStream(
+					new BufferedInputStream(new FileInputStream(file)));
+			try {
+				return (ParameterOptimizationCheckpoint) in.readObject();
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (ClassCastException e) {
+			return null;
+		}
+	}
+}
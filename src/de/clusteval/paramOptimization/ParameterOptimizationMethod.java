@@ -14,15 +14,19 @@
 package de.clusteval.paramOptimization;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
 import org.slf4j.LoggerFactory;
 
+import utils.Pair;
 import de.clusteval.data.DataConfig;
 import de.clusteval.data.dataset.format.DataSetFormat;
 import de.clusteval.framework.repository.RegisterException;
@@ -73,11 +77,29 @@ import de.clusteval.utils.InternalAttributeException;
  * evaluate</li>
  * <li>Use {@link #next()} to get the next parameter set.</li>
  * <li>Pass the assessed qualities of
- * {@link ExecutionRunRunnable#assessQualities(GraphMatchingRunResult)} to
+ * {@link ExecutionRunRunnable#assessQualities(de.clusteval.run.runnable.ExecutionRunRunnable.IterationState, GraphMatchingRunResult)}
+ * to
  * {@link #giveQualityFeedback(QualitySet)}.</li>
  * <li>At the end use {@link #getResult()} to get the results of the iterations</li>
  * </ul>
  * 
+ * <p>
+ * Alternatively, {@link #nextBatch(int)} asks the method for several
+ * parameter sets at once, which can then be evaluated concurrently. The
+ * qualities have to be told to the method in the order the parameter sets
+ * were proposed. A method only proposes a further parameter set while the
+ * feedback for earlier ones is pending, if it declares in
+ * {@link #isNextIndependentOfPendingFeedback()} that the next parameter set
+ * does not depend on this feedback. Thus the parameter sets are the same as if
+ * they were evaluated one after another.
+ * 
+ * <p>
+ * A method may ask for parameter sets to be evaluated on induced subgraphs of
+ * the networks instead of the complete data, by returning a fraction smaller
+ * than 1 in {@link #getDataFraction(ParameterSet)}. The qualities of such
+ * evaluations are told to the method, but they are not stored as the
+ * qualities of the parameter set in the {@link #getResult() result}.
+ * 
  * @author Christian Wiwie
  * 
  * 
@@ -163,6 +185,31 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 	 */
 	protected boolean isResume;
 
+	/**
+	 * The parameter sets that have been proposed by this method, but for which
+	 * no quality feedback has been given yet, in the order they were proposed.
+	 */
+	protected LinkedList<ParameterSet> pendingParameterSets;
+
+	/**
+	 * The iteration numbers of the {@link #pendingParameterSets}.
+	 */
+	protected LinkedList<Long> pendingIterationNumbers;
+
+	/**
+	 * Parameter sets and their qualities evaluated in previous runs on similar
+	 * data (see {@link PriorObservations}). Methods may use them to seed their
+	 * search; they are neither counted as iterations nor stored in the result
+	 * of this method.
+	 */
+	protected List<Pair<ParameterSet, QualitySet>> priorObservations;
+
+	/**
+	 * The file the checkpoints of this method are written to (see
+	 * {@link #writeCheckpoint()}); set by {@link #reset(File)}.
+	 */
+	protected File checkpointFile;
+
 	/**
 	 * @param repository
 	 *            The repository this object is registered in.
@@ -213,6 +260,9 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 		this.optimizationCriterion = optimizationCriterion;
 		this.iterationPerParameter = iterationPerParameter;
 		this.isResume = isResume;
+		this.pendingParameterSets = new LinkedList<ParameterSet>();
+		this.pendingIterationNumbers = new LinkedList<Long>();
+		this.priorObservations = new ArrayList<Pair<ParameterSet, QualitySet>>();
 
 		if (register)
 			this.register();
@@ -237,6 +287,10 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 		this.optimizationCriterion = method.optimizationCriterion.clone();
 		this.iterationPerParameter = method.iterationPerParameter.clone();
 		this.isResume = method.isResume;
+		this.pendingParameterSets = new LinkedList<ParameterSet>();
+		this.pendingIterationNumbers = new LinkedList<Long>();
+		this.priorObservations = new ArrayList<Pair<ParameterSet, QualitySet>>(
+				method.priorObservations);
 	}
 
 	/*
@@ -331,14 +385,117 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 	 * {@link #next()} is invoked again, an {@link IllegalStateException} will
 	 * be thrown.
 	 * 
+	 * <p>
+	 * If several parameter sets were proposed by {@link #nextBatch(int)}, the
+	 * qualities are taken for the oldest parameter set still waiting for
+	 * feedback.
+	 * 
 	 * @param qualities
 	 *            The clustering qualities for the clustering of the last
 	 *            iteration.
 	 */
 	public void giveQualityFeedback(final QualitySet qualities) {
-		ParameterSet last = result.getParameterSets().get(
-				result.getParameterSets().size() - 1);
-		this.result.put(this.getCurrentCount() + 1, last, qualities);
+		ParameterSet paramSet;
+		if (this.pendingParameterSets.isEmpty())
+			paramSet = result.getParameterSets().get(
+					result.getParameterSets().size() - 1);
+		else
+			paramSet = this.pendingParameterSets.getFirst();
+		this.giveQualityFeedback(paramSet, qualities);
+	}
+
+	/**
+	 * This method passes the qualities of the clustering of the given
+	 * parameter set to this parameter optimization method.
+	 * 
+	 * <p>
+	 * Subclasses that need to react on feedback should override this method,
+	 * since all feedback is passed through it.
+	 * 
+	 * @param paramSet
+	 *            The parameter set as it was returned by {@link #next()} or
+	 *            {@link #nextBatch(int)}.
+	 * @param qualities
+	 *            The clustering qualities for the clustering of the parameter
+	 *            set.
+	 */
+	public void giveQualityFeedback(final ParameterSet paramSet,
+			final QualitySet qualities) {
+		long iterationNumber = this.getCurrentCount();
+		Iterator<ParameterSet> paramSets = this.pendingParameterSets
+				.iterator();
+		Iterator<Long> iterationNumbers = this.pendingIterationNumbers
+				.iterator();
+		while (paramSets.hasNext()) {
+			long number = iterationNumbers.next();
+			if (paramSets.next() == paramSet) {
+				iterationNumber = number;
+				paramSets.remove();
+				iterationNumbers.remove();
+				break;
+			}
+		}
+		// the qualities are stored with the iteration number following the
+		// one of the parameter set, as if they were told sequentially; the
+		// qualities on subgraphs are not comparable to those on the complete
+		// data and the parameter set may still be evaluated on more data
+		this.result.put(iterationNumber + 1, paramSet,
+				this.getDataFraction(paramSet) < 1.0 ? null : qualities);
+	}
+
+	/**
+	 * The fraction of the vertices of every network, on which the given
+	 * parameter set proposed by this method is evaluated. If it is smaller
+	 * than 1, the parameter set is evaluated on induced subgraphs of the
+	 * networks (see
+	 * {@link de.clusteval.data.dataset.InducedSubgraphSampler}). All
+	 * parameter sets evaluated with the same fraction are evaluated on the
+	 * same subgraphs.
+	 * 
+	 * <p>
+	 * This method is invoked for parameter sets whose feedback is still
+	 * pending. By default every parameter set is evaluated on the complete
+	 * data.
+	 * 
+	 * @param paramSet
+	 *            The parameter set as it was returned by {@link #next()} or
+	 *            {@link #nextBatch(int)}.
+	 * @return A value in (0,1] denoting the fraction of the vertices.
+	 */
+	public double getDataFraction(final ParameterSet paramSet) {
+		return 1.0;
+	}
+
+	/**
+	 * Whether the parameter set returned by the next invocation of
+	 * {@link #next()} would be the same, if the pending feedback for the
+	 * already proposed parameter sets was given before. Only if this holds,
+	 * {@link #nextBatch(int)} proposes further parameter sets while feedback is
+	 * pending.
+	 * 
+	 * <p>
+	 * Methods may also return true, if they deliberately propose parameter
+	 * sets without the pending feedback, e.g. by assuming bad qualities for the
+	 * pending parameter sets. Then the proposed parameter sets depend on the
+	 * number of parameter sets evaluated concurrently.
+	 * 
+	 * <p>
+	 * By default methods are assumed to adapt to every feedback and this
+	 * method returns false.
+	 * 
+	 * @return True, if the next parameter set does not depend on the qualities
+	 *         of the parameter sets that are still waiting for feedback.
+	 */
+	protected boolean isNextIndependentOfPendingFeedback() {
+		return false;
+	}
+
+	/**
+	 * @return The number of parameter sets that have been proposed, but for
+	 *         which no quality feedback has been given yet.
+	 */
+	public int getPendingFeedbackCount() {
+		return this.pendingParameterSets.size();
 	}
 
 	protected ParameterSet getNextParameterSet()
@@ -436,15 +593,91 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 	public final ParameterSet next(final ParameterSet forcedParameterSet,
 			final long iterationNumber) throws InternalAttributeException,
 			RegisterException, NoParameterSetFoundException {
+		return this.next(forcedParameterSet, iterationNumber, false);
+	}
+
+	/**
+	 * This method asks this method for up to k parameter sets, that can be
+	 * evaluated independently of each other.
+	 * 
+	 * <p>
+	 * The first parameter set is always proposed, if no feedback is pending.
+	 * Every further parameter set is only proposed, if {@link #hasNext()} and
+	 * {@link #isNextIndependentOfPendingFeedback()} hold. Thus a method that
+	 * adapts to every feedback proposes one parameter set at a time.
+	 * 
+	 * <p>
+	 * The qualities of the returned parameter sets have to be passed to
+	 * {@link #giveQualityFeedback(QualitySet)} in the order of the returned
+	 * list.
+	 * 
+	 * @param k
+	 *            The maximal number of parameter sets to propose.
+	 * @return A list of pairs of the proposed parameter sets and their
+	 *         iteration numbers, in the order they were proposed.
+	 * @throws InternalAttributeException
+	 * @throws RegisterException
+	 * @throws NoParameterSetFoundException
+	 *             This exception is thrown, if not even one parameter set was
+	 *             found that was not already evaluated before.
+	 */
+	public final List<Pair<ParameterSet, Long>> nextBatch(final int k)
+			throws InternalAttributeException, RegisterException,
+			NoParameterSetFoundException {
+		List<Pair<ParameterSet, Long>> batch = new ArrayList<Pair<ParameterSet, Long>>();
+		while (batch.size() < k
+				&& hasNext()
+				&& (this.pendingParameterSets.isEmpty() || isNextIndependentOfPendingFeedback())) {
+			ParameterSet paramSet;
+			try {
+				paramSet = this.next(null, -1, true);
+			} catch (NoParameterSetFoundException e) {
+				// the remaining parameter sets have already been assessed
+				if (batch.isEmpty())
+					throw e;
+				break;
+			}
+			batch.add(Pair.getPair(paramSet, this.pendingIterationNumbers
+					.getLast()));
+		}
+		return batch;
+	}
+
+	/**
+	 * This method is the implementation of {@link #next(ParameterSet, long)}
+	 * and {@link #nextBatch(int)}.
+	 * 
+	 * <p>
+	 * Methods delegating to other parameter optimization methods may use it
+	 * to propose parameter sets of the delegate while feedback is pending. It
+	 * is public, since methods loaded from different jars cannot access
+	 * protected members of each other.
+	 * 
+	 * @param forcedParameterSet
+	 *            If this parameter is set != null, this parameter set is forced
+	 *            to be evaluated in the next iteration.
+	 * @param iterationNumber
+	 *            The original number of the iteration when it was previously
+	 *            performed.
+	 * @param allowPendingFeedback
+	 *            Whether parameter sets may be proposed, while the feedback
+	 *            for earlier parameter sets is pending.
+	 * @return The parameter set that is being evaluated in the next iteration.
+	 * @throws InternalAttributeException
+	 * @throws RegisterException
+	 * @throws NoParameterSetFoundException
+	 *             This exception is thrown, if no parameter set was found that
+	 *             was not already evaluated before.
+	 */
+	public final ParameterSet next(final ParameterSet forcedParameterSet,
+			final long iterationNumber, final boolean allowPendingFeedback)
+			throws InternalAttributeException, RegisterException,
+			NoParameterSetFoundException {
 		if (this.result == null)
 			throw new IllegalStateException("reset(File) has not been called");
-		if (this.result.getParameterSets().size() > 0) {
-			ParameterSet last = result.getParameterSets().get(
-					result.getParameterSets().size() - 1);
-			if (result.get(last) == null)
-				throw new IllegalStateException(
-						"Quality for last parameter set was not set");
-		}
+		if (!allowPendingFeedback && !this.pendingParameterSets.isEmpty())
+			throw new IllegalStateException(
+					"Quality for last parameter set was not set");
 
 		ParameterSet result = null;
 
@@ -459,8 +692,10 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 				ParameterSet paramSet = this.getResult().getParameterSets()
 						.get(0);
 				QualitySet qualitySet = this.getResult().get(paramSet);
-				this.next(paramSet, this.currentCount + 1);
-				this.giveQualityFeedback(qualitySet);
+				this.next(paramSet, this.currentCount + 1,
+						allowPendingFeedback);
+				this.giveQualityFeedback(this.pendingParameterSets.getLast(),
+						qualitySet);
 			}
 
 			result = getNextParameterSet(forcedParameterSet);
@@ -469,13 +704,15 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 			// 04.04.2013: changed to adapt method to previously skipped
 			// iterations
 			this.currentCount = (int) iterationNumber;
+			this.pendingParameterSets.add(result);
+			this.pendingIterationNumbers.add(iterationNumber);
 		} else {
 			do {
 				// if result is not equal to null, we found a parameter set,
 				// that was already assessed. then we give the same quality
 				// feedback as last time and look for the next parameter set
 				if (result != null) {
-					this.giveQualityFeedback(this.result.get(result));
+					this.giveQualityFeedback(result, this.result.get(result));
 					this.log.info(run.toString() + " (" + programConfig + ","
 							+ dataConfig + ") "
 							+ "Skipping calculation of parameter set " + result
@@ -489,6 +726,8 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 				if (!this.result.getParameterSets().contains(result))
 					this.result.put(this.currentCount, result, null);
 				this.result.getParameterSets().add(result);
+				this.pendingParameterSets.add(result);
+				this.pendingIterationNumbers.add((long) this.currentCount);
 			} while (this.result.get(result) != null);
 		}
 		if (result == null)
@@ -619,7 +858,11 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 	 * <p>
 	 * Furthermore if the run is a resumption of an old run execution, this
 	 * method also reperforms all iterations that have been executed during the
-	 * last execution of the run.
+	 * last execution of the run. If the last execution wrote a checkpoint (see
+	 * {@link #writeCheckpoint()}), the state of this method is restored from
+	 * it instead, and only the iterations after the checkpoint are
+	 * reperformed. If the checkpoint cannot be restored, all iterations are
+	 * reperformed.
 	 * 
 	 * <p>
 	 * This method has to be invoked before anything else is done (
@@ -635,26 +878,53 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 	public void reset(final File absResultPath)
 			throws ParameterOptimizationException, InternalAttributeException,
 			RegisterException, RunResultParseException {
+		// release the off-heap store of the result of a previous execution
+		if (this.result != null && this.result.isOffHeap())
+			this.result.unloadFromMemory();
+		this.pendingParameterSets.clear();
+		this.pendingIterationNumbers.clear();
 		this.result = new ParameterOptimizationResult(
 				this.dataConfig.getRepository(), System.currentTimeMillis(),
 				// changed 16.09.2012 -> getParentFile
 				absResultPath, absResultPath.getParentFile().getParentFile()
 						.getName(), run, this);
+		this.checkpointFile = getCheckpointFile(absResultPath);
 		initParameterValues();
 		if (isResume) {
-			/*
-			 * We have to simulate the process with the given results, to ensure
-			 * that all attributes of the method (also als subclass methods) are
-			 * valid and correspond to the result in the file.
-			 */
 			final ParameterOptimizationResult oldResults = ParameterOptimizationResult
 					.parseFromRunResultCompleteFile(
 							this.dataConfig.getRepository(), this.run, this,
 							absResultPath, false, false, false);
+			// the iterations on subgraphs are reperformed as well
+			oldResults.setParseSubgraphIterations(true);
 			oldResults.loadIntoMemory();
 			List<ParameterSet> parameterSets = oldResults.getParameterSets();
 			List<Long> iterationNumbers = oldResults.getIterationNumbers();
-			for (int i = 0; i < parameterSets.size(); i++) {
+
+			int restored = 0;
+			ParameterOptimizationCheckpoint checkpoint = ParameterOptimizationCheckpoint
+					.read(this.checkpointFile);
+			if (checkpoint != null) {
+				try {
+					restored = this.restoreCheckpoint(checkpoint, oldResults);
+				} catch (ParameterOptimizationException e) {
+					this.log.warn(run.toString() + " (" + programConfig + ","
+							+ dataConfig + ") Could not restore checkpoint: "
+							+ e.getMessage());
+					oldResults.unloadFromMemory();
+					// start over without checkpoint
+					this.checkpointFile.delete();
+					this.reset(absResultPath);
+					return;
+				}
+			}
+
+			/*
+			 * We have to simulate the process with the given results, to ensure
+			 * that all attributes of the method (also als subclass methods) are
+			 * valid and correspond to the result in the file.
+			 */
+			for (int i = restored; i < parameterSets.size(); i++) {
 				final ParameterSet paramSet = parameterSets.get(i);
 				final long iterationNumber = iterationNumbers.get(i);
 				try {
@@ -662,13 +932,149 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 				} catch (NoParameterSetFoundException e) {
 					// doesn't occur
 				}
-				this.giveQualityFeedback(oldResults.get(paramSet));
+				QualitySet qualities = oldResults
+						.getSubgraphQualities(iterationNumber);
+				if (qualities == null)
+					qualities = oldResults.get(paramSet);
+				this.giveQualityFeedback(qualities);
 			}
 			oldResults.unloadFromMemory();
 			isResume = false;
 		}
 	}
 
+	/**
+	 * @param absResultPath
+	 *            The absolute path pointing to the result file.
+	 * @return The file the checkpoints of a method writing to the given
+	 *         result file are stored in.
+	 */
+	public static File getCheckpointFile(final File absResultPath) {
+		return new File(absResultPath.getAbsolutePath() + ".checkpoint");
+	}
+
+	/**
+	 * Writes a checkpoint of the current state of this method, such that a
+	 * resumption of the run can restore it instead of replaying all
+	 * iterations (see {@link #reset(File)}). This method should be invoked
+	 * after the quality feedback of an iteration has been given and the
+	 * iteration has been written to the result file.
+	 * 
+	 * <p>
+	 * No checkpoint is written, while the feedback for proposed parameter
+	 * sets is pending or if this method does not support checkpoints (see
+	 * {@link #saveState(ParameterOptimizationCheckpoint)}).
+	 * 
+	 * @return True, if a checkpoint was written.
+	 */
+	public boolean writeCheckpoint() {
+		if (this.checkpointFile == null || this.result == null
+				|| !this.pendingParameterSets.isEmpty()
+				|| this.result.getParameterSets().isEmpty())
+			return false;
+		List<ParameterSet> parameterSets = this.result.getParameterSets();
+		ParameterOptimizationCheckpoint checkpoint = new ParameterOptimizationCheckpoint(
+				this.getClass().getName(), this.currentCount,
+				parameterSets.get(parameterSets.size() - 1));
+		if (!this.saveState(checkpoint))
+			return false;
+		try {
+			checkpoint.write(this.checkpointFile);
+			return true;
+		} catch (IOException e) {
+			this.log.warn(run.toString() + " (" + programConfig + ","
+					+ dataConfig + ") Could not write checkpoint: "
+					+ e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Helper method of {@link #reset(File)}, which takes over the iterations
+	 * covered by the checkpoint from the old results and restores the state
+	 * of this method.
+	 * 
+	 * @param checkpoint
+	 *            The checkpoint written by the last execution of the run.
+	 * @param oldResults
+	 *            The results of the last execution of the run.
+	 * @return The number of iterations of the old results covered by the
+	 *         checkpoint; 0, if the checkpoint does not belong to the old
+	 *         results.
+	 * @throws ParameterOptimizationException
+	 *             If the state of this method could not be restored; then this
+	 *             method is in an undefined state.
+	 */
+	protected int restoreCheckpoint(
+			final ParameterOptimizationCheckpoint checkpoint,
+			final ParameterOptimizationResult oldResults)
+			throws ParameterOptimizationException {
+		if (!checkpoint.getMethodClassName().equals(this.getClass().getName()))
+			return 0;
+		List<ParameterSet> parameterSets = oldResults.getParameterSets();
+		List<Long> iterationNumbers = oldResults.getIterationNumbers();
+		int count = iterationNumbers.indexOf(checkpoint.getIterationNumber()) + 1;
+		if (count == 0
+				|| !parameterSets.get(count - 1).equals(
+						checkpoint.getParameterSet()))
+			return 0;
+
+		for (int i = 0; i < count; i++) {
+			ParameterSet paramSet = parameterSets.get(i);
+			// the same entries as if the iteration was reperformed by
+			// next(ParameterSet, long) and giveQualityFeedback(QualitySet)
+			this.result.getParameterSets().add(paramSet);
+			this.result.put(iterationNumbers.get(i) + 1, paramSet,
+					oldResults.get(paramSet));
+		}
+		this.currentCount = (int) checkpoint.getIterationNumber();
+		try {
+			this.restoreState(checkpoint);
+		} catch (RuntimeException e) {
+			throw new ParameterOptimizationException(
+					"Invalid state in checkpoint: " + e);
+		}
+		this.log.info(run.toString() + " (" + programConfig + ","
+				+ dataConfig + ") Restored checkpoint after iteration "
+				+ checkpoint.getIterationNumber());
+		return count;
+	}
+
+	/**
+	 * Override this method to support checkpoints, by putting all attributes
+	 * of your subclass into the checkpoint that change during the
+	 * optimization process. Attributes that are determined by
+	 * {@link #initParameterValues()} need not be stored.
+	 * 
+	 * <p>
+	 * This method is only invoked, if no feedback is pending.
+	 * 
+	 * @param checkpoint
+	 *            The checkpoint to put the state into.
+	 * @return True, if this method supports checkpoints.
+	 */
+	protected boolean saveState(final ParameterOptimizationCheckpoint checkpoint) {
+		return false;
+	}
+
+	/**
+	 * Override this method together with
+	 * {@link #saveState(ParameterOptimizationCheckpoint)} to restore the state
+	 * of your subclass from a checkpoint. It is invoked after
+	 * {@link #initParameterValues()}, when the result of this method already
+	 * contains the iterations covered by the checkpoint.
+	 * 
+	 * @param checkpoint
+	 *            The checkpoint written by
+	 *            {@link #saveState(ParameterOptimizationCheckpoint)}.
+	 * @throws ParameterOptimizationException
+	 */
+	protected void restoreState(final ParameterOptimizationCheckpoint checkpoint)
+			throws ParameterOptimizationException {
+		throw new ParameterOptimizationException(this.getClass()
+				.getSimpleName() + " does not support checkpoints");
+	}
+
 	/**
 	 * This method initializes the parameter values of each optimization
 	 * parameter that should be assessed during the process.
@@ -754,6 +1160,29 @@ public abstract class ParameterOptimizationMethod extends RepositoryObject {
 		this.isResume = isResume;
 	}
 
+	/**
+	 * This method has to be invoked before {@link #reset(File)}, such that
+	 * the prior observations are available when the method initializes its
+	 * search.
+	 * 
+	 * @param priorObservations
+	 *            Parameter sets and their qualities evaluated in previous
+	 *            runs (see {@link #priorObservations}).
+	 */
+	public void setPriorObservations(
+			final List<Pair<ParameterSet, QualitySet>> priorObservations) {
+		this.priorObservations = new ArrayList<Pair<ParameterSet, QualitySet>>(
+				priorObservations);
+	}
+
+	/**
+	 * @return Parameter sets and their qualities evaluated in previous runs.
+	 * @see #priorObservations
+	 */
+	public List<Pair<ParameterSet, QualitySet>> getPriorObservations() {
+		return this.priorObservations;
+	}
+
 	/**
 	 * This method returns a list with the classes of all dataset formats this
 	 * parameter optimization method supports. If the list is empty, all dataset
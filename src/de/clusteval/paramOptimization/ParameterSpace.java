@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.clusteval.data.DataConfig;
+import de.clusteval.program.DoubleProgramParameter;
+import de.clusteval.program.IntegerProgramParameter;
+import de.clusteval.program.ParameterSet;
+import de.clusteval.program.ProgramConfig;
+import de.clusteval.program.ProgramParameter;
+import de.clusteval.utils.InternalAttributeException;
+
+/**
+ * The space of parameter sets spanned by the optimization parameters of a
+ * parameter optimization method, in which model-based methods search for good
+ * parameter sets.
+ * 
+ * <p>
+ * Every parameter set is represented as a point with one coordinate per
+ * parameter:
+ * <ul>
+ * <li><b>double parameters</b>: the value itself within the evaluated minimal
+ * and maximal value of the parameter.</li>
+ * <li><b>integer parameters</b>: the value itself within the evaluated minimal
+ * and maximal value, rounded to the nearest integer.</li>
+ * <li><b>string parameters</b> (categorical): the index of the value within
+ * the options of the parameter.</li>
+ * </ul>
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ParameterSpace {
+
+	/**
+	 * Creates the parameter space of the given parameters, whose minimal and
+	 * maximal values are evaluated for the given configurations.
+	 * 
+	 * @param params
+	 *            The optimization parameters.
+	 * @param dataConfig
+	 *            The data configuration to evaluate the bounds for.
+	 * @param programConfig
+	 *            The program configuration to evaluate the bounds for.
+	 * @return The parameter space of the parameters.
+	 * @throws InternalAttributeException
+	 * @throws ParameterOptimizationException
+	 *             If a parameter has invalid bounds or no options.
+	 */
+	public static ParameterSpace forParameters(
+			final List<ProgramParameter<?>> params,
+			final DataConfig dataConfig, final ProgramConfig programConfig)
+			throws InternalAttributeException, ParameterOptimizationException {
+		String[] names = new String[params.size()];
+		double[] lower = new double[params.size()];
+		double[] upper = new double[params.size()];
+		boolean[] integer = new boolean[params.size()];
+		String[][] options = new String[params.size()][];
+		for (int p = 0; p < params.size(); p++) {
+			ProgramParameter<?> param = params.get(p);
+			names[p] = param.getName();
+			if (param instanceof DoubleProgramParameter) {
+				DoubleProgramParameter paCast = (DoubleProgramParameter) param;
+				lower[p] = paCast.evaluateMinValue(dataConfig, programConfig);
+				upper[p] = paCast.evaluateMaxValue(dataConfig, programConfig);
+			} else if (param instanceof IntegerProgramParameter) {
+				IntegerProgramParameter paCast = (IntegerProgramParameter) param;
+				lower[p] = paCast.evaluateMinValue(dataConfig, programConfig);
+				upper[p] = paCast.evaluateMaxValue(dataConfig, programConfig);
+				integer[p] = true;
+			} else {
+				options[p] = param.getOptions();
+				if (options[p] == null || options[p].length == 0)
+					throw new ParameterOptimizationException("The parameter "
+							+ param.getName() + " has no options");
+			}
+			if (lower[p] > upper[p])
+				throw new ParameterOptimizationException("The parameter "
+						+ param.getName()
+						+ " has a minimal value larger than its maximal value");
+		}
+		return new ParameterSpace(names, lower, upper, integer, options);
+	}
+
+	protected String[] names;
+
+	protected double[] lower;
+
+	protected double[] upper;
+
+	protected boolean[] integer;
+
+	/**
+	 * The options of every categorical parameter; null for numerical
+	 * parameters.
+	 */
+	protected String[][] options;
+
+	/**
+	 * @param names
+	 *            The names of the parameters.
+	 * @param lower
+	 *            The minimal values of the numerical parameters.
+	 * @param upper
+	 *            The maximal values of the numerical parameters.
+	 * @param integer
+	 *            Whether a numerical parameter only takes integer values.
+	 * @param options
+	 *            The options of the categorical parameters; null for
+	 *            numerical parameters.
+	 */
+	public ParameterSpace(final String[] names, final double[] lower,
+			final double[] upper, final boolean[] integer,
+			final String[][] options) {
+		super();
+		this.names = names;
+		this.lower = lower.clone();
+		this.upper = upper.clone();
+		this.integer = integer;
+		this.options = options;
+		for (int d = 0; d < names.length; d++)
+			if (options[d] != null) {
+				this.lower[d] = 0;
+				this.upper[d] = options[d].length - 1;
+			}
+	}
+
+	/**
+	 * @return The number of parameters.
+	 */
+	public int getDimension() {
+		return this.names.length;
+	}
+
+	/**
+	 * @param d
+	 *            The index of a parameter.
+	 * @return True, if the parameter takes one of a list of options.
+	 */
+	public boolean isCategorical(final int d) {
+		return this.options[d] != null;
+	}
+
+	/**
+	 * @param d
+	 *            The index of a parameter.
+	 * @return True, if the parameter takes integer values or is categorical.
+	 */
+	public boolean isDiscrete(final int d) {
+		return this.integer[d] || this.isCategorical(d);
+	}
+
+	/**
+	 * @param d
+	 *            The index of a parameter.
+	 * @return The smallest coordinate of the parameter; 0 for categorical
+	 *         parameters.
+	 */
+	public double getLower(final int d) {
+		return this.lower[d];
+	}
+
+	/**
+	 * @param d
+	 *            The index of a parameter.
+	 * @return The largest coordinate of the parameter; the number of options
+	 *         minus 1 for categorical parameters.
+	 */
+	public double getUpper(final int d) {
+		return this.upper[d];
+	}
+
+	/**
+	 * @param d
+	 *            The index of a parameter.
+	 * @return The number of options of a categorical parameter.
+	 */
+	public int getOptionCount(final int d) {
+		return this.options[d].length;
+	}
+
+	/**
+	 * @param rand
+	 *            The random number generator to use.
+	 * @return A point drawn uniformly from the parameter space.
+	 */
+	public double[] sampleUniform(final Random rand) {
+		double[] result = new double[this.getDimension()];
+		for (int d = 0; d < result.length; d++) {
+			if (this.isCategorical(d))
+				result[d] = rand.nextInt(this.options[d].length);
+			else if (this.integer[d])
+				result[d] = this.lower[d]
+						+ rand.nextInt((int) (this.upper[d] - this.lower[d]) + 1);
+			else
+				result[d] = this.lower[d] + rand.nextDouble()
+						* (this.upper[d] - this.lower[d]);
+		}
+		return result;
+	}
+
+	/**
+	 * @param point
+	 *            A point with one coordinate per parameter.
+	 * @return A new point, whose coordinates are moved into the bounds of the
+	 *         parameters and rounded for discrete parameters.
+	 */
+	public double[] clamp(final double[] point) {
+		double[] result = new double[point.length];
+		for (int d = 0; d < point.length; d++) {
+			double value = point[d];
+			if (Double.isNaN(value))
+				value = this.lower[d];
+			value = Math.max(this.lower[d], Math.min(this.upper[d], value));
+			if (this.isDiscrete(d))
+				value = Math.round(value);
+			result[d] = value;
+		}
+		return result;
+	}
+
+	/**
+	 * @param point
+	 *            A point with one coordinate per parameter.
+	 * @return The parameter set corresponding to the point after
+	 *         {@link #clamp(double[])}.
+	 */
+	public ParameterSet toParameterSet(final double[] point) {
+		double[] clamped = this.clamp(point);
+		ParameterSet result = new ParameterSet();
+		for (int d = 0; d < clamped.length; d++) {
+			if (this.isCategorical(d))
+				result.put(this.names[d], this.options[d][(int) clamped[d]]);
+			else if (this.integer[d])
+				result.put(this.names[d], Integer.toString((int) clamped[d]));
+			else
+				result.put(this.names[d], Double.toString(clamped[d]));
+		}
+		return result;
+	}
+
+	/**
+	 * @param paramSet
+	 *            A parameter set containing values for all parameters.
+	 * @return The point corresponding to the parameter set, or null if a
+	 *         value is missing, not a number or not an option.
+	 */
+	public double[] toPoint(final ParameterSet paramSet) {
+		double[] result = new double[this.getDimension()];
+		for (int d = 0; d < result.length; d++) {
+			String value = paramSet.get(this.names[d]);
+			if (value == null)
+				return null;
+			if (this.isCategorical(d)) {
+				result[d] = Arrays.asList(this.options[d]).indexOf(value);
+				if (result[d] < 0)
+					return null;
+			} else {
+				try {
+					result[d] = Double.parseDouble(value);
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.HierarchicalINIConfiguration;
+import org.apache.commons.configuration.SubnodeConfiguration;
+import org.slf4j.LoggerFactory;
+
+import utils.Pair;
+import de.clusteval.program.ParameterSet;
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import de.clusteval.run.result.ParameterOptimizationResult;
+
+/**
+ * This class loads the qualities of parameter sets evaluated in previous
+ * parameter optimization runs, such that parameter optimization methods can
+ * start from them instead of from scratch (see
+ * {@link ParameterOptimizationMethod#setPriorObservations(List)}).
+ * 
+ * <p>
+ * The complete files of all run result folders are considered, whose
+ * <ul>
+ * <li><b>program</b>: has the same name as the program configuration or the
+ * same program entry in its copied program configuration, and whose</li>
+ * <li><b>data</b>: has a similarity of at least the given minimal similarity
+ * to the data configuration. The similarity is the Jaccard index of the
+ * datasets referenced by the copied dataset configuration and the current
+ * one, i.e. 1 for the same networks.</li>
+ * </ul>
+ * At most {@link #MAX_OBSERVATIONS} observations are taken, starting with the
+ * most similar data.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class PriorObservations {
+
+	/**
+	 * The maximal number of loaded observations.
+	 */
+	public static final int MAX_OBSERVATIONS = 1000;
+
+	/**
+	 * @param runResultBasePath
+	 *            The folder containing the run result folders.
+	 * @param excludedRunResult
+	 *            The run result folder of the current run, which is not
+	 *            considered.
+	 * @param programConfigName
+	 *            The name of the current program configuration.
+	 * @param programConfigFile
+	 *            The file of the current program configuration.
+	 * @param dataSetConfigFile
+	 *            The file of the current dataset configuration.
+	 * @param paramNames
+	 *            The names of the optimization parameters; observations have
+	 *            to contain values for all of them.
+	 * @param measures
+	 *            The quality measures to take from the complete files.
+	 * @param minSimilarity
+	 *            The minimal similarity of the data.
+	 * @return The parameter sets and their qualities.
+	 */
+	public static List<Pair<ParameterSet, QualitySet>> load(
+			final File runResultBasePath, final File excludedRunResult,
+			final String programConfigName, final File programConfigFile,
+			final File dataSetConfigFile, final List<String> paramNames,
+			final List<QualityMeasure> measures, final double minSimilarity) {
+		String program = readProgram(programConfigFile);
+		Set<String> dataSets = readDataSets(dataSetConfigFile);
+
+		List<Pair<File, Double>> completeFiles = new ArrayList<Pair<File, Double>>();
+		File[] resultDirs = runResultBasePath.listFiles();
+		if (resultDirs == null)
+			return new ArrayList<Pair<ParameterSet, QualitySet>>();
+		for (File resultDir : resultDirs) {
+			if (!resultDir.isDirectory()
+					|| resultDir.getAbsoluteFile().equals(
+							excludedRunResult.getAbsoluteFile()))
+				continue;
+			File configsDir = new File(resultDir, "configs");
+			File[] files = new File(resultDir, "calculations").listFiles();
+			if (files == null)
+				continue;
+			for (File completeFile : files) {
+				String name = completeFile.getName();
+				if (!name.endsWith(".results.qual.complete"))
+					continue;
+				String pair = name.substring(0,
+						name.length() - ".results.qual.complete".length());
+				Pair<String, String> configs = splitPair(configsDir, pair);
+				if (configs == null)
+					continue;
+				if (!configs.getFirst().equals(programConfigName)
+						&& (program == null || !program
+								.equals(readProgram(new File(configsDir,
+										configs.getFirst() + ".config")))))
+					continue;
+				double similarity = similarity(dataSets,
+						readDataSets(findDataSetConfig(configsDir,
+								configs.getSecond())));
+				if (similarity >= minSimilarity)
+					completeFiles.add(Pair.getPair(completeFile, similarity));
+			}
+		}
+
+		// most similar data first
+		Collections.sort(completeFiles, new Comparator<Pair<File, Double>>() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.util.Comparator#compare(java.lang.Object,
+			 * java.lang.Object)
+			 */
+			@Override
+			public int compare(Pair<File, Double> o1, Pair<File, Double> o2) {
+				int result = o2.getSecond().compareTo(o1.getSecond());
+				if (result != 0)
+					return result;
+				return o1.getFirst().compareTo(o2.getFirst());
+			}
+		});
+
+		List<Pair<ParameterSet, QualitySet>> result = new ArrayList<Pair<ParameterSet, QualitySet>>();
+		for (Pair<File, Double> completeFile : completeFiles) {
+			try {
+				for (Pair<ParameterSet, QualitySet> observation : parseCompleteFile(
+						completeFile.getFirst(), paramNames, measures)) {
+					if (result.size() >= MAX_OBSERVATIONS)
+						return result;
+					result.add(observation);
+				}
+			} catch (IOException e) {
+				LoggerFactory.getLogger(PriorObservations.class).warn(
+						"Could not read prior observations from "
+								+ completeFile.getFirst() + ": "
+								+ e.getMessage());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param configsDir
+	 *            The folder with the copied configurations of a run result.
+	 * @param pair
+	 *            The name of a complete file without extension, i.e. the
+	 *            names of the program and data configuration joined by an
+	 *            underscore.
+	 * @return The names of the program and data configuration, or null if no
+	 *         copied program configuration matches.
+	 */
+	protected static Pair<String, String> splitPair(final File configsDir,
+			final String pair) {
+		File[] configs = configsDir.listFiles();
+		if (configs == null)
+			return null;
+		for (File config : configs) {
+			String name = config.getName();
+			if (!name.endsWith(".config"))
+				continue;
+			name = name.substring(0, name.length() - ".config".length());
+			if (pair.startsWith(name + "_"))
+				return Pair.getPair(name, pair.substring(name.length() + 1));
+		}
+		return null;
+	}
+
+	/**
+	 * @param configsDir
+	 *            The folder with the copied configurations of a run result.
+	 * @param dataConfigName
+	 *            The name of a data configuration.
+	 * @return The copied dataset configuration of the data configuration.
+	 */
+	protected static File findDataSetConfig(final File configsDir,
+			final String dataConfigName) {
+		try {
+			HierarchicalINIConfiguration props = new HierarchicalINIConfiguration(
+					new File(configsDir, dataConfigName + ".dataconfig"));
+			return new File(configsDir, props.getString("datasetConfig", "")
+					+ ".dsconfig");
+		} catch (ConfigurationException e) {
+			return new File(configsDir, dataConfigName + ".dsconfig");
+		}
+	}
+
+	/**
+	 * @param programConfigFile
+	 *            A program configuration file.
+	 * @return The program entry of the file, or null if it cannot be read.
+	 */
+	protected static String readProgram(final File programConfigFile) {
+		if (!programConfigFile.exists())
+			return null;
+		try {
+			return new HierarchicalINIConfiguration(programConfigFile)
+					.getString("program", null);
+		} catch (ConfigurationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param dataSetConfigFile
+	 *            A dataset configuration file.
+	 * @return The datasets referenced by the file, as pairs of name and file
+	 *         joined by a slash; empty, if the file cannot be read.
+	 */
+	protected static Set<String> readDataSets(final File dataSetConfigFile) {
+		Set<String> result = new HashSet<String>();
+		if (!dataSetConfigFile.exists())
+			return result;
+		try {
+			HierarchicalINIConfiguration conf = new HierarchicalINIConfiguration(
+					dataSetConfigFile);
+			for (String section : conf.getSections()) {
+				if (section == null)
+					continue;
+				SubnodeConfiguration props = conf.getSection(section);
+				result.add(props.getString("datasetName", "") + "/"
+						+ props.getString("datasetFile", ""));
+			}
+		} catch (ConfigurationException e) {
+			// no datasets
+		}
+		return result;
+	}
+
+	/**
+	 * @param dataSets1
+	 * @param dataSets2
+	 * @return The Jaccard index of the two sets; 0 if both are empty.
+	 */
+	public static double similarity(final Set<String> dataSets1,
+			final Set<String> dataSets2) {
+		Set<String> union = new HashSet<String>(dataSets1);
+		union.addAll(dataSets2);
+		if (union.isEmpty())
+			return 0.0;
+		Set<String> intersection = new HashSet<String>(dataSets1);
+		intersection.retainAll(dataSets2);
+		return intersection.size() / (double) union.size();
+	}
+
+	/**
+	 * @param completeFile
+	 *            A complete file of a parameter optimization run result.
+	 * @param paramNames
+	 *            The names of the parameters to take; lines without values
+	 *            for all of them are skipped.
+	 * @param measures
+	 *            The quality measures to take; columns of other measures are
+	 *            ignored.
+	 * @return The parameter sets and their qualities in the order of the
+	 *         file; iterations evaluated on induced subgraphs are skipped (see
+	 *         {@link ParameterOptimizationResult#getDataFractionsFile(File)}).
+	 * @throws IOException
+	 */
+	public static List<Pair<ParameterSet, QualitySet>> parseCompleteFile(
+			final File completeFile, final List<String> paramNames,
+			final List<QualityMeasure> measures) throws IOException {
+		List<Pair<ParameterSet, QualitySet>> result = new ArrayList<Pair<ParameterSet, QualitySet>>();
+		BufferedReader reader = new BufferedReader(new FileReader(completeFile));
+		try {
+			String line = reader.readLine();
+			if (line == null || !line.startsWith("iteration"))
+				return result;
+			String[] header = line.split("\t");
+			if (header.length < 2)
+				return result;
+			List<String> fileParams = Arrays.asList(header[1].split(","));
+			if (!fileParams.containsAll(paramNames))
+				return result;
+			QualityMeasure[] columnMeasures = new QualityMeasure[header.length];
+			for (int c = 2; c < header.length; c++)
+				for (QualityMeasure measure : measures)
+					if (measure.getClass().getSimpleName().equals(header[c]))
+						columnMeasures[c] = measure;
+
+			Map<Long, Double> dataFractions = ParameterOptimizationResult
+					.parseDataFractions(completeFile);
+			while ((line = reader.readLine()) != null) {
+				String[] columns = line.split("\t");
+				if (columns.length < 2)
+					continue;
+				try {
+					Double fraction = dataFractions.get(Long
+							.valueOf(columns[0]));
+					if (fraction != null && fraction < 1.0)
+						continue;
+				} catch (NumberFormatException e) {
+					// lines without iteration number cannot be marked
+				}
+				String[] values = columns[1].split(",");
+				if (values.length != fileParams.size())
+					continue;
+				ParameterSet paramSet = new ParameterSet();
+				for (String param : paramNames)
+					paramSet.put(param, values[fileParams.indexOf(param)]);
+				QualitySet qualities = new QualitySet();
+				for (int c = 2; c < columns.length && c < header.length; c++) {
+					if (columnMeasures[c] == null)
+						continue;
+					try {
+						qualities.put(columnMeasures[c],
+								QualityMeasureValue.parseFromString(columns[c]));
+					} catch (NumberFormatException e) {
+						// skip invalid values
+					}
+				}
+				result.add(Pair.getPair(paramSet, qualities));
+			}
+		} finally {
+			reader.close();
+		}
+		return result;
+	}
+}
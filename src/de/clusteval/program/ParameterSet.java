@@ -13,26 +13,383 @@
  */
 package de.clusteval.program;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
+ * A parameter set maps parameter names to their values.
+ * 
+ * <p>
+ * The names are held by a shared {@link ParameterSetSchema}; a parameter set
+ * itself only stores the values in the order of its schema, both as strings
+ * and, if they are numeric, as parsed doubles (see {@link #getDouble(String)}
+ * ). The hash code is maintained on every modification, such that parameter
+ * sets are cheap hash keys. Two parameter sets are equal, if they map the same
+ * names to the same values, regardless of their schemas.
+ * 
+ * <p>
+ * The map interface can be used to build a parameter set. Once a parameter set
+ * has been added to a result, it is frozen (see {@link #freeze()}) and every
+ * further modification throws an {@link UnsupportedOperationException}.
+ * 
  * @author Christian Wiwie
  * 
  */
-public class ParameterSet extends HashMap<String, String> {
+public class ParameterSet extends AbstractMap<String, String>
+		implements
+			Cloneable,
+			Serializable {
 
 	/**
 	 * 
 	 */
 	private static final long serialVersionUID = 405272229276934252L;
 
+	/**
+	 * Marks the values of parameters of the schema that are not contained in
+	 * this parameter set.
+	 */
+	protected static final String ABSENT = new String();
+
+	protected ParameterSetSchema schema;
+
+	protected transient String[] values;
+
+	protected transient double[] doubleValues;
+
+	protected int size;
+
+	protected int hash;
+
+	protected boolean frozen;
+
+	/**
+	 * Creates an empty parameter set.
+	 */
+	public ParameterSet() {
+		this(ParameterSetSchema.EMPTY);
+	}
+
+	/**
+	 * Creates an empty parameter set, whose values will be stored in the
+	 * order of the given schema.
+	 * 
+	 * @param schema
+	 *            The schema of the parameters that will be added.
+	 */
+	public ParameterSet(final ParameterSetSchema schema) {
+		super();
+		this.schema = schema;
+		this.values = new String[schema.size()];
+		Arrays.fill(this.values, ABSENT);
+		this.doubleValues = new double[schema.size()];
+		Arrays.fill(this.doubleValues, Double.NaN);
+	}
+
+	/**
+	 * @return The schema holding the parameter names of this set.
+	 */
+	public ParameterSetSchema getSchema() {
+		return this.schema;
+	}
+
+	/**
+	 * Prevents all further modifications of this parameter set.
+	 */
+	public void freeze() {
+		this.frozen = true;
+	}
+
+	/**
+	 * @return True, if this parameter set cannot be modified anymore.
+	 */
+	public boolean isFrozen() {
+		return this.frozen;
+	}
+
+	protected void checkModifiable() {
+		if (this.frozen)
+			throw new UnsupportedOperationException(
+					"The parameter set is frozen: " + this);
+	}
+
+	protected static int entryHash(final String name, final String value) {
+		return name.hashCode() ^ (value == null ? 0 : value.hashCode());
+	}
+
+	protected static double parseDouble(final String value) {
+		if (value == null || value.isEmpty())
+			return Double.NaN;
+		char first = value.charAt(0);
+		// avoid exceptions for values that are obviously not numeric
+		if (!(Character.isDigit(first) || first == '-' || first == '+'
+				|| first == '.' || first == 'N' || first == 'I'))
+			return Double.NaN;
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * @param name
+	 *            The name of the parameter.
+	 * @return The value of the parameter parsed as a double, or NaN if the
+	 *         parameter is not contained or its value is not numeric.
+	 */
+	public double getDouble(final String name) {
+		int index = this.schema.indexOf(name);
+		if (index < 0)
+			return Double.NaN;
+		return this.doubleValues[index];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#get(java.lang.Object)
+	 */
+	@Override
+	public String get(final Object name) {
+		int index = this.schema.indexOf(name);
+		if (index < 0 || this.values[index] == ABSENT)
+			return null;
+		return this.values[index];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+	 */
+	@Override
+	public boolean containsKey(final Object name) {
+		int index = this.schema.indexOf(name);
+		return index >= 0 && this.values[index] != ABSENT;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public String put(final String name, final String value) {
+		this.checkModifiable();
+		int index = this.schema.indexOf(name);
+		if (index < 0) {
+			this.schema = this.schema.extend(name);
+			index = this.schema.size() - 1;
+			this.values = Arrays.copyOf(this.values, this.schema.size());
+			this.doubleValues = Arrays.copyOf(this.doubleValues,
+					this.schema.size());
+			this.values[index] = ABSENT;
+		}
+		String old = this.values[index];
+		if (old == ABSENT) {
+			old = null;
+			this.size++;
+		} else
+			this.hash -= entryHash(this.schema.getName(index), old);
+		this.values[index] = value;
+		this.doubleValues[index] = parseDouble(value);
+		this.hash += entryHash(this.schema.getName(index), value);
+		return old;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#remove(java.lang.Object)
+	 */
+	@Override
+	public String remove(final Object name) {
+		this.checkModifiable();
+		int index = this.schema.indexOf(name);
+		if (index < 0 || this.values[index] == ABSENT)
+			return null;
+		return this.removeIndex(index);
+	}
+
+	protected String removeIndex(final int index) {
+		String old = this.values[index];
+		this.hash -= entryHash(this.schema.getName(index), old);
+		this.values[index] = ABSENT;
+		this.doubleValues[index] = Double.NaN;
+		this.size--;
+		return old;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#clear()
+	 */
+	@Override
+	public void clear() {
+		this.checkModifiable();
+		Arrays.fill(this.values, ABSENT);
+		Arrays.fill(this.doubleValues, Double.NaN);
+		this.size = 0;
+		this.hash = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#size()
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		return new AbstractSet<Map.Entry<String, String>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, String>> iterator() {
+				return new Iterator<Map.Entry<String, String>>() {
+
+					protected int next = this.advance(0);
+
+					protected int last = -1;
+
+					protected int advance(int index) {
+						while (index < values.length && values[index] == ABSENT)
+							index++;
+						return index;
+					}
+
+					@Override
+					public boolean hasNext() {
+						return this.next < values.length;
+					}
+
+					@Override
+					public Map.Entry<String, String> next() {
+						if (!this.hasNext())
+							throw new NoSuchElementException();
+						this.last = this.next;
+						this.next = this.advance(this.next + 1);
+						return new AbstractMap.SimpleImmutableEntry<String, String>(
+								schema.getName(this.last), values[this.last]);
+					}
+
+					@Override
+					public void remove() {
+						if (this.last < 0)
+							throw new IllegalStateException();
+						checkModifiable();
+						removeIndex(this.last);
+						this.last = -1;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see java.util.HashMap#clone()
+	 * @see java.util.AbstractMap#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof ParameterSet))
+			return super.equals(o);
+		ParameterSet other = (ParameterSet) o;
+		if (this.hash != other.hash || this.size != other.size)
+			return false;
+		if (this.schema != other.schema)
+			return super.equals(o);
+		for (int i = 0; i < this.values.length; i++) {
+			String value = this.values[i];
+			String otherValue = other.values[i];
+			if (value == ABSENT || otherValue == ABSENT) {
+				if (value != otherValue)
+					return false;
+			} else if (value == null ? otherValue != null : !value
+					.equals(otherValue))
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#clone()
 	 */
 	@Override
 	public ParameterSet clone() {
-		return (ParameterSet) super.clone();
+		try {
+			ParameterSet result = (ParameterSet) super.clone();
+			result.values = this.values.clone();
+			result.doubleValues = this.doubleValues.clone();
+			result.frozen = false;
+			return result;
+		} catch (CloneNotSupportedException e) {
+			// does not occur, since we implement Cloneable
+			throw new InternalError(e.toString());
+		}
+	}
+
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		for (String value : this.values) {
+			out.writeBoolean(value != ABSENT);
+			if (value != ABSENT)
+				out.writeObject(value);
+		}
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		this.values = new String[this.schema.size()];
+		this.doubleValues = new double[this.schema.size()];
+		for (int i = 0; i < this.values.length; i++) {
+			if (in.readBoolean()) {
+				this.values[i] = (String) in.readObject();
+				this.doubleValues[i] = parseDouble(this.values[i]);
+			} else {
+				this.values[i] = ABSENT;
+				this.doubleValues[i] = Double.NaN;
+			}
+		}
 	}
 }
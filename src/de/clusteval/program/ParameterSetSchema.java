@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.program;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The schema of a {@link ParameterSet} is the ordered list of its parameter
+ * names. The names are interned and every parameter set only stores the
+ * values in the order of its schema.
+ * 
+ * <p>
+ * Schemas are immutable and canonical: starting with {@link #EMPTY}, adding
+ * the same names in the same order always returns the same schema object.
+ * Thus all parameter sets created for the parameters of one run share a
+ * single schema.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ParameterSetSchema implements Serializable {
+
+	private static final long serialVersionUID = -2930154616392384937L;
+
+	/**
+	 * The schema without any parameters.
+	 */
+	public static final ParameterSetSchema EMPTY = new ParameterSetSchema(
+			new String[0]);
+
+	/**
+	 * @param names
+	 *            The names of the parameters.
+	 * @return The canonical schema containing the given parameter names in
+	 *         the given order.
+	 */
+	public static ParameterSetSchema forNames(final List<String> names) {
+		ParameterSetSchema result = EMPTY;
+		for (String name : names)
+			if (result.indexOf(name) < 0)
+				result = result.extend(name);
+		return result;
+	}
+
+	protected final String[] names;
+
+	protected final Map<String, Integer> indices;
+
+	/**
+	 * The schemas that result from this schema by adding one further name.
+	 */
+	protected transient Map<String, ParameterSetSchema> extensions;
+
+	protected ParameterSetSchema(final String[] names) {
+		super();
+		this.names = names;
+		this.indices = new HashMap<String, Integer>();
+		for (int i = 0; i < names.length; i++)
+			this.indices.put(names[i], i);
+	}
+
+	/**
+	 * @param name
+	 *            The name of the parameter.
+	 * @return The position of the parameter in this schema, or -1 if it is
+	 *         not contained.
+	 */
+	public int indexOf(final Object name) {
+		Integer index = this.indices.get(name);
+		if (index == null)
+			return -1;
+		return index;
+	}
+
+	/**
+	 * @param index
+	 *            The position of the parameter.
+	 * @return The interned name of the parameter at the given position.
+	 */
+	public String getName(final int index) {
+		return this.names[index];
+	}
+
+	/**
+	 * @return The number of parameters in this schema.
+	 */
+	public int size() {
+		return this.names.length;
+	}
+
+	/**
+	 * @return The names of the parameters in this schema.
+	 */
+	public List<String> getNames() {
+		return Collections.unmodifiableList(Arrays.asList(this.names));
+	}
+
+	/**
+	 * @param name
+	 *            The name of the parameter to add.
+	 * @return The canonical schema containing the names of this schema
+	 *         followed by the given name.
+	 */
+	public synchronized ParameterSetSchema extend(final String name) {
+		if (this.extensions == null)
+			this.extensions = new HashMap<String, ParameterSetSchema>();
+		ParameterSetSchema result = this.extensions.get(name);
+		if (result == null) {
+			String[] extended = Arrays.copyOf(this.names, this.names.length + 1);
+			extended[this.names.length] = name.intern();
+			result = new ParameterSetSchema(extended);
+			this.extensions.put(extended[this.names.length], result);
+		}
+		return result;
+	}
+
+	/**
+	 * Deserialized schemas are replaced by the canonical schema with the same
+	 * names.
+	 * 
+	 * @return The canonical schema.
+	 */
+	protected Object readResolve() {
+		return forNames(Arrays.asList(this.names));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return Arrays.toString(this.names);
+	}
+}
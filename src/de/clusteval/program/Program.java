@@ -221,6 +221,54 @@ public abstract class Program extends RepositoryObject {
 			final Map<String, String> internalParams) throws IOException,
 			RNotAvailableException, RLibraryNotLoadedException, REngineException, REXPMismatchException;
 
+	/**
+	 * This method executes this program like
+	 * {@link #exec(DataConfig, ProgramConfig, String[], Map, Map)}, but
+	 * additionally writes the standard and error output of the started process
+	 * into the given log file.
+	 * 
+	 * <p>
+	 * Subclasses starting operating system processes should override this
+	 * method and redirect the output of the process directly into the file,
+	 * such that no threads are needed to read the output. By default the log
+	 * file is ignored.
+	 * 
+	 * @param dataConfig
+	 *            This configuration encapsulates the data, this program should
+	 *            be applied to.
+	 * @param programConfig
+	 *            This parameter contains some additional configuration for this
+	 *            program.
+	 * @param invocationLine
+	 *            This is the complete invocation line, were all parameter
+	 *            placeholders are already replaced by their actual values.
+	 * @param effectiveParams
+	 *            This map contains only the program parameters defined in the
+	 *            program configuration together with their actual values.
+	 * @param internalParams
+	 *            This map contains parameters, that are not program specific,
+	 *            but related and necessary for the execution of the program.
+	 * @param logFile
+	 *            The file the output of the process is written to.
+	 * @return A Process object which can be used to get the status of or to
+	 *         control the execution of this program.
+	 * @throws IOException
+	 * @throws RNotAvailableException
+	 * @throws RLibraryNotLoadedException
+	 * @throws REngineException
+	 * @throws REXPMismatchException
+	 */
+	@SuppressWarnings("unused")
+	public Process exec(final DataConfig dataConfig,
+			final ProgramConfig programConfig, final String[] invocationLine,
+			final Map<String, String> effectiveParams,
+			final Map<String, String> internalParams, final File logFile)
+			throws IOException, RNotAvailableException,
+			RLibraryNotLoadedException, REngineException, REXPMismatchException {
+		return this.exec(dataConfig, programConfig, invocationLine,
+				effectiveParams, internalParams);
+	}
+
 	/**
 	 * @return The context of this program. A run can only perform this program,
 	 *         if it has the same context.
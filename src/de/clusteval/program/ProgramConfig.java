@@ -20,15 +20,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.script.ScriptException;
+
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.HierarchicalINIConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import utils.Pair;
+import utils.Triple;
 import de.clusteval.paramOptimization.InvalidOptimizationParameterException;
 import de.clusteval.context.Context;
 import de.clusteval.context.UnknownContextException;
+import de.clusteval.data.DataConfig;
+import de.clusteval.data.dataset.DataSet;
 import de.clusteval.data.dataset.format.UnknownDataSetFormatException;
 import de.clusteval.framework.repository.NoRepositoryFoundException;
 import de.clusteval.framework.repository.RegisterException;
@@ -37,13 +42,16 @@ import de.clusteval.framework.repository.RepositoryEvent;
 import de.clusteval.framework.repository.RepositoryObject;
 import de.clusteval.framework.repository.RepositoryRemoveEvent;
 import de.clusteval.framework.repository.RepositoryReplaceEvent;
+import de.clusteval.framework.threading.ResourceDemand;
 import de.clusteval.program.r.RProgram;
 import de.clusteval.program.r.RProgramConfig;
 import de.clusteval.program.r.UnknownRProgramException;
 import de.clusteval.run.ParameterOptimizationRun;
+import de.clusteval.run.result.ExecutionCache;
 import de.clusteval.run.result.format.RunResultFormat;
 import de.clusteval.run.result.format.UnknownRunResultFormatException;
 import de.clusteval.utils.FormatCompatibilityParser;
+import de.clusteval.utils.InternalAttributeException;
 import file.FileUtils;
 
 /**
@@ -148,6 +156,26 @@ public class ProgramConfig extends RepositoryObject {
 	 */
 	protected List<ProgramParameter<?>> optimizableParameters;
 
+	/**
+	 * The number of cores the program is expected to occupy. This is an
+	 * expression which may contain javascript arithmetic operations and the
+	 * placeholder $(inputSize) for the size of the input dataset in megabytes.
+	 */
+	protected String expectedCores;
+
+	/**
+	 * The peak memory in megabytes the program is expected to occupy. This is
+	 * an expression like {@link #expectedCores}.
+	 */
+	protected String expectedMemory;
+
+	/**
+	 * Whether the program always calculates the same result for the same
+	 * parameters and inputs. Only executions of deterministic programs are
+	 * stored in and reused from the {@link ExecutionCache} of the repository.
+	 */
+	protected boolean deterministic;
+
 	/**
 	 * Instantiates a new program config.
 	 * 
@@ -216,6 +244,10 @@ public class ProgramConfig extends RepositoryObject {
 		this.params = params;
 		this.optimizableParameters = optimizableParameters;
 
+		this.expectedCores = "1";
+		this.expectedMemory = "0";
+		this.deterministic = false;
+
 		if (register && this.register()) {
 			this.program.register();
 			this.program.addListener(this);
@@ -257,6 +289,10 @@ public class ProgramConfig extends RepositoryObject {
 		this.params = ProgramParameter.cloneParameterList(programConfig.params);
 		this.optimizableParameters = ProgramParameter
 				.cloneParameterList(programConfig.optimizableParameters);
+
+		this.expectedCores = programConfig.expectedCores;
+		this.expectedMemory = programConfig.expectedMemory;
+		this.deterministic = programConfig.deterministic;
 	}
 
 	/*
@@ -292,6 +328,10 @@ public class ProgramConfig extends RepositoryObject {
 	 * <li><b>alias</b>: (see {@link StandaloneProgram#alias})</li>
 	 * <li><b>parameters</b>: (see {@link #params})</li>
 	 * <li><b>optimizationParameters</b>: (see {@link #optimizableParameters})</li>
+	 * <li><b>expectedCores</b> (optional): (see {@link #expectedCores})</li>
+	 * <li><b>expectedMemory</b> (optional): (see {@link #expectedMemory})</li>
+	 * <li><b>deterministic</b> (optional): (see {@link #deterministic};
+	 * default: false)</li>
 	 * <li><b>[invocationFormat]</b></li>
 	 * <ul>
 	 * <li><b>invocationFormat</b>: see {@link #invocationFormat}</li>
@@ -542,10 +582,118 @@ public class ProgramConfig extends RepositoryObject {
 			}
 		}
 
+		if (props.containsKey("expectedCores"))
+			result.setExpectedCores(props.getString("expectedCores"));
+		if (props.containsKey("expectedMemory"))
+			result.setExpectedMemory(props.getString("expectedMemory"));
+		if (props.containsKey("deterministic"))
+			result.setDeterministic(props.getBoolean("deterministic"));
+
 		result = repo.getRegisteredObject(result);
 		return result;
 	}
 
+	/**
+	 * @return The expression for the number of cores the program is expected
+	 *         to occupy (see {@link #expectedCores}).
+	 */
+	public String getExpectedCores() {
+		return this.expectedCores;
+	}
+
+	/**
+	 * @param expectedCores
+	 *            The expression for the number of cores the program is
+	 *            expected to occupy (see {@link #expectedCores}).
+	 */
+	public void setExpectedCores(final String expectedCores) {
+		this.expectedCores = expectedCores;
+	}
+
+	/**
+	 * @return The expression for the peak memory the program is expected to
+	 *         occupy (see {@link #expectedMemory}).
+	 */
+	public String getExpectedMemory() {
+		return this.expectedMemory;
+	}
+
+	/**
+	 * @param expectedMemory
+	 *            The expression for the peak memory the program is expected to
+	 *            occupy (see {@link #expectedMemory}).
+	 */
+	public void setExpectedMemory(final String expectedMemory) {
+		this.expectedMemory = expectedMemory;
+	}
+
+	/**
+	 * @return Whether the program is deterministic (see
+	 *         {@link #deterministic}).
+	 */
+	public boolean isDeterministic() {
+		return this.deterministic;
+	}
+
+	/**
+	 * @param deterministic
+	 *            Whether the program is deterministic (see
+	 *            {@link #deterministic}).
+	 */
+	public void setDeterministic(final boolean deterministic) {
+		this.deterministic = deterministic;
+	}
+
+	/**
+	 * This method evaluates the expected cores and memory of this program for
+	 * the given input.
+	 * 
+	 * @param dataConfig
+	 *            The data configuration the program is applied to.
+	 * @return The resources the program is expected to occupy.
+	 * @throws InternalAttributeException
+	 */
+	public ResourceDemand getResourceDemand(final DataConfig dataConfig)
+			throws InternalAttributeException {
+		long inputSize = 0;
+		for (Triple<String, DataSet, String> dataSet : dataConfig
+				.getDatasetConfig().getDataSets())
+			inputSize += new File(dataSet.getSecond().getAbsolutePath())
+					.length();
+		// in megabytes
+		inputSize = (inputSize + (1 << 20) - 1) >> 20;
+
+		double cores = this.evaluateResourceExpression(this.expectedCores,
+				"expectedCores", inputSize);
+		double memory = this.evaluateResourceExpression(this.expectedMemory,
+				"expectedMemory", inputSize);
+		return new ResourceDemand((int) Math.max(Math.ceil(cores), 0),
+				(long) Math.max(Math.ceil(memory), 0));
+	}
+
+	protected double evaluateResourceExpression(final String expression,
+			final String attribute, final long inputSize)
+			throws InternalAttributeException {
+		String evaluated = expression.replace("$(inputSize)", inputSize + "");
+		try {
+			return Double.parseDouble(evaluated);
+		} catch (NumberFormatException e) {
+			// not a constant
+		}
+		try {
+			return Double.parseDouble(this.repository
+					.evaluateJavaScript(evaluated));
+		} catch (ScriptException e) {
+			throw new InternalAttributeException("The expression '"
+					+ expression + "' for attribute " + this + "/" + attribute
+					+ " is invalid");
+		} catch (NumberFormatException e) {
+			throw new InternalAttributeException("The expression '"
+					+ expression + "' for attribute " + this + "/" + attribute
+					+ " is not a number");
+		}
+	}
+
 	/**
 	 * This method returns the invocation line format for non
 	 * parameter-optimization runs.
@@ -99,11 +99,48 @@ public class StandaloneProgram extends Program {
 			final ProgramConfig programConfig, final String[] invocationLine,
 			Map<String, String> effectiveParams,
 			Map<String, String> internalParams) throws IOException {
-		return Runtime.getRuntime().exec(invocationLine,
-				// TODO, check whether this works everywhere
-				new String[]{"TERM=xterm"},
-				new File(programConfig.getProgram().getAbsolutePath())
-						.getParentFile());
+		return createProcessBuilder(programConfig, invocationLine).start();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.program.Program#exec(de.clusteval.data.DataConfig,
+	 * de.clusteval.program.ProgramConfig, java.lang.String[], java.util.Map,
+	 * java.util.Map, java.io.File)
+	 */
+	@SuppressWarnings("unused")
+	@Override
+	public Process exec(final DataConfig dataConfig,
+			final ProgramConfig programConfig, final String[] invocationLine,
+			Map<String, String> effectiveParams,
+			Map<String, String> internalParams, final File logFile)
+			throws IOException {
+		ProcessBuilder builder = createProcessBuilder(programConfig,
+				invocationLine);
+		builder.redirectErrorStream(true);
+		builder.redirectOutput(logFile);
+		return builder.start();
+	}
+
+	/**
+	 * @param programConfig
+	 *            The program configuration to execute.
+	 * @param invocationLine
+	 *            The complete invocation line.
+	 * @return A process builder executing the invocation line in the directory
+	 *         of the executable; its directory and environment are also used
+	 *         to execute the program on worker nodes.
+	 */
+	public ProcessBuilder createProcessBuilder(
+			final ProgramConfig programConfig, final String[] invocationLine) {
+		ProcessBuilder builder = new ProcessBuilder(invocationLine);
+		builder.directory(new File(programConfig.getProgram()
+				.getAbsolutePath()).getParentFile());
+		builder.environment().clear();
+		// TODO, check whether this works everywhere
+		builder.environment().put("TERM", "xterm");
+		return builder;
 	}
 
 	/*
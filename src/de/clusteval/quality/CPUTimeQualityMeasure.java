@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.quality;
+
+import java.io.File;
+
+import de.clusteval.framework.repository.RegisterException;
+import de.clusteval.framework.repository.Repository;
+import de.clusteval.framework.threading.ProcessUsage;
+
+/**
+ * The CPU time (user and system) in seconds, that the program and all its
+ * child processes used.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class CPUTimeQualityMeasure extends ResourceUsageQualityMeasure {
+
+	/**
+	 * @param repo
+	 * @param register
+	 * @param changeDate
+	 * @param absPath
+	 * @throws RegisterException
+	 */
+	public CPUTimeQualityMeasure(Repository repo, boolean register,
+			long changeDate, File absPath) throws RegisterException {
+		super(repo, register, changeDate, absPath);
+	}
+
+	/**
+	 * @param other
+	 * @throws RegisterException
+	 */
+	public CPUTimeQualityMeasure(CPUTimeQualityMeasure other)
+			throws RegisterException {
+		super(other);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.quality.ResourceUsageQualityMeasure#getValue(de.clusteval
+	 * .framework.threading.ProcessUsage)
+	 */
+	@Override
+	protected double getValue(ProcessUsage usage) {
+		return usage.getCpuTime() / 1000.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getAlias()
+	 */
+	@Override
+	public String getAlias() {
+		return "CPU Time (s)";
+	}
+}
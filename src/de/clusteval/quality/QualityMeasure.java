@@ -17,7 +17,9 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.clusteval.data.DataConfig;
@@ -48,6 +50,16 @@ import de.clusteval.utils.RNotAvailableException;
  */
 public abstract class QualityMeasure extends RepositoryObject {
 
+	/**
+	 * Maps the names of the quality measure classes to their ordinals.
+	 */
+	protected static final Map<String, Integer> ordinals = new HashMap<String, Integer>();
+
+	/**
+	 * The ordinal of this quality measure, see {@link #getOrdinal()}.
+	 */
+	protected int ordinal = -1;
+
 	/**
 	 * Instantiates a new clustering quality measure.
 	 * 
@@ -221,6 +233,28 @@ public abstract class QualityMeasure extends RepositoryObject {
 		return null;
 	}
 
+	/**
+	 * Quality measures are equal, if they are instances of the same class.
+	 * Every quality measure class gets a small, dense ordinal when it is used
+	 * the first time, which is used as index into the value arrays of
+	 * {@link QualitySet}.
+	 * 
+	 * @return The ordinal of the class of this quality measure.
+	 */
+	public final int getOrdinal() {
+		if (this.ordinal < 0) {
+			synchronized (ordinals) {
+				Integer result = ordinals.get(this.getClass().getName());
+				if (result == null) {
+					result = ordinals.size();
+					ordinals.put(this.getClass().getName(), result);
+				}
+				this.ordinal = result;
+			}
+		}
+		return this.ordinal;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -289,6 +323,25 @@ public abstract class QualityMeasure extends RepositoryObject {
 	 */
 	public abstract boolean requiresGoldstandard();
 
+	/**
+	 * Override this method to indicate, whether the quality of several
+	 * clusterings can be calculated concurrently by the same instance of your
+	 * subclass. This should only be the case, if
+	 * {@link #getQualityOf(GraphMatching, GraphMatching, DataConfig)} only
+	 * reads the passed clusterings and data configuration and does not modify
+	 * any state of its own.
+	 * 
+	 * <p>
+	 * Thread safe quality measures are evaluated in parallel in the
+	 * {@link de.clusteval.framework.threading.QualityMeasurePool}, all others
+	 * one after another by the thread assessing the qualities.
+	 * 
+	 * @return True, if this quality measure can be evaluated concurrently.
+	 */
+	public boolean isThreadSafe() {
+		return false;
+	}
+
 	/**
 	 * This alias is used whenever this clustering quality measure is visually
 	 * represented and a readable name is needed.
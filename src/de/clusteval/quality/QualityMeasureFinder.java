@@ -61,9 +61,32 @@ public class QualityMeasureFinder extends JARFinder<QualityMeasure> {
 	 */
 	@Override
 	protected void removeOldObject(Class<? extends QualityMeasure> object) {
+		// resource usage quality measures do not have a jar file
+		if (ResourceUsageQualityMeasure.class.isAssignableFrom(object))
+			return;
 		this.repository.unregisterClusteringQualityMeasureClass(object);
 	}
 
+	/**
+	 * Additionally to the quality measures found in jar files, this method
+	 * registers the resource usage quality measures of the framework (see
+	 * {@link ResourceUsageQualityMeasure}).
+	 * 
+	 * @see de.clusteval.utils.JARFinder#findAndRegisterObjects()
+	 */
+	@Override
+	public void findAndRegisterObjects() throws RegisterException {
+		for (Class<? extends ResourceUsageQualityMeasure> qualityMeasure : ResourceUsageQualityMeasure
+				.getResourceUsageQualityMeasureClasses())
+			if (!this.repository.isQualityMeasureRegistered(qualityMeasure
+					.getName())
+					&& this.repository
+							.registerClusteringQualityMeasureClass(qualityMeasure))
+				this.log.info("QualityMeasure " + qualityMeasure.getName()
+						+ " loaded");
+		super.findAndRegisterObjects();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
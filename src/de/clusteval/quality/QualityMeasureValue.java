@@ -29,10 +29,10 @@ package de.clusteval.quality;
 public class QualityMeasureValue {
 
 	/**
-	 * The clustering quality assessed. Set this value to <b>null</b> if the
-	 * iteration did not terminate.
+	 * The clustering quality assessed. This value is NaN if the iteration did
+	 * not terminate.
 	 */
-	private Double value;
+	private double value;
 
 	/**
 	 * A boolean indicating, whether the iteration belonging to this object
@@ -40,10 +40,10 @@ public class QualityMeasureValue {
 	 */
 	protected boolean isTerminated;
 
-	private QualityMeasureValue(final Double value) {
+	private QualityMeasureValue(final double value, final boolean isTerminated) {
 		super();
 		this.value = value;
-		this.isTerminated = value != null;
+		this.isTerminated = isTerminated;
 	}
 
 	/**
@@ -53,7 +53,7 @@ public class QualityMeasureValue {
 	 *         value.
 	 */
 	public static QualityMeasureValue getForDouble(final double value) {
-		return new QualityMeasureValue(value);
+		return new QualityMeasureValue(value, true);
 	}
 
 	/**
@@ -61,13 +61,13 @@ public class QualityMeasureValue {
 	 *         terminate.
 	 */
 	public static QualityMeasureValue getForNotTerminated() {
-		return new QualityMeasureValue(null);
+		return new QualityMeasureValue(Double.NaN, false);
 	}
 
 	@Override
 	public String toString() {
 		if (isTerminated)
-			return value.toString();
+			return Double.toString(value);
 		return "NT";
 	}
 
@@ -100,8 +100,8 @@ public class QualityMeasureValue {
 	 * This method returns the quality of the clustering.
 	 * 
 	 * <p>
-	 * It should only be invoked, if the corresponding iteration terminated and
-	 * thus {@link #value} is != null.
+	 * It should only be invoked, if the corresponding iteration terminated;
+	 * otherwise NaN is returned.
 	 * 
 	 * @return The quality of the corresponding clustering.
 	 */
@@ -116,4 +116,43 @@ public class QualityMeasureValue {
 	public boolean isTerminated() {
 		return this.isTerminated;
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof QualityMeasureValue))
+			return false;
+		QualityMeasureValue other = (QualityMeasureValue) obj;
+		return this.isTerminated == other.isTerminated
+				&& Double.compare(this.value, other.value) == 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return hashCode(this.value, this.isTerminated);
+	}
+
+	/**
+	 * @param value
+	 *            The quality value.
+	 * @param isTerminated
+	 *            Whether the iteration terminated.
+	 * @return The hash code of a quality measure value with the given
+	 *         attributes.
+	 */
+	static int hashCode(final double value, final boolean isTerminated) {
+		if (!isTerminated)
+			return 0;
+		long bits = Double.doubleToLongBits(value);
+		return (int) (bits ^ (bits >>> 32));
+	}
 }
@@ -13,29 +13,299 @@
  */
 package de.clusteval.quality;
 
-import java.util.HashMap;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * A clustering quality set is a map with clustering quality measures mapped to
  * clustering quality measure values achieved for each of those.
  * 
+ * <p>
+ * The values are stored in a primitive array indexed by the ordinals of the
+ * quality measures (see {@link QualityMeasure#getOrdinal()}); measures that
+ * were not computed have the value NaN. Thus lookups neither hash the quality
+ * measures nor box the values. The map interface is a view on these arrays;
+ * {@link #get(Object)} returns a new {@link QualityMeasureValue} on every
+ * invocation, use {@link #getValue(QualityMeasure)} to avoid this.
+ * 
  * @author Christian Wiwie
  * 
  */
-public class QualitySet extends HashMap<QualityMeasure, QualityMeasureValue> {
+public class QualitySet extends AbstractMap<QualityMeasure, QualityMeasureValue>
+		implements
+			Cloneable,
+			Serializable {
 
 	/**
 	 * 
 	 */
 	private static final long serialVersionUID = 7026335787094648699L;
 
+	/**
+	 * The quality measures contained in this set indexed by their ordinals;
+	 * null for measures that were not computed.
+	 */
+	protected QualityMeasure[] measures;
+
+	/**
+	 * The quality values indexed by the ordinals of the measures.
+	 */
+	protected double[] values;
+
+	/**
+	 * Whether the iteration of the respective value terminated.
+	 */
+	protected boolean[] terminated;
+
+	protected int size;
+
+	/**
+	 * Creates an empty quality set.
+	 */
+	public QualitySet() {
+		super();
+		this.measures = new QualityMeasure[0];
+		this.values = new double[0];
+		this.terminated = new boolean[0];
+	}
+
+	protected void ensureCapacity(final int ordinal) {
+		if (ordinal < this.measures.length)
+			return;
+		int oldLength = this.measures.length;
+		this.measures = Arrays.copyOf(this.measures, ordinal + 1);
+		this.values = Arrays.copyOf(this.values, ordinal + 1);
+		Arrays.fill(this.values, oldLength, ordinal + 1, Double.NaN);
+		this.terminated = Arrays.copyOf(this.terminated, ordinal + 1);
+	}
+
+	protected int getIndex(final Object measure) {
+		if (!(measure instanceof QualityMeasure))
+			return -1;
+		int ordinal = ((QualityMeasure) measure).getOrdinal();
+		if (ordinal >= this.measures.length || this.measures[ordinal] == null)
+			return -1;
+		return ordinal;
+	}
+
+	/**
+	 * @param measure
+	 *            The quality measure.
+	 * @return The value of the given measure, or NaN if it was not computed or
+	 *         the iteration did not terminate.
+	 */
+	public double getValue(final QualityMeasure measure) {
+		int index = this.getIndex(measure);
+		if (index < 0)
+			return Double.NaN;
+		return this.values[index];
+	}
+
+	/**
+	 * @param measure
+	 *            The quality measure.
+	 * @param value
+	 *            The value of the quality measure.
+	 */
+	public void put(final QualityMeasure measure, final double value) {
+		this.put(measure, value, true);
+	}
+
+	protected void put(final QualityMeasure measure, final double value,
+			final boolean isTerminated) {
+		int ordinal = measure.getOrdinal();
+		this.ensureCapacity(ordinal);
+		if (this.measures[ordinal] == null)
+			this.size++;
+		this.measures[ordinal] = measure;
+		this.values[ordinal] = value;
+		this.terminated[ordinal] = isTerminated;
+	}
+
+	protected QualityMeasureValue getValueObject(final int index) {
+		if (this.terminated[index])
+			return QualityMeasureValue.getForDouble(this.values[index]);
+		return QualityMeasureValue.getForNotTerminated();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#get(java.lang.Object)
+	 */
+	@Override
+	public QualityMeasureValue get(final Object measure) {
+		int index = this.getIndex(measure);
+		if (index < 0)
+			return null;
+		return this.getValueObject(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+	 */
+	@Override
+	public boolean containsKey(final Object measure) {
+		return this.getIndex(measure) >= 0;
+	}
+
+	/**
+	 * Since values are stored as primitives, null values cannot be stored;
+	 * putting null removes the measure from this set.
+	 * 
+	 * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public QualityMeasureValue put(final QualityMeasure measure,
+			final QualityMeasureValue value) {
+		if (value == null)
+			return this.remove(measure);
+		QualityMeasureValue old = this.get(measure);
+		this.put(measure, value.getValue(), value.isTerminated());
+		return old;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#remove(java.lang.Object)
+	 */
+	@Override
+	public QualityMeasureValue remove(final Object measure) {
+		int index = this.getIndex(measure);
+		if (index < 0)
+			return null;
+		QualityMeasureValue old = this.getValueObject(index);
+		this.removeIndex(index);
+		return old;
+	}
+
+	protected void removeIndex(final int index) {
+		this.measures[index] = null;
+		this.values[index] = Double.NaN;
+		this.terminated[index] = false;
+		this.size--;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#clear()
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(this.measures, null);
+		Arrays.fill(this.values, Double.NaN);
+		Arrays.fill(this.terminated, false);
+		this.size = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#size()
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Map.Entry<QualityMeasure, QualityMeasureValue>> entrySet() {
+		return new AbstractSet<Map.Entry<QualityMeasure, QualityMeasureValue>>() {
+
+			@Override
+			public Iterator<Map.Entry<QualityMeasure, QualityMeasureValue>> iterator() {
+				return new Iterator<Map.Entry<QualityMeasure, QualityMeasureValue>>() {
+
+					protected int next = this.advance(0);
+
+					protected int last = -1;
+
+					protected int advance(int index) {
+						while (index < measures.length && measures[index] == null)
+							index++;
+						return index;
+					}
+
+					@Override
+					public boolean hasNext() {
+						return this.next < measures.length;
+					}
+
+					@Override
+					public Map.Entry<QualityMeasure, QualityMeasureValue> next() {
+						if (!this.hasNext())
+							throw new NoSuchElementException();
+						this.last = this.next;
+						this.next = this.advance(this.next + 1);
+						return new AbstractMap.SimpleImmutableEntry<QualityMeasure, QualityMeasureValue>(
+								measures[this.last],
+								getValueObject(this.last));
+					}
+
+					@Override
+					public void remove() {
+						if (this.last < 0)
+							throw new IllegalStateException();
+						removeIndex(this.last);
+						this.last = -1;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.AbstractMap#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		int result = 0;
+		for (int i = 0; i < this.measures.length; i++)
+			if (this.measures[i] != null)
+				result += this.measures[i].hashCode()
+						^ QualityMeasureValue.hashCode(this.values[i],
+								this.terminated[i]);
+		return result;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see java.util.HashMap#clone()
+	 * @see java.util.AbstractMap#clone()
 	 */
 	@Override
 	public QualitySet clone() {
-		return (QualitySet) super.clone();
+		try {
+			QualitySet result = (QualitySet) super.clone();
+			result.measures = this.measures.clone();
+			result.values = this.values.clone();
+			result.terminated = this.terminated.clone();
+			return result;
+		} catch (CloneNotSupportedException e) {
+			// does not occur, since we implement Cloneable
+			throw new InternalError(e.toString());
+		}
 	}
 }
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.quality;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.clusteval.data.DataConfig;
+import de.clusteval.framework.repository.RegisterException;
+import de.clusteval.framework.repository.Repository;
+import de.clusteval.framework.threading.ProcessUsage;
+import de.clusteval.graphmatching.GraphMatching;
+
+/**
+ * A resource usage quality measure is a pseudo quality measure, which does not
+ * assess the graph matching calculated by a program, but the resources the
+ * program used to calculate it (see {@link ProcessUsage}).
+ * 
+ * <p>
+ * Its values are not calculated by
+ * {@link GraphMatching#assessQuality(DataConfig, List)}, but set by the
+ * runnable that executed the program. Like all other quality measures they
+ * are written into the quality files of a run and can be used as
+ * optimization criterion of parameter optimization runs, e.g. to trade the
+ * quality of a program against its costs. Lower values are better.
+ * 
+ * <p>
+ * Resource usage quality measures are part of the framework and do not have
+ * to be put into the quality measure folder of the repository.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public abstract class ResourceUsageQualityMeasure extends QualityMeasure {
+
+	/**
+	 * @return The classes of all resource usage quality measures.
+	 */
+	public static List<Class<? extends ResourceUsageQualityMeasure>> getResourceUsageQualityMeasureClasses() {
+		List<Class<? extends ResourceUsageQualityMeasure>> result = new ArrayList<Class<? extends ResourceUsageQualityMeasure>>();
+		result.add(CPUTimeQualityMeasure.class);
+		result.add(PeakMemoryQualityMeasure.class);
+		result.add(ReadBytesQualityMeasure.class);
+		result.add(WriteBytesQualityMeasure.class);
+		return result;
+	}
+
+	/**
+	 * @param repo
+	 * @param register
+	 * @param changeDate
+	 * @param absPath
+	 * @throws RegisterException
+	 */
+	public ResourceUsageQualityMeasure(Repository repo, boolean register,
+			long changeDate, File absPath) throws RegisterException {
+		super(repo, register, changeDate, absPath);
+	}
+
+	/**
+	 * @param other
+	 * @throws RegisterException
+	 */
+	public ResourceUsageQualityMeasure(ResourceUsageQualityMeasure other)
+			throws RegisterException {
+		super(other);
+	}
+
+	/**
+	 * The resources of a program cannot be determined from its graph matching;
+	 * thus this method always returns a not terminated value.
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getQualityOf(de.clusteval.graphmatching.GraphMatching,
+	 *      de.clusteval.graphmatching.GraphMatching,
+	 *      de.clusteval.data.DataConfig)
+	 */
+	@Override
+	public QualityMeasureValue getQualityOf(GraphMatching clustering,
+			GraphMatching goldStandard, DataConfig dataConfig) {
+		return QualityMeasureValue.getForNotTerminated();
+	}
+
+	/**
+	 * @param usage
+	 *            The resources used by the program.
+	 * @return The value of this measure for the given usage, or a not
+	 *         terminated value if the usage could not be sampled.
+	 */
+	public QualityMeasureValue getQualityOf(final ProcessUsage usage) {
+		if (usage == null || usage.getSampleCount() == 0)
+			return QualityMeasureValue.getForNotTerminated();
+		return QualityMeasureValue.getForDouble(this.getValue(usage));
+	}
+
+	/**
+	 * @param usage
+	 *            The sampled resources used by the program.
+	 * @return The value of this measure for the given usage.
+	 */
+	protected abstract double getValue(final ProcessUsage usage);
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.quality.QualityMeasure#isBetterThanHelper(de.clusteval.quality
+	 * .QualityMeasureValue, de.clusteval.quality.QualityMeasureValue)
+	 */
+	@Override
+	protected boolean isBetterThanHelper(QualityMeasureValue quality1,
+			QualityMeasureValue quality2) {
+		return quality1.getValue() < quality2.getValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getMinimum()
+	 */
+	@Override
+	public double getMinimum() {
+		return 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getMaximum()
+	 */
+	@Override
+	public double getMaximum() {
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getRequiredRlibraries()
+	 */
+	@Override
+	public Set<String> getRequiredRlibraries() {
+		return new HashSet<String>();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#requiresGoldstandard()
+	 */
+	@Override
+	public boolean requiresGoldstandard() {
+		return false;
+	}
+}
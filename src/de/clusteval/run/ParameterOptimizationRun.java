@@ -29,6 +29,7 @@ import utils.Pair;
 import de.clusteval.paramOptimization.IncompatibleParameterOptimizationMethodException;
 import de.clusteval.paramOptimization.InvalidOptimizationParameterException;
 import de.clusteval.paramOptimization.ParameterOptimizationMethod;
+import de.clusteval.paramOptimization.PriorObservations;
 import de.clusteval.paramOptimization.UnknownParameterOptimizationMethodException;
 import de.clusteval.context.Context;
 import de.clusteval.context.IncompatibleContextException;
@@ -176,6 +177,21 @@ public class ParameterOptimizationRun extends ExecutionRun {
 	 */
 	protected List<ParameterOptimizationMethod> optimizationMethods;
 
+	/**
+	 * The maximal number of iterations of one pair of program and data
+	 * configuration, that are executed concurrently. Only parameter sets the
+	 * optimization method proposes independently of each other are evaluated
+	 * concurrently (see {@link ParameterOptimizationMethod#nextBatch(int)}).
+	 */
+	protected int optimizationConcurrency = 1;
+
+	/**
+	 * The minimal similarity of the data of previous runs, whose results are
+	 * used to warm-start the optimization methods (see
+	 * {@link PriorObservations}). A negative value disables warm-starting.
+	 */
+	protected double optimizationWarmStart = -1;
+
 	/**
 	 * New objects of this type are automatically registered at the repository.
 	 * 
@@ -251,6 +267,8 @@ public class ParameterOptimizationRun extends ExecutionRun {
 				.cloneOptimizationMethods(otherRun.optimizationMethods);
 		this.optimizationParameters = ProgramParameter
 				.cloneParameterListList(otherRun.optimizationParameters);
+		this.optimizationConcurrency = otherRun.optimizationConcurrency;
+		this.optimizationWarmStart = otherRun.optimizationWarmStart;
 	}
 
 	/*
@@ -345,6 +363,13 @@ public class ParameterOptimizationRun extends ExecutionRun {
 	 * <li><b>optimizationCriterion</b> = {@link QualityMeasure}</li>
 	 * <li><b>optimizationIterations</b> = Number of iterations for a pair of
 	 * program and data configuration</li>
+	 * <li><b>optimizationConcurrency</b> = Maximal number of iterations of a
+	 * pair of program and data configuration executed concurrently (optional,
+	 * default 1, see {@link #optimizationConcurrency})</li>
+	 * <li><b>optimizationWarmStart</b> = Minimal similarity between 0 and 1
+	 * of the data of previous runs, whose results seed the optimization
+	 * methods (optional, disabled by default, see
+	 * {@link #optimizationWarmStart})</li>
 	 * </ul>
 	 * 
 	 * <p>
@@ -657,6 +682,18 @@ public class ParameterOptimizationRun extends ExecutionRun {
 			throw new RunException(
 					"The number of optimization iterations has to be specified as attribute 'optimizationIterations'");
 
+		int optimizationConcurrency = props.getInt("optimizationConcurrency",
+				1);
+		if (optimizationConcurrency < 1)
+			throw new RunException(
+					"The attribute 'optimizationConcurrency' has to be at least 1");
+
+		double optimizationWarmStart = props.getDouble(
+				"optimizationWarmStart", -1);
+		if (optimizationWarmStart > 1)
+			throw new RunException(
+					"The attribute 'optimizationWarmStart' has to be at most 1");
+
 		for (int i = 0; i < programConfigs.size(); i++) {
 			int totalIterationsPerParam = (int) Math.pow(
 					Long.valueOf(paramOptIterations),
@@ -689,6 +726,10 @@ public class ParameterOptimizationRun extends ExecutionRun {
 				absPath, programConfigs, dataConfigs, qualityMeasures,
 				runParamValues, optimizationParameters, optimizationMethods);
 		result = repo.getRegisteredObject(result, false);
+		((ParameterOptimizationRun) result)
+				.setOptimizationConcurrency(optimizationConcurrency);
+		((ParameterOptimizationRun) result)
+				.setOptimizationWarmStart(optimizationWarmStart);
 
 		// now we set the run reference of the methods
 		// added 21.03.2013: handle registering of the methods
@@ -724,6 +765,50 @@ public class ParameterOptimizationRun extends ExecutionRun {
 		return this.optimizationMethods;
 	}
 
+	/**
+	 * @return The maximal number of iterations of a pair of program and data
+	 *         configuration executed concurrently.
+	 * @see #optimizationConcurrency
+	 */
+	public int getOptimizationConcurrency() {
+		return this.optimizationConcurrency;
+	}
+
+	/**
+	 * @param optimizationConcurrency
+	 *            The maximal number of iterations of a pair of program and
+	 *            data configuration executed concurrently.
+	 * @see #optimizationConcurrency
+	 */
+	public void setOptimizationConcurrency(final int optimizationConcurrency) {
+		if (optimizationConcurrency < 1)
+			throw new IllegalArgumentException(
+					"The optimization concurrency has to be at least 1");
+		this.optimizationConcurrency = optimizationConcurrency;
+	}
+
+	/**
+	 * @return The minimal similarity of the data of previous runs used to
+	 *         warm-start the optimization methods; negative if disabled.
+	 * @see #optimizationWarmStart
+	 */
+	public double getOptimizationWarmStart() {
+		return this.optimizationWarmStart;
+	}
+
+	/**
+	 * @param optimizationWarmStart
+	 *            The minimal similarity of the data of previous runs used to
+	 *            warm-start the optimization methods; negative to disable.
+	 * @see #optimizationWarmStart
+	 */
+	public void setOptimizationWarmStart(final double optimizationWarmStart) {
+		if (optimizationWarmStart > 1)
+			throw new IllegalArgumentException(
+					"The optimization warm start similarity has to be at most 1");
+		this.optimizationWarmStart = optimizationWarmStart;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
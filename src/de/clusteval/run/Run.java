@@ -142,6 +142,11 @@ public abstract class Run extends RepositoryObject {
 	 * dedicates the parsing of the file to parseFromFile methods of the
 	 * corresponding subclass.
 	 * 
+	 * <p>
+	 * Every run may contain the options <b>weight</b> (see
+	 * {@link #schedulingWeight}) and <b>priority</b> (see
+	 * {@link #schedulingPriority}).
+	 * 
 	 * @param absPath
 	 *            the abs path
 	 * @return A {@link Run} object.
@@ -270,6 +275,16 @@ public abstract class Run extends RepositoryObject {
 				throw new InvalidRunModeException("The given mode is invalid: "
 						+ runMode);
 
+			if (props.containsKey("weight")) {
+				double weight = props.getDouble("weight");
+				if (weight <= 0.0)
+					throw new RunException(
+							"The weight of a run has to be positive");
+				r.setSchedulingWeight(weight);
+			}
+			if (props.containsKey("priority"))
+				r.setSchedulingPriority(props.getInt("priority"));
+
 		} catch (NoSuchElementException e) {
 			throw new InvalidConfigurationFileException("The run file "
 					+ absPath + " is missing an entry: "
@@ -349,6 +364,18 @@ public abstract class Run extends RepositoryObject {
 	 */
 	protected Context context;
 
+	/**
+	 * The weight of this run when the run scheduler shares the cores between
+	 * the runs of a client.
+	 */
+	protected double schedulingWeight;
+
+	/**
+	 * The priority of this run among the runs of a client. Runnables of runs
+	 * with higher priorities are started first.
+	 */
+	protected int schedulingPriority;
+
 	/**
 	 * The constructor of this class takes a date and configuration. It is
 	 * protected, to force usage of the static method
@@ -371,6 +398,7 @@ public abstract class Run extends RepositoryObject {
 		this.runnables = new ArrayList<RunRunnable>();
 		this.status = RUN_STATUS.INACTIVE;
 		this.context = context;
+		this.schedulingWeight = 1.0;
 	}
 
 	/**
@@ -390,6 +418,8 @@ public abstract class Run extends RepositoryObject {
 		this.runnables = new ArrayList<RunRunnable>();
 		this.status = RUN_STATUS.INACTIVE;
 		this.context = otherRun.context;
+		this.schedulingWeight = otherRun.schedulingWeight;
+		this.schedulingPriority = otherRun.schedulingPriority;
 	}
 
 	/*
@@ -1076,4 +1106,34 @@ public abstract class Run extends RepositoryObject {
 	public Context getContext() {
 		return this.context;
 	}
+
+	/**
+	 * @return The weight of this run (see {@link #schedulingWeight}).
+	 */
+	public double getSchedulingWeight() {
+		return this.schedulingWeight;
+	}
+
+	/**
+	 * @param schedulingWeight
+	 *            The weight of this run (see {@link #schedulingWeight}).
+	 */
+	public void setSchedulingWeight(final double schedulingWeight) {
+		this.schedulingWeight = schedulingWeight;
+	}
+
+	/**
+	 * @return The priority of this run (see {@link #schedulingPriority}).
+	 */
+	public int getSchedulingPriority() {
+		return this.schedulingPriority;
+	}
+
+	/**
+	 * @param schedulingPriority
+	 *            The priority of this run (see {@link #schedulingPriority}).
+	 */
+	public void setSchedulingPriority(final int schedulingPriority) {
+		this.schedulingPriority = schedulingPriority;
+	}
 }
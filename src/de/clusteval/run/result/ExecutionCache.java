@@ -0,0 +1,488 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.result;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import file.FileUtils;
+
+/**
+ * The execution cache stores the results of program executions, such that
+ * identical executions are performed only once, even across runs, run resumes
+ * and clients.
+ * 
+ * <p>
+ * An execution is identified by a key (see
+ * {@link #computeKey(File, String, String, Map, List)}), which is a hash of
+ * the contents of the program binary, the invocation format, the output
+ * format, the normalized parameter values and the contents of all input
+ * files. Only executions of programs, that are declared deterministic (see
+ * {@link de.clusteval.program.ProgramConfig#isDeterministic()}), are stored.
+ * 
+ * <p>
+ * Every entry is a folder named after its key, containing the converted
+ * matching calculated by the program, the qualities assessed for it and the
+ * name of the program configuration. Entries are written into temporary
+ * folders and moved into place atomically, such that concurrent runnables
+ * never see incomplete entries. Qualities of measures that were not assessed
+ * when the entry was stored are added later.
+ * 
+ * <p>
+ * Entries are never removed automatically; they have to be invalidated
+ * explicitly, e.g. when a program turned out not to be deterministic (see
+ * {@link #invalidate(String)}, {@link #invalidateProgram(String)} and
+ * {@link #invalidateAll()}).
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class ExecutionCache {
+
+	protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+	protected static final String MATCHING_FILE = "matching";
+
+	protected static final String QUALITIES_FILE = "qualities";
+
+	protected static final String PROGRAM_FILE = "program";
+
+	/**
+	 * The content hashes of files by their absolute path, together with the
+	 * modification date and length of the file when it was hashed.
+	 */
+	protected static final Map<String, String[]> fileHashes = new HashMap<String, String[]>();
+
+	/**
+	 * An entry of the execution cache.
+	 */
+	public static class Entry {
+
+		protected final String key;
+
+		protected final File folder;
+
+		protected final Map<String, QualityMeasureValue> qualities;
+
+		protected Entry(final String key, final File folder,
+				final Map<String, QualityMeasureValue> qualities) {
+			super();
+			this.key = key;
+			this.folder = folder;
+			this.qualities = qualities;
+		}
+
+		/**
+		 * @return The key of this entry.
+		 */
+		public String getKey() {
+			return this.key;
+		}
+
+		/**
+		 * @return The converted matching calculated by the program.
+		 */
+		public File getMatchingFile() {
+			return new File(this.folder, MATCHING_FILE);
+		}
+
+		/**
+		 * @param measure
+		 *            The quality measure.
+		 * @return The cached quality of the given measure, or null if it was
+		 *         not assessed yet.
+		 */
+		public QualityMeasureValue getQuality(final QualityMeasure measure) {
+			return this.qualities.get(measure.getClass().getSimpleName());
+		}
+
+		/**
+		 * @return The cached qualities by the names of their measures.
+		 */
+		public Map<String, QualityMeasureValue> getQualities() {
+			return Collections.unmodifiableMap(this.qualities);
+		}
+	}
+
+	protected final File baseDir;
+
+	protected Logger log;
+
+	/**
+	 * @param baseDir
+	 *            The folder containing the entries of this cache.
+	 */
+	public ExecutionCache(final File baseDir) {
+		super();
+		this.baseDir = baseDir;
+		this.log = LoggerFactory.getLogger(this.getClass());
+	}
+
+	/**
+	 * @return The folder containing the entries of this cache.
+	 */
+	public File getBaseDir() {
+		return this.baseDir;
+	}
+
+	/**
+	 * Computes the key of an execution.
+	 * 
+	 * <p>
+	 * Parameter values are normalized, such that numerically equal values
+	 * (e.g. "1", "1.0" and "1e0") result in the same key. Parameters that
+	 * depend on the concrete iteration, e.g. paths of output files, must not
+	 * be contained in the given parameters.
+	 * 
+	 * @param program
+	 *            The executable of the program.
+	 * @param invocationFormat
+	 *            The invocation format of the program with unreplaced
+	 *            placeholders.
+	 * @param outputFormat
+	 *            The name of the output format of the program.
+	 * @param params
+	 *            The values of the parameters of the program.
+	 * @param inputs
+	 *            The input files of the program.
+	 * @return The key of the execution.
+	 * @throws IOException
+	 */
+	public static String computeKey(final File program,
+			final String invocationFormat, final String outputFormat,
+			final Map<String, String> params, final List<File> inputs)
+			throws IOException {
+		StringBuilder sb = new StringBuilder();
+		sb.append("program\t");
+		sb.append(program.isFile() ? hashFile(program) : program
+				.getAbsolutePath());
+		sb.append("\ninvocation\t");
+		sb.append(invocationFormat);
+		sb.append("\noutput\t");
+		sb.append(outputFormat);
+		for (Map.Entry<String, String> param : new TreeMap<String, String>(
+				params).entrySet()) {
+			sb.append("\nparam\t");
+			sb.append(param.getKey());
+			sb.append("=");
+			sb.append(normalizeValue(param.getValue()));
+		}
+		for (File input : inputs) {
+			sb.append("\ninput\t");
+			sb.append(hashFile(input));
+		}
+		return toHex(newDigest().digest(sb.toString().getBytes(UTF8)));
+	}
+
+	/**
+	 * @param value
+	 *            A parameter value.
+	 * @return The normalized value: numbers in their shortest plain
+	 *         representation, all other values trimmed.
+	 */
+	public static String normalizeValue(final String value) {
+		if (value == null)
+			return "";
+		String trimmed = value.trim();
+		try {
+			BigDecimal number = new BigDecimal(trimmed);
+			if (number.signum() == 0)
+				return "0";
+			return number.stripTrailingZeros().toPlainString();
+		} catch (NumberFormatException e) {
+			return trimmed;
+		}
+	}
+
+	/**
+	 * @param file
+	 *            The file to hash.
+	 * @return The hash of the contents of the file. Hashes are remembered as
+	 *         long as the modification date and length of the file do not
+	 *         change.
+	 * @throws IOException
+	 */
+	protected static String hashFile(final File file) throws IOException {
+		String path = file.getAbsolutePath();
+		String lastModified = Long.toString(file.lastModified());
+		String length = Long.toString(file.length());
+		synchronized (fileHashes) {
+			String[] cached = fileHashes.get(path);
+			if (cached != null && cached[0].equals(lastModified)
+					&& cached[1].equals(length))
+				return cached[2];
+		}
+
+		MessageDigest digest = newDigest();
+		final byte[] buf = new byte[65536];
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			int read;
+			while ((read = in.read(buf)) > 0)
+				digest.update(buf, 0, read);
+		} finally {
+			in.close();
+		}
+		String hash = toHex(digest.digest());
+		synchronized (fileHashes) {
+			fileHashes.put(path, new String[]{lastModified, length, hash});
+		}
+		return hash;
+	}
+
+	protected static MessageDigest newDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	protected static String toHex(final byte[] bytes) {
+		final StringBuilder sb = new StringBuilder();
+		for (byte b : bytes)
+			sb.append(String.format("%02x", b & 0xff));
+		return sb.toString();
+	}
+
+	/**
+	 * @param key
+	 *            The key of the execution.
+	 * @return The cached entry of the execution, or null if the execution is
+	 *         not cached.
+	 */
+	public Entry get(final String key) {
+		File folder = new File(this.baseDir, key);
+		if (!new File(folder, MATCHING_FILE).isFile())
+			return null;
+		try {
+			return new Entry(key, folder, readQualities(folder));
+		} catch (IOException e) {
+			// the entry was invalidated in the meantime
+			return null;
+		}
+	}
+
+	/**
+	 * Stores an execution in this cache. If the execution is already cached,
+	 * only qualities of measures that are not cached yet are added.
+	 * 
+	 * @param key
+	 *            The key of the execution.
+	 * @param programConfigName
+	 *            The name of the program configuration of the execution.
+	 * @param matching
+	 *            The converted matching calculated by the program.
+	 * @param qualities
+	 *            The qualities assessed for the matching.
+	 * @return True, if the execution is cached afterwards.
+	 */
+	public boolean put(final String key, final String programConfigName,
+			final File matching, final QualitySet qualities) {
+		File folder = new File(this.baseDir, key);
+		try {
+			if (!new File(folder, MATCHING_FILE).isFile()) {
+				File tmp = this.createTempFolder(key);
+				try {
+					org.apache.commons.io.FileUtils.copyFile(matching,
+							new File(tmp, MATCHING_FILE));
+					writeString(new File(tmp, PROGRAM_FILE), programConfigName);
+					writeQualities(new File(tmp, QUALITIES_FILE),
+							toMap(qualities));
+					Files.move(tmp.toPath(), folder.toPath(),
+							StandardCopyOption.ATOMIC_MOVE);
+					return true;
+				} catch (IOException e) {
+					// another runnable stored the same execution concurrently
+					if (!new File(folder, MATCHING_FILE).isFile())
+						throw e;
+				} finally {
+					if (tmp.exists())
+						FileUtils.delete(tmp);
+				}
+			}
+
+			// add the qualities that are not cached yet
+			synchronized (this) {
+				Map<String, QualityMeasureValue> cached = readQualities(folder);
+				Map<String, QualityMeasureValue> merged = toMap(qualities);
+				merged.putAll(cached);
+				if (merged.size() > cached.size()) {
+					File tmp = new File(folder, QUALITIES_FILE + ".tmp");
+					writeQualities(tmp, merged);
+					Files.move(tmp.toPath(),
+							new File(folder, QUALITIES_FILE).toPath(),
+							StandardCopyOption.ATOMIC_MOVE,
+							StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			this.log.warn("Could not cache the execution " + key + ": "
+					+ e.getMessage());
+			return false;
+		}
+	}
+
+	protected File createTempFolder(final String key) throws IOException {
+		this.baseDir.mkdirs();
+		File tmp = File.createTempFile(key, ".tmp", this.baseDir);
+		if (!tmp.delete() || !tmp.mkdir())
+			throw new IOException("Could not create the temporary folder "
+					+ tmp);
+		return tmp;
+	}
+
+	protected static Map<String, QualityMeasureValue> toMap(
+			final QualitySet qualities) {
+		Map<String, QualityMeasureValue> result = new LinkedHashMap<String, QualityMeasureValue>();
+		for (Map.Entry<QualityMeasure, QualityMeasureValue> entry : qualities
+				.entrySet())
+			result.put(entry.getKey().getClass().getSimpleName(),
+					entry.getValue());
+		return result;
+	}
+
+	protected static Map<String, QualityMeasureValue> readQualities(
+			final File folder) throws IOException {
+		Map<String, QualityMeasureValue> result = new LinkedHashMap<String, QualityMeasureValue>();
+		BufferedReader reader = new BufferedReader(new FileReader(new File(
+				folder, QUALITIES_FILE)));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] split = line.split("\t");
+				if (split.length == 2)
+					result.put(split[0],
+							QualityMeasureValue.parseFromString(split[1]));
+			}
+		} finally {
+			reader.close();
+		}
+		return result;
+	}
+
+	protected static void writeQualities(final File file,
+			final Map<String, QualityMeasureValue> qualities)
+			throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, QualityMeasureValue> entry : qualities
+				.entrySet()) {
+			sb.append(entry.getKey());
+			sb.append("\t");
+			sb.append(entry.getValue());
+			sb.append("\n");
+		}
+		writeString(file, sb.toString());
+	}
+
+	protected static String readString(final File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), UTF8);
+	}
+
+	protected static void writeString(final File file, final String content)
+			throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Removes an execution from this cache.
+	 * 
+	 * @param key
+	 *            The key of the execution.
+	 * @return True, if the execution was cached.
+	 */
+	public boolean invalidate(final String key) {
+		File folder = new File(this.baseDir, key);
+		if (!folder.isDirectory())
+			return false;
+		// first remove the matching, such that the entry is not used anymore
+		new File(folder, MATCHING_FILE).delete();
+		FileUtils.delete(folder);
+		return true;
+	}
+
+	/**
+	 * Removes all executions of a program configuration from this cache.
+	 * 
+	 * @param programConfigName
+	 *            The name of the program configuration.
+	 * @return The number of removed executions.
+	 */
+	public int invalidateProgram(final String programConfigName) {
+		int result = 0;
+		File[] folders = this.baseDir.listFiles();
+		if (folders == null)
+			return result;
+		for (File folder : folders) {
+			try {
+				String name = readString(new File(folder, PROGRAM_FILE))
+						.trim();
+				if (name.equals(programConfigName)
+						&& this.invalidate(folder.getName()))
+					result++;
+			} catch (IOException e) {
+				// not a complete entry
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes all executions from this cache.
+	 * 
+	 * @return The number of removed executions.
+	 */
+	public int invalidateAll() {
+		int result = 0;
+		File[] folders = this.baseDir.listFiles();
+		if (folders == null)
+			return result;
+		for (File folder : folders)
+			if (new File(folder, MATCHING_FILE).isFile()
+					&& this.invalidate(folder.getName()))
+				result++;
+		return result;
+	}
+}
@@ -240,6 +240,15 @@ public class GraphMatchingRunResult extends ExecutionRunResult {
 			 */
 			FileUtils.delete(this.absPath);
 			throw new RunResultNotFoundException(e.getMessage());
+		} catch (IllegalStateException e) {
+			/*
+			 * The node ids could not be translated (see
+			 * RunResultFormatParser#getNodeLabel(int, String)); the partially
+			 * converted file must not be used
+			 */
+			if (p != null)
+				new File(p.getOutputFile()).delete();
+			throw new RunResultNotFoundException(e.getMessage());
 		} catch (NoSuchMethodException e) {
 			e.printStackTrace();
 		} catch (NullPointerException e) {
@@ -0,0 +1,595 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.result;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An append-only archive of the files written during the iterations of one
+ * pair of program and data configuration.
+ * 
+ * <p>
+ * Instead of keeping several loose files per iteration (raw result, converted
+ * result, qualities and log), every file is appended as a record to the
+ * archive. The archive consists of one or more segment files; a new segment is
+ * started whenever the current one exceeds {@link #getMaxSegmentSize()} bytes
+ * or {@link #MAX_SEGMENT_ENTRIES} records.
+ * 
+ * <p>
+ * Every segment is laid out as follows:
+ * <ul>
+ * <li>records, each consisting of a magic number, the iteration number, the
+ * name of the file relative to the run result folder, the length of the
+ * content and the content itself</li>
+ * <li>an index footer containing the number of records and for every record
+ * its iteration number, name, content offset and content length</li>
+ * <li>the offset of the footer and a second magic number</li>
+ * </ul>
+ * When a record is appended, the footer is overwritten by the record and
+ * written anew afterwards. If a segment ends without a valid footer, e.g.
+ * because the process was killed during an append, the index is recovered by
+ * scanning the records of the segment.
+ * 
+ * <p>
+ * Readers only read the footers when opening an archive and afterwards seek
+ * directly to the records of an iteration. The loose file layout can be
+ * restored with {@link #extract(File)} or
+ * {@link #extractRunResultFolder(File)}.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class IterationArchive implements Closeable {
+
+	/**
+	 * The extension of the first segment file of an archive.
+	 */
+	public static final String FILE_EXTENSION = ".results.archive";
+
+	/**
+	 * The maximal number of records stored in one segment.
+	 */
+	public static final int MAX_SEGMENT_ENTRIES = 4096;
+
+	/**
+	 * The default maximal size of a segment in bytes.
+	 */
+	public static final long DEFAULT_MAX_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+	protected static final int RECORD_MAGIC = 0x43455652;
+
+	protected static final int FOOTER_MAGIC = 0x43455649;
+
+	/**
+	 * @param folder
+	 *            The folder containing the archive.
+	 * @param name
+	 *            The name of the archive, i.e. "programConfig_dataConfig".
+	 * @return The first segment file of the archive.
+	 */
+	public static File getArchiveFile(final File folder, final String name) {
+		return new File(folder, name + FILE_EXTENSION);
+	}
+
+	/**
+	 * Extracts all archives of the calculations folder of the given run result
+	 * folder, such that the loose file layout of the run result is restored.
+	 * 
+	 * @param runResultFolder
+	 *            The run result folder.
+	 * @return The number of extracted files.
+	 * @throws IOException
+	 */
+	public static int extractRunResultFolder(final File runResultFolder)
+			throws IOException {
+		File[] archiveFiles = new File(runResultFolder, "calculations")
+				.listFiles(new FilenameFilter() {
+
+					/*
+					 * (non-Javadoc)
+					 * 
+					 * @see java.io.FilenameFilter#accept(java.io.File,
+					 * java.lang.String)
+					 */
+					@Override
+					public boolean accept(File dir, String name) {
+						return name.endsWith(FILE_EXTENSION);
+					}
+				});
+		if (archiveFiles == null)
+			return 0;
+		int count = 0;
+		for (File archiveFile : archiveFiles) {
+			IterationArchive archive = new IterationArchive(archiveFile, true);
+			try {
+				count += archive.extract(runResultFolder);
+			} finally {
+				archive.close();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * The location of a record within the segments of the archive.
+	 */
+	protected static class Entry {
+
+		protected long iteration;
+
+		protected String name;
+
+		protected int segment;
+
+		protected long offset;
+
+		protected long length;
+
+		protected Entry(final long iteration, final String name,
+				final int segment, final long offset, final long length) {
+			super();
+			this.iteration = iteration;
+			this.name = name;
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * One segment file of the archive.
+	 */
+	protected static class Segment {
+
+		protected File file;
+
+		protected RandomAccessFile raf;
+
+		/**
+		 * The end of the last record, i.e. the offset of the footer.
+		 */
+		protected long dataEnd;
+
+		protected List<Entry> entries = new ArrayList<Entry>();
+
+		protected Segment(final File file, final boolean readOnly)
+				throws IOException {
+			super();
+			this.file = file;
+			this.raf = new RandomAccessFile(file, readOnly ? "r" : "rw");
+		}
+	}
+
+	protected File archiveFile;
+
+	protected boolean readOnly;
+
+	protected long maxSegmentSize = DEFAULT_MAX_SEGMENT_SIZE;
+
+	protected List<Segment> segments;
+
+	/**
+	 * Maps every iteration number to the records of that iteration, in the
+	 * order they were appended.
+	 */
+	protected TreeMap<Long, Map<String, Entry>> index;
+
+	/**
+	 * Opens the archive with the given first segment file. If the archive is
+	 * not opened read only, it is created if it does not exist.
+	 * 
+	 * @param archiveFile
+	 *            The first segment file of the archive.
+	 * @param readOnly
+	 *            Whether the archive is only opened for reading.
+	 * @throws IOException
+	 */
+	public IterationArchive(final File archiveFile, final boolean readOnly)
+			throws IOException {
+		super();
+		this.archiveFile = archiveFile;
+		this.readOnly = readOnly;
+		this.segments = new ArrayList<Segment>();
+		this.index = new TreeMap<Long, Map<String, Entry>>();
+
+		if (!readOnly)
+			archiveFile.getParentFile().mkdirs();
+		File segmentFile = archiveFile;
+		while (segmentFile.exists() || (!readOnly && this.segments.isEmpty())) {
+			this.openSegment(segmentFile);
+			segmentFile = this.getSegmentFile(this.segments.size());
+		}
+	}
+
+	protected File getSegmentFile(final int segment) {
+		if (segment == 0)
+			return this.archiveFile;
+		return new File(this.archiveFile.getAbsolutePath() + "." + segment);
+	}
+
+	protected Segment openSegment(final File file) throws IOException {
+		Segment segment = new Segment(file, this.readOnly);
+		int segmentNumber = this.segments.size();
+		this.segments.add(segment);
+		if (!this.readFooter(segment, segmentNumber)) {
+			this.recoverSegment(segment, segmentNumber);
+			if (!this.readOnly)
+				this.writeFooter(segment);
+		}
+		for (Entry entry : segment.entries)
+			this.addToIndex(entry);
+		return segment;
+	}
+
+	protected void addToIndex(final Entry entry) {
+		Map<String, Entry> entries = this.index.get(entry.iteration);
+		if (entries == null) {
+			entries = new LinkedHashMap<String, Entry>();
+			this.index.put(entry.iteration, entries);
+		}
+		entries.put(entry.name, entry);
+	}
+
+	/**
+	 * Reads the index footer at the end of the segment.
+	 * 
+	 * @return True, if the segment ends with a valid footer.
+	 */
+	protected boolean readFooter(final Segment segment, final int segmentNumber)
+			throws IOException {
+		RandomAccessFile raf = segment.raf;
+		long length = raf.length();
+		if (length < 12)
+			return false;
+		raf.seek(length - 12);
+		long footerOffset = raf.readLong();
+		if (raf.readInt() != FOOTER_MAGIC || footerOffset < 0
+				|| footerOffset > length - 16)
+			return false;
+		try {
+			raf.seek(footerOffset);
+			int count = raf.readInt();
+			List<Entry> entries = new ArrayList<Entry>(Math.max(count, 0));
+			for (int i = 0; i < count; i++) {
+				long iteration = raf.readLong();
+				String name = raf.readUTF();
+				long offset = raf.readLong();
+				long entryLength = raf.readLong();
+				if (offset < 0 || offset + entryLength > footerOffset)
+					return false;
+				entries.add(new Entry(iteration, name, segmentNumber, offset,
+						entryLength));
+			}
+			if (raf.getFilePointer() != length - 12)
+				return false;
+			segment.entries = entries;
+			segment.dataEnd = footerOffset;
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Rebuilds the index of a segment without valid footer by scanning its
+	 * records. An incomplete record at the end of the segment is discarded.
+	 */
+	protected void recoverSegment(final Segment segment,
+			final int segmentNumber) throws IOException {
+		RandomAccessFile raf = segment.raf;
+		long length = raf.length();
+		long position = 0;
+		segment.entries = new ArrayList<Entry>();
+		try {
+			while (position < length) {
+				raf.seek(position);
+				if (raf.readInt() != RECORD_MAGIC)
+					break;
+				long iteration = raf.readLong();
+				String name = raf.readUTF();
+				long recordLength = raf.readLong();
+				long offset = raf.getFilePointer();
+				if (recordLength < 0 || offset + recordLength > length)
+					break;
+				segment.entries.add(new Entry(iteration, name, segmentNumber,
+						offset, recordLength));
+				position = offset + recordLength;
+			}
+		} catch (EOFException e) {
+			// incomplete record
+		} catch (IOException e) {
+			// corrupt record
+		}
+		segment.dataEnd = position;
+	}
+
+	protected void writeFooter(final Segment segment) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(segment.entries.size());
+		for (Entry entry : segment.entries) {
+			out.writeLong(entry.iteration);
+			out.writeUTF(entry.name);
+			out.writeLong(entry.offset);
+			out.writeLong(entry.length);
+		}
+		out.writeLong(segment.dataEnd);
+		out.writeInt(FOOTER_MAGIC);
+		out.close();
+
+		segment.raf.seek(segment.dataEnd);
+		segment.raf.write(bytes.toByteArray());
+		segment.raf.setLength(segment.dataEnd + bytes.size());
+	}
+
+	/**
+	 * @return The maximal size of a segment in bytes.
+	 */
+	public long getMaxSegmentSize() {
+		return this.maxSegmentSize;
+	}
+
+	/**
+	 * @param maxSegmentSize
+	 *            The maximal size of a segment in bytes.
+	 */
+	public void setMaxSegmentSize(final long maxSegmentSize) {
+		this.maxSegmentSize = maxSegmentSize;
+	}
+
+	/**
+	 * @return The number of segment files of this archive.
+	 */
+	public int getSegmentCount() {
+		return this.segments.size();
+	}
+
+	/**
+	 * Appends the given files of one iteration to this archive. The footer of
+	 * the segment is only rewritten once after all files were appended.
+	 * 
+	 * <p>
+	 * If a file with the same name was already archived for the iteration, the
+	 * new record supersedes the old one.
+	 * 
+	 * @param iteration
+	 *            The iteration number.
+	 * @param files
+	 *            A map from the names of the files relative to the run result
+	 *            folder (e.g. "calculations/p_d.1.results") to the files.
+	 * @throws IOException
+	 */
+	public synchronized void append(final long iteration,
+			final Map<String, File> files) throws IOException {
+		if (this.readOnly)
+			throw new IOException("The archive " + this.archiveFile
+					+ " is opened read only");
+		Segment segment = this.segments.get(this.segments.size() - 1);
+		if (segment.dataEnd > this.maxSegmentSize
+				|| segment.entries.size() + files.size() > MAX_SEGMENT_ENTRIES) {
+			segment = this.openSegment(this.getSegmentFile(this.segments
+					.size()));
+		}
+		int segmentNumber = this.segments.size() - 1;
+
+		byte[] buffer = new byte[64 * 1024];
+		for (Map.Entry<String, File> file : files.entrySet()) {
+			RandomAccessFile raf = segment.raf;
+			raf.seek(segment.dataEnd);
+			raf.writeInt(RECORD_MAGIC);
+			raf.writeLong(iteration);
+			raf.writeUTF(file.getKey());
+			long lengthPosition = raf.getFilePointer();
+			raf.writeLong(0);
+			long offset = raf.getFilePointer();
+
+			long length = 0;
+			InputStream in = new FileInputStream(file.getValue());
+			try {
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					raf.write(buffer, 0, read);
+					length += read;
+				}
+			} finally {
+				in.close();
+			}
+			raf.seek(lengthPosition);
+			raf.writeLong(length);
+
+			Entry entry = new Entry(iteration, file.getKey(), segmentNumber,
+					offset, length);
+			segment.entries.add(entry);
+			segment.dataEnd = offset + length;
+			this.addToIndex(entry);
+		}
+		this.writeFooter(segment);
+	}
+
+	/**
+	 * @return The numbers of all archived iterations in ascending order.
+	 */
+	public synchronized SortedSet<Long> getIterations() {
+		return new TreeSet<Long>(this.index.keySet());
+	}
+
+	/**
+	 * @param iteration
+	 *            The iteration number.
+	 * @return The names of all archived files of the iteration.
+	 */
+	public synchronized Set<String> getNames(final long iteration) {
+		Map<String, Entry> entries = this.index.get(iteration);
+		if (entries == null)
+			return Collections.emptySet();
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * @param iteration
+	 *            The iteration number.
+	 * @param name
+	 *            The name of the file relative to the run result folder.
+	 * @return True, if the file was archived for the iteration.
+	 */
+	public synchronized boolean contains(final long iteration,
+			final String name) {
+		return this.getEntry(iteration, name) != null;
+	}
+
+	protected Entry getEntry(final long iteration, final String name) {
+		Map<String, Entry> entries = this.index.get(iteration);
+		if (entries == null)
+			return null;
+		return entries.get(name);
+	}
+
+	/**
+	 * @param iteration
+	 *            The iteration number.
+	 * @param name
+	 *            The name of the file relative to the run result folder.
+	 * @return The contents of the archived file, or null if the file was not
+	 *         archived for the iteration.
+	 * @throws IOException
+	 */
+	public synchronized byte[] read(final long iteration, final String name)
+			throws IOException {
+		Entry entry = this.getEntry(iteration, name);
+		if (entry == null)
+			return null;
+		if (entry.length > Integer.MAX_VALUE)
+			throw new IOException("The archived file " + name
+					+ " is too large to be read into memory");
+		byte[] result = new byte[(int) entry.length];
+		RandomAccessFile raf = this.segments.get(entry.segment).raf;
+		raf.seek(entry.offset);
+		raf.readFully(result);
+		return result;
+	}
+
+	/**
+	 * Writes the contents of an archived file into the given target file.
+	 * 
+	 * @param iteration
+	 *            The iteration number.
+	 * @param name
+	 *            The name of the file relative to the run result folder.
+	 * @param target
+	 *            The file to write the contents into.
+	 * @return True, if the file was archived for the iteration.
+	 * @throws IOException
+	 */
+	public synchronized boolean copyTo(final long iteration, final String name,
+			final File target) throws IOException {
+		Entry entry = this.getEntry(iteration, name);
+		if (entry == null)
+			return false;
+		RandomAccessFile raf = this.segments.get(entry.segment).raf;
+		raf.seek(entry.offset);
+		byte[] buffer = new byte[64 * 1024];
+		long remaining = entry.length;
+		OutputStream out = new FileOutputStream(target);
+		try {
+			while (remaining > 0) {
+				int read = raf.read(buffer, 0,
+						(int) Math.min(buffer.length, remaining));
+				if (read == -1)
+					throw new EOFException("The archived file " + name
+							+ " is truncated");
+				out.write(buffer, 0, read);
+				remaining -= read;
+			}
+		} finally {
+			out.close();
+		}
+		return true;
+	}
+
+	/**
+	 * Restores the loose files of one iteration below the given run result
+	 * folder.
+	 * 
+	 * @param iteration
+	 *            The iteration number.
+	 * @param runResultFolder
+	 *            The run result folder.
+	 * @return The number of extracted files.
+	 * @throws IOException
+	 */
+	public synchronized int extract(final long iteration,
+			final File runResultFolder) throws IOException {
+		int count = 0;
+		for (String name : this.getNames(iteration)) {
+			if (name.contains(".."))
+				throw new IOException("Invalid file name in archive "
+						+ this.archiveFile + ": " + name);
+			File target = new File(runResultFolder, name);
+			target.getParentFile().mkdirs();
+			this.copyTo(iteration, name, target);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Restores the loose files of all iterations below the given run result
+	 * folder.
+	 * 
+	 * @param runResultFolder
+	 *            The run result folder.
+	 * @return The number of extracted files.
+	 * @throws IOException
+	 */
+	public synchronized int extract(final File runResultFolder)
+			throws IOException {
+		int count = 0;
+		for (long iteration : this.index.keySet())
+			count += this.extract(iteration, runResultFolder);
+		return count;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		for (Segment segment : this.segments)
+			segment.raf.close();
+		this.segments.clear();
+		this.index.clear();
+	}
+}
@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.result;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import utils.Pair;
+import de.clusteval.graphmatching.GraphMatching;
+import de.clusteval.quality.QualityMeasureValue;
+
+/**
+ * An arena outside of the java heap holding the graph matchings and quality
+ * values of the iterations of a finished parameter optimization run.
+ * 
+ * <p>
+ * The arena consists of direct byte buffers (chunks), into which the records
+ * are appended. A matching is stored as pairs of vertex ids, which index the
+ * vertex labels of the first and second graph; those labels are the only part
+ * of a matching that is kept on the heap and they are shared by all matchings
+ * of this store. A quality record holds one value for every quality measure,
+ * identified by its position in the list of measures of the run.
+ * 
+ * <p>
+ * The chunks are released when {@link #close()} is invoked and not when the
+ * garbage collector finalizes them. Afterwards every access to this store
+ * throws an {@link IllegalStateException}.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class OffHeapResultStore implements Closeable {
+
+	/**
+	 * The default size of a chunk in bytes.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+
+	protected static final byte QUALITY_ABSENT = 0;
+
+	protected static final byte QUALITY_VALUE = 1;
+
+	protected static final byte QUALITY_NOT_TERMINATED = 2;
+
+	protected final int chunkSize;
+
+	protected final int measureCount;
+
+	protected final List<ByteBuffer> chunks;
+
+	/**
+	 * The number of bytes used in the last chunk.
+	 */
+	protected int chunkPosition;
+
+	protected long usedBytes;
+
+	protected final List<String> labels1, labels2;
+
+	protected final Map<String, Integer> labelToId1, labelToId2;
+
+	/**
+	 * Maps iteration numbers to the addresses of the matching records. An
+	 * address holds the index of the chunk in the upper and the offset within
+	 * the chunk in the lower 32 bits.
+	 */
+	protected final Map<Long, Long> matchingAddresses;
+
+	/**
+	 * Maps iteration numbers to the addresses of the quality records.
+	 */
+	protected final Map<Long, Long> qualityAddresses;
+
+	protected boolean closed;
+
+	/**
+	 * @param measureCount
+	 *            The number of quality measures of every quality record.
+	 */
+	public OffHeapResultStore(final int measureCount) {
+		this(measureCount, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param measureCount
+	 *            The number of quality measures of every quality record.
+	 * @param chunkSize
+	 *            The size of the allocated chunks in bytes. Records larger than
+	 *            this size get a chunk of their own.
+	 */
+	public OffHeapResultStore(final int measureCount, final int chunkSize) {
+		super();
+		this.measureCount = measureCount;
+		this.chunkSize = chunkSize;
+		this.chunks = new ArrayList<ByteBuffer>();
+		this.labels1 = new ArrayList<String>();
+		this.labels2 = new ArrayList<String>();
+		this.labelToId1 = new HashMap<String, Integer>();
+		this.labelToId2 = new HashMap<String, Integer>();
+		this.matchingAddresses = new HashMap<Long, Long>();
+		this.qualityAddresses = new HashMap<Long, Long>();
+	}
+
+	protected void ensureOpen() {
+		if (this.closed)
+			throw new IllegalStateException(
+					"The off-heap result store has already been released");
+	}
+
+	/**
+	 * Reserves the given number of bytes in the last chunk, or in a newly
+	 * allocated chunk if the last one is full.
+	 * 
+	 * @param size
+	 *            The number of bytes to reserve.
+	 * @return The address of the reserved bytes.
+	 */
+	protected long reserve(final int size) {
+		if (this.chunks.isEmpty()
+				|| this.chunks.get(this.chunks.size() - 1).capacity()
+						- this.chunkPosition < size) {
+			this.chunks.add(ByteBuffer.allocateDirect(Math.max(this.chunkSize,
+					size)));
+			this.chunkPosition = 0;
+		}
+		long address = ((long) (this.chunks.size() - 1) << 32)
+				| this.chunkPosition;
+		this.chunkPosition += size;
+		this.usedBytes += size;
+		return address;
+	}
+
+	protected ByteBuffer getChunk(final long address) {
+		return this.chunks.get((int) (address >>> 32));
+	}
+
+	protected static int getOffset(final long address) {
+		return (int) address;
+	}
+
+	protected static int getVertexId(final String label,
+			final List<String> labels, final Map<String, Integer> labelToId) {
+		Integer id = labelToId.get(label);
+		if (id == null) {
+			id = labels.size();
+			labels.add(label);
+			labelToId.put(label, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Copies the given matching into this store. A matching stored before for
+	 * the same iteration is replaced, but its bytes are only released together
+	 * with the whole store.
+	 * 
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @param matching
+	 *            The graph matching of the iteration.
+	 */
+	public synchronized void putMatching(final long iterationNumber,
+			final GraphMatching matching) {
+		this.ensureOpen();
+		final int count = matching.size();
+		final boolean hasScores = matching.hasScores();
+		final long address = this.reserve(5 + 8 * count
+				+ (hasScores ? 8 * count : 0));
+		final ByteBuffer chunk = this.getChunk(address);
+		int offset = getOffset(address);
+		chunk.putInt(offset, count);
+		chunk.put(offset + 4, (byte) (hasScores ? 1 : 0));
+		offset += 5;
+		int scoreOffset = offset + 8 * count;
+		for (Pair<String, String> pair : matching) {
+			chunk.putInt(offset,
+					getVertexId(pair.getFirst(), this.labels1, this.labelToId1));
+			chunk.putInt(offset + 4, getVertexId(pair.getSecond(),
+					this.labels2, this.labelToId2));
+			offset += 8;
+			if (hasScores) {
+				Double score = matching.getScore(pair);
+				chunk.putDouble(scoreOffset, score != null ? score : Double.NaN);
+				scoreOffset += 8;
+			}
+		}
+		this.matchingAddresses.put(iterationNumber, address);
+	}
+
+	/**
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @return A new graph matching holding the pairs stored for the given
+	 *         iteration, or null if none were stored.
+	 */
+	public synchronized GraphMatching getMatching(final long iterationNumber) {
+		this.ensureOpen();
+		final Long address = this.matchingAddresses.get(iterationNumber);
+		if (address == null)
+			return null;
+		final ByteBuffer chunk = this.getChunk(address);
+		int offset = getOffset(address);
+		final int count = chunk.getInt(offset);
+		final boolean hasScores = chunk.get(offset + 4) == 1;
+		offset += 5;
+		int scoreOffset = offset + 8 * count;
+		final GraphMatching matching = new GraphMatching();
+		for (int i = 0; i < count; i++) {
+			Pair<String, String> pair = Pair.getPair(
+					this.labels1.get(chunk.getInt(offset)),
+					this.labels2.get(chunk.getInt(offset + 4)));
+			offset += 8;
+			if (hasScores) {
+				matching.addMatching(pair, chunk.getDouble(scoreOffset));
+				scoreOffset += 8;
+			} else
+				matching.addMatching(pair);
+		}
+		return matching;
+	}
+
+	/**
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @return True, if a matching is stored for the given iteration.
+	 */
+	public synchronized boolean containsMatching(final long iterationNumber) {
+		this.ensureOpen();
+		return this.matchingAddresses.containsKey(iterationNumber);
+	}
+
+	/**
+	 * Copies the given quality values into this store.
+	 * 
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @param qualities
+	 *            The quality values of the iteration, one for every quality
+	 *            measure; null for measures that were not assessed.
+	 */
+	public synchronized void putQualities(final long iterationNumber,
+			final QualityMeasureValue[] qualities) {
+		this.ensureOpen();
+		if (qualities.length != this.measureCount)
+			throw new IllegalArgumentException("Expected "
+					+ this.measureCount + " quality values, but got "
+					+ qualities.length);
+		final long address = this.reserve(9 * this.measureCount);
+		final ByteBuffer chunk = this.getChunk(address);
+		final int offset = getOffset(address);
+		final int valueOffset = offset + this.measureCount;
+		for (int i = 0; i < this.measureCount; i++) {
+			byte state;
+			double value = Double.NaN;
+			if (qualities[i] == null)
+				state = QUALITY_ABSENT;
+			else if (!qualities[i].isTerminated())
+				state = QUALITY_NOT_TERMINATED;
+			else {
+				state = QUALITY_VALUE;
+				value = qualities[i].getValue();
+			}
+			chunk.put(offset + i, state);
+			chunk.putDouble(valueOffset + 8 * i, value);
+		}
+		this.qualityAddresses.put(iterationNumber, address);
+	}
+
+	/**
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @return The quality values stored for the given iteration, with null
+	 *         entries for measures that were not assessed; null if no
+	 *         qualities were stored.
+	 */
+	public synchronized QualityMeasureValue[] getQualities(
+			final long iterationNumber) {
+		this.ensureOpen();
+		final Long address = this.qualityAddresses.get(iterationNumber);
+		if (address == null)
+			return null;
+		final ByteBuffer chunk = this.getChunk(address);
+		final int offset = getOffset(address);
+		final int valueOffset = offset + this.measureCount;
+		final QualityMeasureValue[] result = new QualityMeasureValue[this.measureCount];
+		for (int i = 0; i < this.measureCount; i++) {
+			byte state = chunk.get(offset + i);
+			if (state == QUALITY_VALUE)
+				result[i] = QualityMeasureValue.getForDouble(chunk
+						.getDouble(valueOffset + 8 * i));
+			else if (state == QUALITY_NOT_TERMINATED)
+				result[i] = QualityMeasureValue.getForNotTerminated();
+		}
+		return result;
+	}
+
+	/**
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @return True, if qualities are stored for the given iteration.
+	 */
+	public synchronized boolean containsQualities(final long iterationNumber) {
+		this.ensureOpen();
+		return this.qualityAddresses.containsKey(iterationNumber);
+	}
+
+	/**
+	 * @return The number of quality values of every quality record.
+	 */
+	public int getMeasureCount() {
+		return this.measureCount;
+	}
+
+	/**
+	 * @return The number of bytes occupied by the stored records.
+	 */
+	public synchronized long getUsedBytes() {
+		return this.usedBytes;
+	}
+
+	/**
+	 * @return The number of bytes allocated outside of the heap.
+	 */
+	public synchronized long getAllocatedBytes() {
+		long result = 0;
+		for (ByteBuffer chunk : this.chunks)
+			result += chunk.capacity();
+		return result;
+	}
+
+	/**
+	 * @return True, if this store has been released.
+	 */
+	public synchronized boolean isClosed() {
+		return this.closed;
+	}
+
+	/**
+	 * Releases the memory of all chunks of this store immediately.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.closed)
+			return;
+		this.closed = true;
+		for (ByteBuffer chunk : this.chunks)
+			release(chunk);
+		this.chunks.clear();
+		this.matchingAddresses.clear();
+		this.qualityAddresses.clear();
+		this.labels1.clear();
+		this.labels2.clear();
+		this.labelToId1.clear();
+		this.labelToId2.clear();
+		this.usedBytes = 0;
+	}
+
+	/**
+	 * Frees the memory of the given direct buffer without waiting for the
+	 * garbage collector. The buffer must not be accessed afterwards.
+	 * 
+	 * <p>
+	 * The JVM does not offer a public API for this; we use the cleaner of the
+	 * buffer (Java 7 and 8) or sun.misc.Unsafe#invokeCleaner (Java 9 and
+	 * later). If neither is accessible, the memory is freed when the buffer
+	 * is garbage collected.
+	 * 
+	 * @param buffer
+	 *            The direct buffer to release.
+	 * @return True, if the memory was freed.
+	 */
+	protected static boolean release(final ByteBuffer buffer) {
+		if (!buffer.isDirect())
+			return false;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner",
+					ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			return true;
+		} catch (NoSuchMethodException e) {
+			// before Java 9; use the cleaner of the buffer below
+		} catch (Exception e) {
+			return false;
+		}
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner == null)
+				return false;
+			Method cleanMethod = cleaner.getClass().getMethod("clean");
+			cleanMethod.setAccessible(true);
+			cleanMethod.invoke(cleaner);
+			return true;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+}
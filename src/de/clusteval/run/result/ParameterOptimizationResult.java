@@ -13,11 +13,14 @@
  */
 package de.clusteval.run.result;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +29,7 @@ import org.apache.commons.configuration.ConfigurationException;
 import utils.Pair;
 import de.clusteval.paramOptimization.IncompatibleParameterOptimizationMethodException;
 import de.clusteval.paramOptimization.InvalidOptimizationParameterException;
+import de.clusteval.paramOptimization.NonDominatedSorting;
 import de.clusteval.paramOptimization.ParameterOptimizationMethod;
 import de.clusteval.paramOptimization.UnknownParameterOptimizationMethodException;
 import de.clusteval.context.IncompatibleContextException;
@@ -57,11 +61,13 @@ import de.clusteval.framework.repository.config.RepositoryConfigurationException
 import de.clusteval.graphmatching.GraphMatching;
 import de.clusteval.program.NoOptimizableProgramParameterException;
 import de.clusteval.program.ParameterSet;
+import de.clusteval.program.ProgramParameter;
 import de.clusteval.program.UnknownParameterType;
 import de.clusteval.program.UnknownProgramParameterException;
 import de.clusteval.program.UnknownProgramTypeException;
 import de.clusteval.program.r.UnknownRProgramException;
 import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
 import de.clusteval.quality.QualitySet;
 import de.clusteval.quality.UnknownQualityMeasureException;
 import de.clusteval.run.InvalidRunModeException;
@@ -72,6 +78,7 @@ import de.clusteval.run.result.format.UnknownRunResultFormatException;
 import de.clusteval.run.statistics.UnknownRunDataStatisticException;
 import de.clusteval.run.statistics.UnknownRunStatisticException;
 import de.clusteval.utils.InvalidConfigurationFileException;
+import de.clusteval.utils.SoftLRUCache;
 import file.FileUtils;
 
 /**
@@ -274,6 +281,84 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 		return result;
 	}
 
+	/**
+	 * The iterations, whose parameter sets were evaluated on induced subgraphs
+	 * of the networks (see
+	 * {@link ParameterOptimizationMethod#getDataFraction(ParameterSet)}), are
+	 * written into the complete file like all other iterations. Their
+	 * iteration numbers and data fractions are additionally written into this
+	 * file next to the complete file, one iteration per line separated by a
+	 * tab. The mark is written before the iteration is written into the
+	 * complete file.
+	 * 
+	 * <p>
+	 * The qualities on subgraphs are not comparable to qualities on the
+	 * complete data. Thus these iterations are skipped, when the complete file
+	 * is parsed or imported into a {@link QualityTable}, unless
+	 * {@link #setParseSubgraphIterations(boolean)} is set.
+	 * 
+	 * @param completeFile
+	 *            The complete file of a parameter optimization run result.
+	 * @return The file holding the data fractions of the iterations on
+	 *         subgraphs.
+	 */
+	public static File getDataFractionsFile(final File completeFile) {
+		return new File(completeFile.getAbsolutePath() + ".fractions");
+	}
+
+	/**
+	 * Marks an iteration of the given complete file as evaluated on induced
+	 * subgraphs (see {@link #getDataFractionsFile(File)}).
+	 * 
+	 * @param completeFile
+	 *            The complete file of a parameter optimization run result.
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @param fraction
+	 *            The fraction of the vertices of the networks the iteration
+	 *            was evaluated on.
+	 */
+	public static void writeDataFraction(final File completeFile,
+			final long iterationNumber, final double fraction) {
+		FileUtils.appendStringToFile(getDataFractionsFile(completeFile)
+				.getAbsolutePath(), iterationNumber + "\t" + fraction + "\n");
+	}
+
+	/**
+	 * @param completeFile
+	 *            The complete file of a parameter optimization run result.
+	 * @return The data fractions of the iterations of the complete file
+	 *         evaluated on induced subgraphs, mapped by their iteration
+	 *         numbers (see {@link #getDataFractionsFile(File)}). Empty, if no
+	 *         iteration was evaluated on subgraphs.
+	 * @throws IOException
+	 */
+	public static Map<Long, Double> parseDataFractions(final File completeFile)
+			throws IOException {
+		final Map<Long, Double> result = new HashMap<Long, Double>();
+		final File fractionsFile = getDataFractionsFile(completeFile);
+		if (!fractionsFile.exists())
+			return result;
+		BufferedReader reader = new BufferedReader(
+				new FileReader(fractionsFile));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] split = line.split("\t");
+				if (split.length != 2)
+					continue;
+				try {
+					result.put(Long.valueOf(split[0]), Double.valueOf(split[1]));
+				} catch (NumberFormatException e) {
+					// the last line of an aborted run may be incomplete
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return result;
+	}
+
 	/*
 	 * Belongs to a optimization method
 	 */
@@ -281,8 +366,38 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 
 	protected Map<ParameterSet, QualitySet> parameterSetToQualities;
 
-	// TODO: added 20.08.2012
-	protected Map<ParameterSet, GraphMatching> parameterSetToClustering;
+	/**
+	 * The default maximal number of graph matchings held in
+	 * {@link #clusteringCache}.
+	 */
+	public static final int DEFAULT_CLUSTERING_CACHE_SIZE = 16;
+
+	/**
+	 * The graph matchings of the iterations are parsed lazily from the
+	 * filesystem when they are accessed the first time. If clusterings should
+	 * be stored, the parsed matchings are kept in this cache, which maps
+	 * iteration numbers to graph matchings.
+	 */
+	protected SoftLRUCache<Long, GraphMatching> clusteringCache;
+
+	/**
+	 * The archive of the iteration files, if the converted results of the
+	 * iterations are not available as loose files.
+	 */
+	protected IterationArchive iterationArchive;
+
+	/**
+	 * After the run finished, the qualities and graph matchings of the
+	 * iterations can be moved into this store outside of the java heap, see
+	 * {@link #moveOffHeap()}. It is released by {@link #unloadFromMemory()}.
+	 */
+	protected OffHeapResultStore offHeapStore;
+
+	/**
+	 * The quality measures of the records in {@link #offHeapStore}, in the
+	 * order of their values.
+	 */
+	protected List<QualityMeasure> offHeapMeasures;
 
 	// added 04.04.2013
 	protected Map<ParameterSet, Long> parameterSetToIterationNumber;
@@ -294,14 +409,24 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 
 	protected QualitySet optimalCriterionValue;
 
-	protected Map<QualityMeasure, GraphMatching> optimalClustering;
-
 	protected List<ParameterSet> parameterSets;
 
 	protected List<Long> iterationNumbers;
 
 	protected boolean parseClusterings, storeClusterings;
 
+	/**
+	 * Whether the iterations evaluated on induced subgraphs are parsed as well
+	 * (see {@link #setParseSubgraphIterations(boolean)}).
+	 */
+	protected boolean parseSubgraphIterations;
+
+	/**
+	 * The qualities of the parsed iterations evaluated on induced subgraphs,
+	 * mapped by their iteration numbers.
+	 */
+	protected Map<Long, QualitySet> subgraphQualities;
+
 	/**
 	 * By default we do not parse clusterings.
 	 * 
@@ -323,8 +448,10 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 	}
 
 	/**
-	 * Use this constructor if you want to parse clusterings as well. They will
-	 * be stored in a map from parameter sets to the clusterings.
+	 * Use this constructor if you want to access clusterings as well. They are
+	 * parsed lazily when they are accessed the first time and, if they should
+	 * be stored, kept in a size-bounded cache of softly referenced
+	 * clusterings.
 	 * 
 	 * @param repository
 	 * @param register
@@ -334,9 +461,10 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 	 * @param run
 	 * @param method
 	 * @param parseClusterings
-	 *            Whether to parse the clusterings from the file system.
+	 *            Whether to parse the clusterings from the file system on
+	 *            access.
 	 * @param storeClusterings
-	 *            Whether to store parsed clusterings in RAM.
+	 *            Whether to cache parsed clusterings in RAM.
 	 * @throws RegisterException
 	 */
 	public ParameterOptimizationResult(final Repository repository,
@@ -354,12 +482,12 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 		this.parameterSets = new ArrayList<ParameterSet>();
 		this.iterationNumbers = new ArrayList<Long>();
 		this.parameterSetToIterationNumber = new HashMap<ParameterSet, Long>();
+		this.subgraphQualities = new HashMap<Long, QualitySet>();
 		this.parseClusterings = parseClusterings;
 		this.storeClusterings = storeClusterings;
-		if (parseClusterings) {
-			this.parameterSetToClustering = new HashMap<ParameterSet, GraphMatching>();
-			this.optimalClustering = new HashMap<QualityMeasure, GraphMatching>();
-		}
+		if (parseClusterings && storeClusterings)
+			this.clusteringCache = new SoftLRUCache<Long, GraphMatching>(
+					DEFAULT_CLUSTERING_CACHE_SIZE);
 
 		if (register)
 			this.register();
@@ -383,29 +511,36 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 		this.parameterSets = cloneParameterSets(other.parameterSets);
 		this.iterationNumbers = cloneIterationNumbers(other.iterationNumbers);
 		this.parameterSetToIterationNumber = cloneParameterSetToIterationNumbers(other.parameterSetToIterationNumber);
-		this.parameterSetToClustering = cloneParameterSetsToClustering(other.parameterSetToClustering);
-		this.optimalClustering = cloneOptimalClustering(other.optimalClustering);
-	}
-
-	private Map<QualityMeasure, GraphMatching> cloneOptimalClustering(
-			Map<QualityMeasure, GraphMatching> optimalClustering) {
-		final Map<QualityMeasure, GraphMatching> result = new HashMap<QualityMeasure, GraphMatching>();
-
-		for (Map.Entry<QualityMeasure, GraphMatching> entry : optimalClustering
-				.entrySet()) {
-			result.put(entry.getKey().clone(), entry.getValue().clone());
-		}
-
-		return result;
+		this.parseClusterings = other.parseClusterings;
+		this.storeClusterings = other.storeClusterings;
+		this.parseSubgraphIterations = other.parseSubgraphIterations;
+		this.subgraphQualities = new HashMap<Long, QualitySet>();
+		for (Map.Entry<Long, QualitySet> entry : other.subgraphQualities
+				.entrySet())
+			this.subgraphQualities.put(entry.getKey(), entry.getValue()
+					.clone());
+		this.clusteringCache = cloneClusteringCache(other.clusteringCache);
+		// the clone does not share the off-heap store, since it is released
+		// together with the other result
+		if (other.offHeapStore != null)
+			for (int i = 0; i < other.parameterSets.size(); i++) {
+				QualitySet qualities = other.get(other.parameterSets.get(i));
+				this.parameterSetToQualities.put(this.parameterSets.get(i),
+						qualities != null ? qualities.clone() : null);
+			}
 	}
 
-	private Map<ParameterSet, GraphMatching> cloneParameterSetsToClustering(
-			Map<ParameterSet, GraphMatching> parameterSetToClustering) {
-		final Map<ParameterSet, GraphMatching> result = new HashMap<ParameterSet, GraphMatching>();
+	private SoftLRUCache<Long, GraphMatching> cloneClusteringCache(
+			SoftLRUCache<Long, GraphMatching> clusteringCache) {
+		if (clusteringCache == null)
+			return null;
+		final SoftLRUCache<Long, GraphMatching> result = new SoftLRUCache<Long, GraphMatching>(
+				clusteringCache.getMaxSize());
 
-		for (Map.Entry<ParameterSet, GraphMatching> entry : parameterSetToClustering
-				.entrySet()) {
-			result.put(entry.getKey().clone(), entry.getValue().clone());
+		for (Long iterationNumber : clusteringCache.keys()) {
+			GraphMatching clustering = clusteringCache.get(iterationNumber);
+			if (clustering != null)
+				result.put(iterationNumber, clustering.clone());
 		}
 
 		return result;
@@ -514,10 +649,12 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 	 */
 	public QualitySet put(long iterationNumber, ParameterSet last,
 			QualitySet qualities, GraphMatching clustering) {
+		// parameter sets are used as hash keys from now on
+		last.freeze();
 		QualitySet result = this.parameterSetToQualities.put(last, qualities);
 
-		if (this.parameterSetToClustering != null)
-			this.parameterSetToClustering.put(last, clustering);
+		if (this.clusteringCache != null && clustering != null)
+			this.clusteringCache.put(iterationNumber, clustering);
 
 		if (this.parameterSetToIterationNumber != null)
 			this.parameterSetToIterationNumber.put(last, iterationNumber);
@@ -530,9 +667,6 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 					this.optimalCriterionValue.put(measure,
 							qualities.get(measure));
 					this.optimalParameterSet.put(measure, last);
-
-					if (this.parameterSetToClustering != null)
-						this.optimalClustering.put(measure, clustering);
 				}
 			}
 		}
@@ -567,16 +701,107 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 		return this.optimalCriterionValue;
 	}
 
+	/**
+	 * The parameter sets of the Pareto front regarding several quality
+	 * measures, i.e. those parameter sets, whose qualities are not dominated
+	 * by the qualities of any other parameter set (see
+	 * {@link NonDominatedSorting}). The optimal parameter set of every single
+	 * measure is contained in the front, if it is the only optimal one.
+	 * 
+	 * @param measures
+	 *            The quality measures regarded at the same time.
+	 * @return The parameter sets of the Pareto front in the order they were
+	 *         evaluated.
+	 */
+	public List<ParameterSet> getParetoFront(final List<QualityMeasure> measures) {
+		List<ParameterSet> paramSets = new ArrayList<ParameterSet>();
+		List<QualitySet> qualities = new ArrayList<QualitySet>();
+		for (ParameterSet paramSet : new LinkedHashSet<ParameterSet>(
+				this.parameterSets)) {
+			QualitySet paramSetQualities = this.get(paramSet);
+			if (paramSetQualities == null)
+				continue;
+			paramSets.add(paramSet);
+			qualities.add(paramSetQualities);
+		}
+
+		List<ParameterSet> result = new ArrayList<ParameterSet>();
+		List<List<Integer>> fronts = NonDominatedSorting.sort(qualities,
+				measures);
+		if (!fronts.isEmpty())
+			for (int i : fronts.get(0))
+				result.add(paramSets.get(i));
+		return result;
+	}
+
+	/**
+	 * @param completeFile
+	 *            The complete file of a parameter optimization run result.
+	 * @return The file holding the Pareto front of a multi-objective parameter
+	 *         optimization (see {@link #writeParetoFrontToFile(String, List)}
+	 *         ).
+	 */
+	public static File getParetoFrontFile(final File completeFile) {
+		return new File(completeFile.getAbsolutePath().replace(".complete",
+				".pareto"));
+	}
+
+	/**
+	 * Writes the Pareto front regarding the given quality measures into a file
+	 * in the format of the complete file of this result.
+	 * 
+	 * @param absPath
+	 *            The absolute path of the file to write.
+	 * @param measures
+	 *            The quality measures regarded at the same time.
+	 */
+	public void writeParetoFrontToFile(final String absPath,
+			final List<QualityMeasure> measures) {
+		List<ProgramParameter<?>> params = this.method.getProgramConfig()
+				.getOptimizableParams();
+		StringBuilder sb = new StringBuilder();
+		sb.append("iteration\t");
+		for (int p = 0; p < params.size(); p++) {
+			if (p > 0)
+				sb.append(",");
+			sb.append(params.get(p));
+		}
+		for (QualityMeasure measure : measures) {
+			sb.append("\t");
+			sb.append(measure.getClass().getSimpleName());
+		}
+		sb.append("\n");
+
+		for (ParameterSet paramSet : this.getParetoFront(measures)) {
+			QualitySet qualities = this.get(paramSet);
+			sb.append(this.parameterSetToIterationNumber.get(paramSet));
+			sb.append("\t");
+			for (int p = 0; p < params.size(); p++) {
+				if (p > 0)
+					sb.append(",");
+				sb.append(paramSet.get(params.get(p).getName()));
+			}
+			for (QualityMeasure measure : measures) {
+				sb.append("\t");
+				sb.append(qualities.get(measure) != null ? qualities
+						.get(measure) : QualityMeasureValue
+						.getForNotTerminated());
+			}
+			sb.append("\n");
+		}
+		FileUtils.writeStringToFile(absPath, sb.toString());
+	}
+
 	/**
 	 * @return The clustering corresponding to the highest achieved quality
 	 *         value for the optimization criterion (see
 	 *         {@link #getOptimalCriterionValue()}).
 	 */
 	public GraphMatching getOptimalClustering() {
-		if (this.optimalClustering != null)
-			return this.optimalClustering.get(this.method
-					.getOptimizationCriterion());
-		return null;
+		ParameterSet optimalParameterSet = this.getOptimalParameterSet();
+		if (!this.parseClusterings || optimalParameterSet == null)
+			return null;
+		return this.getClustering(optimalParameterSet);
 	}
 
 	/**
@@ -585,7 +810,13 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 	 *         those.
 	 */
 	public Map<QualityMeasure, GraphMatching> getOptimalClusterings() {
-		return this.optimalClustering;
+		if (!this.parseClusterings)
+			return null;
+		Map<QualityMeasure, GraphMatching> result = new HashMap<QualityMeasure, GraphMatching>();
+		for (Map.Entry<QualityMeasure, ParameterSet> entry : this.optimalParameterSet
+				.entrySet())
+			result.put(entry.getKey(), this.getClustering(entry.getValue()));
+		return result;
 	}
 
 	/**
@@ -596,8 +827,7 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 	public List<Pair<ParameterSet, QualitySet>> getOptimizationQualities() {
 		List<Pair<ParameterSet, QualitySet>> result = new ArrayList<Pair<ParameterSet, QualitySet>>();
 		for (ParameterSet paramSet : this.parameterSets)
-			result.add(Pair.getPair(paramSet,
-					this.parameterSetToQualities.get(paramSet)));
+			result.add(Pair.getPair(paramSet, this.get(paramSet)));
 		return result;
 	}
 
@@ -618,18 +848,77 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 	}
 
 	/**
+	 * This method parses the clusterings of all iterations and keeps all of
+	 * them in memory. Use {@link #clusteringIterator()} to process the
+	 * clusterings one after another instead.
+	 * 
 	 * @return A list of pairs containing all parameter sets evaluated during
 	 *         the optimization process together with the optimal resulting
 	 *         clusterings.
 	 */
 	public List<Pair<ParameterSet, GraphMatching>> getOptimizationClusterings() {
 		List<Pair<ParameterSet, GraphMatching>> result = new ArrayList<Pair<ParameterSet, GraphMatching>>();
-		for (ParameterSet paramSet : this.parameterSets)
-			result.add(Pair.getPair(paramSet,
-					this.parameterSetToClustering.get(paramSet)));
+		Iterator<Pair<ParameterSet, GraphMatching>> it = this
+				.clusteringIterator();
+		while (it.hasNext())
+			result.add(it.next());
 		return result;
 	}
 
+	/**
+	 * The returned iterator parses the clusterings of the iterations in the
+	 * order of {@link #getParameterSets()} when they are requested. Parsed
+	 * clusterings are not added to the cache of this result, such that
+	 * iterating over a whole run only needs memory for one clustering at a
+	 * time.
+	 * 
+	 * @return An iterator over all parameter sets evaluated during the
+	 *         optimization process together with the resulting clusterings.
+	 */
+	public Iterator<Pair<ParameterSet, GraphMatching>> clusteringIterator() {
+		return new Iterator<Pair<ParameterSet, GraphMatching>>() {
+
+			protected int currPos = 0;
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.util.Iterator#hasNext()
+			 */
+			@Override
+			public boolean hasNext() {
+				return this.currPos < parameterSets.size();
+			}
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.util.Iterator#next()
+			 */
+			@Override
+			public Pair<ParameterSet, GraphMatching> next() {
+				ParameterSet paramSet = parameterSets.get(this.currPos);
+				long iterationNumber = iterationNumbers.get(this.currPos++);
+				GraphMatching clustering = getOffHeapClustering(iterationNumber);
+				if (clustering == null && clusteringCache != null)
+					clustering = clusteringCache.get(iterationNumber);
+				if (clustering == null)
+					clustering = loadClustering(iterationNumber);
+				return Pair.getPair(paramSet, clustering);
+			}
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.util.Iterator#remove()
+			 */
+			@Override
+			public void remove() {
+				// not supported
+			}
+		};
+	}
+
 	/**
 	 * @return The parameter optimization method which created this result.
 	 */
@@ -661,20 +950,138 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 					this.getRun(), this, absPath.getAbsolutePath(),
 					new int[]{}, new int[]{}, parseClusterings,
 					storeClusterings);
-			parser.process();
+			// the quality table does not contain the iterations on subgraphs
+			QualityTable table = this.parseSubgraphIterations
+					? null
+					: this.openQualityTable();
+			if (table != null) {
+				try {
+					parser.processQualityTable(table);
+				} finally {
+					table.close();
+				}
+			} else
+				parser.process();
 		} catch (IOException e) {
 			throw new RunResultParseException(e.getMessage());
 		}
 	}
 
+	/**
+	 * @return The quality table corresponding to the complete file of this
+	 *         run result opened for reading, or null if there is no table or
+	 *         it is older than the complete file.
+	 */
+	public QualityTable openQualityTable() {
+		File tableFile = QualityTable.getTableFile(absPath.getAbsolutePath());
+		if (!QualityTable.exists(tableFile)
+				|| new File(tableFile, "stats").lastModified() < absPath
+						.lastModified())
+			return null;
+		try {
+			return QualityTable.open(tableFile, true);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Moves the qualities and, if clusterings are parsed, the graph matchings
+	 * of all iterations into an {@link OffHeapResultStore}, such that a
+	 * finished run can be kept for serving queries without occupying the java
+	 * heap. Afterwards they are still accessible via {@link #get(ParameterSet)}
+	 * , {@link #getClustering(ParameterSet)} and the iterators of this result.
+	 * 
+	 * <p>
+	 * The store is released by {@link #unloadFromMemory()}.
+	 */
+	public synchronized void moveOffHeap() {
+		if (this.offHeapStore != null)
+			return;
+		final List<QualityMeasure> measures = new ArrayList<QualityMeasure>();
+		for (QualitySet qualities : this.parameterSetToQualities.values())
+			if (qualities != null)
+				for (QualityMeasure measure : qualities.keySet())
+					if (!measures.contains(measure))
+						measures.add(measure);
+
+		final OffHeapResultStore store = new OffHeapResultStore(
+				measures.size());
+		for (int i = 0; i < this.parameterSets.size(); i++) {
+			final long iterationNumber = this.iterationNumbers.get(i);
+			final QualitySet qualities = this.parameterSetToQualities
+					.get(this.parameterSets.get(i));
+			if (qualities != null) {
+				QualityMeasureValue[] values = new QualityMeasureValue[measures
+						.size()];
+				for (int m = 0; m < values.length; m++)
+					values[m] = qualities.get(measures.get(m));
+				store.putQualities(iterationNumber, values);
+			}
+			if (this.parseClusterings) {
+				GraphMatching clustering = null;
+				if (this.clusteringCache != null)
+					clustering = this.clusteringCache.get(iterationNumber);
+				if (clustering == null)
+					clustering = this.loadClustering(iterationNumber);
+				if (clustering != null)
+					store.putMatching(iterationNumber, clustering);
+			}
+		}
+		this.offHeapMeasures = measures;
+		this.offHeapStore = store;
+		this.parameterSetToQualities.clear();
+		if (this.clusteringCache != null)
+			this.clusteringCache.clear();
+	}
+
+	/**
+	 * @return True, if the qualities and matchings of this result are held
+	 *         outside of the java heap.
+	 * @see #moveOffHeap()
+	 */
+	public synchronized boolean isOffHeap() {
+		return this.offHeapStore != null;
+	}
+
+	protected synchronized GraphMatching getOffHeapClustering(
+			final long iterationNumber) {
+		if (this.offHeapStore == null)
+			return null;
+		return this.offHeapStore.getMatching(iterationNumber);
+	}
+
+	protected synchronized QualitySet getOffHeapQualities(
+			final long iterationNumber) {
+		if (this.offHeapStore == null)
+			return null;
+		QualityMeasureValue[] values = this.offHeapStore
+				.getQualities(iterationNumber);
+		if (values == null)
+			return null;
+		final QualitySet result = new QualitySet();
+		for (int m = 0; m < values.length; m++)
+			if (values[m] != null)
+				result.put(this.offHeapMeasures.get(m), values[m]);
+		return result;
+	}
+
 	/**
 	 * This method clears all internal attributes that do not store the optimal
 	 * results (those might be needed afterwards). This includes
-	 * {@link #parameterSets}, {@link #parameterSetToClustering} and
-	 * {@link #parameterSetToQualities}.
+	 * {@link #parameterSets}, {@link #clusteringCache} and
+	 * {@link #parameterSetToQualities}. The {@link #offHeapStore} is released
+	 * immediately.
 	 */
 	@Override
 	public void unloadFromMemory() {
+		synchronized (this) {
+			if (this.offHeapStore != null) {
+				this.offHeapStore.close();
+				this.offHeapStore = null;
+				this.offHeapMeasures = null;
+			}
+		}
 		if (this.parameterSets != null) {
 			this.parameterSets.clear();
 			// this.parameterSets = null;
@@ -687,14 +1094,55 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 			this.parameterSetToIterationNumber.clear();
 			// this.parameterSetToIterationNumber = null;
 		}
-		if (this.parameterSetToClustering != null) {
-			this.parameterSetToClustering.clear();
-			// this.parameterSetToClustering = null;
+		if (this.clusteringCache != null)
+			this.clusteringCache.clear();
+		if (this.iterationArchive != null) {
+			try {
+				this.iterationArchive.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			this.iterationArchive = null;
 		}
 		if (this.parameterSetToQualities != null) {
 			this.parameterSetToQualities.clear();
 			// this.parameterSetToQualities = null;
 		}
+		if (this.subgraphQualities != null)
+			this.subgraphQualities.clear();
+	}
+
+	/**
+	 * By default the iterations, whose parameter sets were evaluated on
+	 * induced subgraphs of the networks, are skipped when this result is
+	 * loaded into memory (see {@link #getDataFractionsFile(File)}). The
+	 * resumption of a parameter optimization has to reperform them though.
+	 * 
+	 * <p>
+	 * If this is set, these iterations are contained in
+	 * {@link #getParameterSets()} and {@link #getIterationNumbers()}. Their
+	 * qualities are not put into this result, as during the optimization, but
+	 * are only available via {@link #getSubgraphQualities(long)}.
+	 * 
+	 * <p>
+	 * This has to be set before {@link #loadIntoMemory()} is invoked.
+	 * 
+	 * @param parseSubgraphIterations
+	 *            Whether to parse the iterations evaluated on subgraphs.
+	 */
+	public void setParseSubgraphIterations(final boolean parseSubgraphIterations) {
+		this.parseSubgraphIterations = parseSubgraphIterations;
+	}
+
+	/**
+	 * @param iterationNumber
+	 *            The number of an iteration.
+	 * @return The qualities of the iteration, if it was evaluated on induced
+	 *         subgraphs and parsed (see
+	 *         {@link #setParseSubgraphIterations(boolean)}); null otherwise.
+	 */
+	public QualitySet getSubgraphQualities(final long iterationNumber) {
+		return this.subgraphQualities.get(iterationNumber);
 	}
 
 	/*
@@ -715,7 +1163,14 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 	 *         set.
 	 */
 	public QualitySet get(final ParameterSet paramSet) {
-		return this.parameterSetToQualities.get(paramSet);
+		QualitySet result = this.parameterSetToQualities.get(paramSet);
+		if (result == null && this.offHeapStore != null) {
+			Long iterationNumber = this.parameterSetToIterationNumber
+					.get(paramSet);
+			if (iterationNumber != null)
+				result = this.getOffHeapQualities(iterationNumber);
+		}
+		return result;
 	}
 
 	/**
@@ -726,7 +1181,66 @@ public class ParameterOptimizationResult extends ExecutionRunResult
 	 * @return The clustering resulting from the given parameter set.
 	 */
 	public GraphMatching getClustering(final ParameterSet paramSet) {
-		return this.parameterSetToClustering.get(paramSet);
+		Long iterationNumber = this.parameterSetToIterationNumber.get(paramSet);
+		if (iterationNumber == null)
+			return null;
+		GraphMatching clustering = this.getOffHeapClustering(iterationNumber);
+		if (clustering == null && this.clusteringCache != null)
+			clustering = this.clusteringCache.get(iterationNumber);
+		if (clustering == null) {
+			clustering = this.loadClustering(iterationNumber);
+			if (this.clusteringCache != null && clustering != null)
+				this.clusteringCache.put(iterationNumber, clustering);
+		}
+		return clustering;
+	}
+
+	/**
+	 * Parses the clustering of the given iteration from the converted result
+	 * file of the iteration. If this file does not exist, it is read from the
+	 * {@link IterationArchive} of the program and data configuration.
+	 * 
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @return The parsed clustering, or null if it could not be parsed.
+	 */
+	protected GraphMatching loadClustering(final long iterationNumber) {
+		final File absFile = new File(this.getAbsolutePath().replace(
+				"results.qual.complete",
+				iterationNumber + ".results.matching.conv")).getAbsoluteFile();
+		try {
+			if (absFile.exists())
+				return GraphMatching.parseFromFile(method.getRepository(),
+						absFile, false).getSecond();
+
+			synchronized (this) {
+				if (this.iterationArchive == null) {
+					File archiveFile = IterationArchive.getArchiveFile(
+							absFile.getParentFile(),
+							absPath.getName().replace(".results.qual.complete",
+									""));
+					if (!archiveFile.exists())
+						return null;
+					this.iterationArchive = new IterationArchive(archiveFile,
+							true);
+				}
+				File tmpFile = File.createTempFile(absFile.getName(), ".tmp");
+				try {
+					if (!this.iterationArchive.copyTo(iterationNumber, absFile
+							.getParentFile().getName()
+							+ "/"
+							+ absFile.getName(), tmpFile))
+						return null;
+					return GraphMatching.parseFromFile(method.getRepository(),
+							tmpFile, false).getSecond();
+				} finally {
+					tmpFile.delete();
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
 	}
 
 	/*
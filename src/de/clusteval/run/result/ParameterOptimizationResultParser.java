@@ -17,9 +17,9 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import de.clusteval.paramOptimization.ParameterOptimizationMethod;
-import de.clusteval.graphmatching.GraphMatching;
 
 import utils.StringExt;
 import utils.parse.TextFileParser;
@@ -43,6 +43,12 @@ public class ParameterOptimizationResultParser extends TextFileParser {
 	protected ParameterOptimizationResult tmpResult;
 	protected boolean parseClusterings, storeClusterings;
 
+	/**
+	 * The data fractions of the iterations evaluated on induced subgraphs
+	 * (see {@link ParameterOptimizationResult#getDataFractionsFile(File)}).
+	 */
+	protected Map<Long, Double> dataFractions;
+
 	/**
 	 * @param method
 	 * @param run
@@ -68,6 +74,8 @@ public class ParameterOptimizationResultParser extends TextFileParser {
 		this.tmpResult = tmpResult;
 		this.parseClusterings = parseClusterings;
 		this.storeClusterings = storeClusterings;
+		this.dataFractions = ParameterOptimizationResult
+				.parseDataFractions(new File(absFilePath));
 	}
 
 	@SuppressWarnings("unused")
@@ -102,16 +110,6 @@ public class ParameterOptimizationResultParser extends TextFileParser {
 
 				QualitySet qualitySet = new QualitySet();
 
-				// changed 03.04.2013 this does not necessarily work,
-				// because line number not always corresponds to iteration
-				// number.
-				// added 14.03.2013
-				// ensure, that the iteration result file containing the
-				// clustering exists
-				String iterationId = iterationNumber + "";
-				String clusteringFilePath = this.getAbsoluteFilePath().replace(
-						"results.qual.complete", iterationId + ".results.matching.conv");
-				File absFile = new File(clusteringFilePath).getAbsoluteFile();
 				// if the corresponding file exists take the qualities for
 				// granted
 				// if (absFile.exists()) {
@@ -130,35 +128,110 @@ public class ParameterOptimizationResultParser extends TextFileParser {
 				// .getForNotTerminated());
 				// }
 				// }
-				tmpResult.parameterSets.add(paramSet);
-				tmpResult.iterationNumbers.add(iterationNumber);
+				if (!this.isSubgraphIteration(iterationNumber))
+					this.addIteration(iterationNumber, paramSet, qualitySet);
+				else if (tmpResult.parseSubgraphIterations)
+					this.addSubgraphIteration(iterationNumber, paramSet,
+							qualitySet);
+			} catch (Exception e) {
+			}
+		}
+	}
 
-				// added 20.08.2012
-				if (parseClusterings) {
-					// if (absFile.exists()) {
-					try {
-						GraphMatching clustering = GraphMatching.parseFromFile(
-								method.getRepository(), absFile, false)
-								.getSecond();
-						if (storeClusterings)
-							tmpResult.put(iterationNumber, paramSet,
-									qualitySet, clustering);
-						else {
-							// in this case, the clustering is only
-							// registerd in the repository and therefore
-							// added to the database
-							tmpResult.put(iterationNumber, paramSet,
-									qualitySet, null);
-						}
-						return;
-					} catch (IOException e) {
-						e.printStackTrace();
+	/**
+	 * Fills the run result with the contents of the given quality table
+	 * instead of parsing the complete file line by line.
+	 * 
+	 * @param table
+	 *            The quality table corresponding to the complete file.
+	 * @throws IOException
+	 */
+	public void processQualityTable(final QualityTable table)
+			throws IOException {
+		try {
+			List<QualityMeasure> measures = new ArrayList<QualityMeasure>();
+			List<double[]> measureValues = new ArrayList<double[]>();
+			for (String measureName : table.getMeasureNames())
+				for (QualityMeasure other : run.getQualityMeasures())
+					if (other.getClass().getSimpleName().equals(measureName)) {
+						measures.add(other);
+						measureValues.add(table.getMeasureValues(measureName,
+								null));
+						break;
 					}
+			long[] iterations = table.getIterations(null);
+			List<ParameterSet> paramSets = table.getParameterSets(null);
+
+			for (int row = 0; row < iterations.length; row++) {
+				// tables written before the iterations on subgraphs were
+				// marked may contain them
+				if (this.isSubgraphIteration(iterations[row]))
+					continue;
+				QualitySet qualitySet = new QualitySet();
+				for (int m = 0; m < measures.size(); m++) {
+					double value = measureValues.get(m)[row];
+					qualitySet.put(measures.get(m), Double.isNaN(value)
+							? QualityMeasureValue.getForNotTerminated()
+							: QualityMeasureValue.getForDouble(value));
 				}
-				// }
-				tmpResult.put(iterationNumber, paramSet, qualitySet);
-			} catch (Exception e) {
+				this.addIteration(iterations[row], paramSets.get(row),
+						qualitySet);
 			}
+		} finally {
+			this.finishProcess();
+			this.closeStreams();
 		}
 	}
+
+	/**
+	 * Adds the parameter set and qualities of one iteration to the run
+	 * result. The graph matching of the iteration is not parsed here, but
+	 * lazily by the run result when it is accessed.
+	 * 
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @param paramSet
+	 *            The parameter set of the iteration.
+	 * @param qualitySet
+	 *            The qualities of the iteration.
+	 */
+	protected void addIteration(final long iterationNumber,
+			final ParameterSet paramSet, final QualitySet qualitySet) {
+		tmpResult.parameterSets.add(paramSet);
+		tmpResult.iterationNumbers.add(iterationNumber);
+		tmpResult.put(iterationNumber, paramSet, qualitySet);
+	}
+
+	/**
+	 * @param iterationNumber
+	 *            The number of an iteration.
+	 * @return True, if the iteration was evaluated on induced subgraphs.
+	 */
+	protected boolean isSubgraphIteration(final long iterationNumber) {
+		Double fraction = this.dataFractions.get(iterationNumber);
+		return fraction != null && fraction < 1.0;
+	}
+
+	/**
+	 * Adds an iteration evaluated on induced subgraphs to the run result (see
+	 * {@link ParameterOptimizationResult#setParseSubgraphIterations(boolean)}
+	 * ).
+	 * 
+	 * @param iterationNumber
+	 *            The number of the iteration.
+	 * @param paramSet
+	 *            The parameter set of the iteration.
+	 * @param qualitySet
+	 *            The qualities of the iteration on the subgraphs.
+	 */
+	protected void addSubgraphIteration(final long iterationNumber,
+			final ParameterSet paramSet, final QualitySet qualitySet) {
+		tmpResult.parameterSets.add(paramSet);
+		tmpResult.iterationNumbers.add(iterationNumber);
+		// as during the optimization, no qualities are stored for the
+		// parameter set, unless it was evaluated on the complete data
+		if (tmpResult.parameterSetToQualities.get(paramSet) == null)
+			tmpResult.put(iterationNumber, paramSet, null);
+		tmpResult.subgraphQualities.put(iterationNumber, qualitySet);
+	}
 }
@@ -0,0 +1,896 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.result;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import de.clusteval.program.ParameterSet;
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import file.FileUtils;
+
+/**
+ * A columnar binary table holding the parameter sets and qualities of all
+ * iterations of one pair of program and data configuration. It is the binary
+ * counterpart of the <i>.results.qual.complete</i> file.
+ * 
+ * <p>
+ * The table is stored in a folder containing one file per column:
+ * <ul>
+ * <li><b>iteration.col</b>: the iteration numbers as longs</li>
+ * <li><b>p&lt;i&gt;.col</b>: the values of the i-th parameter as integer
+ * indices into the dictionary <b>p&lt;i&gt;.dict</b>, which holds every
+ * distinct value of the parameter once</li>
+ * <li><b>m&lt;i&gt;.col</b>: the values of the i-th quality measure as
+ * doubles; qualities of iterations that did not terminate are stored as NaN</li>
+ * </ul>
+ * The file <b>schema</b> contains the names of the parameters and quality
+ * measures, the file <b>stats</b> the number of committed rows and the minimal
+ * and maximal value of every column. Rows are appended by writing into every
+ * column file first and replacing the statistics file afterwards; column data
+ * beyond the committed number of rows is discarded when the table is opened
+ * for writing again.
+ * 
+ * <p>
+ * Queries only map the columns they need, such that e.g. the best iterations
+ * regarding one quality measure can be determined without reading any
+ * parameter values.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class QualityTable implements Closeable {
+
+	/**
+	 * The suffix of the table folder, which replaces the suffix
+	 * <i>.results.qual.complete</i> of the corresponding text file.
+	 */
+	public static final String FILE_EXTENSION = ".results.qual.table";
+
+	protected static final int MAGIC = 0x43455154;
+
+	protected static final int VERSION = 1;
+
+	/**
+	 * @param completeFile
+	 *            The path of the <i>.results.qual.complete</i> file.
+	 * @return The folder of the quality table corresponding to the given
+	 *         complete file.
+	 */
+	public static File getTableFile(final String completeFile) {
+		return new File(completeFile.replace(".results.qual.complete",
+				FILE_EXTENSION));
+	}
+
+	/**
+	 * @param tableFolder
+	 *            The folder of the table.
+	 * @return True, if the folder contains a quality table.
+	 */
+	public static boolean exists(final File tableFolder) {
+		return new File(tableFolder, "schema").exists()
+				&& new File(tableFolder, "stats").exists();
+	}
+
+	/**
+	 * Creates a new empty quality table. An existing table in the given folder
+	 * is deleted.
+	 * 
+	 * @param tableFolder
+	 *            The folder of the table.
+	 * @param parameterNames
+	 *            The names of the parameters.
+	 * @param measureNames
+	 *            The names of the quality measures.
+	 * @return The created table, opened for writing.
+	 * @throws IOException
+	 */
+	public static QualityTable create(final File tableFolder,
+			final List<String> parameterNames, final List<String> measureNames)
+			throws IOException {
+		if (tableFolder.exists())
+			FileUtils.delete(tableFolder);
+		tableFolder.mkdirs();
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(new File(tableFolder, "schema"))));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(parameterNames.size());
+			for (String name : parameterNames)
+				out.writeUTF(name);
+			out.writeInt(measureNames.size());
+			for (String name : measureNames)
+				out.writeUTF(name);
+		} finally {
+			out.close();
+		}
+
+		QualityTable table = new QualityTable(tableFolder,
+				new ArrayList<String>(parameterNames), new ArrayList<String>(
+						measureNames), false);
+		table.writeStats();
+		return table;
+	}
+
+	/**
+	 * Opens an existing quality table.
+	 * 
+	 * @param tableFolder
+	 *            The folder of the table.
+	 * @param readOnly
+	 *            Whether the table is only opened for reading.
+	 * @return The opened table.
+	 * @throws IOException
+	 */
+	public static QualityTable open(final File tableFolder,
+			final boolean readOnly) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(new File(tableFolder, "schema"))));
+		List<String> parameterNames = new ArrayList<String>();
+		List<String> measureNames = new ArrayList<String>();
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IOException("Invalid quality table: " + tableFolder);
+			int count = in.readInt();
+			for (int i = 0; i < count; i++)
+				parameterNames.add(in.readUTF());
+			count = in.readInt();
+			for (int i = 0; i < count; i++)
+				measureNames.add(in.readUTF());
+		} finally {
+			in.close();
+		}
+		QualityTable table = new QualityTable(tableFolder, parameterNames,
+				measureNames, readOnly);
+		table.readStats();
+		if (!readOnly)
+			table.discardUncommittedRows();
+		return table;
+	}
+
+	/**
+	 * Converts a <i>.results.qual.complete</i> file into a quality table.
+	 * Iterations evaluated on induced subgraphs are skipped (see
+	 * {@link ParameterOptimizationResult#getDataFractionsFile(File)}).
+	 * 
+	 * @param completeFile
+	 *            The complete file to convert.
+	 * @param tableFolder
+	 *            The folder of the new table.
+	 * @return The created table, opened for writing.
+	 * @throws IOException
+	 */
+	public static QualityTable importTsv(final File completeFile,
+			final File tableFolder) throws IOException {
+		BufferedReader reader = new BufferedReader(new FileReader(completeFile));
+		try {
+			String line = reader.readLine();
+			if (line == null)
+				throw new IOException("The file " + completeFile
+						+ " does not contain a header");
+			String[] header = line.split("\t", -1);
+			List<String> parameterNames = splitParameters(header[1]);
+			List<String> measureNames = new ArrayList<String>();
+			for (int i = 2; i < header.length; i++)
+				measureNames.add(header[i]);
+
+			QualityTable table = create(tableFolder, parameterNames,
+					measureNames);
+			// qualities on subgraphs are not comparable to the others
+			Map<Long, Double> dataFractions = ParameterOptimizationResult
+					.parseDataFractions(completeFile);
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty())
+					continue;
+				String[] values = line.split("\t", -1);
+				Double fraction = dataFractions.get(Long.valueOf(values[0]));
+				if (fraction != null && fraction < 1.0)
+					continue;
+				List<String> paramValues = splitParameters(values[1]);
+				ParameterSet paramSet = new ParameterSet();
+				for (int i = 0; i < paramValues.size(); i++)
+					paramSet.put(parameterNames.get(i), paramValues.get(i));
+				double[] measures = new double[measureNames.size()];
+				for (int i = 0; i < measures.length; i++) {
+					QualityMeasureValue value = QualityMeasureValue
+							.parseFromString(values[i + 2]);
+					measures[i] = value.isTerminated()
+							? value.getValue()
+							: Double.NaN;
+				}
+				table.append(Long.valueOf(values[0]), paramSet, measures);
+			}
+			return table;
+		} finally {
+			reader.close();
+		}
+	}
+
+	protected static List<String> splitParameters(final String s) {
+		if (s.isEmpty())
+			return new ArrayList<String>();
+		return new ArrayList<String>(Arrays.asList(s.split(",", -1)));
+	}
+
+	protected File tableFolder;
+
+	protected boolean readOnly;
+
+	protected List<String> parameterNames;
+
+	protected List<String> measureNames;
+
+	/**
+	 * The dictionaries of the parameter columns.
+	 */
+	protected List<List<String>> dictionaries;
+
+	protected List<Map<String, Integer>> dictionaryIndices;
+
+	/**
+	 * The number of committed rows.
+	 */
+	protected int rowCount;
+
+	/**
+	 * The minimal values of the parameter columns followed by those of the
+	 * measure columns.
+	 */
+	protected double[] minima;
+
+	protected double[] maxima;
+
+	/**
+	 * The opened column files, if the table is opened for writing.
+	 */
+	protected RandomAccessFile iterationColumn;
+
+	protected RandomAccessFile[] parameterColumns;
+
+	protected RandomAccessFile[] measureColumns;
+
+	protected DataOutputStream[] dictionaryOutputs;
+
+	protected QualityTable(final File tableFolder,
+			final List<String> parameterNames, final List<String> measureNames,
+			final boolean readOnly) throws IOException {
+		super();
+		this.tableFolder = tableFolder;
+		this.parameterNames = parameterNames;
+		this.measureNames = measureNames;
+		this.readOnly = readOnly;
+		int columns = parameterNames.size() + measureNames.size();
+		this.minima = new double[columns];
+		this.maxima = new double[columns];
+		Arrays.fill(this.minima, Double.NaN);
+		Arrays.fill(this.maxima, Double.NaN);
+
+		this.dictionaries = new ArrayList<List<String>>();
+		this.dictionaryIndices = new ArrayList<Map<String, Integer>>();
+		for (int p = 0; p < parameterNames.size(); p++)
+			this.readDictionary(p);
+
+		if (!readOnly) {
+			this.iterationColumn = new RandomAccessFile(this.getColumnFile(
+					"iteration", ".col"), "rw");
+			this.parameterColumns = new RandomAccessFile[parameterNames.size()];
+			this.dictionaryOutputs = new DataOutputStream[parameterNames
+					.size()];
+			for (int p = 0; p < parameterNames.size(); p++) {
+				this.parameterColumns[p] = new RandomAccessFile(
+						this.getColumnFile("p" + p, ".col"), "rw");
+				this.dictionaryOutputs[p] = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(
+								this.getColumnFile("p" + p, ".dict"), true)));
+			}
+			this.measureColumns = new RandomAccessFile[measureNames.size()];
+			for (int m = 0; m < measureNames.size(); m++)
+				this.measureColumns[m] = new RandomAccessFile(
+						this.getColumnFile("m" + m, ".col"), "rw");
+		}
+	}
+
+	protected File getColumnFile(final String name, final String extension) {
+		return new File(this.tableFolder, name + extension);
+	}
+
+	protected void readDictionary(final int parameter) throws IOException {
+		List<String> dictionary = new ArrayList<String>();
+		Map<String, Integer> indices = new HashMap<String, Integer>();
+		File file = this.getColumnFile("p" + parameter, ".dict");
+		long validLength = 0;
+		if (file.exists()) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)));
+			try {
+				while (true) {
+					String value = in.readUTF();
+					indices.put(value, dictionary.size());
+					dictionary.add(value);
+					validLength += 2 + utfLength(value);
+				}
+			} catch (EOFException e) {
+				// end of dictionary, possibly with an incomplete entry
+			} finally {
+				in.close();
+			}
+			if (!this.readOnly && validLength < file.length()) {
+				RandomAccessFile raf = new RandomAccessFile(file, "rw");
+				try {
+					raf.setLength(validLength);
+				} finally {
+					raf.close();
+				}
+			}
+		}
+		this.dictionaries.add(dictionary);
+		this.dictionaryIndices.add(indices);
+	}
+
+	/**
+	 * @return The number of bytes of the modified UTF-8 encoding used by
+	 *         {@link DataOutputStream#writeUTF(String)}.
+	 */
+	protected static int utfLength(final String s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F)
+				length++;
+			else if (c > 0x07FF)
+				length += 3;
+			else
+				length += 2;
+		}
+		return length;
+	}
+
+	protected void readStats() throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(new File(this.tableFolder, "stats"))));
+		try {
+			this.rowCount = in.readInt();
+			for (int i = 0; i < this.minima.length; i++) {
+				this.minima[i] = in.readDouble();
+				this.maxima[i] = in.readDouble();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	protected void writeStats() throws IOException {
+		File stats = new File(this.tableFolder, "stats");
+		File tmpFile = new File(this.tableFolder, "stats.tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tmpFile)));
+		try {
+			out.writeInt(this.rowCount);
+			for (int i = 0; i < this.minima.length; i++) {
+				out.writeDouble(this.minima[i]);
+				out.writeDouble(this.maxima[i]);
+			}
+		} finally {
+			out.close();
+		}
+		if (!tmpFile.renameTo(stats)) {
+			stats.delete();
+			if (!tmpFile.renameTo(stats))
+				throw new IOException("Could not write statistics of quality table "
+						+ this.tableFolder);
+		}
+	}
+
+	protected void discardUncommittedRows() throws IOException {
+		this.iterationColumn.setLength(8L * this.rowCount);
+		for (RandomAccessFile column : this.parameterColumns)
+			column.setLength(4L * this.rowCount);
+		for (RandomAccessFile column : this.measureColumns)
+			column.setLength(8L * this.rowCount);
+	}
+
+	/**
+	 * @return The folder of this table.
+	 */
+	public File getTableFolder() {
+		return this.tableFolder;
+	}
+
+	/**
+	 * @return The names of the parameters of this table.
+	 */
+	public List<String> getParameterNames() {
+		return Collections.unmodifiableList(this.parameterNames);
+	}
+
+	/**
+	 * @return The names of the quality measures of this table.
+	 */
+	public List<String> getMeasureNames() {
+		return Collections.unmodifiableList(this.measureNames);
+	}
+
+	/**
+	 * @return The number of rows, i.e. evaluated iterations, of this table.
+	 */
+	public synchronized int getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Appends the parameter set and qualities of one iteration.
+	 * 
+	 * @param iteration
+	 *            The number of the iteration.
+	 * @param paramSet
+	 *            The parameter set of the iteration.
+	 * @param qualities
+	 *            The qualities of the iteration. Measures without value or
+	 *            with a value of a not terminated iteration are stored as NaN.
+	 * @throws IOException
+	 */
+	public void append(final long iteration, final Map<String, String> paramSet,
+			final QualitySet qualities) throws IOException {
+		double[] measures = new double[this.measureNames.size()];
+		Arrays.fill(measures, Double.NaN);
+		if (qualities != null)
+			for (Map.Entry<QualityMeasure, QualityMeasureValue> entry : qualities
+					.entrySet()) {
+				int m = this.measureNames.indexOf(entry.getKey().getClass()
+						.getSimpleName());
+				if (m > -1 && entry.getValue().isTerminated())
+					measures[m] = entry.getValue().getValue();
+			}
+		this.append(iteration, paramSet, measures);
+	}
+
+	/**
+	 * Appends the parameter set and qualities of one iteration.
+	 * 
+	 * @param iteration
+	 *            The number of the iteration.
+	 * @param paramSet
+	 *            The parameter set of the iteration.
+	 * @param measures
+	 *            The qualities of the iteration in the order of
+	 *            {@link #getMeasureNames()}.
+	 * @throws IOException
+	 */
+	public synchronized void append(final long iteration,
+			final Map<String, String> paramSet, final double[] measures)
+			throws IOException {
+		if (this.readOnly)
+			throw new IOException("The quality table " + this.tableFolder
+					+ " is opened read only");
+		this.iterationColumn.seek(8L * this.rowCount);
+		this.iterationColumn.writeLong(iteration);
+
+		for (int p = 0; p < this.parameterNames.size(); p++) {
+			String value = paramSet.get(this.parameterNames.get(p));
+			if (value == null)
+				value = "";
+			Integer index = this.dictionaryIndices.get(p).get(value);
+			if (index == null) {
+				index = this.dictionaries.get(p).size();
+				this.dictionaryOutputs[p].writeUTF(value);
+				this.dictionaryOutputs[p].flush();
+				this.dictionaries.get(p).add(value);
+				this.dictionaryIndices.get(p).put(value, index);
+			}
+			this.parameterColumns[p].seek(4L * this.rowCount);
+			this.parameterColumns[p].writeInt(index);
+			if (paramSet instanceof ParameterSet)
+				this.updateStats(p, ((ParameterSet) paramSet)
+						.getDouble(this.parameterNames.get(p)));
+			else
+				this.updateStats(p, parseNumber(value));
+		}
+
+		for (int m = 0; m < this.measureNames.size(); m++) {
+			this.measureColumns[m].seek(8L * this.rowCount);
+			this.measureColumns[m].writeDouble(measures[m]);
+			this.updateStats(this.parameterNames.size() + m, measures[m]);
+		}
+
+		this.rowCount++;
+		this.writeStats();
+	}
+
+	protected void updateStats(final int column, final double value) {
+		if (Double.isNaN(value))
+			return;
+		if (Double.isNaN(this.minima[column]) || value < this.minima[column])
+			this.minima[column] = value;
+		if (Double.isNaN(this.maxima[column]) || value > this.maxima[column])
+			this.maxima[column] = value;
+	}
+
+	protected static double parseNumber(final String value) {
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	protected int getColumnIndex(final String column) {
+		int p = this.parameterNames.indexOf(column);
+		if (p > -1)
+			return p;
+		int m = this.measureNames.indexOf(column);
+		if (m > -1)
+			return this.parameterNames.size() + m;
+		throw new IllegalArgumentException("Unknown column: " + column);
+	}
+
+	/**
+	 * @param column
+	 *            The name of a parameter or quality measure.
+	 * @return The minimal (numeric) value of the column, or NaN if the column
+	 *         contains no numeric value.
+	 */
+	public synchronized double getMin(final String column) {
+		return this.minima[this.getColumnIndex(column)];
+	}
+
+	/**
+	 * @param column
+	 *            The name of a parameter or quality measure.
+	 * @return The maximal (numeric) value of the column, or NaN if the column
+	 *         contains no numeric value.
+	 */
+	public synchronized double getMax(final String column) {
+		return this.maxima[this.getColumnIndex(column)];
+	}
+
+	protected ByteBuffer mapColumn(final String name, final int width)
+			throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(this.getColumnFile(name,
+				".col"), "r");
+		try {
+			return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+					(long) width * this.rowCount);
+		} finally {
+			raf.close();
+		}
+	}
+
+	protected ByteBuffer mapMeasureColumn(final String measure)
+			throws IOException {
+		int m = this.measureNames.indexOf(measure);
+		if (m < 0)
+			throw new IllegalArgumentException("Unknown quality measure: "
+					+ measure);
+		return this.mapColumn("m" + m, 8);
+	}
+
+	protected ByteBuffer mapParameterColumn(final int parameter)
+			throws IOException {
+		return this.mapColumn("p" + parameter, 4);
+	}
+
+	protected int[] allRows() {
+		int[] rows = new int[this.rowCount];
+		for (int i = 0; i < rows.length; i++)
+			rows[i] = i;
+		return rows;
+	}
+
+	/**
+	 * Determines the rows with the best values of a quality measure. Rows of
+	 * iterations that did not terminate are ignored.
+	 * 
+	 * @param measure
+	 *            The name of the quality measure.
+	 * @param k
+	 *            The maximal number of rows to return.
+	 * @param higherIsBetter
+	 *            Whether higher values of the measure are better.
+	 * @return The indices of the best rows, ordered from best to worst.
+	 * @throws IOException
+	 */
+	public synchronized int[] bestK(final String measure, final int k,
+			final boolean higherIsBetter) throws IOException {
+		if (k <= 0 || this.rowCount == 0)
+			return new int[0];
+		final ByteBuffer column = this.mapMeasureColumn(measure);
+		// the heap keeps the k best rows with the worst one at its head
+		final Comparator<Integer> worstFirst = new Comparator<Integer>() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.util.Comparator#compare(java.lang.Object,
+			 * java.lang.Object)
+			 */
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				int cmp = Double.compare(column.getDouble(8 * o1),
+						column.getDouble(8 * o2));
+				if (cmp == 0)
+					// prefer earlier rows for equal values
+					return o2.compareTo(o1);
+				return higherIsBetter ? cmp : -cmp;
+			}
+		};
+		PriorityQueue<Integer> heap = new PriorityQueue<Integer>(k + 1,
+				worstFirst);
+		for (int row = 0; row < this.rowCount; row++) {
+			if (Double.isNaN(column.getDouble(8 * row)))
+				continue;
+			heap.add(row);
+			if (heap.size() > k)
+				heap.poll();
+		}
+		int[] result = new int[heap.size()];
+		for (int i = result.length - 1; i >= 0; i--)
+			result[i] = heap.poll();
+		return result;
+	}
+
+	/**
+	 * Determines the rows with the best values of a quality measure using
+	 * {@link QualityMeasure#isBetterThan(QualityMeasureValue, QualityMeasureValue)}
+	 * to determine the direction of the measure.
+	 * 
+	 * @param measure
+	 *            The quality measure.
+	 * @param k
+	 *            The maximal number of rows to return.
+	 * @return The indices of the best rows, ordered from best to worst.
+	 * @throws IOException
+	 */
+	public int[] bestK(final QualityMeasure measure, final int k)
+			throws IOException {
+		boolean higherIsBetter = measure.isBetterThan(
+				QualityMeasureValue.getForDouble(1.0),
+				QualityMeasureValue.getForDouble(0.0));
+		return this.bestK(measure.getClass().getSimpleName(), k,
+				higherIsBetter);
+	}
+
+	/**
+	 * Determines the rows whose value in the given column lies in the given
+	 * closed interval. Parameter values are compared by their numeric value;
+	 * non-numeric parameter values never match.
+	 * 
+	 * <p>
+	 * The column statistics are used to answer the query without reading the
+	 * column, if the interval does not overlap the values of the column.
+	 * 
+	 * @param column
+	 *            The name of a parameter or quality measure.
+	 * @param min
+	 *            The lower bound of the interval.
+	 * @param max
+	 *            The upper bound of the interval.
+	 * @return The indices of the matching rows in ascending order.
+	 * @throws IOException
+	 */
+	public synchronized int[] range(final String column, final double min,
+			final double max) throws IOException {
+		int columnIndex = this.getColumnIndex(column);
+		double columnMin = this.minima[columnIndex];
+		double columnMax = this.maxima[columnIndex];
+		if (this.rowCount == 0 || Double.isNaN(columnMin) || columnMax < min
+				|| columnMin > max)
+			return new int[0];
+
+		int[] rows = new int[this.rowCount];
+		int count = 0;
+		if (columnIndex < this.parameterNames.size()) {
+			// evaluate the condition once per dictionary entry
+			List<String> dictionary = this.dictionaries.get(columnIndex);
+			boolean[] matches = new boolean[dictionary.size()];
+			for (int i = 0; i < matches.length; i++) {
+				double value = parseNumber(dictionary.get(i));
+				matches[i] = value >= min && value <= max;
+			}
+			ByteBuffer buffer = this.mapParameterColumn(columnIndex);
+			for (int row = 0; row < this.rowCount; row++)
+				if (matches[buffer.getInt(4 * row)])
+					rows[count++] = row;
+		} else {
+			ByteBuffer buffer = this.mapMeasureColumn(column);
+			for (int row = 0; row < this.rowCount; row++) {
+				double value = buffer.getDouble(8 * row);
+				if (value >= min && value <= max)
+					rows[count++] = row;
+			}
+		}
+		return Arrays.copyOf(rows, count);
+	}
+
+	/**
+	 * @param rows
+	 *            The indices of the rows, or null for all rows.
+	 * @return The iteration numbers of the given rows.
+	 * @throws IOException
+	 */
+	public synchronized long[] getIterations(int[] rows) throws IOException {
+		if (rows == null)
+			rows = this.allRows();
+		ByteBuffer buffer = this.mapColumn("iteration", 8);
+		long[] result = new long[rows.length];
+		for (int i = 0; i < rows.length; i++)
+			result[i] = buffer.getLong(8 * rows[i]);
+		return result;
+	}
+
+	/**
+	 * @param measure
+	 *            The name of the quality measure.
+	 * @param rows
+	 *            The indices of the rows, or null for all rows.
+	 * @return The values of the quality measure in the given rows; NaN for
+	 *         iterations that did not terminate.
+	 * @throws IOException
+	 */
+	public synchronized double[] getMeasureValues(final String measure,
+			int[] rows) throws IOException {
+		if (rows == null)
+			rows = this.allRows();
+		ByteBuffer buffer = this.mapMeasureColumn(measure);
+		double[] result = new double[rows.length];
+		for (int i = 0; i < rows.length; i++)
+			result[i] = buffer.getDouble(8 * rows[i]);
+		return result;
+	}
+
+	/**
+	 * @param parameter
+	 *            The name of the parameter.
+	 * @param rows
+	 *            The indices of the rows, or null for all rows.
+	 * @return The values of the parameter in the given rows.
+	 * @throws IOException
+	 */
+	public synchronized String[] getParameterValues(final String parameter,
+			int[] rows) throws IOException {
+		int p = this.parameterNames.indexOf(parameter);
+		if (p < 0)
+			throw new IllegalArgumentException("Unknown parameter: "
+					+ parameter);
+		if (rows == null)
+			rows = this.allRows();
+		ByteBuffer buffer = this.mapParameterColumn(p);
+		List<String> dictionary = this.dictionaries.get(p);
+		String[] result = new String[rows.length];
+		for (int i = 0; i < rows.length; i++)
+			result[i] = dictionary.get(buffer.getInt(4 * rows[i]));
+		return result;
+	}
+
+	/**
+	 * @param rows
+	 *            The indices of the rows, or null for all rows.
+	 * @return The parameter sets of the given rows.
+	 * @throws IOException
+	 */
+	public synchronized List<ParameterSet> getParameterSets(int[] rows)
+			throws IOException {
+		if (rows == null)
+			rows = this.allRows();
+		List<ParameterSet> result = new ArrayList<ParameterSet>(rows.length);
+		for (int i = 0; i < rows.length; i++)
+			result.add(new ParameterSet());
+		for (String parameter : this.parameterNames) {
+			String[] values = this.getParameterValues(parameter, rows);
+			for (int i = 0; i < rows.length; i++)
+				result.get(i).put(parameter, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the contents of this table in the format of the
+	 * <i>.results.qual.complete</i> file.
+	 * 
+	 * @param target
+	 *            The file to write into.
+	 * @throws IOException
+	 */
+	public synchronized void exportTsv(final File target) throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(target));
+		try {
+			writer.write("iteration\t");
+			for (int p = 0; p < this.parameterNames.size(); p++) {
+				if (p > 0)
+					writer.write(",");
+				writer.write(this.parameterNames.get(p));
+			}
+			for (String measure : this.measureNames) {
+				writer.write("\t");
+				writer.write(measure);
+			}
+			writer.write("\n");
+
+			long[] iterations = this.getIterations(null);
+			String[][] params = new String[this.parameterNames.size()][];
+			for (int p = 0; p < params.length; p++)
+				params[p] = this.getParameterValues(this.parameterNames.get(p),
+						null);
+			double[][] measures = new double[this.measureNames.size()][];
+			for (int m = 0; m < measures.length; m++)
+				measures[m] = this.getMeasureValues(this.measureNames.get(m),
+						null);
+
+			for (int row = 0; row < this.rowCount; row++) {
+				writer.write(Long.toString(iterations[row]));
+				writer.write("\t");
+				for (int p = 0; p < params.length; p++) {
+					if (p > 0)
+						writer.write(",");
+					writer.write(params[p][row]);
+				}
+				for (int m = 0; m < measures.length; m++) {
+					writer.write("\t");
+					if (Double.isNaN(measures[m][row]))
+						writer.write(QualityMeasureValue.getForNotTerminated()
+								.toString());
+					else
+						writer.write(Double.toString(measures[m][row]));
+				}
+				writer.write("\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.readOnly)
+			return;
+		this.iterationColumn.close();
+		for (RandomAccessFile column : this.parameterColumns)
+			column.close();
+		for (DataOutputStream out : this.dictionaryOutputs)
+			out.close();
+		for (RandomAccessFile column : this.measureColumns)
+			column.close();
+	}
+}
@@ -14,10 +14,16 @@
 package de.clusteval.run.result.format;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import utils.parse.TextFileParser;
 import de.clusteval.data.DataConfig;
+import de.clusteval.data.dataset.NodeIdLabelIndex;
+import de.clusteval.graphmatching.GraphMatchingWriter;
 
 /**
  * @author Christian Wiwie
@@ -31,6 +37,14 @@ public abstract class RunResultFormatParser extends TextFileParser {
 
 	protected DataConfig dataConfig;
 
+	protected Logger log = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * The node id indices of the graphs of the data configuration, initialized
+	 * on first use by {@link #getNodeLabel(int, String)}.
+	 */
+	protected List<NodeIdLabelIndex> nodeIdLabelIndices;
+
 	/**
 	 * Instantiates a new run result format parser.
 	 * 
@@ -117,6 +131,43 @@ public abstract class RunResultFormatParser extends TextFileParser {
 	 */
 	public abstract void convertToStandardFormat() throws IOException;
 
+	/**
+	 * This method translates a node id as used by the clustering method into
+	 * the label of the corresponding vertex, using the persisted node id index
+	 * of the dataset configuration. Lookups are constant time and do not
+	 * require any maps to be built from the graphs.
+	 * 
+	 * @param graphIndex
+	 *            The index of the graph the node belongs to.
+	 * @param nodeId
+	 *            The id of the node.
+	 * @return The label of the vertex, or the node id itself if the index
+	 *         does not contain it.
+	 * @throws IllegalStateException
+	 *             If the node id index of the graph could not be opened.
+	 */
+	protected String getNodeLabel(final int graphIndex, final String nodeId) {
+		if (this.nodeIdLabelIndices == null) {
+			try {
+				this.nodeIdLabelIndices = this.dataConfig.getDatasetConfig()
+						.getNodeIdLabelIndices();
+			} catch (Exception e) {
+				this.log.error("Could not open the node id index of "
+						+ this.dataConfig.getDatasetConfig() + ": "
+						+ e.getMessage());
+				throw new IllegalStateException(
+						"No node id index available for "
+								+ this.dataConfig.getDatasetConfig(), e);
+			}
+		}
+		if (graphIndex >= this.nodeIdLabelIndices.size())
+			throw new IllegalStateException("No node id index available for graph "
+					+ graphIndex + " of " + this.dataConfig.getDatasetConfig());
+		final String label = this.nodeIdLabelIndices.get(graphIndex).getLabel(
+				nodeId);
+		return label != null ? label : nodeId;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -126,31 +177,40 @@ public abstract class RunResultFormatParser extends TextFileParser {
 	@SuppressWarnings("unused")
 	@Override
 	protected String getLineOutput(String[] key, String[] value) {
-		StringBuilder sb = new StringBuilder();
 		// write the header into the file containing the parameter values
-		if (this.parsedLines == 0) {
-			String[] paramNames = params.keySet().toArray(new String[0]);
+		if (this.parsedLines == 0)
+			return GraphMatchingWriter.formatHeader(this.params);
+		return "";
+	}
 
-			for (String paramName : paramNames) {
-				sb.append(paramName);
-				sb.append(",");
-			}
-			if (paramNames.length > 0)
-				sb.deleteCharAt(sb.length() - 1);
-			sb.append("\t");
-			sb.append("Matching");
-			sb.append(System.getProperty("line.separator"));
-
-			for (String paramName : paramNames) {
-				sb.append(params.get(paramName));
-				sb.append(",");
-			}
-			if (paramNames.length > 0)
-				sb.deleteCharAt(sb.length() - 1);
-			sb.append(this.outSplit);
-		}
+	/**
+	 * Subclasses use this method in {@link #getLineOutput(String[], String[])}
+	 * to stream a single matched pair into the converted file, such that the
+	 * converted matching never has to be held in memory completely.
+	 * 
+	 * @param first
+	 *            The vertex of the first graph.
+	 * @param second
+	 *            The vertex of the second graph.
+	 * @return The line of the standard format for the given pair.
+	 */
+	protected String getMatchingOutput(final String first, final String second) {
+		return GraphMatchingWriter.formatPair(first, second);
+	}
 
-		return sb.toString();
+	/**
+	 * @param first
+	 *            The vertex of the first graph.
+	 * @param second
+	 *            The vertex of the second graph.
+	 * @param score
+	 *            The score the clustering method assigned to the pair.
+	 * @return The line of the standard format for the given pair.
+	 * @see #getMatchingOutput(String, String)
+	 */
+	protected String getMatchingOutput(final String first,
+			final String second, final double score) {
+		return GraphMatchingWriter.formatPair(first, second, score);
 	}
 
 }
@@ -13,17 +13,22 @@
  */
 package de.clusteval.run.runnable;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.rosuda.REngine.REXPMismatchException;
 import org.rosuda.REngine.REngineException;
@@ -33,6 +38,7 @@ import utils.Triple;
 import de.clusteval.data.DataConfig;
 import de.clusteval.data.dataset.DataSet;
 import de.clusteval.data.dataset.DataSetConfig;
+import de.clusteval.data.dataset.VertexDictionary;
 import de.clusteval.data.dataset.format.DataSetFormat;
 import de.clusteval.data.dataset.format.IncompatibleDataSetFormatException;
 import de.clusteval.data.dataset.format.InvalidDataSetFormatVersionException;
@@ -42,19 +48,33 @@ import de.clusteval.data.goldstandard.IncompleteGoldStandardException;
 import de.clusteval.data.goldstandard.format.UnknownGoldStandardFormatException;
 import de.clusteval.framework.ClustevalBackendServer;
 import de.clusteval.framework.RLibraryNotLoadedException;
+import de.clusteval.framework.distributed.NoWorkerAvailableException;
+import de.clusteval.framework.distributed.RemoteExecution;
+import de.clusteval.framework.distributed.RemoteExecutionResult;
+import de.clusteval.framework.distributed.WorkCoordinator;
 import de.clusteval.framework.repository.RegisterException;
+import de.clusteval.framework.threading.EvaluationPool;
+import de.clusteval.framework.threading.ProcessSupervisor;
+import de.clusteval.framework.threading.ProcessUsage;
+import de.clusteval.framework.threading.ResourceDemand;
 import de.clusteval.graphmatching.GraphMatching;
+import de.clusteval.graphmatching.GraphMatchingBinaryCodec;
 import de.clusteval.paramOptimization.NoParameterSetFoundException;
 import de.clusteval.program.ParameterSet;
 import de.clusteval.program.ProgramConfig;
 import de.clusteval.program.ProgramParameter;
+import de.clusteval.program.StandaloneProgram;
 import de.clusteval.program.r.RProgram;
 import de.clusteval.quality.QualityMeasure;
 import de.clusteval.quality.QualitySet;
+import de.clusteval.quality.ResourceUsageQualityMeasure;
 import de.clusteval.run.ExecutionRun;
 import de.clusteval.run.MissingParameterValueException;
 import de.clusteval.run.Run;
+import de.clusteval.run.result.ExecutionCache;
 import de.clusteval.run.result.GraphMatchingRunResult;
+import de.clusteval.run.result.IterationArchive;
+import de.clusteval.run.result.QualityTable;
 import de.clusteval.run.result.NoRunResultFormatParserException;
 import de.clusteval.run.result.format.RunResultFormat;
 import de.clusteval.run.result.format.RunResultNotFoundException;
@@ -153,6 +173,47 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 	 */
 	protected int optId;
 
+	/**
+	 * The archive the files of every iteration are appended to, if this is
+	 * enabled in the repository configuration. It is opened in the first
+	 * iteration and closed in {@link #afterRun()}.
+	 */
+	protected IterationArchive iterationArchive;
+
+	/**
+	 * The columnar quality table corresponding to the
+	 * {@link #completeQualityOutput}. It is opened in {@link #beforeRun()} and
+	 * closed in {@link #afterRun()}.
+	 */
+	protected QualityTable qualityTable;
+
+	/**
+	 * The resources used by the program in the current iteration. They are
+	 * sampled while the program is executed and set as values of the
+	 * {@link ResourceUsageQualityMeasure}s of the run.
+	 */
+	protected ProcessUsage processUsage;
+
+	/**
+	 * The key of the execution of the current iteration in the
+	 * {@link ExecutionCache} of the repository, or null if the program is not
+	 * deterministic.
+	 */
+	protected String executionCacheKey;
+
+	/**
+	 * The cached execution of the current iteration, or null if the program
+	 * has to be executed.
+	 */
+	protected ExecutionCache.Entry cachedExecution;
+
+	/**
+	 * The evaluations of finished iterations, that have not been committed
+	 * yet, in the order of the iterations (see
+	 * {@link #finishIteration(IterationState, boolean)}).
+	 */
+	protected LinkedList<Future<IterationEvaluation>> pendingEvaluations = new LinkedList<Future<IterationEvaluation>>();
+
 	/**
 	 * @param run
 	 *            The run this runnable belongs to.
@@ -186,6 +247,23 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 		return (ExecutionRun) super.getRun();
 	}
 
+	/**
+	 * The resources of execution runnables are declared in their program
+	 * configuration (see {@link ProgramConfig#getResourceDemand(DataConfig)}).
+	 * 
+	 * @see de.clusteval.run.runnable.RunRunnable#getResourceDemand()
+	 */
+	@Override
+	public ResourceDemand getResourceDemand() {
+		try {
+			return this.programConfig.getResourceDemand(this.dataConfig);
+		} catch (InternalAttributeException e) {
+			this.log.warn("Could not evaluate the expected resources of "
+					+ this.programConfig + ": " + e.getMessage());
+			return super.getResourceDemand();
+		}
+	}
+
 	/**
 	 * A helper method to write a header into the complete quality output in the
 	 * beginning.
@@ -734,14 +812,20 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 	 * settings asynchronously. It waits until the second process finishes.
 	 * <p>
 	 * The result file of the clustering method is converted to the standard
-	 * result format by invoking {@link #convertResult()}.
+	 * result format by invoking {@link #convertResult(IterationState)}.
 	 * <p>
 	 * Next the qualities of the converted result file are assessed in
-	 * {@link #assessQualities(GraphMatchingRunResult)}.
+	 * {@link #assessQualities(IterationState, GraphMatchingRunResult)}.
 	 * <p>
 	 * Then it invokes {@link #writeQualitiesToFile(List)}, which writes the
 	 * assessed cluster qualities into files on the filesystem.
 	 * <p>
+	 * The conversion and the quality assessment are performed by the
+	 * {@link EvaluationPool}, such that the next iteration can be
+	 * executed in the meantime. The qualities are written when the evaluation
+	 * is committed, in the order of the iterations (see
+	 * {@link #finishIteration(IterationState, boolean)}).
+	 * <p>
 	 * In {@link #afterClustering(GraphMatchingRunResult)} all actions are
 	 * performed, that require the clustering process to be finished beforehand.
 	 * <p>
@@ -768,6 +852,175 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 			RegisterException, IOException, NoRunResultFormatParserException,
 			NoParameterSetFoundException, RNotAvailableException,
 			RLibraryNotLoadedException {
+		this.waitWhilePaused();
+
+		/*
+		 * We check from time to time, whether this run got the order to
+		 * terminate.
+		 */
+		if (checkForInterrupted())
+			return;
+
+		String[] invocation = this.prepareIteration();
+
+		/*
+		 * We check from time to time, whether this run got the order to
+		 * terminate.
+		 */
+		if (checkForInterrupted())
+			return;
+
+		IterationState state = this.saveIterationState(invocation);
+		this.processUsage = state.processUsage;
+		boolean executed = state.isCached()
+				|| this.executeProgram(invocation, effectiveParams,
+						internalParams, logFile, clusteringResultFile,
+						this.processUsage);
+
+		this.finishIteration(state, executed);
+	}
+
+	/**
+	 * The state of one iteration of an execution run runnable, that is held in
+	 * the attributes of the runnable while the iteration is performed. It is
+	 * used to prepare several iterations, before they are finished one after
+	 * another.
+	 */
+	protected static class IterationState {
+
+		protected int optId;
+
+		protected DataConfig dataConfig;
+
+		protected String[] invocation;
+
+		protected Map<String, String> effectiveParams;
+
+		protected Map<String, String> internalParams;
+
+		protected File logFile;
+
+		protected File clusteringResultFile;
+
+		protected File resultQualityFile;
+
+		protected GraphMatchingRunResult result;
+
+		protected ProcessUsage processUsage;
+
+		protected String executionCacheKey;
+
+		protected ExecutionCache.Entry cachedExecution;
+
+		/**
+		 * @return The invocation line of the program in this iteration.
+		 */
+		public String[] getInvocation() {
+			return this.invocation;
+		}
+
+		/**
+		 * @return The effective parameters of this iteration.
+		 */
+		public Map<String, String> getEffectiveParams() {
+			return this.effectiveParams;
+		}
+
+		/**
+		 * @return The internal parameters of this iteration.
+		 */
+		public Map<String, String> getInternalParams() {
+			return this.internalParams;
+		}
+
+		/**
+		 * @return The file the output of the program is written to.
+		 */
+		public File getLogFile() {
+			return this.logFile;
+		}
+
+		/**
+		 * @return The file the program writes its result to.
+		 */
+		public File getClusteringResultFile() {
+			return this.clusteringResultFile;
+		}
+
+		/**
+		 * @return The resources used by the program in this iteration.
+		 */
+		public ProcessUsage getProcessUsage() {
+			return this.processUsage;
+		}
+
+		/**
+		 * @return True, if the execution of this iteration is reused from the
+		 *         {@link ExecutionCache} and the program does not have to be
+		 *         executed.
+		 */
+		public boolean isCached() {
+			return this.cachedExecution != null;
+		}
+	}
+
+	/**
+	 * @param invocation
+	 *            The invocation line of the current iteration as returned by
+	 *            {@link #prepareIteration()}.
+	 * @return The state of the current iteration.
+	 */
+	protected IterationState saveIterationState(final String[] invocation) {
+		IterationState state = this.getCurrentIterationState();
+		state.invocation = invocation;
+		state.processUsage = new ProcessUsage();
+		return state;
+	}
+
+	/**
+	 * @return The state held in the attributes of this runnable, including
+	 *         the resources used so far.
+	 */
+	protected IterationState getCurrentIterationState() {
+		IterationState state = new IterationState();
+		state.optId = this.optId;
+		state.dataConfig = this.dataConfig;
+		state.effectiveParams = this.effectiveParams;
+		state.internalParams = this.internalParams;
+		state.logFile = this.logFile;
+		state.clusteringResultFile = this.clusteringResultFile;
+		state.resultQualityFile = this.resultQualityFile;
+		state.result = this.result;
+		state.processUsage = this.processUsage;
+		state.executionCacheKey = this.executionCacheKey;
+		state.cachedExecution = this.cachedExecution;
+		return state;
+	}
+
+	/**
+	 * @param state
+	 *            The state of an iteration, that becomes the current
+	 *            iteration of this runnable.
+	 */
+	protected void restoreIterationState(final IterationState state) {
+		this.optId = state.optId;
+		this.dataConfig = state.dataConfig;
+		this.effectiveParams = state.effectiveParams;
+		this.internalParams = state.internalParams;
+		this.logFile = state.logFile;
+		this.clusteringResultFile = state.clusteringResultFile;
+		this.resultQualityFile = state.resultQualityFile;
+		this.result = state.result;
+		this.processUsage = state.processUsage;
+		this.executionCacheKey = state.executionCacheKey;
+		this.cachedExecution = state.cachedExecution;
+	}
+
+	/**
+	 * Helper method of {@link #doRunIteration()}, which blocks as long as this
+	 * runnable is paused.
+	 */
+	protected void waitWhilePaused() {
 		if (this.isPaused()) {
 			log.info("Pausing...");
 			this.runningTime += System.currentTimeMillis() - this.lastStartTime;
@@ -780,14 +1033,20 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 			log.info("Resuming...");
 			this.lastStartTime = System.currentTimeMillis();
 		}
+	}
 
-		/*
-		 * We check from time to time, whether this run got the order to
-		 * terminate.
-		 */
-		if (checkForInterrupted())
-			return;
-
+	/**
+	 * Helper method of {@link #doRunIteration()}, which initializes the files,
+	 * the parameters and the run result of the current iteration
+	 * {@link #optId}.
+	 * 
+	 * @return The invocation line of the program for the current iteration.
+	 * @throws InternalAttributeException
+	 * @throws RegisterException
+	 * @throws NoParameterSetFoundException
+	 */
+	protected String[] prepareIteration() throws InternalAttributeException,
+			RegisterException, NoParameterSetFoundException {
 		this.initAndEnsureIterationFilesAndFolders();
 
 		/*
@@ -809,101 +1068,534 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 		this.result = new GraphMatchingRunResult(this.getRun().getRepository(),
 				System.currentTimeMillis(), clusteringResultFile, dataConfig,
 				programConfig, format, runThreadIdentString, run);
-		try {
-			/*
-			 * We check from time to time, whether this run got the order to
-			 * terminate.
-			 */
-			if (checkForInterrupted())
-				return;
-
-			Process proc = programConfig.getProgram().exec(dataConfig,
-					programConfig, invocation, effectiveParams, internalParams);
-
-			BufferedWriter bw = new BufferedWriter(new FileWriter(logFile));
-
-			if (proc != null) {
-				new StreamGobbler(proc.getInputStream(), bw).start();
-				new StreamGobbler(proc.getErrorStream(), bw).start();
-
-				// check that the process is not running longer than specified
-				long startTime = System.currentTimeMillis();
-				long methodMaxTime = this.getRun().getRepository()
-						.getRepositoryConfig().getMethodMaxTime();
-
-				while (methodMaxTime > -1 && isProcessAlive(proc)) {
-					if ((System.currentTimeMillis() - startTime) / 1000 > methodMaxTime) {
-						this.log.info("Terminating process, because it was running longer than the maximal allowed time of "
-								+ Formatter.formatMsToDuration(
-										methodMaxTime * 1000, false));
-						proc.destroy();
-						break;
-					}
-					try {
-						Thread.sleep(100);
-					} catch (InterruptedException e) {
-					}
-				}
 
-				try {
-					proc.waitFor();
-				} catch (InterruptedException e) {
+		this.executionCacheKey = this.computeExecutionCacheKey();
+		this.cachedExecution = null;
+		if (this.executionCacheKey != null) {
+			this.cachedExecution = this.getRun().getRepository()
+					.getExecutionCache().get(this.executionCacheKey);
+			if (this.cachedExecution != null)
+				this.log.debug(this.getRun() + " (" + this.programConfig + ","
+						+ this.dataConfig
+						+ ") Reusing cached execution with the same parameters");
+		}
+		return invocation;
+	}
 
-				}
+	/**
+	 * Helper method of {@link #prepareIteration()}, which computes the key of
+	 * the execution of the current iteration in the {@link ExecutionCache}
+	 * from the program binary, the invocation format, the effective
+	 * parameters and the input files.
+	 * 
+	 * @return The key of the execution, or null if the program is not
+	 *         deterministic or the key could not be computed.
+	 */
+	protected String computeExecutionCacheKey() {
+		if (!this.programConfig.isDeterministic())
+			return null;
+		try {
+			List<File> inputs = new ArrayList<File>();
+			for (Triple<String, DataSet, String> dataSet : this.dataConfig
+					.getDatasetConfig().getDataSets())
+				inputs.add(new File(dataSet.getSecond().getAbsolutePath()));
+			if (this.dataConfig.hasGoldStandardConfig())
+				inputs.add(new File(this.dataConfig.getGoldstandardConfig()
+						.getGoldstandard().getAbsolutePath()));
+			return ExecutionCache.computeKey(new File(this.programConfig
+					.getProgram().getAbsolutePath()), this
+					.getInvocationFormat(), this.format.getClass().getName(),
+					this.effectiveParams, inputs);
+		} catch (IOException e) {
+			this.log.warn("Could not compute the execution cache key: "
+					+ e.getMessage());
+			return null;
+		}
+	}
 
-				// TODO use exit value
-				// proc.exitValue()
+	/**
+	 * Helper method of {@link #doRunIteration()}, which executes the program
+	 * and waits for it to terminate.
+	 * 
+	 * <p>
+	 * This method only uses its parameters and does not change the state of
+	 * this runnable. Thus it can be invoked concurrently for several
+	 * iterations of programs that are not executed in R.
+	 * 
+	 * <p>
+	 * If worker nodes are registered at the {@link WorkCoordinator} of this
+	 * process, standalone programs are executed by a worker node (see
+	 * {@link #executeProgramRemotely(StandaloneProgram, String[], File, File, ProcessUsage)}
+	 * ).
+	 * 
+	 * @param invocation
+	 *            The invocation line of the program.
+	 * @param effectiveParams
+	 *            The effective parameters of the iteration.
+	 * @param internalParams
+	 *            The internal parameters of the iteration.
+	 * @param logFile
+	 *            The file the output of the program is written to.
+	 * @param resultFile
+	 *            The file the program writes its result to.
+	 * @param usage
+	 *            The resources used by the program are sampled into this
+	 *            object.
+	 * @return False, if the program could not be executed in R.
+	 * @throws IOException
+	 * @throws RNotAvailableException
+	 * @throws RLibraryNotLoadedException
+	 */
+	protected boolean executeProgram(final String[] invocation,
+			final Map<String, String> effectiveParams,
+			final Map<String, String> internalParams, final File logFile,
+			final File resultFile, final ProcessUsage usage)
+			throws IOException, RNotAvailableException,
+			RLibraryNotLoadedException {
+		if (programConfig.getProgram() instanceof StandaloneProgram
+				&& WorkCoordinator.getInstance().hasWorkers()) {
+			try {
+				return this.executeProgramRemotely(
+						(StandaloneProgram) programConfig.getProgram(),
+						invocation, logFile, resultFile, usage);
+			} catch (NoWorkerAvailableException e) {
+				// the last worker node was lost in the meantime
+				this.log.debug("Executing the program locally: "
+						+ e.getMessage());
 			}
+		}
 
+		Process proc;
+		try {
+			proc = programConfig.getProgram().exec(dataConfig, programConfig,
+					invocation, effectiveParams, internalParams, logFile);
+		} catch (REngineException e) {
+			return false;
+		} catch (REXPMismatchException e) {
+			return false;
+		}
+
+		if (proc != null) {
+			// the output is redirected into the log file; we only block until
+			// the process terminates and let the shared supervisor kill it, if
+			// it is running longer than specified
+			long methodMaxTime = this.getRun().getRepository()
+					.getRepositoryConfig().getMethodMaxTime();
+
+			if (!ProcessSupervisor.getInstance().waitFor(proc, methodMaxTime,
+					TimeUnit.SECONDS, usage)
+					&& !Thread.currentThread().isInterrupted())
+				this.log.info("Terminated process, because it was running longer than the maximal allowed time of "
+						+ Formatter.formatMsToDuration(methodMaxTime * 1000,
+								false));
+
+			// TODO use exit value
+			// proc.exitValue()
+		}
+		return true;
+	}
+
+	/**
+	 * Helper method of
+	 * {@link #executeProgram(String[], Map, Map, File, File, ProcessUsage)},
+	 * which executes the program on a worker node and waits for the log and
+	 * result files to be streamed back.
+	 * 
+	 * <p>
+	 * If the execution fails on all worker nodes it is assigned to, the run
+	 * result of the iteration is handled as missing.
+	 * 
+	 * @param program
+	 *            The program to execute.
+	 * @param invocation
+	 *            The invocation line of the program.
+	 * @param logFile
+	 *            The file the output of the program is written to.
+	 * @param resultFile
+	 *            The file the program writes its result to.
+	 * @param usage
+	 *            The resources used by the program on the worker node are
+	 *            added to this object.
+	 * @return True.
+	 * @throws NoWorkerAvailableException
+	 *             If no worker node is registered; then the program has to be
+	 *             executed locally.
+	 */
+	protected boolean executeProgramRemotely(final StandaloneProgram program,
+			final String[] invocation, final File logFile,
+			final File resultFile, final ProcessUsage usage)
+			throws NoWorkerAvailableException {
+		ProcessBuilder builder = program.createProcessBuilder(programConfig,
+				invocation);
+		long methodMaxTime = this.getRun().getRepository()
+				.getRepositoryConfig().getMethodMaxTime();
+		Future<RemoteExecutionResult> execution = WorkCoordinator
+				.getInstance().submit(
+						new RemoteExecution(invocation, builder.directory(),
+								builder.environment(), logFile, resultFile,
+								methodMaxTime, this.getResourceDemand()));
+
+		RemoteExecutionResult result;
+		try {
+			result = execution.get();
+		} catch (InterruptedException e) {
+			// terminates the process on the worker node
+			execution.cancel(true);
+			Thread.currentThread().interrupt();
+			return true;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof NoWorkerAvailableException)
+				throw (NoWorkerAvailableException) e.getCause();
+			this.log.warn(this.getRun() + " (" + this.programConfig + ","
+					+ this.dataConfig + ") " + e.getCause().getMessage());
+			return true;
+		}
+
+		result.addUsageTo(usage);
+		this.log.debug(this.getRun() + " (" + this.programConfig + ","
+				+ this.dataConfig + ") Executed on worker node "
+				+ result.getWorkerId());
+		if (result.isKilled())
+			this.log.info("Terminated process, because it was running longer than the maximal allowed time of "
+					+ Formatter.formatMsToDuration(methodMaxTime * 1000, false));
+		return true;
+	}
+
+	/**
+	 * Helper method of {@link #doRunIteration()}, which evaluates a finished
+	 * iteration and commits its qualities.
+	 * 
+	 * <p>
+	 * The evaluation is submitted to the {@link EvaluationPool} shared by all
+	 * runs of this process, which evaluates the iterations of this runnable
+	 * in the order they were executed. If the evaluation queue of the
+	 * repository is enabled (see {@link #getEvaluationQueueSize()}), this
+	 * method returns immediately; if the queue is full, it first waits for the
+	 * oldest pending evaluation and commits it. Otherwise this method waits
+	 * for the evaluation and commits it.
+	 * 
+	 * @param state
+	 *            The state of the finished iteration.
+	 * @param programExecuted
+	 *            False, if the program could not be executed; then the run
+	 *            result is handled as missing.
+	 * @throws IOException
+	 * @throws NoRunResultFormatParserException
+	 * @throws RNotAvailableException
+	 */
+	protected void finishIteration(final IterationState state,
+			final boolean programExecuted) throws IOException,
+			NoRunResultFormatParserException, RNotAvailableException {
+		int queueSize = this.getEvaluationQueueSize();
+		while (this.pendingEvaluations.size() >= Math.max(queueSize, 1))
+			this.commitNextEvaluation();
+
+		Future<IterationEvaluation> evaluation;
+		try {
+			evaluation = this.getEvaluationPool().submit(
+					new Callable<IterationEvaluation>() {
+
+						/*
+						 * (non-Javadoc)
+						 * 
+						 * @see java.util.concurrent.Callable#call()
+						 */
+						@Override
+						public IterationEvaluation call() throws Exception {
+							return evaluateIteration(state, programExecuted);
+						}
+					}, this.getRun().getRunIdentificationString(),
+					this.getEvaluationSourceId());
+		} catch (InterruptedException e) {
+			// we were interrupted while the pool was full; evaluate the
+			// iteration ourselves and keep the order of the iterations
+			this.commitPendingEvaluations();
+			this.commitIteration(this.evaluateIteration(state, programExecuted));
+			Thread.currentThread().interrupt();
+			return;
+		}
+		this.pendingEvaluations.add(evaluation);
+		if (queueSize < 1)
+			this.commitNextEvaluation();
+	}
+
+	/**
+	 * @return The pool evaluating the finished iterations of this runnable.
+	 */
+	protected EvaluationPool getEvaluationPool() {
+		return EvaluationPool.getInstance();
+	}
+
+	/**
+	 * @return The id of this runnable within its run, which is used to
+	 *         evaluate the iterations of this runnable one after another in
+	 *         the {@link EvaluationPool}.
+	 */
+	protected String getEvaluationSourceId() {
+		return this.programConfig + "," + this.dataConfig;
+	}
+
+	/**
+	 * @return The maximal number of finished iterations of this runnable,
+	 *         whose evaluation is pending while the next iteration is
+	 *         executed; 0 if iterations are evaluated one after another.
+	 */
+	protected int getEvaluationQueueSize() {
+		return this.getRun().getRepository().getRepositoryConfig()
+				.getEvaluationQueueSize();
+	}
+
+	/**
+	 * The converted result and the assessed qualities of a finished
+	 * iteration, that still have to be committed.
+	 */
+	protected static class IterationEvaluation {
+
+		protected IterationState state;
+
+		/**
+		 * True, if the run was interrupted before the iteration was
+		 * evaluated; then nothing is committed.
+		 */
+		protected boolean interrupted;
+
+		/**
+		 * True, if the result of the iteration could not be found or
+		 * converted.
+		 */
+		protected boolean missing;
+
+		protected GraphMatchingRunResult convertedResult;
+
+		protected List<Pair<ParameterSet, QualitySet>> qualities;
+	}
+
+	/**
+	 * Helper method of {@link #finishIteration(IterationState, boolean)},
+	 * which converts the result of an iteration and assesses its qualities.
+	 * 
+	 * <p>
+	 * This method only uses the given state and does not change the
+	 * attributes of this runnable. Thus it can be invoked by the
+	 * {@link EvaluationPool}, while the next iteration is executed.
+	 * 
+	 * @param state
+	 *            The state of the finished iteration.
+	 * @param programExecuted
+	 *            False, if the program could not be executed.
+	 * @return The evaluation of the iteration.
+	 * @throws NoRunResultFormatParserException
+	 */
+	protected IterationEvaluation evaluateIteration(
+			final IterationState state, final boolean programExecuted)
+			throws NoRunResultFormatParserException {
+		IterationEvaluation evaluation = new IterationEvaluation();
+		evaluation.state = state;
+		if (!programExecuted) {
+			evaluation.missing = true;
+			return evaluation;
+		}
+		try {
 			/*
 			 * We check from time to time, whether this run got the order to
 			 * terminate.
 			 */
-			if (checkForInterrupted())
-				return;
+			if (checkForInterrupted()) {
+				evaluation.interrupted = true;
+				return evaluation;
+			}
 
-			GraphMatchingRunResult convertedResult = this.convertResult();
+			GraphMatchingRunResult convertedResult = state.isCached() ? this
+					.restoreCachedResult(state) : this.convertResult(state);
 
 			if (convertedResult != null) {
 				this.log.debug(this.getRun() + " (" + this.programConfig + ","
-						+ this.dataConfig
+						+ state.dataConfig
 						+ ") Finished converting result files");
 
 				/*
-				 * We check from time to time, whether this run got the order to
-				 * terminate.
+				 * We check from time to time, whether this run got the order
+				 * to terminate.
 				 */
-				if (checkForInterrupted())
-					return;
+				if (checkForInterrupted()) {
+					evaluation.interrupted = true;
+					return evaluation;
+				}
 
-				List<Pair<ParameterSet, QualitySet>> qualities = this
-						.assessQualities(convertedResult);
-				// 04.04.2013: adding iteration number to qualities
-				List<Triple<ParameterSet, QualitySet, Long>> qualitiesWithIterations = new ArrayList<Triple<ParameterSet, QualitySet, Long>>();
-				for (Pair<ParameterSet, QualitySet> pair : qualities)
-					qualitiesWithIterations
-							.add(Triple.getTriple(pair.getFirst(),
-									pair.getSecond(), new Long(optId)));
-				this.writeQualitiesToFile(qualitiesWithIterations);
-				this.afterClustering(convertedResult, qualities);
-			}
-
-			/*
-			 * Add this RunResult to the list. The RunResult only encapsulates
-			 * the path to the result-file and does not hold any actual values,
-			 * so we do not need to wait until the thread is finished.
-			 */
-			synchronized (this.getRun().getResults()) {
-				this.getRun().getResults().add(result);
+				evaluation.qualities = this.assessQualities(state,
+						convertedResult);
+				evaluation.convertedResult = convertedResult;
 			}
 		} catch (RunResultNotFoundException e) {
-			this.handleMissingRunResult();
+			evaluation.missing = true;
 		} catch (RunResultConversionException e) {
-			this.handleMissingRunResult();
-		} catch (REngineException e1) {
-			this.handleMissingRunResult();
-		} catch (REXPMismatchException e1) {
-			this.handleMissingRunResult();
+			evaluation.missing = true;
+		}
+		return evaluation;
+	}
+
+	/**
+	 * Helper method of {@link #finishIteration(IterationState, boolean)},
+	 * which writes the qualities of an evaluated iteration to the files of
+	 * this runnable, adds its result to the run and archives its files.
+	 * 
+	 * <p>
+	 * The iteration becomes the current iteration of this runnable during
+	 * this method; afterwards the previous current iteration is restored.
+	 * 
+	 * @param evaluation
+	 *            The evaluation of the iteration.
+	 */
+	protected void commitIteration(final IterationEvaluation evaluation) {
+		if (evaluation.interrupted)
+			return;
+		IterationState current = this.getCurrentIterationState();
+		this.restoreIterationState(evaluation.state);
+		try {
+			if (evaluation.missing)
+				this.handleMissingRunResult();
+			else {
+				if (evaluation.convertedResult != null) {
+					// 04.04.2013: adding iteration number to qualities
+					List<Triple<ParameterSet, QualitySet, Long>> qualitiesWithIterations = new ArrayList<Triple<ParameterSet, QualitySet, Long>>();
+					for (Pair<ParameterSet, QualitySet> pair : evaluation.qualities)
+						qualitiesWithIterations.add(Triple.getTriple(
+								pair.getFirst(), pair.getSecond(), new Long(
+										optId)));
+					this.writeQualitiesToFile(qualitiesWithIterations);
+					this.afterClustering(evaluation.convertedResult,
+							evaluation.qualities);
+				}
+
+				/*
+				 * Add this RunResult to the list. The RunResult only
+				 * encapsulates the path to the result-file and does not hold
+				 * any actual values, so we do not need to wait until the
+				 * thread is finished.
+				 */
+				synchronized (this.getRun().getResults()) {
+					this.getRun().getResults().add(result);
+				}
+			}
+
+			if (this.getRun().getRepository().getRepositoryConfig()
+					.getArchiveIterations())
+				this.archiveIterationFiles();
+		} finally {
+			this.restoreIterationState(current);
+		}
+	}
+
+	/**
+	 * Waits for the oldest pending evaluation and commits it.
+	 * 
+	 * <p>
+	 * If the waiting thread is interrupted, the evaluation is still waited
+	 * for, such that the iterations are committed in order; the interrupt is
+	 * restored afterwards.
+	 * 
+	 * @throws IOException
+	 * @throws NoRunResultFormatParserException
+	 * @throws RNotAvailableException
+	 */
+	protected void commitNextEvaluation() throws IOException,
+			NoRunResultFormatParserException, RNotAvailableException {
+		Future<IterationEvaluation> evaluation = this.pendingEvaluations
+				.removeFirst();
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					this.commitIteration(evaluation.get());
+					return;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof NoRunResultFormatParserException)
+				throw (NoRunResultFormatParserException) cause;
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RNotAvailableException)
+				throw (RNotAvailableException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException(cause);
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Commits all pending evaluations in the order of their iterations.
+	 * 
+	 * @throws IOException
+	 * @throws NoRunResultFormatParserException
+	 * @throws RNotAvailableException
+	 */
+	protected void commitPendingEvaluations() throws IOException,
+			NoRunResultFormatParserException, RNotAvailableException {
+		while (!this.pendingEvaluations.isEmpty())
+			this.commitNextEvaluation();
+	}
+
+	/**
+	 * Helper method of {@link #doRunIteration()}, invoked to append all files
+	 * written during the current iteration to the {@link IterationArchive} of
+	 * this pair of program and data configuration. The archived files are
+	 * deleted afterwards.
+	 * 
+	 * <p>
+	 * If the files cannot be archived, they are kept as loose files.
+	 */
+	protected void archiveIterationFiles() {
+		final File calculationsFolder = clusteringResultFile.getParentFile();
+		final String prefix = programConfig + "_" + dataConfig + "." + optId
+				+ ".";
+		final File[] iterationFiles = calculationsFolder
+				.listFiles(new FilenameFilter() {
+
+					/*
+					 * (non-Javadoc)
+					 * 
+					 * @see java.io.FilenameFilter#accept(java.io.File,
+					 * java.lang.String)
+					 */
+					@Override
+					public boolean accept(File dir, String name) {
+						return name.startsWith(prefix);
+					}
+				});
+
+		// the names are relative to the run result folder
+		final Map<String, File> files = new LinkedHashMap<String, File>();
+		if (iterationFiles != null)
+			for (File file : iterationFiles)
+				files.put(calculationsFolder.getName() + "/" + file.getName(),
+						file);
+		if (logFile.exists())
+			files.put(logFile.getParentFile().getName() + "/"
+					+ logFile.getName(), logFile);
+		if (files.isEmpty())
+			return;
+
+		try {
+			if (this.iterationArchive == null)
+				this.iterationArchive = new IterationArchive(
+						IterationArchive.getArchiveFile(calculationsFolder,
+								programConfig + "_" + dataConfig), false);
+			this.iterationArchive.append(optId, files);
+			for (File file : files.values())
+				FileUtils.delete(file);
+		} catch (IOException e) {
+			this.log.warn("Could not archive the files of iteration " + optId
+					+ " of " + this.getRun() + " (" + this.programConfig + ","
+					+ this.dataConfig + "): " + e.getMessage());
 		}
 	}
 
@@ -912,6 +1604,8 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 	 * run result. It takes the clusterings and passes them to
 	 * {@link GraphMatchingRunResult#assessQuality(List)}.
 	 * 
+	 * @param state
+	 *            The state of the iteration the result belongs to.
 	 * @param convertedResult
 	 *            The clustering result converted to the default format, such
 	 *            that it can be parsed.
@@ -919,22 +1613,53 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 	 * @throws RunResultNotFoundException
 	 */
 	protected List<Pair<ParameterSet, QualitySet>> assessQualities(
-			GraphMatchingRunResult convertedResult)
+			final IterationState state,
+			final GraphMatchingRunResult convertedResult)
 			throws RunResultNotFoundException {
 		this.log.debug(this.getRun() + " (" + this.programConfig + ","
-				+ this.dataConfig + ") Assessing quality of results...");
+				+ state.dataConfig + ") Assessing quality of results...");
 		List<Pair<ParameterSet, QualitySet>> qualities = new ArrayList<Pair<ParameterSet, QualitySet>>();
 		try {
 			convertedResult.loadIntoMemory();
 			final Pair<ParameterSet, GraphMatching> pair = convertedResult
 					.getGraphMatching();
 			convertedResult.unloadFromMemory();
-			QualitySet quals = pair.getSecond().assessQuality(dataConfig,
-					this.getRun().getQualityMeasures());
+			// qualities of cached executions are only assessed, if they
+			// were not assessed before
+			List<QualityMeasure> measures = new ArrayList<QualityMeasure>();
+			for (QualityMeasure measure : this.getRun().getQualityMeasures())
+				if (state.cachedExecution == null
+						|| state.cachedExecution.getQuality(measure) == null)
+					measures.add(measure);
+			QualitySet quals = pair.getSecond().assessQuality(
+					state.dataConfig, measures);
+			if (state.cachedExecution != null)
+				for (QualityMeasure measure : this.getRun()
+						.getQualityMeasures())
+					if (!measures.contains(measure))
+						quals.put(measure,
+								state.cachedExecution.getQuality(measure));
+			this.addResourceUsage(state, quals);
 			qualities.add(Pair.getPair(pair.getFirst(), quals));
 
+			if (this.getRun().getRepository().getRepositoryConfig()
+					.getBinaryMatchings())
+				this.storeBinaryMatching(state, convertedResult, pair);
+
+			if (state.executionCacheKey != null
+					&& !measures.isEmpty()
+					&& (state.processUsage == null || !state.processUsage
+							.isKilled()))
+				this.getRun()
+						.getRepository()
+						.getExecutionCache()
+						.put(state.executionCacheKey,
+								this.programConfig.getName(),
+								new File(convertedResult.getAbsolutePath()),
+								quals);
+
 			this.log.debug(this.getRun() + " (" + this.programConfig + ","
-					+ this.dataConfig + ") Finished quality calculations");
+					+ state.dataConfig + ") Finished quality calculations");
 			return qualities;
 		} catch (Exception e) {
 			throw new RunResultNotFoundException("The result file "
@@ -944,7 +1669,67 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 	}
 
 	/**
-	 * Helper method of {@link #assessQualities(GraphMatchingRunResult)},
+	 * Helper method of
+	 * {@link #assessQualities(IterationState, GraphMatchingRunResult)},
+	 * invoked to set the values of all {@link ResourceUsageQualityMeasure}s of
+	 * the run from the resources used by the program in the iteration.
+	 * 
+	 * @param state
+	 *            The state of the iteration.
+	 * @param qualities
+	 *            The qualities of the iteration.
+	 */
+	protected void addResourceUsage(final IterationState state,
+			final QualitySet qualities) {
+		if (state.processUsage != null)
+			this.log.debug(this.getRun() + " (" + this.programConfig + ","
+					+ state.dataConfig + ") " + state.processUsage);
+		for (QualityMeasure measure : this.getRun().getQualityMeasures())
+			if (measure instanceof ResourceUsageQualityMeasure
+					&& !qualities.containsKey(measure))
+				qualities.put(measure,
+						((ResourceUsageQualityMeasure) measure)
+								.getQualityOf(state.processUsage));
+	}
+
+	/**
+	 * Helper method of
+	 * {@link #assessQualities(IterationState, GraphMatchingRunResult)},
+	 * invoked to replace the converted result file by its binary encoding.
+	 * 
+	 * <p>
+	 * The dataset configuration is loaded during the whole run, such that the
+	 * vertex dictionaries of its graphs are available. If the matching cannot
+	 * be encoded, the converted result is kept in text format.
+	 * 
+	 * @param state
+	 *            The state of the iteration the result belongs to.
+	 * @param convertedResult
+	 *            The converted run result.
+	 * @param pair
+	 *            The parsed parameter set and graph matching of the converted
+	 *            run result.
+	 */
+	protected void storeBinaryMatching(final IterationState state,
+			final GraphMatchingRunResult convertedResult,
+			final Pair<ParameterSet, GraphMatching> pair) {
+		List<VertexDictionary> dictionaries = state.dataConfig
+				.getDatasetConfig().getVertexDictionaries();
+		if (dictionaries == null || dictionaries.size() < 2)
+			return;
+		try {
+			GraphMatchingBinaryCodec.encode(
+					new File(convertedResult.getAbsolutePath()),
+					pair.getFirst(), pair.getSecond(), dictionaries.get(0),
+					dictionaries.get(1));
+		} catch (IOException e) {
+			this.log.warn("Could not store the binary matching of "
+					+ convertedResult.getAbsolutePath() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Helper method of {@link #commitIteration(IterationEvaluation)},
 	 * invoked to write the assessed clustering qualities into files.
 	 * 
 	 * @param qualities
@@ -954,32 +1739,111 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 	protected void writeQualitiesToFile(
 			List<Triple<ParameterSet, QualitySet, Long>> qualities) {
 		result.writeQualitiesToFiles(qualities);
+		for (Triple<ParameterSet, QualitySet, Long> triple : qualities)
+			this.appendToQualityTable(triple.getThird(), triple.getFirst(),
+					triple.getSecond());
+	}
+
+	/**
+	 * Opens the {@link QualityTable} corresponding to the
+	 * {@link #completeQualityOutput}. When resuming a run whose qualities were
+	 * only written into the complete file, the table is created from the
+	 * contents of that file.
+	 */
+	protected void openQualityTable() {
+		final File completeFile = new File(completeQualityOutput);
+		final File tableFile = QualityTable.getTableFile(completeQualityOutput);
+		try {
+			if (isResume && QualityTable.exists(tableFile)
+					&& new File(tableFile, "stats").lastModified() >= completeFile
+							.lastModified())
+				this.qualityTable = QualityTable.open(tableFile, false);
+			else if (isResume && completeFile.exists())
+				this.qualityTable = QualityTable.importTsv(completeFile,
+						tableFile);
+			else {
+				List<String> parameterNames = new ArrayList<String>();
+				for (ProgramParameter<?> param : programConfig
+						.getOptimizableParams())
+					parameterNames.add(param.getName());
+				List<String> measureNames = new ArrayList<String>();
+				for (QualityMeasure measure : this.getRun()
+						.getQualityMeasures())
+					measureNames.add(measure.getClass().getSimpleName());
+				this.qualityTable = QualityTable.create(tableFile,
+						parameterNames, measureNames);
+			}
+		} catch (IOException e) {
+			this.log.warn("Could not open the quality table " + tableFile
+					+ ": " + e.getMessage());
+			this.qualityTable = null;
+		}
+	}
+
+	/**
+	 * Appends the qualities of one iteration to the {@link #qualityTable}. If
+	 * this fails, the table is deleted, such that readers use the complete
+	 * file instead.
+	 * 
+	 * @param iteration
+	 *            The number of the iteration.
+	 * @param paramSet
+	 *            The parameter values of the iteration.
+	 * @param qualities
+	 *            The assessed qualities, or null if the iteration did not
+	 *            terminate.
+	 */
+	protected void appendToQualityTable(final long iteration,
+			final Map<String, String> paramSet, final QualitySet qualities) {
+		if (this.qualityTable == null)
+			return;
+		try {
+			this.qualityTable.append(iteration, paramSet, qualities);
+		} catch (IOException e) {
+			this.log.warn("Could not append to the quality table "
+					+ this.qualityTable.getTableFolder() + ": "
+					+ e.getMessage());
+			this.closeQualityTable();
+			FileUtils.delete(QualityTable.getTableFile(completeQualityOutput));
+		}
+	}
+
+	protected void closeQualityTable() {
+		if (this.qualityTable != null) {
+			try {
+				this.qualityTable.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			this.qualityTable = null;
+		}
 	}
 
 	/**
 	 * A wrapper method for the conversion of the run result, which handles
 	 * logging and adding the converted result to the results of the run.
 	 * 
-	 * @return The result of the last iteration converted to the standard
-	 *         format.
+	 * @param state
+	 *            The state of the iteration whose result is converted.
+	 * @return The result of the iteration converted to the standard format.
 	 * @throws NoRunResultFormatParserException
 	 * @throws RunResultNotFoundException
 	 * @throws SecurityException
 	 * @throws RunResultConversionException
 	 */
-	protected GraphMatchingRunResult convertResult()
+	protected GraphMatchingRunResult convertResult(final IterationState state)
 			throws NoRunResultFormatParserException,
 			RunResultNotFoundException, RunResultConversionException {
 		/*
 		 * Converting and Quality of result
 		 */
 		this.log.debug(this.getRun() + " (" + this.programConfig + ","
-				+ this.dataConfig + ") Converting result files...");
+				+ state.dataConfig + ") Converting result files...");
 
 		try {
-			GraphMatchingRunResult convertedResult = result.convertTo(this
-					.getRun().getContext().getStandardOutputFormat(),
-					internalParams, effectiveParams);
+			GraphMatchingRunResult convertedResult = state.result.convertTo(
+					this.getRun().getContext().getStandardOutputFormat(),
+					state.internalParams, state.effectiveParams);
 			synchronized (this.getRun().getResults()) {
 				this.getRun().getResults().add(convertedResult);
 			}
@@ -994,6 +1858,40 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 		}
 	}
 
+	/**
+	 * The counterpart of {@link #convertResult(IterationState)} for cached
+	 * executions, which copies the cached converted matching to the location
+	 * of the converted result of the iteration.
+	 * 
+	 * @param state
+	 *            The state of the iteration whose result is restored.
+	 * @return The cached result of the iteration in the standard format.
+	 * @throws RunResultConversionException
+	 */
+	protected GraphMatchingRunResult restoreCachedResult(
+			final IterationState state) throws RunResultConversionException {
+		try {
+			File target = new File(this.format.getRunResultFile(
+					state.clusteringResultFile).getAbsolutePath()
+					+ ".conv");
+			org.apache.commons.io.FileUtils.copyFile(
+					state.cachedExecution.getMatchingFile(), target);
+			GraphMatchingRunResult convertedResult = new GraphMatchingRunResult(
+					this.getRun().getRepository(), System.currentTimeMillis(),
+					target, state.dataConfig, this.programConfig, this.getRun()
+							.getContext().getStandardOutputFormat(),
+					this.runThreadIdentString, this.getRun());
+			synchronized (this.getRun().getResults()) {
+				this.getRun().getResults().add(convertedResult);
+			}
+			return convertedResult;
+		} catch (Exception e) {
+			// e.g. the entry was invalidated in the meantime
+			throw new RunResultConversionException(
+					"The cached runresult could not be restored");
+		}
+	}
+
 	/**
 	 * This method is invoked by {@link #doRunIteration()} before any
 	 * calculations are done, to ensure, that all folders and files are created
@@ -1323,6 +2221,8 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 											runThreadIdentString),
 							programConfig + "_" + dataConfig
 									+ ".results.qual.complete");
+
+		this.openQualityTable();
 	}
 
 	/*
@@ -1332,6 +2232,16 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 	 */
 	@Override
 	protected void afterRun() {
+		try {
+			this.commitPendingEvaluations();
+		} catch (Throwable e) {
+			this.exceptions.add(e);
+		} finally {
+			// free the pool from evaluations that will not be committed
+			for (Future<IterationEvaluation> evaluation : this.pendingEvaluations)
+				evaluation.cancel(false);
+			this.pendingEvaluations.clear();
+		}
 		super.afterRun();
 		// unload the dataset from memory
 		// for (Triple<String, DataSet, String> dataSet :
@@ -1340,6 +2250,17 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 		// dataSet.getSecond().unloadFromMemory();
 		// }
 		this.dataConfig.getDatasetConfig().unloadFromMemory();
+
+		this.closeQualityTable();
+
+		if (this.iterationArchive != null) {
+			try {
+				this.iterationArchive.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			this.iterationArchive = null;
+		}
 		// if the original dataset is an absolute dataset, unload it from
 		// memory
 		// as well
@@ -1369,13 +2290,4 @@ public abstract class ExecutionRunRunnable extends RunRunnable {
 		this.log.info("Run " + this.getRun() + " (" + this.programConfig + ","
 				+ this.dataConfig + ") finished");
 	}
-
-	protected static boolean isProcessAlive(Process p) {
-		try {
-			p.exitValue();
-			return false;
-		} catch (IllegalThreadStateException e) {
-			return true;
-		}
-	}
 }
@@ -15,15 +15,28 @@ package de.clusteval.run.runnable;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import utils.Pair;
 import utils.ProgressPrinter;
 import utils.Triple;
 import de.clusteval.paramOptimization.IDivergingParameterOptimizationMethod;
+import de.clusteval.paramOptimization.IMultiObjectiveParameterOptimizationMethod;
 import de.clusteval.paramOptimization.NoParameterSetFoundException;
 import de.clusteval.paramOptimization.ParameterOptimizationException;
 import de.clusteval.paramOptimization.ParameterOptimizationMethod;
+import de.clusteval.paramOptimization.PriorObservations;
 import de.clusteval.data.DataConfig;
+import de.clusteval.data.dataset.InducedSubgraphSampler;
 import de.clusteval.data.dataset.format.IncompatibleDataSetFormatException;
 import de.clusteval.data.dataset.format.InvalidDataSetFormatVersionException;
 import de.clusteval.data.dataset.format.UnknownDataSetFormatException;
@@ -31,10 +44,12 @@ import de.clusteval.data.goldstandard.IncompleteGoldStandardException;
 import de.clusteval.data.goldstandard.format.UnknownGoldStandardFormatException;
 import de.clusteval.framework.RLibraryNotLoadedException;
 import de.clusteval.framework.repository.RegisterException;
+import de.clusteval.framework.threading.ResourceDemand;
 import de.clusteval.framework.threading.RunSchedulerThread;
 import de.clusteval.program.ParameterSet;
 import de.clusteval.program.ProgramConfig;
 import de.clusteval.program.ProgramParameter;
+import de.clusteval.program.r.RProgram;
 import de.clusteval.quality.QualityMeasure;
 import de.clusteval.quality.QualityMeasureValue;
 import de.clusteval.quality.QualitySet;
@@ -57,6 +72,27 @@ import file.FileUtils;
  * In {@link #doRun()} the optimization method {@link #optimizationMethod}
  * determines, how many iterations are to be performed.
  * 
+ * <p>
+ * If the run allows several concurrent iterations (see
+ * {@link ParameterOptimizationRun#getOptimizationConcurrency()}), the
+ * parameter sets of a batch proposed by the optimization method are executed
+ * concurrently. Their results are assessed and passed to the method in the
+ * order of the iterations.
+ * 
+ * <p>
+ * While the results of finished iterations are assessed (see
+ * {@link #finishIteration(IterationState, boolean)}), the next iterations are
+ * only started, if the optimization method can propose parameter sets without
+ * their feedback. Otherwise the pending evaluations are committed first.
+ * 
+ * <p>
+ * Parameter sets, that the optimization method wants to be evaluated on a
+ * fraction of the data (see
+ * {@link ParameterOptimizationMethod#getDataFraction(ParameterSet)}), are
+ * executed on induced subgraphs of the networks. The subgraphs are sampled
+ * once per fraction from the unconverted datasets and converted to the input
+ * formats of the program like the complete datasets.
+ * 
  * @author Christian Wiwie
  * 
  */
@@ -69,6 +105,40 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 	 */
 	protected ParameterOptimizationMethod optimizationMethod;
 
+	/**
+	 * The parameter set evaluated in the current iteration.
+	 */
+	protected ParameterSet parameterSet;
+
+	/**
+	 * The executor of the programs of concurrent iterations. It is created
+	 * with the first batch of iterations and shut down in {@link #afterRun()}.
+	 */
+	protected ExecutorService iterationExecutor;
+
+	/**
+	 * A copy of the data configuration taken before its datasets were
+	 * converted to the input formats of the program. Subgraphs are sampled
+	 * from it.
+	 */
+	protected DataConfig unconvertedDataConfig;
+
+	/**
+	 * The converted data configuration of the complete data.
+	 */
+	protected DataConfig fullDataConfig;
+
+	/**
+	 * The sampler of induced subgraphs; created with the first sample.
+	 */
+	protected InducedSubgraphSampler sampler;
+
+	/**
+	 * The converted data configurations of the induced subgraphs by their
+	 * fraction of the data; null if the sample could not be converted.
+	 */
+	protected Map<Double, DataConfig> sampledDataConfigs;
+
 	/**
 	 * @param runScheduler
 	 *            The run scheduler that the newly created runnable should be
@@ -114,10 +184,7 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 			// 15.04.2013: changed invocation of next() to beginning of
 			// doRunIteration() in order to get the right iteration numbner
 			// now here: get the parameter set created there
-			List<ParameterSet> paramSets = optimizationMethod.getResult()
-					.getParameterSets();
-			ParameterSet optimizationParamValues = paramSets.get(paramSets
-					.size() - 1);
+			ParameterSet optimizationParamValues = this.parameterSet;
 			for (int i = 0; i < parsed.length; i++) {
 				for (String param : optimizationParamValues.keySet()) {
 					parsed[i] = parsed[i].replace("%" + param + "%",
@@ -168,7 +235,10 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 			InternalAttributeException, IncompatibleDataSetFormatException,
 			UnknownGoldStandardFormatException,
 			IncompleteGoldStandardException, RNotAvailableException {
+		this.unconvertedDataConfig = this.dataConfig.clone();
+		this.sampledDataConfigs = new HashMap<Double, DataConfig>();
 		super.beforeRun();
+		this.fullDataConfig = this.dataConfig;
 		if (!new File(completeQualityOutput).exists() || !isResume)
 			writeHeaderIntoCompleteFile();
 
@@ -177,6 +247,9 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 		 */
 		this.optimizationMethod.setDataConfig(this.dataConfig);
 		this.optimizationMethod.setProgramConfig(this.programConfig);
+		if (((ParameterOptimizationRun) this.getRun())
+				.getOptimizationWarmStart() >= 0)
+			loadPriorObservations();
 		try {
 			this.optimizationMethod.reset(new File(completeQualityOutput));
 			if (isResume) {
@@ -196,6 +269,33 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 		// this.optId = this.optimizationMethod.getCurrentCount();
 	}
 
+	/**
+	 * Passes the qualities of parameter sets evaluated in previous runs of the
+	 * same program on similar data to the optimization method (see
+	 * {@link ParameterOptimizationRun#getOptimizationWarmStart()}).
+	 */
+	protected void loadPriorObservations() {
+		File runResultFolder = new File(completeQualityOutput).getParentFile()
+				.getParentFile();
+		List<String> paramNames = new ArrayList<String>();
+		for (ProgramParameter<?> param : this.optimizationMethod
+				.getOptimizationParameter())
+			paramNames.add(param.getName());
+		List<Pair<ParameterSet, QualitySet>> priorObservations = PriorObservations
+				.load(runResultFolder.getParentFile(), runResultFolder,
+						this.programConfig.getName(),
+						new File(this.programConfig.getAbsolutePath()),
+						new File(this.unconvertedDataConfig.getDatasetConfig()
+								.getAbsolutePath()), paramNames, this.getRun()
+								.getQualityMeasures(),
+						((ParameterOptimizationRun) this.getRun())
+								.getOptimizationWarmStart());
+		this.log.info(this.getRun() + " (" + this.programConfig + ","
+				+ this.dataConfig + ") Warm start with "
+				+ priorObservations.size() + " prior observations");
+		this.optimizationMethod.setPriorObservations(priorObservations);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -205,6 +305,20 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 	protected void afterRun() {
 		super.afterRun();
 
+		if (this.sampledDataConfigs != null) {
+			for (DataConfig sampled : this.sampledDataConfigs.values())
+				if (sampled != null)
+					sampled.getDatasetConfig().unloadFromMemory();
+			this.sampledDataConfigs = null;
+		}
+		this.sampler = null;
+
+		if (this.iterationExecutor != null) {
+			// terminates the programs of an interrupted batch
+			this.iterationExecutor.shutdownNow();
+			this.iterationExecutor = null;
+		}
+
 		if (this.optimizationMethod != null
 				&& this.optimizationMethod.getResult() != null) {
 			if (this.optimizationMethod.getResult().getOptimalParameterSet() != null)
@@ -224,10 +338,23 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 			Plotter.plotParameterOptimizationResult(this.optimizationMethod
 					.getResult());
 
-			// clear memory-hungry internal attributes of clustering results
 			ParameterOptimizationResult result = this.optimizationMethod
 					.getResult();
-			result.unloadFromMemory();
+			if (this.optimizationMethod instanceof IMultiObjectiveParameterOptimizationMethod)
+				result.writeParetoFrontToFile(
+						ParameterOptimizationResult.getParetoFrontFile(
+								new File(completeQualityOutput))
+								.getAbsolutePath(),
+						((IMultiObjectiveParameterOptimizationMethod) this.optimizationMethod)
+								.getOptimizationCriteria());
+
+			// clear memory-hungry internal attributes of clustering results or
+			// keep them outside of the heap for serving queries
+			if (this.getRun().getRepository().getRepositoryConfig()
+					.getOffHeapResults())
+				result.moveOffHeap();
+			else
+				result.unloadFromMemory();
 		}
 	}
 
@@ -235,11 +362,18 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 	protected void doRun() throws InternalAttributeException,
 			RegisterException, IOException, NoRunResultFormatParserException,
 			RNotAvailableException, RLibraryNotLoadedException {
+		int concurrency = this.getIterationConcurrency();
 		try {
-			while (this.optimizationMethod.hasNext()) {
+			// the feedback of pending evaluations may enable further
+			// iterations
+			while (this.optimizationMethod.hasNext()
+					|| !this.pendingEvaluations.isEmpty()) {
 				if (checkForInterrupted())
 					return;
-				this.doRunIteration();
+				if (concurrency > 1)
+					this.doRunIterationBatch(concurrency);
+				else
+					this.doRunIteration();
 			}
 		} catch (NoParameterSetFoundException e) {
 			// this exception just indicates, that no parameter set has been
@@ -259,10 +393,16 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 			NoParameterSetFoundException, RNotAvailableException,
 			RLibraryNotLoadedException {
 		try {
-			optimizationMethod.next();
-			this.optId = this.optimizationMethod.getCurrentCount();
+			List<Pair<ParameterSet, Long>> next = this.nextIterations(1);
+			if (next.isEmpty())
+				throw new NoParameterSetFoundException(
+						"No new parameter set could be found.");
+			this.parameterSet = next.get(0).getFirst();
+			this.optId = next.get(0).getSecond().intValue();
+			this.dataConfig = this.getDataConfig(this.parameterSet);
 			super.doRunIteration();
 		} finally {
+			this.dataConfig = this.fullDataConfig;
 			// changed 25.01.2013
 			int iterationPercent = (int) (this.optimizationMethod
 					.getCurrentCount()
@@ -272,6 +412,280 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 		}
 	}
 
+	/**
+	 * @return The maximal number of iterations of this runnable, that are
+	 *         executed concurrently. Programs executed in R share the
+	 *         connection of the program object and are always executed one
+	 *         after another.
+	 */
+	protected int getIterationConcurrency() {
+		if (this.programConfig.getProgram() instanceof RProgram)
+			return 1;
+		return ((ParameterOptimizationRun) this.getRun())
+				.getOptimizationConcurrency();
+	}
+
+	/**
+	 * Iterations executed concurrently occupy the resources of the program
+	 * once per iteration.
+	 * 
+	 * @see de.clusteval.run.runnable.ExecutionRunRunnable#getResourceDemand()
+	 */
+	@Override
+	public ResourceDemand getResourceDemand() {
+		return super.getResourceDemand().times(this.getIterationConcurrency());
+	}
+
+	/**
+	 * This method asks the optimization method for up to k parameter sets and
+	 * executes the program for all of them concurrently. Afterwards the
+	 * results are assessed one iteration after another in the order of the
+	 * iterations, such that the feedback is passed to the optimization method
+	 * in the same order as during sequential execution.
+	 * 
+	 * @param k
+	 *            The maximal number of iterations executed concurrently.
+	 * @throws InternalAttributeException
+	 * @throws RegisterException
+	 * @throws IOException
+	 * @throws NoRunResultFormatParserException
+	 * @throws NoParameterSetFoundException
+	 * @throws RNotAvailableException
+	 * @throws RLibraryNotLoadedException
+	 */
+	protected void doRunIterationBatch(final int k)
+			throws InternalAttributeException, RegisterException,
+			IOException, NoRunResultFormatParserException,
+			NoParameterSetFoundException, RNotAvailableException,
+			RLibraryNotLoadedException {
+		this.waitWhilePaused();
+
+		if (checkForInterrupted())
+			return;
+
+		List<Pair<ParameterSet, Long>> batch = this.nextIterations(k);
+		List<IterationState> states = new ArrayList<IterationState>();
+		try {
+			for (Pair<ParameterSet, Long> iteration : batch) {
+				this.parameterSet = iteration.getFirst();
+				this.optId = iteration.getSecond().intValue();
+				this.dataConfig = this.getDataConfig(this.parameterSet);
+				states.add(this.saveIterationState(this.prepareIteration()));
+			}
+		} finally {
+			this.dataConfig = this.fullDataConfig;
+		}
+
+		if (checkForInterrupted())
+			return;
+
+		if (this.iterationExecutor == null)
+			this.iterationExecutor = Executors.newFixedThreadPool(k);
+		List<Future<Boolean>> executions = new ArrayList<Future<Boolean>>();
+		for (final IterationState state : states)
+			executions.add(this.iterationExecutor
+					.submit(new Callable<Boolean>() {
+
+						/*
+						 * (non-Javadoc)
+						 * 
+						 * @see java.util.concurrent.Callable#call()
+						 */
+						@Override
+						public Boolean call() throws Exception {
+							if (state.isCached())
+								return true;
+							return executeProgram(state.getInvocation(),
+									state.getEffectiveParams(),
+									state.getInternalParams(),
+									state.getLogFile(),
+									state.getClusteringResultFile(),
+									state.getProcessUsage());
+						}
+					}));
+
+		for (int i = 0; i < states.size(); i++) {
+			boolean executed;
+			try {
+				executed = this.waitForExecution(executions.get(i));
+			} catch (InterruptedException e) {
+				// the process supervisor kills the process trees of the
+				// interrupted program executions
+				for (Future<Boolean> execution : executions.subList(i,
+						executions.size()))
+					execution.cancel(true);
+				Thread.currentThread().interrupt();
+				return;
+			}
+			this.restoreIterationState(states.get(i));
+			try {
+				if (checkForInterrupted())
+					return;
+				this.finishIteration(states.get(i), executed);
+			} finally {
+				this.dataConfig = this.fullDataConfig;
+				int iterationPercent = (int) (this.optId
+						/ (double) this.optimizationMethod
+								.getTotalIterationCount() * 100);
+				this.progress.update(iterationPercent);
+			}
+		}
+	}
+
+	/**
+	 * Asks the optimization method for up to k parameter sets. If the method
+	 * cannot propose a parameter set without the feedback of iterations whose
+	 * evaluation is still pending, these evaluations are committed one after
+	 * another until it can.
+	 * 
+	 * @param k
+	 *            The maximal number of parameter sets.
+	 * @return The parameter sets and their iteration numbers; empty, if the
+	 *         method has no more parameter sets.
+	 * @throws InternalAttributeException
+	 * @throws RegisterException
+	 * @throws NoParameterSetFoundException
+	 * @throws IOException
+	 * @throws NoRunResultFormatParserException
+	 * @throws RNotAvailableException
+	 */
+	protected List<Pair<ParameterSet, Long>> nextIterations(final int k)
+			throws InternalAttributeException, RegisterException,
+			NoParameterSetFoundException, IOException,
+			NoRunResultFormatParserException, RNotAvailableException {
+		while (true) {
+			List<Pair<ParameterSet, Long>> batch = this.optimizationMethod
+					.nextBatch(k);
+			if (!batch.isEmpty() || this.pendingEvaluations.isEmpty())
+				return batch;
+			this.commitNextEvaluation();
+		}
+	}
+
+	/**
+	 * @param paramSet
+	 *            A parameter set proposed by the optimization method.
+	 * @return The data configuration the parameter set is evaluated on: the
+	 *         complete data or induced subgraphs of the networks, depending on
+	 *         the fraction of the data requested by the optimization method.
+	 */
+	protected DataConfig getDataConfig(final ParameterSet paramSet) {
+		double fraction = this.optimizationMethod.getDataFraction(paramSet);
+		if (fraction >= 1.0)
+			return this.fullDataConfig;
+		if (!this.sampledDataConfigs.containsKey(fraction))
+			this.sampledDataConfigs.put(fraction,
+					this.sampleDataConfig(fraction));
+		DataConfig sampled = this.sampledDataConfigs.get(fraction);
+		if (sampled == null)
+			return this.fullDataConfig;
+		return sampled;
+	}
+
+	/**
+	 * @param dataConfig
+	 *            The data configuration an iteration was evaluated on.
+	 * @return The fraction of the vertices of the networks the data
+	 *         configuration contains: smaller than 1 for induced subgraphs.
+	 */
+	protected double getDataFraction(final DataConfig dataConfig) {
+		for (Map.Entry<Double, DataConfig> entry : this.sampledDataConfigs
+				.entrySet())
+			if (entry.getValue() == dataConfig)
+				return entry.getKey();
+		return 1.0;
+	}
+
+	/**
+	 * Helper method of {@link #getDataConfig(ParameterSet)}, which samples
+	 * induced subgraphs of the networks, converts them to the input formats of
+	 * the program and loads them into memory.
+	 * 
+	 * @param fraction
+	 *            The fraction of the vertices of every network to sample.
+	 * @return The converted data configuration of the subgraphs, or null if
+	 *         the subgraphs could not be sampled or converted.
+	 */
+	protected DataConfig sampleDataConfig(final double fraction) {
+		DataConfig full = this.dataConfig;
+		try {
+			if (this.sampler == null)
+				// the same seed on resumption yields the same subgraphs
+				this.sampler = InducedSubgraphSampler.forDataConfig(
+						this.unconvertedDataConfig, this.unconvertedDataConfig
+								.toString().hashCode());
+			String basePath = (!isResume ? this.getRun().getRepository() : this
+					.getRun().getRepository().getParent())
+					.getClusterResultsBasePath().replace("%RUNIDENTSTRING",
+							runThreadIdentString);
+			DataConfig sampled = this.sampler.sample(
+					this.unconvertedDataConfig,
+					fraction,
+					new File(FileUtils.buildPath(basePath, programConfig + "_"
+							+ full + ".sample"
+							+ String.format(Locale.UK, "%.4f", fraction))));
+
+			// convert the subgraphs in the same way as the complete data
+			this.dataConfig = sampled;
+			if (!this.preprocessAndCheckCompatibleDataSetFormat()) {
+				this.log.warn(this.getRun() + " (" + this.programConfig + ","
+						+ full + ") The sampled subgraphs cannot be converted"
+						+ " to the input formats of the program; using the"
+						+ " complete data instead");
+				return null;
+			}
+			sampled.getDatasetConfig().loadIntoMemory();
+			this.log.info(this.getRun() + " (" + this.programConfig + ","
+					+ full + ") Sampled induced subgraphs with "
+					+ String.format(Locale.UK, "%.1f", fraction * 100)
+					+ "% of the vertices");
+			return sampled;
+		} catch (Exception e) {
+			this.log.warn(this.getRun() + " (" + this.programConfig + ","
+					+ full + ") Could not sample induced subgraphs; using the"
+					+ " complete data instead: " + e.getMessage());
+			return null;
+		} finally {
+			this.dataConfig = full;
+		}
+	}
+
+	/**
+	 * Helper method of {@link #doRunIterationBatch(int)}, which waits for the
+	 * program execution of an iteration to terminate.
+	 * 
+	 * @param execution
+	 *            The execution of the program.
+	 * @return The result of
+	 *         {@link #executeProgram(String[], java.util.Map, java.util.Map, File, File, de.clusteval.framework.threading.ProcessUsage)}
+	 *         .
+	 * @throws IOException
+	 * @throws RNotAvailableException
+	 * @throws RLibraryNotLoadedException
+	 * @throws InterruptedException
+	 *             If this runnable was interrupted while waiting.
+	 */
+	protected boolean waitForExecution(final Future<Boolean> execution)
+			throws IOException, RNotAvailableException,
+			RLibraryNotLoadedException, InterruptedException {
+		try {
+			return execution.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RNotAvailableException)
+				throw (RNotAvailableException) cause;
+			if (cause instanceof RLibraryNotLoadedException)
+				throw (RLibraryNotLoadedException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -320,6 +734,7 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 		sb.append("\n");
 
 		FileUtils.appendStringToFile(completeQualityOutput, sb.toString());
+		this.appendToQualityTable(this.optId, effectiveParams, null);
 
 		QualitySet minimalQualities = new QualitySet();
 		for (QualityMeasure measure : this.getRun().getQualityMeasures())
@@ -331,6 +746,7 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 		} else {
 			this.optimizationMethod.giveQualityFeedback(minimalQualities);
 		}
+		this.optimizationMethod.writeCheckpoint();
 	}
 
 	/*
@@ -346,6 +762,18 @@ public class ParameterOptimizationRunRunnable extends ExecutionRunRunnable {
 		// in this case, the list contains only one element
 		this.optimizationMethod.giveQualityFeedback(qualities.get(0)
 				.getSecond());
-		super.writeQualitiesToFile(qualities);
+		double fraction = this.getDataFraction(this.dataConfig);
+		if (fraction < 1.0) {
+			// qualities on subgraphs are not comparable to the others: the
+			// iteration is marked before it is written into the complete file
+			// and it is not written into the quality table
+			ParameterOptimizationResult.writeDataFraction(new File(
+					this.completeQualityOutput), qualities.get(0).getThird(),
+					fraction);
+			result.writeQualitiesToFiles(qualities);
+		} else
+			super.writeQualitiesToFile(qualities);
+		// the iteration is contained in the complete file now
+		this.optimizationMethod.writeCheckpoint();
 	}
 }
@@ -13,11 +13,7 @@
  */
 package de.clusteval.run.runnable;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CancellationException;
@@ -38,6 +34,7 @@ import de.clusteval.data.goldstandard.IncompleteGoldStandardException;
 import de.clusteval.data.goldstandard.format.UnknownGoldStandardFormatException;
 import de.clusteval.framework.RLibraryNotLoadedException;
 import de.clusteval.framework.repository.RegisterException;
+import de.clusteval.framework.threading.ResourceDemand;
 import de.clusteval.framework.threading.RunSchedulerThread;
 import de.clusteval.run.RUN_STATUS;
 import de.clusteval.run.Run;
@@ -348,41 +345,15 @@ public abstract class RunRunnable implements Runnable {
 	public Run getRun() {
 		return this.run;
 	}
-}
-
-/**
- * This class is responsible for reading and emptying the streams of the started
- * thread. This has to be done in order to avoid overflowing streams and thus
- * possible termination of the thread by the operating system.
- * 
- */
-class StreamGobbler extends Thread {
-
-	InputStream is;
-	BufferedWriter bw;
 
-	public StreamGobbler(InputStream is, BufferedWriter bw) {
-		super();
-		this.setName(this.getName().replace("Thread",
-				this.getClass().getSimpleName()));
-		// TODO this.setPriority(NORM_PRIORITY-1);
-		this.is = is;
-		this.bw = bw;
-	}
-
-	@Override
-	public void run() {
-		try {
-			InputStreamReader isr = new InputStreamReader(is);
-			BufferedReader br = new BufferedReader(isr);
-			String line = null;
-			while ((line = br.readLine()) != null)
-				synchronized (bw) {
-					bw.append(line);
-					bw.newLine();
-					bw.flush();
-				}
-		} catch (IOException ioe) {
-		}
+	/**
+	 * The run scheduler starts this runnable as soon as the resources returned
+	 * by this method are available.
+	 * 
+	 * @return The resources this runnable is expected to occupy while it is
+	 *         executed.
+	 */
+	public ResourceDemand getResourceDemand() {
+		return ResourceDemand.DEFAULT;
 	}
 }
@@ -18,6 +18,7 @@ import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -136,6 +137,32 @@ public class BackendClient extends Thread {
 		option = OptionBuilder.create("getQueue");
 		clientCLIOptions.addOption(option);
 
+		OptionBuilder
+				.withDescription("Gets the queue positions and estimated start times of the runs of this client");
+		option = OptionBuilder.create("getQueuePositions");
+		clientCLIOptions.addOption(option);
+
+		OptionBuilder.withArgName("programConfig");
+		OptionBuilder.hasOptionalArg();
+		OptionBuilder
+				.withDescription("Removes the cached executions of a certain program configuration (or of all programs) from the execution cache of the server");
+		option = OptionBuilder.create("invalidateExecutionCache");
+		clientCLIOptions.addOption(option);
+
+		OptionBuilder.withArgName("runResult> <qualityMeasure");
+		OptionBuilder.hasArgs(2);
+		OptionBuilder
+				.withDescription("Gets the parameter sets of a run result with the best quality regarding a certain quality measure");
+		option = OptionBuilder.create("getOptimalParameterSets");
+		clientCLIOptions.addOption(option);
+
+		OptionBuilder.withArgName("runResult");
+		OptionBuilder.hasArg();
+		OptionBuilder
+				.withDescription("Gets the parameter sets of a run result that are Pareto optimal regarding all its quality measures");
+		option = OptionBuilder.create("getParetoFronts");
+		clientCLIOptions.addOption(option);
+
 		OptionBuilder.withArgName("runName");
 		OptionBuilder.hasArg();
 		OptionBuilder
@@ -230,6 +257,12 @@ public class BackendClient extends Thread {
 	 * run result directories contained in the repository of this server, that
 	 * contain a clusters subfolder and at least one *.complete file containing
 	 * results (can be slow if many run result folders are present).</li>
+	 * <li><b>getOptimalParameterSets XXXX YYYY</b>: This tells the client to
+	 * get and print the parameter sets of a run result with the best quality
+	 * regarding a certain quality measure.</li>
+	 * <li><b>getParetoFronts XXXX</b>: This tells the client to get and print
+	 * the parameter sets of a run result that are Pareto optimal regarding all
+	 * its quality measures.</li>
 	 * <li><b>getRunStatus</b>: This tells the client to get the status and
 	 * percentage (if) of a certain run.</li>
 	 * <li><b>performRun XXXX</b>: This tells the client to perform a run with a
@@ -425,6 +458,23 @@ public class BackendClient extends Thread {
 			if (params.hasOption("getQueue")) {
 				System.out.println("Queue: " + this.getQueue());
 			}
+			if (params.hasOption("getQueuePositions")) {
+				for (Map.Entry<String, Pair<Integer, Long>> entry : this
+						.getMyQueuePositions().entrySet())
+					System.out.println(entry.getKey()
+							+ ": position "
+							+ entry.getValue().getFirst()
+							+ (entry.getValue().getSecond() >= 0
+									? ", estimated start "
+											+ new Date(entry.getValue()
+													.getSecond())
+									: ""));
+			}
+			if (params.hasOption("invalidateExecutionCache")) {
+				System.out.println("Invalidated cached executions: "
+						+ this.invalidateExecutionCache(params
+								.getOptionValue("invalidateExecutionCache")));
+			}
 			if (params.hasOption("getRunResults")) {
 				Map<Pair<String, String>, Map<String, Double>> result = this
 						.getRunResults(params.getOptionValue("getRunResults"));
@@ -445,6 +495,24 @@ public class BackendClient extends Thread {
 					first = false;
 				}
 			}
+			if (params.hasOption("getOptimalParameterSets")) {
+				String[] values = params
+						.getOptionValues("getOptimalParameterSets");
+				Map<Pair<String, String>, Map<String, String>> result = this
+						.getOptimalParameterSets(values[0], values[1]);
+				for (Pair<String, String> p : result.keySet())
+					System.out.println("(" + p.getFirst() + "," + p.getSecond()
+							+ ")\t" + result.get(p));
+			}
+			if (params.hasOption("getParetoFronts")) {
+				Map<Pair<String, String>, List<Map<String, String>>> result = this
+						.getParetoFronts(params
+								.getOptionValue("getParetoFronts"));
+				for (Pair<String, String> p : result.keySet())
+					for (Map<String, String> paramSet : result.get(p))
+						System.out.println("(" + p.getFirst() + ","
+								+ p.getSecond() + ")\t" + paramSet);
+			}
 			if (params.hasOption("getDataSets")) {
 				System.out.println("DataSets: " + this.getDataSets());
 			}
@@ -591,6 +659,65 @@ public class BackendClient extends Thread {
 		return server.getRunStatusForClientId(this.clientId);
 	}
 
+	/**
+	 * This method retrieves the queue positions of all the runs of this
+	 * client.
+	 * 
+	 * @return A map containing the queue position and estimated start time
+	 *         for every run of this client with waiting runnables.
+	 * @throws RemoteException
+	 */
+	public Map<String, Pair<Integer, Long>> getMyQueuePositions()
+			throws RemoteException {
+		return server.getQueuePositionsForClientId(this.clientId);
+	}
+
+	/**
+	 * This method removes cached executions from the execution cache of the
+	 * server.
+	 * 
+	 * @param programConfigName
+	 *            The name of the program configuration whose executions should
+	 *            be removed, or null to remove all cached executions.
+	 * @return The number of removed executions.
+	 * @throws RemoteException
+	 */
+	public int invalidateExecutionCache(final String programConfigName)
+			throws RemoteException {
+		return server.invalidateExecutionCache(programConfigName);
+	}
+
+	/**
+	 * @param uniqueRunIdentifier
+	 *            The unique run identifier of a run result stored in the
+	 *            corresponding directory of the repository.
+	 * @param qualityMeasure
+	 *            The name of a quality measure assessed in the run.
+	 * @return For every pair of data and program configuration the parameter
+	 *         set with the best quality regarding the given measure.
+	 * @throws RemoteException
+	 */
+	public Map<Pair<String, String>, Map<String, String>> getOptimalParameterSets(
+			final String uniqueRunIdentifier, final String qualityMeasure)
+			throws RemoteException {
+		return server.getOptimalParameterSets(uniqueRunIdentifier,
+				qualityMeasure);
+	}
+
+	/**
+	 * @param uniqueRunIdentifier
+	 *            The unique run identifier of a run result stored in the
+	 *            corresponding directory of the repository.
+	 * @return For every pair of data and program configuration the parameter
+	 *         sets of the Pareto front regarding all quality measures
+	 *         assessed in the run.
+	 * @throws RemoteException
+	 */
+	public Map<Pair<String, String>, List<Map<String, String>>> getParetoFronts(
+			final String uniqueRunIdentifier) throws RemoteException {
+		return server.getParetoFronts(uniqueRunIdentifier);
+	}
+
 	/**
 	 * @return A collection with the names of all runs and run results that are
 	 *         currently enqueued but not yet running.
@@ -16,6 +16,7 @@ package de.clusteval.serverclient;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.cli.Options;
@@ -115,6 +116,32 @@ public interface IBackendServer extends Remote {
 	 */
 	public Collection<String> getRunResults() throws RemoteException;
 
+	/**
+	 * @param uniqueRunIdentifier
+	 *            The unique run identifier of a run result stored in the
+	 *            corresponding directory of the repository.
+	 * @param qualityMeasure
+	 *            The name of a quality measure assessed in the run.
+	 * @return For every pair of data and program configuration the parameter
+	 *         set with the best quality regarding the given measure.
+	 * @throws RemoteException
+	 */
+	public Map<Pair<String, String>, Map<String, String>> getOptimalParameterSets(
+			final String uniqueRunIdentifier, final String qualityMeasure)
+			throws RemoteException;
+
+	/**
+	 * @param uniqueRunIdentifier
+	 *            The unique run identifier of a run result stored in the
+	 *            corresponding directory of the repository.
+	 * @return For every pair of data and program configuration the parameter
+	 *         sets of the Pareto front regarding all quality measures
+	 *         assessed in the run.
+	 * @throws RemoteException
+	 */
+	public Map<Pair<String, String>, List<Map<String, String>>> getParetoFronts(
+			final String uniqueRunIdentifier) throws RemoteException;
+
 	/**
 	 * 
 	 * @return A collection with the names of all runs and run results that are
@@ -208,6 +235,42 @@ public interface IBackendServer extends Remote {
 	public Map<String, Pair<RUN_STATUS, Float>> getRunStatusForClientId(
 			String clientId) throws RemoteException;
 
+	/**
+	 * This method returns the positions of the runs of the client with the
+	 * given id in the queue of the server.
+	 * 
+	 * <p>
+	 * Runs and run resumes of all clients share the available cores according
+	 * to the weights and priorities of the clients and runs. Thus the position
+	 * of a run does not only depend on the order in which runs were scheduled.
+	 * 
+	 * @param clientId
+	 *            The client id for which this method returns the queue
+	 *            positions of its runs.
+	 * @return For every run and run resume of this client with waiting
+	 *         runnables, the number of runnables that will be started before
+	 *         its next runnable and the estimated start time of that runnable
+	 *         in milliseconds since the epoch (-1 if it cannot be estimated
+	 *         yet).
+	 * @throws RemoteException
+	 */
+	public Map<String, Pair<Integer, Long>> getQueuePositionsForClientId(
+			String clientId) throws RemoteException;
+
+	/**
+	 * This method removes cached executions of deterministic programs from
+	 * the execution cache of the repository of this server, such that they
+	 * are executed again when they are needed the next time.
+	 * 
+	 * @param programConfigName
+	 *            The name of the program configuration whose executions should
+	 *            be removed, or null to remove all cached executions.
+	 * @return The number of removed executions.
+	 * @throws RemoteException
+	 */
+	public int invalidateExecutionCache(String programConfigName)
+			throws RemoteException;
+
 	// /**
 	// * @param clientId
 	// * @return
@@ -20,6 +20,7 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -157,8 +158,9 @@ public class StandaloneQualityEval {
 			List<Long> iterationNumbers = optR.getIterationNumbers();
 			List<Pair<ParameterSet, QualitySet>> quals = optR
 					.getOptimizationQualities();
-			List<Pair<ParameterSet, GraphMatching>> matchings = optR
-					.getOptimizationClusterings();
+			// the matchings are parsed one after another
+			Iterator<Pair<ParameterSet, GraphMatching>> matchings = optR
+					.clusteringIterator();
 
 			final DataConfig dataConfig = optR.getDataConfig();
 			final ProgramConfig programConfig = optR.getProgramConfig();
@@ -183,10 +185,10 @@ public class StandaloneQualityEval {
 			newResult.getDataConfig().getDatasetConfig().loadIntoMemory();
 
 			List<Triple<ParameterSet, QualitySet, Long>> newQualities = new ArrayList<Triple<ParameterSet, QualitySet, Long>>();
-			for (long l : iterationNumbers) {
-				Pair<ParameterSet, QualitySet> q = quals.get((int) l - 1);
-				Pair<ParameterSet, GraphMatching> matching = matchings
-						.get((int) l - 1);
+			for (int i = 0; i < iterationNumbers.size(); i++) {
+				long l = iterationNumbers.get(i);
+				Pair<ParameterSet, QualitySet> q = quals.get(i);
+				Pair<ParameterSet, GraphMatching> matching = matchings.next();
 				QualitySet tmpQualities = matching.getSecond().assessQuality(
 						newResult.getDataConfig(),
 						new ArrayList<QualityMeasure>(measures));
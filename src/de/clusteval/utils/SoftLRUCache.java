@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache holding at most a fixed number of values, which are only softly
+ * referenced. If the cache is full, the least recently used value is evicted;
+ * independently the garbage collector may clear any value when memory gets
+ * scarce.
+ * 
+ * <p>
+ * Thus values stored in this cache have to be reproducible by the caller, e.g.
+ * by parsing them from a file again.
+ * 
+ * @author Christian Wiwie
+ * @param <K>
+ *            The type of the keys.
+ * @param <V>
+ *            The type of the cached values.
+ * 
+ */
+public class SoftLRUCache<K, V> {
+
+	/**
+	 * A soft reference remembering its key, such that the entry can be
+	 * removed after the value has been cleared.
+	 */
+	protected static class KeyedSoftReference<K, V> extends SoftReference<V> {
+
+		protected K key;
+
+		protected KeyedSoftReference(final K key, final V value,
+				final ReferenceQueue<? super V> queue) {
+			super(value, queue);
+			this.key = key;
+		}
+	}
+
+	protected final int maxSize;
+
+	protected final LinkedHashMap<K, KeyedSoftReference<K, V>> map;
+
+	protected final ReferenceQueue<V> queue;
+
+	/**
+	 * @param maxSize
+	 *            The maximal number of values held by this cache.
+	 */
+	public SoftLRUCache(final int maxSize) {
+		super();
+		this.maxSize = maxSize;
+		this.queue = new ReferenceQueue<V>();
+		this.map = new LinkedHashMap<K, KeyedSoftReference<K, V>>(16, 0.75f,
+				true) {
+
+			private static final long serialVersionUID = 1L;
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+			 */
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<K, KeyedSoftReference<K, V>> eldest) {
+				return size() > SoftLRUCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Removes all entries whose values have been cleared by the garbage
+	 * collector.
+	 */
+	@SuppressWarnings("unchecked")
+	protected void purge() {
+		Reference<? extends V> ref;
+		while ((ref = this.queue.poll()) != null) {
+			KeyedSoftReference<K, V> keyed = (KeyedSoftReference<K, V>) ref;
+			// the key may have been associated with a new value meanwhile
+			if (this.map.get(keyed.key) == keyed)
+				this.map.remove(keyed.key);
+		}
+	}
+
+	/**
+	 * @param key
+	 *            The key of the value.
+	 * @return The cached value, or null if it is not cached (anymore).
+	 */
+	public synchronized V get(final K key) {
+		this.purge();
+		KeyedSoftReference<K, V> ref = this.map.get(key);
+		if (ref == null)
+			return null;
+		V value = ref.get();
+		if (value == null)
+			this.map.remove(key);
+		return value;
+	}
+
+	/**
+	 * @param key
+	 *            The key of the value.
+	 * @param value
+	 *            The value to cache.
+	 */
+	public synchronized void put(final K key, final V value) {
+		this.purge();
+		this.map.put(key, new KeyedSoftReference<K, V>(key, value, this.queue));
+	}
+
+	/**
+	 * @return The keys of all values that are currently cached, from the least
+	 *         to the most recently used.
+	 */
+	public synchronized List<K> keys() {
+		this.purge();
+		return new ArrayList<K>(this.map.keySet());
+	}
+
+	/**
+	 * @return The number of cached values; values cleared by the garbage
+	 *         collector may still be counted.
+	 */
+	public synchronized int size() {
+		this.purge();
+		return this.map.size();
+	}
+
+	/**
+	 * @return The maximal number of values held by this cache.
+	 */
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Removes all values from this cache.
+	 */
+	public synchronized void clear() {
+		this.map.clear();
+		while (this.queue.poll() != null)
+			;
+	}
+}
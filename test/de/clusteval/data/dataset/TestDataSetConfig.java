@@ -15,7 +15,9 @@ package de.clusteval.data.dataset;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import junit.framework.Assert;
 
@@ -23,6 +25,7 @@ import org.junit.Test;
 
 import utils.Pair;
 import utils.Triple;
+import de.clusteval.data.dataset.format.DataSetFormatParser;
 import de.clusteval.data.dataset.format.UnknownDataSetFormatException;
 import de.clusteval.data.dataset.type.UnknownDataSetTypeException;
 import de.clusteval.data.distance.UnknownDistanceMeasureException;
@@ -355,4 +358,40 @@ public class TestDataSetConfig extends TestRepositoryObject {
 
 	}
 
+	@Test
+	public void testNodeIdLabelIndicesWithoutLoading() throws Exception {
+		DataSetConfig dsConfig = DataSetConfig.parseFromFile(new File(
+				"testCaseRepository/data/datasets/configs/rashid.dsconfig")
+				.getAbsoluteFile());
+		// indices as they were created, when the datasets were parsed before
+		List<NodeIdLabelIndex> created = new ArrayList<NodeIdLabelIndex>();
+		for (String group : dsConfig.getGroups()) {
+			Pair<DataSetFormatParser, List<DataSet>> parserAndInputs = dsConfig
+					.getParserAndInputs(group);
+			Map<String, String> nodeIdToLabel = new HashMap<String, String>();
+			nodeIdToLabel.put("1", group + "_1");
+			created.add(NodeIdLabelIndex.create(repository
+					.getDataSetIndexBasePath(), NodeIdLabelIndex
+					.computeContentHash(parserAndInputs.getFirst().getClass()
+							.getSimpleName(), parserAndInputs.getSecond()),
+					nodeIdToLabel));
+		}
+
+		try {
+			// the indices are opened by the content hash of the dataset files
+			// without parsing them
+			List<NodeIdLabelIndex> indices = dsConfig.getNodeIdLabelIndices();
+			Assert.assertFalse(dsConfig.isInMemory());
+			Assert.assertEquals(created.size(), indices.size());
+			for (int i = 0; i < indices.size(); i++) {
+				Assert.assertEquals(created.get(i).getFile(), indices.get(i)
+						.getFile());
+				Assert.assertEquals(dsConfig.getGroups().get(i) + "_1", indices
+						.get(i).getLabel("1"));
+			}
+		} finally {
+			for (NodeIdLabelIndex index : created)
+				index.getFile().delete();
+		}
+	}
 }
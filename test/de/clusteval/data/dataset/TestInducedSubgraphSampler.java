@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.data.dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.DirectedSparseMultigraph;
+import file.FileUtils;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestInducedSubgraphSampler {
+
+	protected File folder;
+
+	protected List<DirectedSparseMultigraph<String, String>> graphs;
+
+	protected File pairList;
+
+	@Before
+	public void setUp() throws IOException {
+		this.folder = new File(System.getProperty("java.io.tmpdir"),
+				"clustevalInducedSubgraphSampler");
+		this.folder.mkdirs();
+
+		// two paths of 10 vertices each, aligned vertex by vertex
+		this.graphs = new ArrayList<DirectedSparseMultigraph<String, String>>();
+		StringBuilder pairs = new StringBuilder();
+		for (String prefix : new String[]{"a", "b"}) {
+			DirectedSparseMultigraph<String, String> graph = new DirectedSparseMultigraph<String, String>();
+			for (int i = 0; i < 10; i++)
+				graph.addVertex(prefix + i);
+			for (int i = 0; i < 9; i++)
+				graph.addEdge(prefix + i + "_" + (i + 1), prefix + i, prefix
+						+ (i + 1));
+			this.graphs.add(graph);
+		}
+		for (int i = 0; i < 10; i++)
+			pairs.append("a" + i + "\tb" + i + "\t1.0\n");
+		this.pairList = new File(this.folder, "a_vs_b.pairlist");
+		FileUtils.writeStringToFile(this.pairList.getAbsolutePath(),
+				pairs.toString());
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : this.folder.listFiles())
+			f.delete();
+		this.folder.delete();
+	}
+
+	@Test
+	public void testNestedAndAligned() throws IOException {
+		InducedSubgraphSampler sampler = new InducedSubgraphSampler(
+				this.graphs, Arrays.asList(this.pairList), 42);
+
+		List<Set<String>> small = sampler.sampleVertices(0.3);
+		List<Set<String>> large = sampler.sampleVertices(0.6);
+		Assert.assertEquals(3, small.get(0).size());
+		Assert.assertEquals(3, small.get(1).size());
+		Assert.assertEquals(6, large.get(0).size());
+		Assert.assertTrue(large.get(0).containsAll(small.get(0)));
+		Assert.assertTrue(large.get(1).containsAll(small.get(1)));
+
+		// the second sample contains the counterparts of the first one
+		for (String v : large.get(0))
+			Assert.assertTrue(large.get(1).contains(v.replace("a", "b")));
+
+		// the sample of the first network is connected
+		List<String> order = sampler.getVertexOrders().get(0);
+		for (int i = 1; i < order.size(); i++) {
+			boolean hasNeighbor = false;
+			for (String v : order.subList(0, i))
+				hasNeighbor |= this.graphs.get(0).isNeighbor(v, order.get(i));
+			Assert.assertTrue(hasNeighbor);
+		}
+
+		// the orders only depend on the seed
+		Assert.assertEquals(order, new InducedSubgraphSampler(this.graphs,
+				Arrays.asList(this.pairList), 42).getVertexOrders().get(0));
+	}
+
+	@Test
+	public void testWriteSample() throws IOException {
+		InducedSubgraphSampler sampler = new InducedSubgraphSampler(
+				this.graphs, new ArrayList<File>(), 42);
+
+		File edgeList = new File(this.folder, "a.edgelist");
+		FileUtils.writeStringToFile(edgeList.getAbsolutePath(),
+				"// alias = a\na0\ta1\na1\ta2\na2\ta3\n");
+		File sigs = new File(this.folder, "a.sigs");
+		FileUtils.writeStringToFile(sigs.getAbsolutePath(),
+				"a0\t1\t2\na3\ta1\t5\n");
+		File gml = new File(this.folder, "a.gml");
+		FileUtils.writeStringToFile(gml.getAbsolutePath(),
+				"graph [\nnode [\nid 0\nlabel \"a0\"\n]\n]\n");
+
+		Set<String> sampled = new HashSet<String>(Arrays.asList("a0", "a1",
+				"b0"));
+		File target = new File(this.folder, "a.edgelist.sample");
+		Assert.assertTrue(sampler.writeSample(edgeList, target, sampled));
+		Assert.assertEquals("// alias = a\na0\ta1\n",
+				FileUtils.readStringFromFile(target.getAbsolutePath()));
+
+		target = new File(this.folder, "a.sigs.sample");
+		Assert.assertTrue(sampler.writeSample(sigs, target, sampled));
+		Assert.assertEquals("a0\t1\t2\n",
+				FileUtils.readStringFromFile(target.getAbsolutePath()));
+
+		// lines of GML files do not start with vertices
+		target = new File(this.folder, "a.gml.sample");
+		Assert.assertFalse(sampler.writeSample(gml, target, sampled));
+		Assert.assertFalse(target.exists());
+	}
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.data.dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import file.FileUtils;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestNodeIdLabelIndex {
+
+	protected File folder;
+
+	@Before
+	public void setUp() {
+		this.folder = new File(System.getProperty("java.io.tmpdir"),
+				"clustevalNodeIdLabelIndex");
+		this.folder.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : this.folder.listFiles())
+			f.delete();
+		this.folder.delete();
+	}
+
+	@Test
+	public void testCreateAndOpen() throws IOException {
+		Map<String, String> idToLabel = new HashMap<String, String>();
+		for (int i = 0; i < 1000; i++)
+			idToLabel.put("" + i, "protein" + i);
+
+		Assert.assertNull(NodeIdLabelIndex.open(
+				this.folder.getAbsolutePath(), "abc"));
+
+		NodeIdLabelIndex index = NodeIdLabelIndex.create(
+				this.folder.getAbsolutePath(), "abc", idToLabel);
+		Assert.assertEquals(1000, index.size());
+		Assert.assertEquals("abc", index.getContentHash());
+
+		index = NodeIdLabelIndex.open(this.folder.getAbsolutePath(), "abc");
+		Assert.assertNotNull(index);
+		for (int i = 0; i < 1000; i++)
+			Assert.assertEquals("protein" + i, index.getLabel("" + i));
+		Assert.assertNull(index.getLabel("protein0"));
+
+		Assert.assertNull(NodeIdLabelIndex.open(
+				this.folder.getAbsolutePath(), "def"));
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		NodeIdLabelIndex index = NodeIdLabelIndex.create(
+				this.folder.getAbsolutePath(), "empty",
+				new HashMap<String, String>());
+		Assert.assertEquals(0, index.size());
+		Assert.assertNull(index.getLabel("1"));
+	}
+
+	@Test
+	public void testContentHashIsCached() throws IOException {
+		File f = new File(this.folder, "graph.txt");
+		FileUtils.writeStringToFile(f.getAbsolutePath(), "a\tb\n");
+		long lastModified = f.lastModified();
+		String hash = NodeIdLabelIndex.computeContentHash("format", f);
+		Assert.assertEquals(hash,
+				NodeIdLabelIndex.computeContentHash("format", f));
+		Assert.assertFalse(hash.equals(NodeIdLabelIndex.computeContentHash(
+				"otherFormat", f)));
+
+		// same size and modification time: the file is not read again
+		FileUtils.writeStringToFile(f.getAbsolutePath(), "a\tc\n");
+		f.setLastModified(lastModified);
+		Assert.assertEquals(hash,
+				NodeIdLabelIndex.computeContentHash("format", f));
+
+		// a changed file is hashed again
+		f.setLastModified(lastModified - 10000);
+		String newHash = NodeIdLabelIndex.computeContentHash("format", f);
+		Assert.assertFalse(hash.equals(newHash));
+		FileUtils.writeStringToFile(f.getAbsolutePath(), "a\tb\n");
+		f.setLastModified(lastModified - 20000);
+		Assert.assertEquals(hash,
+				NodeIdLabelIndex.computeContentHash("format", f));
+	}
+}
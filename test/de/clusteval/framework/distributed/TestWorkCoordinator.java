@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.distributed;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.clusteval.framework.ClustevalBackendWorker;
+import de.clusteval.framework.threading.ResourceDemand;
+import file.FileUtils;
+
+/**
+ * The worker nodes of these tests are started in separate JVMs, which stand
+ * in for the machines of a cluster.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class TestWorkCoordinator {
+
+	protected Registry registry;
+
+	protected WorkCoordinator coordinator;
+
+	protected int port;
+
+	protected File coordinatorRepository;
+
+	protected File workerRepository;
+
+	protected List<Process> workers;
+
+	@Before
+	public void setUp() throws Exception {
+		ServerSocket socket = new ServerSocket(0);
+		this.port = socket.getLocalPort();
+		socket.close();
+		this.registry = LocateRegistry.createRegistry(this.port);
+
+		this.coordinatorRepository = createTempDir("coordinator");
+		this.workerRepository = createTempDir("worker");
+
+		this.coordinator = new WorkCoordinator(1500, 3);
+		this.coordinator.setRepositoryPath(this.coordinatorRepository
+				.getAbsolutePath());
+		this.registry.bind(IWorkCoordinator.NAME,
+				UnicastRemoteObject.exportObject(this.coordinator, this.port));
+		this.workers = new ArrayList<Process>();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (Process worker : this.workers)
+			worker.destroy();
+		this.registry.unbind(IWorkCoordinator.NAME);
+		UnicastRemoteObject.unexportObject(this.coordinator, true);
+		UnicastRemoteObject.unexportObject(this.registry, true);
+		this.coordinator.shutdown();
+	}
+
+	protected static File createTempDir(final String name) throws Exception {
+		File dir = File.createTempFile(name, "");
+		dir.delete();
+		dir.mkdirs();
+		dir.deleteOnExit();
+		return dir;
+	}
+
+	protected Process startWorker() throws Exception {
+		Process worker = new ProcessBuilder(System.getProperty("java.home")
+				+ File.separator + "bin" + File.separator + "java", "-cp",
+				System.getProperty("java.class.path"),
+				ClustevalBackendWorker.class.getName(), "-port", ""
+						+ this.port, "-absRepoPath",
+				this.workerRepository.getAbsolutePath(), "-numberOfThreads",
+				"1", "-logLevel", "4").redirectErrorStream(true)
+				.redirectOutput(new File(this.workerRepository, "worker.log"))
+				.start();
+		this.workers.add(worker);
+		return worker;
+	}
+
+	protected void waitForWorkers(final int count) throws Exception {
+		long start = System.currentTimeMillis();
+		while (this.coordinator.getWorkerCount() < count
+				&& System.currentTimeMillis() - start < 30000)
+			Thread.sleep(50);
+		Assert.assertEquals(count, this.coordinator.getWorkerCount());
+	}
+
+	protected RemoteExecution createExecution(final String command) {
+		Map<String, String> environment = new HashMap<String, String>();
+		environment.put("PATH", System.getenv("PATH"));
+		return new RemoteExecution(new String[]{"sh", "-c", command},
+				this.coordinatorRepository, environment, new File(
+						this.coordinatorRepository, "logs/"
+								+ System.nanoTime() + ".log"), new File(
+						this.coordinatorRepository, "results/result.txt"),
+				-1, ResourceDemand.DEFAULT);
+	}
+
+	@Test(expected = NoWorkerAvailableException.class)
+	public void testNoWorker() throws Exception {
+		this.coordinator.submit(this.createExecution("true"));
+	}
+
+	@Test
+	public void testStreamsBackResults() throws Exception {
+		this.startWorker();
+		this.startWorker();
+		this.waitForWorkers(2);
+
+		File resultDir = new File(this.coordinatorRepository, "results");
+		List<Future<RemoteExecutionResult>> futures = new ArrayList<Future<RemoteExecutionResult>>();
+		List<RemoteExecution> executions = new ArrayList<RemoteExecution>();
+		for (int i = 0; i < 4; i++) {
+			RemoteExecution execution = this.createExecution("echo " + i
+					+ " > " + resultDir.getAbsolutePath() + "/result.txt." + i
+					+ "; echo done");
+			executions.add(execution);
+			futures.add(this.coordinator.submit(execution));
+		}
+		for (int i = 0; i < 4; i++) {
+			RemoteExecutionResult result = futures.get(i).get(30,
+					TimeUnit.SECONDS);
+			Assert.assertTrue(result.isExecuted());
+			Assert.assertEquals(0, result.getExitValue());
+			Assert.assertNotNull(result.getWorkerId());
+			// the worker node wrote into its own repository
+			Assert.assertEquals(i + "\n", FileUtils.readStringFromFile(new File(
+					resultDir, "result.txt." + i).getAbsolutePath()));
+			Assert.assertEquals("done\n", FileUtils.readStringFromFile(executions
+					.get(i).getLogFile()));
+			Assert.assertTrue(new File(this.workerRepository, "results/result.txt."
+					+ i).exists());
+		}
+		Assert.assertEquals(0, this.coordinator.getWaitingCount());
+		Assert.assertEquals(0, this.coordinator.getRunningCount());
+	}
+
+	@Test
+	public void testReschedulesWorkOfLostWorker() throws Exception {
+		Process first = this.startWorker();
+		this.waitForWorkers(1);
+
+		File resultFile = new File(this.coordinatorRepository,
+				"results/result.txt");
+		RemoteExecution execution = this.createExecution("sleep 2; echo lost > "
+				+ resultFile.getAbsolutePath());
+		Future<RemoteExecutionResult> future = this.coordinator
+				.submit(execution);
+
+		long start = System.currentTimeMillis();
+		while (this.coordinator.getRunningCount() < 1
+				&& System.currentTimeMillis() - start < 10000)
+			Thread.sleep(50);
+		Assert.assertEquals(1, this.coordinator.getRunningCount());
+
+		this.startWorker();
+		this.waitForWorkers(2);
+		// the first worker node is terminated during the execution
+		first.destroy();
+
+		RemoteExecutionResult result = future.get(30, TimeUnit.SECONDS);
+		Assert.assertTrue(result.isExecuted());
+		Assert.assertEquals(2, execution.getAttempts());
+		Assert.assertEquals("lost\n",
+				FileUtils.readStringFromFile(resultFile.getAbsolutePath()));
+		Assert.assertEquals(1, this.coordinator.getWorkerCount());
+	}
+}
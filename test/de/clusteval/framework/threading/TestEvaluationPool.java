@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestEvaluationPool {
+
+	protected static Callable<String> record(final String name,
+			final List<String> order, final CountDownLatch latch) {
+		return new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				if (latch != null)
+					latch.await();
+				order.add(name);
+				return name;
+			}
+		};
+	}
+
+	@Test
+	public void testFairness() throws Exception {
+		EvaluationPool pool = new EvaluationPool(1, 10);
+		List<String> order = Collections
+				.synchronizedList(new ArrayList<String>());
+		CountDownLatch latch = new CountDownLatch(1);
+
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		futures.add(pool.submit(record("a0", order, latch), "runA", "a"));
+		for (int i = 1; i < 4; i++)
+			futures.add(pool.submit(record("a" + i, order, null), "runA",
+					"a" + i));
+		futures.add(pool.submit(record("b0", order, null), "runB", "b"));
+		Assert.assertEquals(1, pool.getRunningCount());
+		Assert.assertEquals(4, pool.getWaitingCount());
+
+		latch.countDown();
+		for (Future<String> future : futures)
+			future.get(5, TimeUnit.SECONDS);
+
+		// run B does not wait for all evaluations of run A
+		Assert.assertEquals(5, order.size());
+		Assert.assertTrue(order.indexOf("b0") < order.indexOf("a3"));
+	}
+
+	@Test
+	public void testSourceOrder() throws Exception {
+		EvaluationPool pool = new EvaluationPool(4, 10);
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final List<Integer> order = Collections
+				.synchronizedList(new ArrayList<Integer>());
+
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int i = 0; i < 5; i++) {
+			final int iteration = i;
+			futures.add(pool.submit(new Callable<Integer>() {
+
+				@Override
+				public Integer call() throws Exception {
+					int current = running.incrementAndGet();
+					maxRunning.set(Math.max(maxRunning.get(), current));
+					Thread.sleep(10);
+					order.add(iteration);
+					running.decrementAndGet();
+					return iteration;
+				}
+			}, "run", "source"));
+		}
+		for (Future<Integer> future : futures)
+			future.get(5, TimeUnit.SECONDS);
+
+		Assert.assertEquals(1, maxRunning.get());
+		Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), order);
+	}
+
+	@Test
+	public void testCapacity() throws Exception {
+		final EvaluationPool pool = new EvaluationPool(1, 1);
+		final List<String> order = Collections
+				.synchronizedList(new ArrayList<String>());
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		Future<String> running = pool.submit(record("running", order, latch),
+				"run", "a");
+		Future<String> waiting = pool.submit(record("waiting", order, null),
+				"run", "b");
+		Assert.assertEquals(1, pool.getWaitingCount());
+
+		// the queue is full, thus the next submission blocks
+		final List<Future<String>> blocked = new ArrayList<Future<String>>();
+		Thread submitter = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					blocked.add(pool.submit(record("blocked", order, null),
+							"run", "c"));
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		};
+		submitter.start();
+		Thread.sleep(100);
+		Assert.assertTrue(submitter.isAlive());
+		Assert.assertEquals(1, pool.getWaitingCount());
+
+		latch.countDown();
+		submitter.join(5000);
+		Assert.assertFalse(submitter.isAlive());
+		running.get(5, TimeUnit.SECONDS);
+		waiting.get(5, TimeUnit.SECONDS);
+		blocked.get(0).get(5, TimeUnit.SECONDS);
+
+		long start = System.currentTimeMillis();
+		while (pool.getFinishedCount() < 3
+				&& System.currentTimeMillis() - start < 5000)
+			Thread.sleep(10);
+		Assert.assertEquals(3, pool.getStartedCount());
+		Assert.assertEquals(3, pool.getFinishedCount());
+		Assert.assertEquals(1, pool.getMaxWaitingCount());
+		Assert.assertEquals(0, pool.getWaitingCount());
+		Assert.assertTrue(pool.getMaxWaitTime() >= 100);
+		Assert.assertTrue(pool.getAverageRunTime() >= 0.0);
+	}
+}
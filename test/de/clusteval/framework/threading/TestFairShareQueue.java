@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestFairShareQueue {
+
+	protected static void add(final FairShareQueue<String> queue,
+			final String clientId, final String runId, final int count) {
+		for (int i = 1; i <= count; i++)
+			queue.add(runId + i, clientId, runId, 1.0, 0, 1);
+	}
+
+	protected static List<String> pollAll(final FairShareQueue<String> queue) {
+		List<String> result = new ArrayList<String>();
+		String element;
+		while ((element = queue.poll(null)) != null)
+			result.add(element);
+		return result;
+	}
+
+	@Test
+	public void testFifoWithinRun() {
+		FairShareQueue<String> queue = new FairShareQueue<String>();
+		add(queue, "client", "a", 4);
+		Assert.assertEquals(4, queue.size());
+		Assert.assertEquals("a1", queue.peek(null));
+		Assert.assertEquals(Arrays.asList("a1", "a2", "a3", "a4"),
+				pollAll(queue));
+		Assert.assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testClientsShareEqually() {
+		FairShareQueue<String> queue = new FairShareQueue<String>();
+		add(queue, "client1", "a", 6);
+		add(queue, "client2", "b", 2);
+
+		List<String> order = queue.getOrder();
+		// simulating the order does not change the queue
+		Assert.assertEquals(8, queue.size());
+		Assert.assertEquals(
+				Arrays.asList("a1", "b1", "a2", "b2", "a3", "a4", "a5", "a6"),
+				order);
+		Assert.assertEquals(order, pollAll(queue));
+	}
+
+	@Test
+	public void testWeights() {
+		FairShareQueue<String> queue = new FairShareQueue<String>();
+		queue.setClientShare("client1", 2.0, 0, -1);
+		add(queue, "client1", "a", 4);
+		add(queue, "client2", "b", 4);
+		Assert.assertEquals(
+				Arrays.asList("a1", "a2", "b1", "a3", "a4", "b2", "b3", "b4"),
+				pollAll(queue));
+	}
+
+	@Test
+	public void testRunsShareWithinClient() {
+		FairShareQueue<String> queue = new FairShareQueue<String>();
+		add(queue, "client", "a", 3);
+		add(queue, "client", "b", 1);
+		queue.add("c1", "client", "c", 1.0, 1, 1);
+		Assert.assertEquals(Arrays.asList("c1", "a1", "b1", "a2", "a3"),
+				pollAll(queue));
+	}
+
+	@Test
+	public void testPriorities() {
+		FairShareQueue<String> queue = new FairShareQueue<String>();
+		add(queue, "client1", "a", 2);
+		queue.setClientShare("client2", 1.0, 1, -1);
+		add(queue, "client2", "b", 2);
+		Assert.assertEquals(Arrays.asList("b1", "b2", "a1", "a2"),
+				pollAll(queue));
+	}
+
+	@Test
+	public void testCosts() {
+		FairShareQueue<String> queue = new FairShareQueue<String>();
+		queue.add("a1", "client1", "a", 1.0, 0, 4);
+		queue.add("a2", "client1", "a", 1.0, 0, 4);
+		add(queue, "client2", "b", 8);
+		// client1 needs 4 rounds for every element
+		Assert.assertEquals(Arrays.asList("b1", "b2", "b3", "a1", "b4", "b5",
+				"b6", "b7", "a2", "b8"), pollAll(queue));
+	}
+
+	@Test
+	public void testMaxRunning() {
+		FairShareQueue<String> queue = new FairShareQueue<String>();
+		queue.setClientShare("client1", 1.0, 0, 1);
+		add(queue, "client1", "a", 2);
+		add(queue, "client2", "b", 2);
+
+		Assert.assertEquals("a1", queue.poll(null));
+		Assert.assertEquals("b1", queue.poll(null));
+		Assert.assertEquals("b2", queue.poll(null));
+		// client1 has reached its limit
+		Assert.assertNull(queue.poll(null));
+		queue.finished("client1");
+		Assert.assertEquals("a2", queue.poll(null));
+	}
+
+	@Test
+	public void testFilterAndRemove() {
+		FairShareQueue<String> queue = new FairShareQueue<String>();
+		add(queue, "client1", "a", 2);
+		add(queue, "client2", "b", 2);
+
+		FairShareQueue.Filter<String> onlyB = new FairShareQueue.Filter<String>() {
+
+			@Override
+			public boolean accept(String element) {
+				return element.startsWith("b");
+			}
+		};
+		Assert.assertEquals("b1", queue.peek(onlyB));
+		Assert.assertEquals("b1", queue.poll(onlyB));
+
+		Assert.assertTrue(queue.remove("a1"));
+		Assert.assertFalse(queue.remove("a1"));
+		Assert.assertEquals(Arrays.asList("a2", "b2"), pollAll(queue));
+	}
+}
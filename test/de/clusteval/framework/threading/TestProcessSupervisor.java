@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import file.FileUtils;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestProcessSupervisor {
+
+	@Test
+	public void testTerminatesInTime() throws Exception {
+		File logFile = File.createTempFile("processSupervisor", ".log");
+		logFile.deleteOnExit();
+
+		Process process = new ProcessBuilder("sh", "-c", "echo out; echo err >&2")
+				.redirectErrorStream(true).redirectOutput(logFile).start();
+		Assert.assertTrue(ProcessSupervisor.getInstance().waitFor(process, 10,
+				TimeUnit.SECONDS));
+		Assert.assertEquals(0, process.exitValue());
+		Assert.assertEquals("out\nerr\n", FileUtils.readStringFromFile(logFile
+				.getAbsolutePath()));
+	}
+
+	@Test
+	public void testKillsProcessTree() throws Exception {
+		Process process = new ProcessBuilder("sh", "-c",
+				"sleep 100 & sleep 100 & wait").start();
+		int pid = ProcessSupervisor.getPid(process);
+		Assert.assertTrue(pid > 0);
+
+		// wait until both children are started
+		long start = System.currentTimeMillis();
+		while (ProcessSupervisor.getDescendants(pid).size() < 2
+				&& System.currentTimeMillis() - start < 5000)
+			Thread.sleep(10);
+		List<Integer> descendants = ProcessSupervisor.getDescendants(pid);
+		Assert.assertEquals(2, descendants.size());
+
+		start = System.currentTimeMillis();
+		Assert.assertFalse(ProcessSupervisor.getInstance().waitFor(process,
+				200, TimeUnit.MILLISECONDS));
+		Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+
+		// the children are killed as well
+		for (Integer descendant : descendants) {
+			start = System.currentTimeMillis();
+			while (new File("/proc/" + descendant).exists()
+					&& System.currentTimeMillis() - start < 5000)
+				Thread.sleep(10);
+			Assert.assertFalse(new File("/proc/" + descendant).exists());
+		}
+	}
+
+	@Test
+	public void testSamplesUsage() throws Exception {
+		ProcessSupervisor supervisor = new ProcessSupervisor();
+		supervisor.setSamplingInterval(50);
+
+		// the shell reads 4 MB, keeps them in memory and writes them; the
+		// final sleep ensures a sample after the work is done
+		Process process = new ProcessBuilder("sh", "-c",
+				"x=$(head -c 4194304 /dev/zero | tr '\\0' a); "
+						+ "echo \"$x\" > /dev/null; sleep 0.5").start();
+		ProcessUsage usage = new ProcessUsage();
+		Assert.assertTrue(supervisor.waitFor(process, 10, TimeUnit.SECONDS,
+				usage));
+
+		Assert.assertTrue(usage.getSampleCount() > 0);
+		Assert.assertTrue(usage.getReadBytes() >= 4194304);
+		Assert.assertTrue(usage.getWriteBytes() >= 4194304);
+		Assert.assertTrue(usage.getPeakMemory() >= 4194304);
+		Assert.assertTrue(usage.getCpuTime() >= 0);
+	}
+}
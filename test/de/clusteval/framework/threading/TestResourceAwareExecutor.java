@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.framework.threading;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestResourceAwareExecutor {
+
+	protected static Runnable await(final CountDownLatch latch) {
+		return new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		};
+	}
+
+	protected static void awaitRunning(final ResourceAwareExecutor executor,
+			final int runningCount) throws InterruptedException {
+		long start = System.currentTimeMillis();
+		while (executor.getRunningCount() != runningCount
+				&& System.currentTimeMillis() - start < 5000)
+			Thread.sleep(10);
+		Assert.assertEquals(runningCount, executor.getRunningCount());
+	}
+
+	@Test
+	public void testPacking() throws Exception {
+		ResourceAwareExecutor executor = new ResourceAwareExecutor(4, 1000);
+		CountDownLatch latch = new CountDownLatch(1);
+
+		Future<?> large = executor.submit(await(latch), new ResourceDemand(3,
+				800));
+		// does not fit: only 200 MB left
+		Future<?> highMemory = executor.submit(await(latch),
+				new ResourceDemand(1, 300));
+		// fits into the remaining budget
+		Future<?> small = executor.submit(await(latch), new ResourceDemand(1,
+				100));
+
+		Assert.assertEquals(4, executor.getUsedCores());
+		Assert.assertEquals(900, executor.getUsedMemory());
+		Assert.assertEquals(1, executor.getWaitingCount());
+		Assert.assertEquals(1.0, executor.getCoreUtilization(), 0.0);
+		Assert.assertEquals(0.9, executor.getMemoryUtilization(), 0.0);
+
+		latch.countDown();
+		large.get(5, TimeUnit.SECONDS);
+		small.get(5, TimeUnit.SECONDS);
+		highMemory.get(5, TimeUnit.SECONDS);
+		awaitRunning(executor, 0);
+
+		Assert.assertEquals(0, executor.getUsedCores());
+		Assert.assertEquals(0, executor.getUsedMemory());
+		Assert.assertEquals(3, executor.getStartedCount());
+		Assert.assertTrue(executor.getAverageWaitTime() >= 0.0);
+		executor.shutdown();
+	}
+
+	@Test
+	public void testDemandLargerThanBudget() throws Exception {
+		ResourceAwareExecutor executor = new ResourceAwareExecutor(2, -1);
+		CountDownLatch latch = new CountDownLatch(1);
+
+		Future<?> huge = executor.submit(await(latch), new ResourceDemand(8,
+				100000));
+		Future<?> small = executor.submit(await(latch), ResourceDemand.DEFAULT);
+
+		// the huge runnable occupies the complete budget and runs alone
+		awaitRunning(executor, 1);
+		Assert.assertEquals(2, executor.getUsedCores());
+		Assert.assertTrue(Double.isNaN(executor.getMemoryUtilization()));
+		Assert.assertFalse(small.isDone());
+
+		latch.countDown();
+		huge.get(5, TimeUnit.SECONDS);
+		small.get(5, TimeUnit.SECONDS);
+		executor.shutdown();
+	}
+
+	@Test
+	public void testNoStarvation() throws Exception {
+		ResourceAwareExecutor executor = new ResourceAwareExecutor(2, -1, 1);
+		CountDownLatch first = new CountDownLatch(1);
+		CountDownLatch rest = new CountDownLatch(1);
+
+		executor.submit(await(first), ResourceDemand.DEFAULT);
+		Future<?> large = executor.submit(await(rest), new ResourceDemand(2, 0));
+		// bypasses the large runnable once
+		executor.submit(await(rest), ResourceDemand.DEFAULT);
+		// has to wait for the large runnable
+		Future<?> last = executor.submit(await(rest), ResourceDemand.DEFAULT);
+
+		awaitRunning(executor, 2);
+		Assert.assertEquals(2, executor.getWaitingCount());
+
+		first.countDown();
+		Thread.sleep(100);
+		Assert.assertFalse(last.isDone());
+		Assert.assertEquals(2, executor.getWaitingCount());
+
+		rest.countDown();
+		large.get(5, TimeUnit.SECONDS);
+		last.get(5, TimeUnit.SECONDS);
+		executor.shutdown();
+	}
+
+	@Test
+	public void testFairShare() throws Exception {
+		ResourceAwareExecutor executor = new ResourceAwareExecutor(1, -1);
+		CountDownLatch first = new CountDownLatch(1);
+		CountDownLatch rest = new CountDownLatch(1);
+
+		executor.submit(await(first), ResourceDemand.DEFAULT, "client1",
+				"run1", 1.0, 0);
+		Future<?> second = executor.submit(await(rest),
+				ResourceDemand.DEFAULT, "client1", "run1", 1.0, 0);
+		executor.submit(await(rest), ResourceDemand.DEFAULT, "client1",
+				"run1", 1.0, 0);
+		Future<?> other = executor.submit(await(rest),
+				ResourceDemand.DEFAULT, "client2", "run2", 1.0, 0);
+
+		// the task of the second client overtakes the last task of the first
+		Map<String, ResourceAwareExecutor.QueuePosition> positions = executor
+				.getQueuePositions("client2");
+		Assert.assertEquals(1, positions.get("run2").getPosition());
+		// no task finished yet
+		Assert.assertEquals(-1, positions.get("run2").getEstimatedStartTime());
+		Assert.assertEquals(0, executor.getQueuePositions("client1")
+				.get("run1").getPosition());
+
+		first.countDown();
+		long start = System.currentTimeMillis();
+		while (executor.getWaitingCount() != 2
+				&& System.currentTimeMillis() - start < 5000)
+			Thread.sleep(10);
+		Assert.assertEquals(2, executor.getWaitingCount());
+		Assert.assertFalse(other.isDone());
+
+		positions = executor.getQueuePositions("client2");
+		Assert.assertEquals(0, positions.get("run2").getPosition());
+		Assert.assertTrue(positions.get("run2").getEstimatedStartTime() >= 0);
+
+		rest.countDown();
+		other.get(5, TimeUnit.SECONDS);
+		second.get(5, TimeUnit.SECONDS);
+		executor.shutdown();
+	}
+
+	@Test
+	public void testCancelWaiting() throws Exception {
+		ResourceAwareExecutor executor = new ResourceAwareExecutor(1, -1);
+		CountDownLatch latch = new CountDownLatch(1);
+
+		Future<?> running = executor.submit(await(latch),
+				ResourceDemand.DEFAULT);
+		Future<?> waiting = executor.submit(await(latch),
+				ResourceDemand.DEFAULT);
+		Assert.assertTrue(waiting.cancel(true));
+		Assert.assertEquals(0, executor.getWaitingCount());
+
+		latch.countDown();
+		running.get(5, TimeUnit.SECONDS);
+		awaitRunning(executor, 0);
+		Assert.assertEquals(1, executor.getStartedCount());
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.graphmatching;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import utils.Pair;
+import de.clusteval.data.dataset.VertexDictionary;
+import de.clusteval.program.ParameterSet;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestGraphMatchingBinaryCodec {
+
+	protected File folder;
+
+	@Before
+	public void setUp() {
+		this.folder = new File(System.getProperty("java.io.tmpdir"),
+				"clustevalBinaryCodec");
+		this.folder.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : this.folder.listFiles())
+			f.delete();
+		this.folder.delete();
+	}
+
+	@Test
+	public void testEncodeDecode() throws IOException {
+		List<String> labels1 = new ArrayList<String>();
+		List<String> labels2 = new ArrayList<String>();
+		for (int i = 0; i < 500; i++) {
+			labels1.add("a" + i);
+			labels2.add("b" + i);
+		}
+		VertexDictionary dict1 = VertexDictionary.create(
+				this.folder.getAbsolutePath(), "hash1", labels1);
+		VertexDictionary dict2 = VertexDictionary.create(
+				this.folder.getAbsolutePath(), "hash2", labels2);
+		Assert.assertEquals(500, dict1.size());
+		Assert.assertEquals("a0", dict1.getLabel(0));
+		Assert.assertEquals("a17", dict1.getLabel(dict1.getIndex("a17")));
+		Assert.assertEquals(-1, dict1.getIndex("b17"));
+
+		GraphMatching matching = new GraphMatching();
+		for (int i = 499; i >= 0; i -= 3)
+			matching.addMatching(Pair.getPair("a" + i, "b" + (499 - i)), i);
+		matching.addMatching(Pair.getPair("unknown", "b1"), 0.5);
+
+		ParameterSet params = new ParameterSet();
+		params.put("alpha", "0.3");
+
+		File f = new File(this.folder, "test.conv");
+		GraphMatchingBinaryCodec.encode(f, params, matching, dict1, dict2);
+		Assert.assertTrue(GraphMatchingBinaryCodec.isBinary(f));
+
+		Pair<ParameterSet, GraphMatching> decoded = GraphMatchingBinaryCodec
+				.decode(f, this.folder.getAbsolutePath());
+		Assert.assertEquals(params, decoded.getFirst());
+		GraphMatching result = decoded.getSecond();
+		Assert.assertEquals(matching.size(), result.size());
+		for (Pair<String, String> pair : matching) {
+			Assert.assertEquals(pair.getSecond(),
+					result.getMatchingForGraph1Vertex(pair.getFirst()));
+			Assert.assertEquals(matching.getScore(pair), result.getScore(pair));
+		}
+	}
+}
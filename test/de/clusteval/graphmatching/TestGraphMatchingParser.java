@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.graphmatching;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import utils.Pair;
+import de.clusteval.program.ParameterSet;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestGraphMatchingParser {
+
+	@Test
+	public void testLegacyFormat() throws IOException {
+		File f = File.createTempFile("legacy", ".conv");
+		f.deleteOnExit();
+		BufferedWriter bw = new BufferedWriter(new FileWriter(f));
+		bw.write("alpha,beta\tMatching\n");
+		bw.write("0.1,2\ta,b;c,d;e,f;");
+		bw.close();
+
+		GraphMatchingParser parser = new GraphMatchingParser(null,
+				f.getAbsolutePath(), false);
+		parser.process();
+		Assert.assertEquals(1, parser.getFormatVersion());
+		Pair<ParameterSet, GraphMatching> result = parser.getMatchings();
+		Assert.assertEquals("0.1", result.getFirst().get("alpha"));
+		Assert.assertEquals("2", result.getFirst().get("beta"));
+		GraphMatching matching = result.getSecond();
+		Assert.assertEquals(3, matching.size());
+		Assert.assertEquals("b", matching.getMatchingForGraph1Vertex("a"));
+		Assert.assertEquals("f", matching.getMatchingForGraph1Vertex("e"));
+		Assert.assertFalse(matching.hasScores());
+	}
+
+	@Test
+	public void testLineFormat() throws IOException {
+		File f = File.createTempFile("lines", ".conv");
+		f.deleteOnExit();
+		Map<String, String> params = new LinkedHashMap<String, String>();
+		params.put("alpha", "0.1");
+		params.put("beta", "2");
+		GraphMatchingWriter writer = new GraphMatchingWriter(f, params);
+		writer.writePair("a", "b");
+		writer.writePair("c", "d", 0.5);
+		writer.close();
+
+		GraphMatchingParser parser = new GraphMatchingParser(null,
+				f.getAbsolutePath(), false);
+		parser.process();
+		Assert.assertEquals(GraphMatchingWriter.FORMAT_VERSION,
+				parser.getFormatVersion());
+		Pair<ParameterSet, GraphMatching> result = parser.getMatchings();
+		Assert.assertEquals("0.1", result.getFirst().get("alpha"));
+		Assert.assertEquals("2", result.getFirst().get("beta"));
+		GraphMatching matching = result.getSecond();
+		Assert.assertEquals(2, matching.size());
+		Assert.assertEquals("b", matching.getMatchingForGraph1Vertex("a"));
+		Assert.assertNull(matching.getScore(Pair.getPair("a", "b")));
+		Assert.assertEquals(0.5, matching.getScore(Pair.getPair("c", "d")),
+				0.0);
+	}
+
+	@Test
+	public void testLineFormatWithoutParameters() throws IOException {
+		File f = File.createTempFile("noparams", ".conv");
+		f.deleteOnExit();
+		GraphMatchingWriter writer = new GraphMatchingWriter(f,
+				new LinkedHashMap<String, String>());
+		writer.writePair("a", "b");
+		writer.close();
+
+		GraphMatchingParser parser = new GraphMatchingParser(null,
+				f.getAbsolutePath(), false);
+		parser.process();
+		Pair<ParameterSet, GraphMatching> result = parser.getMatchings();
+		Assert.assertTrue(result.getFirst().isEmpty());
+		Assert.assertEquals(1, result.getSecond().size());
+	}
+}
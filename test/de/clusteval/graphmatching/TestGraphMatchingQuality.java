@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.graphmatching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import utils.Pair;
+import de.clusteval.data.DataConfig;
+import de.clusteval.framework.repository.RegisterException;
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import de.clusteval.quality.StubQualityMeasure;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestGraphMatchingQuality {
+
+	/**
+	 * Returns the size of the clustering and remembers whether it was
+	 * evaluated by a worker of the quality measure pool.
+	 */
+	protected static class PoolQualityMeasure extends StubQualityMeasure {
+
+		protected boolean threadSafe;
+
+		protected RuntimeException exception;
+
+		protected volatile boolean evaluatedInPool;
+
+		public PoolQualityMeasure(final boolean threadSafe,
+				final RuntimeException exception) throws RegisterException {
+			super(null, false, 0, null);
+			this.threadSafe = threadSafe;
+			this.exception = exception;
+		}
+
+		@Override
+		public QualityMeasureValue getQualityOf(GraphMatching clustering,
+				GraphMatching goldStandard, DataConfig dataConfig) {
+			this.evaluatedInPool = ForkJoinTask.inForkJoinPool();
+			if (this.exception != null)
+				throw this.exception;
+			return super.getQualityOf(clustering, goldStandard, dataConfig);
+		}
+
+		@Override
+		public boolean isThreadSafe() {
+			return this.threadSafe;
+		}
+	}
+
+	protected GraphMatching createMatching() {
+		GraphMatching matching = new GraphMatching();
+		matching.addMatching(Pair.getPair("a", "b"));
+		matching.addMatching(Pair.getPair("c", "d"));
+		return matching;
+	}
+
+	@Test
+	public void testAssessQuality() throws Exception {
+		// a data configuration without goldstandard, which is not registered
+		DataConfig dataConfig = new DataConfig(null, 0, null, null, null) {
+
+			@Override
+			public boolean register() {
+				return false;
+			}
+		};
+		// quality measures are equal, if they are of the same class
+		PoolQualityMeasure parallel = new PoolQualityMeasure(true, null) {
+		};
+		PoolQualityMeasure sequential = new PoolQualityMeasure(false, null) {
+		};
+		PoolQualityMeasure failing = new PoolQualityMeasure(true,
+				new IllegalArgumentException()) {
+		};
+		List<QualityMeasure> measures = new ArrayList<QualityMeasure>();
+		measures.add(sequential);
+		measures.add(failing);
+		measures.add(parallel);
+
+		QualitySet qualities = createMatching().assessQuality(dataConfig,
+				measures);
+		Assert.assertEquals(3, qualities.size());
+		Assert.assertEquals(2.0, qualities.get(parallel).getValue(), 0.0);
+		Assert.assertEquals(2.0, qualities.get(sequential).getValue(), 0.0);
+		Assert.assertTrue(Double.isNaN(qualities.get(failing).getValue()));
+
+		Assert.assertTrue(parallel.evaluatedInPool);
+		Assert.assertFalse(sequential.evaluatedInPool);
+	}
+}
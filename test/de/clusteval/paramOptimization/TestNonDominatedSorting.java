@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.clusteval.framework.repository.RegisterException;
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import de.clusteval.quality.StubQualityMeasure;
+import de.clusteval.quality.TestQualitySet.OtherStubQualityMeasure;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestNonDominatedSorting {
+
+	protected QualitySet qualities(final QualityMeasure measure1,
+			final double value1, final QualityMeasure measure2,
+			final double value2) {
+		QualitySet result = new QualitySet();
+		result.put(measure1, QualityMeasureValue.getForDouble(value1));
+		result.put(measure2, QualityMeasureValue.getForDouble(value2));
+		return result;
+	}
+
+	@Test
+	public void testSort() throws RegisterException {
+		QualityMeasure m1 = new StubQualityMeasure(null, false, 0, null);
+		QualityMeasure m2 = new OtherStubQualityMeasure();
+		List<QualityMeasure> measures = Arrays.asList(m1, m2);
+
+		List<QualitySet> qualities = new ArrayList<QualitySet>();
+		// front 0: (1,4), (2,3), (4,1)
+		qualities.add(qualities(m1, 1, m2, 4));
+		qualities.add(qualities(m1, 2, m2, 3));
+		// dominated by (2,3)
+		qualities.add(qualities(m1, 1, m2, 2));
+		qualities.add(qualities(m1, 4, m2, 1));
+		// not terminated iterations are dominated by all others
+		QualitySet notTerminated = new QualitySet();
+		notTerminated.put(m1, QualityMeasureValue.getForNotTerminated());
+		qualities.add(notTerminated);
+
+		Assert.assertTrue(NonDominatedSorting.dominates(qualities.get(1),
+				qualities.get(2), measures));
+		Assert.assertFalse(NonDominatedSorting.dominates(qualities.get(0),
+				qualities.get(1), measures));
+
+		List<List<Integer>> fronts = NonDominatedSorting.sort(qualities,
+				measures);
+		Assert.assertEquals(3, fronts.size());
+		Assert.assertEquals(Arrays.asList(0, 1, 3), fronts.get(0));
+		Assert.assertEquals(Arrays.asList(2), fronts.get(1));
+		Assert.assertEquals(Arrays.asList(4), fronts.get(2));
+
+		double[] distances = NonDominatedSorting.crowdingDistances(qualities,
+				fronts.get(0), measures);
+		Assert.assertTrue(Double.isInfinite(distances[0]));
+		Assert.assertTrue(Double.isInfinite(distances[2]));
+		// (4-1)/3 + (4-1)/3
+		Assert.assertEquals(2.0, distances[1], 1e-9);
+	}
+}
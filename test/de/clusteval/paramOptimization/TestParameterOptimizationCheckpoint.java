@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.clusteval.program.ParameterSet;
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import de.clusteval.quality.StubQualityMeasure;
+import file.FileUtils;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestParameterOptimizationCheckpoint {
+
+	protected File folder;
+
+	protected QualityMeasure measure;
+
+	@Before
+	public void setUp() throws Exception {
+		this.folder = File.createTempFile("checkpoint", "");
+		this.folder.delete();
+		this.folder.mkdirs();
+		this.measure = new StubQualityMeasure(null, false, 0, null);
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.delete(this.folder);
+	}
+
+	protected ParameterSet createParameterSet(final String t, final String k) {
+		ParameterSet result = new ParameterSet();
+		result.put("T", t);
+		result.put("k", k);
+		return result;
+	}
+
+	@Test
+	public void testWriteRead() throws Exception {
+		ParameterOptimizationCheckpoint checkpoint = new ParameterOptimizationCheckpoint(
+				"TPEParameterOptimizationMethod", 3, createParameterSet("0.5",
+						"2"));
+		Random rand = new Random(42);
+		rand.nextInt();
+		checkpoint.put("rand", rand);
+		checkpoint.put("generation", 2);
+		checkpoint.putPoints("points",
+				Arrays.asList(new double[]{0.5, 2.0}, null));
+		checkpoint.putValues("values", Arrays.asList(
+				QualityMeasureValue.getForDouble(0.25),
+				QualityMeasureValue.getForNotTerminated(), null));
+		checkpoint.putParameterSets("parameterSets",
+				Arrays.asList(createParameterSet("0.1", "1"), null));
+		QualitySet qualities = new QualitySet();
+		qualities.put(this.measure, QualityMeasureValue.getForDouble(0.75));
+		List<QualitySet> qualitySets = new ArrayList<QualitySet>();
+		qualitySets.add(qualities);
+		qualitySets.add(null);
+		checkpoint.putQualities("qualities", qualitySets);
+
+		File f = ParameterOptimizationMethod.getCheckpointFile(new File(
+				this.folder, "test.results.qual.complete"));
+		checkpoint.write(f);
+		// an existing checkpoint is replaced
+		checkpoint.write(f);
+		Assert.assertFalse(new File(f.getAbsolutePath() + ".tmp").exists());
+
+		ParameterOptimizationCheckpoint read = ParameterOptimizationCheckpoint
+				.read(f);
+		Assert.assertEquals("TPEParameterOptimizationMethod",
+				read.getMethodClassName());
+		Assert.assertEquals(3, read.getIterationNumber());
+		Assert.assertEquals(createParameterSet("0.5", "2"),
+				read.getParameterSet());
+
+		Random readRand = read.get("rand");
+		Assert.assertEquals(rand.nextInt(), readRand.nextInt());
+		Assert.assertEquals(2, read.<Integer> get("generation").intValue());
+
+		List<double[]> points = read.getPoints("points");
+		Assert.assertEquals(2, points.size());
+		Assert.assertArrayEquals(new double[]{0.5, 2.0}, points.get(0), 0.0);
+		Assert.assertNull(points.get(1));
+
+		List<QualityMeasureValue> values = read.getValues("values");
+		Assert.assertEquals(3, values.size());
+		Assert.assertEquals(0.25, values.get(0).getValue(), 0.0);
+		Assert.assertEquals(QualityMeasureValue.getForNotTerminated(),
+				values.get(1));
+		Assert.assertNull(values.get(2));
+
+		List<ParameterSet> parameterSets = read
+				.getParameterSets("parameterSets");
+		Assert.assertEquals(createParameterSet("0.1", "1"),
+				parameterSets.get(0));
+		Assert.assertNull(parameterSets.get(1));
+
+		List<QualitySet> readQualities = read.getQualities("qualities",
+				Arrays.asList(this.measure));
+		Assert.assertEquals(0.75, readQualities.get(0).get(this.measure)
+				.getValue(), 0.0);
+		Assert.assertNull(readQualities.get(1));
+	}
+
+	@Test(expected = ParameterOptimizationException.class)
+	public void testMissingValue() throws Exception {
+		ParameterOptimizationCheckpoint checkpoint = new ParameterOptimizationCheckpoint(
+				"DivisiveParameterOptimizationMethod", 1, createParameterSet(
+						"0.5", "2"));
+		checkpoint.get("currentPos");
+	}
+
+	@Test
+	public void testReadInvalid() throws Exception {
+		File f = new File(this.folder, "test.checkpoint");
+		Assert.assertNull(ParameterOptimizationCheckpoint.read(f));
+		FileUtils.writeStringToFile(f.getAbsolutePath(), "iteration\tT\n");
+		Assert.assertNull(ParameterOptimizationCheckpoint.read(f));
+	}
+}
@@ -14,62 +14,753 @@
 package de.clusteval.paramOptimization;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-
-import junit.framework.Assert;
-import junitx.framework.ArrayAssert;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
-import org.junit.AfterClass;
+import org.junit.Assert;
 import org.junit.Before;
-import org.junit.BeforeClass;
 import org.junit.Test;
 
 import utils.ArraysExt;
-import ch.qos.logback.classic.Level;
+import utils.Pair;
+import utils.Triple;
 import de.clusteval.framework.ClustevalBackendServer;
-import de.clusteval.framework.repository.InvalidRepositoryException;
-import de.clusteval.framework.repository.Repository;
-import de.clusteval.framework.repository.RepositoryAlreadyExistsException;
-import de.clusteval.framework.repository.config.RepositoryConfigNotFoundException;
-import de.clusteval.framework.repository.config.RepositoryConfigurationException;
-import de.clusteval.paramOptimization.ParameterOptimizationMethod;
-import de.clusteval.paramOptimization.UnknownParameterOptimizationMethodException;
+import de.clusteval.program.ParameterSet;
+import de.clusteval.program.ProgramParameter;
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import de.clusteval.run.ParameterOptimizationRun;
+import de.clusteval.run.Run;
+import de.clusteval.run.result.ParameterOptimizationResult;
+import de.clusteval.utils.TestRepositoryObject;
+import file.FileUtils;
 
 /**
  * @author Christian Wiwie
  * 
  */
-public class TestParameterOptimizationMethod {
+public class TestParameterOptimizationMethod extends TestRepositoryObject {
+
+	protected ParameterOptimizationRun run;
+
+	protected File folder;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.utils.TestRepositoryObject#setUp()
+	 */
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		this.run = (ParameterOptimizationRun) Run.parseFromFile(new File(
+				"testCaseRepository/runs/netal.run").getAbsoluteFile());
+		this.folder = File.createTempFile("paramOptimization", "");
+		this.folder.delete();
+		this.folder.mkdirs();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.utils.TestRepositoryObject#tearDown()
+	 */
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.delete(this.folder);
+		super.tearDown();
+	}
 
 	/**
-	 * @throws java.lang.Exception
+	 * Creates a parameter optimization method for the program and data
+	 * configuration of the run netal and resets it.
+	 * 
+	 * @param name
+	 *            The name of the parameter optimization method class.
+	 * @param iterationsPerParameter
+	 *            The number of iterations for every optimization parameter.
+	 * @param isResume
+	 *            Whether the method resumes the results written before.
+	 * @return The new parameter optimization method.
+	 * @throws Exception
 	 */
-	@BeforeClass
-	public static void setUpBeforeClass() throws Exception {
+	protected ParameterOptimizationMethod createMethod(final String name,
+			final int iterationsPerParameter, final boolean isResume)
+			throws Exception {
+		return createMethod(name, iterationsPerParameter, isResume, null);
 	}
 
 	/**
-	 * @throws java.lang.Exception
+	 * @param priorObservations
+	 *            The prior observations of the method, or null.
+	 * @see #createMethod(String, int, boolean)
 	 */
-	@AfterClass
-	public static void tearDownAfterClass() throws Exception {
+	protected ParameterOptimizationMethod createMethod(final String name,
+			final int iterationsPerParameter, final boolean isResume,
+			final List<Pair<ParameterSet, QualitySet>> priorObservations)
+			throws Exception {
+		ParameterOptimizationMethod template = run.getOptimizationMethods()
+				.get(0);
+		ParameterOptimizationMethod method = ParameterOptimizationMethod
+				.parseFromString(repository, name, run, template
+						.getProgramConfig(), template.getDataConfig(),
+						template.getOptimizationParameter(), template
+								.getOptimizationCriterion(), ArraysExt.rep(
+								iterationsPerParameter, template
+										.getOptimizationParameter().size()),
+						isResume);
+		File resultFolder = new File(new File(this.folder, name), "clusters");
+		if (!isResume)
+			FileUtils.delete(resultFolder);
+		resultFolder.mkdirs();
+		if (priorObservations != null)
+			method.setPriorObservations(priorObservations);
+		method.reset(new File(resultFolder,
+				"netal_rashid_merge.results.qual.complete"));
+		return method;
 	}
 
 	/**
-	 * @throws java.lang.Exception
+	 * A deterministic quality of the given parameter set, which is different
+	 * for nearly all parameter sets.
 	 */
-	@Before
-	public void setUp() throws Exception {
+	protected QualitySet getQualities(final ParameterOptimizationMethod method,
+			final ParameterSet paramSet) {
+		double sum = 0.0;
+		for (String value : paramSet.values())
+			sum += Double.valueOf(value);
+		return getQualities(Math.abs(Math.sin(sum)));
 	}
 
 	/**
-	 * @throws java.lang.Exception
+	 * @return The given quality for all quality measures of the run.
 	 */
-	@After
-	public void tearDown() throws Exception {
+	protected QualitySet getQualities(final double quality) {
+		QualitySet qualities = new QualitySet();
+		for (QualityMeasure measure : this.run.getQualityMeasures())
+			qualities.put(measure, QualityMeasureValue.getForDouble(quality));
+		return qualities;
+	}
+
+	protected List<Pair<ParameterSet, Long>> runSequentially(
+			final ParameterOptimizationMethod method) throws Exception {
+		List<Pair<ParameterSet, Long>> result = new ArrayList<Pair<ParameterSet, Long>>();
+		while (method.hasNext()) {
+			ParameterSet paramSet;
+			try {
+				paramSet = method.next();
+			} catch (NoParameterSetFoundException e) {
+				break;
+			}
+			result.add(Pair.getPair(paramSet, (long) method.getCurrentCount()));
+			method.giveQualityFeedback(getQualities(method, paramSet));
+		}
+		return result;
+	}
+
+	/**
+	 * Proposes the parameter sets in batches of at most k parameter sets and
+	 * gives the feedback of every batch in the order of its parameter sets.
+	 * 
+	 * @return The size of the largest batch.
+	 */
+	protected int runBatched(final ParameterOptimizationMethod method,
+			final int k, final List<Pair<ParameterSet, Long>> result)
+			throws Exception {
+		int maxBatchSize = 0;
+		while (method.hasNext()) {
+			List<Pair<ParameterSet, Long>> batch;
+			try {
+				batch = method.nextBatch(k);
+			} catch (NoParameterSetFoundException e) {
+				break;
+			}
+			Assert.assertFalse(batch.isEmpty());
+			Assert.assertTrue(batch.size() <= k);
+			Assert.assertEquals(batch.size(), method.getPendingFeedbackCount());
+			maxBatchSize = Math.max(maxBatchSize, batch.size());
+			result.addAll(batch);
+			for (Pair<ParameterSet, Long> p : batch)
+				method.giveQualityFeedback(getQualities(method, p.getFirst()));
+			Assert.assertEquals(0, method.getPendingFeedbackCount());
+		}
+		return maxBatchSize;
+	}
+
+	protected void assertBatchedEqualsSequential(final String name,
+			final int iterationsPerParameter) throws Exception {
+		List<Pair<ParameterSet, Long>> sequential = runSequentially(createMethod(
+				name, iterationsPerParameter, false));
+		Assert.assertFalse(sequential.isEmpty());
+
+		ParameterOptimizationMethod method = createMethod(name,
+				iterationsPerParameter, false);
+		List<Pair<ParameterSet, Long>> batched = new ArrayList<Pair<ParameterSet, Long>>();
+		int maxBatchSize = runBatched(method, 4, batched);
+		Assert.assertEquals(4, maxBatchSize);
+
+		Assert.assertEquals(sequential.size(), batched.size());
+		for (int i = 0; i < sequential.size(); i++) {
+			Assert.assertEquals(sequential.get(i).getFirst(), batched.get(i)
+					.getFirst());
+			Assert.assertEquals(sequential.get(i).getSecond(), batched.get(i)
+					.getSecond());
+		}
+
+		// the feedback was attributed to the parameter sets in order
+		for (Pair<ParameterSet, Long> p : batched)
+			Assert.assertEquals(
+					getQualities(method, p.getFirst()).get(
+							method.getOptimizationCriterion()),
+					method.getResult().get(p.getFirst())
+							.get(method.getOptimizationCriterion()));
+	}
+
+	@Test
+	public void testNextBatchDivisive() throws Exception {
+		assertBatchedEqualsSequential("DivisiveParameterOptimizationMethod", 3);
+	}
+
+	@Test
+	public void testNextBatchLayeredDivisive() throws Exception {
+		assertBatchedEqualsSequential(
+				"LayeredDivisiveParameterOptimizationMethod", 4);
+	}
+
+	/**
+	 * Performs the given number of iterations and writes them into the
+	 * complete file as the runnable does: the iterations on subgraphs are
+	 * marked with their fraction of the data.
+	 * 
+	 * @param performed
+	 *            The performed parameter sets and their iteration numbers are
+	 *            added to this list.
+	 * @param fractions
+	 *            The fractions of the data of the performed iterations are
+	 *            added to this list.
+	 */
+	protected void performIterations(final ParameterOptimizationMethod method,
+			final int iterations, final List<Pair<ParameterSet, Long>> performed,
+			final List<Double> fractions) throws Exception {
+		File completeFile = new File(method.getResult().getAbsolutePath());
+		if (!completeFile.exists())
+			method.getResult().writeHeaderIntoCompleteFile();
+		for (int i = 0; i < iterations; i++) {
+			ParameterSet paramSet = method.next();
+			long iterationNumber = method.getCurrentCount();
+			double fraction = method.getDataFraction(paramSet);
+			QualitySet qualities = getQualities(method, paramSet);
+			method.giveQualityFeedback(qualities);
+			if (fraction < 1.0)
+				ParameterOptimizationResult.writeDataFraction(completeFile,
+						iterationNumber, fraction);
+			method.getResult().writeQualitiesToFiles(
+					Arrays.asList(Triple.getTriple(paramSet, qualities,
+							iterationNumber)));
+			performed.add(Pair.getPair(paramSet, iterationNumber));
+			fractions.add(fraction);
+		}
+	}
+
+	/**
+	 * Performs the given number of iterations and writes them into the
+	 * complete file as the runnable does. Then the run is resumed with and
+	 * without the checkpoint, and the resumed methods have to propose the same
+	 * parameter sets as the original method.
+	 */
+	protected void assertResumeContinues(final String name,
+			final int iterationsPerParameter, final int iterations)
+			throws Exception {
+		assertResumeContinues(name, iterationsPerParameter, iterations, true);
+	}
+
+	/**
+	 * @param supportsCheckpoints
+	 *            Whether the method writes checkpoints; otherwise the run is
+	 *            only resumed by replaying the iterations.
+	 * @see #assertResumeContinues(String, int, int)
+	 */
+	protected void assertResumeContinues(final String name,
+			final int iterationsPerParameter, final int iterations,
+			final boolean supportsCheckpoints) throws Exception {
+		ParameterOptimizationMethod method = createMethod(name,
+				iterationsPerParameter, false);
+		performIterations(method, iterations,
+				new ArrayList<Pair<ParameterSet, Long>>(),
+				new ArrayList<Double>());
+		List<ParameterOptimizationMethod> resumedMethods = new ArrayList<ParameterOptimizationMethod>();
+		if (supportsCheckpoints) {
+			Assert.assertTrue(method.writeCheckpoint());
+			File checkpointFile = method.checkpointFile;
+
+			ParameterOptimizationMethod fromCheckpoint = createMethod(name,
+					iterationsPerParameter, true);
+			Assert.assertEquals(iterations, fromCheckpoint.getCurrentCount());
+			// an invalid checkpoint would have been deleted
+			Assert.assertTrue(checkpointFile.exists());
+			checkpointFile.delete();
+			resumedMethods.add(fromCheckpoint);
+		} else
+			Assert.assertFalse(method.writeCheckpoint());
+		ParameterOptimizationMethod replayed = createMethod(name,
+				iterationsPerParameter, true);
+		Assert.assertEquals(iterations, replayed.getCurrentCount());
+		resumedMethods.add(replayed);
+
+		List<Pair<ParameterSet, Long>> expected = runSequentially(method);
+		Assert.assertFalse(expected.isEmpty());
+		for (ParameterOptimizationMethod resumed : resumedMethods) {
+			List<Pair<ParameterSet, Long>> actual = runSequentially(resumed);
+			Assert.assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				Assert.assertEquals(expected.get(i).getFirst(), actual.get(i)
+						.getFirst());
+				Assert.assertEquals(expected.get(i).getSecond(), actual.get(i)
+						.getSecond());
+			}
+		}
+	}
+
+	@Test
+	public void testResumeDivisive() throws Exception {
+		assertResumeContinues("DivisiveParameterOptimizationMethod", 3, 40);
+	}
+
+	@Test
+	public void testResumeLayeredDivisive() throws Exception {
+		// in the first and in the second layer
+		assertResumeContinues("LayeredDivisiveParameterOptimizationMethod", 4,
+				50);
+		assertResumeContinues("LayeredDivisiveParameterOptimizationMethod", 4,
+				150);
+	}
+
+	/**
+	 * @return The given parameter sets sorted by their quality regarding the
+	 *         optimization criterion of the method, ties in the given order.
+	 */
+	protected List<ParameterSet> rank(
+			final ParameterOptimizationMethod method,
+			final List<ParameterSet> paramSets) {
+		final QualityMeasure criterion = method.getOptimizationCriterion();
+		List<ParameterSet> result = new ArrayList<ParameterSet>(paramSets);
+		Collections.sort(result, new Comparator<ParameterSet>() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.util.Comparator#compare(java.lang.Object,
+			 * java.lang.Object)
+			 */
+			@Override
+			public int compare(ParameterSet o1, ParameterSet o2) {
+				QualityMeasureValue q1 = getQualities(method, o1)
+						.get(criterion);
+				QualityMeasureValue q2 = getQualities(method, o2)
+						.get(criterion);
+				if (criterion.isBetterThan(q1, q2))
+					return -1;
+				if (criterion.isBetterThan(q2, q1))
+					return 1;
+				return 0;
+			}
+		});
+		return result;
+	}
+
+	@Test
+	public void testSuccessiveHalving() throws Exception {
+		ParameterOptimizationMethod method = createMethod(
+				"SuccessiveHalvingParameterOptimizationMethod", 3, false);
+		// 81 parameter sets on 1/9 of the vertices, 27 on 1/3 and 9 on the
+		// complete data
+		int[] rungSizes = new int[]{81, 27, 9};
+		double[] rungFractions = new double[]{1.0 / 9, 1.0 / 3, 1.0};
+		Assert.assertEquals(117, method.getTotalIterationCount());
+		List<Pair<ParameterSet, Long>> performed = new ArrayList<Pair<ParameterSet, Long>>();
+		List<Double> fractions = new ArrayList<Double>();
+		performIterations(method, 117, performed, fractions);
+		Assert.assertFalse(method.hasNext());
+
+		List<List<ParameterSet>> rungs = new ArrayList<List<ParameterSet>>();
+		int pos = 0;
+		for (int r = 0; r < rungSizes.length; r++) {
+			List<ParameterSet> rung = new ArrayList<ParameterSet>();
+			for (int i = pos; i < pos + rungSizes[r]; i++) {
+				rung.add(performed.get(i).getFirst());
+				Assert.assertEquals(rungFractions[r], fractions.get(i), 1e-9);
+			}
+			pos += rungSizes[r];
+			rungs.add(rung);
+		}
+		Assert.assertEquals(81, new HashSet<ParameterSet>(rungs.get(0)).size());
+		// the best third of every rung is promoted to the next rung
+		for (int r = 1; r < rungSizes.length; r++)
+			Assert.assertEquals(
+					rank(method, rungs.get(r - 1)).subList(0, rungSizes[r]),
+					rungs.get(r));
+
+		// only the qualities on the complete data are stored in the result
+		List<ParameterSet> lastRung = rungs.get(rungSizes.length - 1);
+		for (ParameterSet paramSet : rungs.get(0))
+			Assert.assertEquals(lastRung.contains(paramSet), method
+					.getResult().get(paramSet) != null);
+
+		// the iterations on subgraphs are skipped, when the result is parsed
+		ParameterOptimizationResult parsed = ParameterOptimizationResult
+				.parseFromRunResultCompleteFile(repository, run, method,
+						new File(method.getResult().getAbsolutePath()), false,
+						false, false);
+		parsed.loadIntoMemory();
+		Assert.assertEquals(lastRung, parsed.getParameterSets());
+		Assert.assertEquals(
+				rank(method, lastRung).get(0),
+				parsed.getOptimalParameterSets().get(
+						method.getOptimizationCriterion()));
+		parsed.unloadFromMemory();
+	}
+
+	@Test
+	public void testResumeSuccessiveHalving() throws Exception {
+		// the promotion to the second and third rung depends on the qualities
+		// of the subgraph iterations that are replayed
+		assertResumeContinues("SuccessiveHalvingParameterOptimizationMethod",
+				3, 90, false);
+		assertResumeContinues("SuccessiveHalvingParameterOptimizationMethod",
+				3, 110, false);
+	}
+
+	/**
+	 * Asserts that the values of the given parameter set lie within the
+	 * ranges of the optimization parameters.
+	 */
+	protected void assertWithinBounds(final ParameterOptimizationMethod method,
+			final ParameterSet paramSet) throws Exception {
+		for (ProgramParameter<?> param : method.getOptimizationParameter()) {
+			double value = Double.valueOf(paramSet.get(param.getName()));
+			Assert.assertTrue(value >= ((Number) param.evaluateMinValue(
+					method.getDataConfig(), method.getProgramConfig()))
+					.doubleValue());
+			Assert.assertTrue(value <= ((Number) param.evaluateMaxValue(
+					method.getDataConfig(), method.getProgramConfig()))
+					.doubleValue());
+		}
+	}
+
+	@Test
+	public void testTPE() throws Exception {
+		ParameterOptimizationMethod method = createMethod(
+				"TPEParameterOptimizationMethod", 3, false);
+		List<Pair<ParameterSet, Long>> sequence = runSequentially(method);
+		Assert.assertEquals(method.getTotalIterationCount(), sequence.size());
+		for (Pair<ParameterSet, Long> p : sequence)
+			assertWithinBounds(method, p.getFirst());
+
+		// the random number generator is seeded by the program and data
+		// configuration
+		List<Pair<ParameterSet, Long>> other = runSequentially(createMethod(
+				"TPEParameterOptimizationMethod", 3, false));
+		Assert.assertEquals(sequence.size(), other.size());
+		for (int i = 0; i < sequence.size(); i++)
+			Assert.assertEquals(sequence.get(i).getFirst(), other.get(i)
+					.getFirst());
+
+		// the parameter sets proposed from the estimated densities are better
+		// than the uniformly sampled startup ones
+		QualityMeasure criterion = method.getOptimizationCriterion();
+		double sign = criterion.isBetterThan(
+				QualityMeasureValue.getForDouble(1.0),
+				QualityMeasureValue.getForDouble(0.0)) ? 1.0 : -1.0;
+		Method getStartupIterationCount = method.getClass().getDeclaredMethod(
+				"getStartupIterationCount");
+		getStartupIterationCount.setAccessible(true);
+		int startup = (Integer) getStartupIterationCount.invoke(method);
+		Assert.assertTrue(startup < sequence.size());
+		List<Double> startupQualities = new ArrayList<Double>();
+		List<Double> laterQualities = new ArrayList<Double>();
+		for (int i = 0; i < sequence.size(); i++)
+			(i < startup ? startupQualities : laterQualities).add(sign
+					* getQualities(method, sequence.get(i).getFirst())
+							.get(criterion).getValue());
+		Assert.assertTrue(median(laterQualities) > median(startupQualities));
+		Assert.assertTrue(Collections.max(laterQualities) >= Collections
+				.max(startupQualities));
+	}
+
+	protected static double median(final List<Double> values) {
+		List<Double> sorted = new ArrayList<Double>(values);
+		Collections.sort(sorted);
+		return sorted.get(sorted.size() / 2);
+	}
+
+	@Test
+	public void testDifferentialEvolutionBounds() throws Exception {
+		ParameterOptimizationMethod method = createMethod(
+				"DifferentialEvolutionParameterOptimizationMethod", 3, false);
+		QualityMeasure criterion = method.getOptimizationCriterion();
+		// larger values of the parameters are better, such that the mutants
+		// are driven beyond the maximal values
+		double sign = criterion.isBetterThan(
+				QualityMeasureValue.getForDouble(1.0),
+				QualityMeasureValue.getForDouble(0.0)) ? 1.0 : -1.0;
+		List<ParameterSet> proposed = new ArrayList<ParameterSet>();
+		while (method.hasNext()) {
+			ParameterSet paramSet = method.next();
+			assertWithinBounds(method, paramSet);
+			proposed.add(paramSet);
+			double sum = 0.0;
+			for (ProgramParameter<?> param : method.getOptimizationParameter())
+				sum += Double.valueOf(paramSet.get(param.getName()))
+						/ ((Number) param.evaluateMaxValue(
+								method.getDataConfig(),
+								method.getProgramConfig())).doubleValue();
+			method.giveQualityFeedback(getQualities(sign * sum));
+		}
+		Assert.assertEquals(method.getTotalIterationCount(), proposed.size());
+
+		// the repaired mutants approach the maximal values
+		ProgramParameter<?> param = method.getOptimizationParameter().get(0);
+		double max = ((Number) param.evaluateMaxValue(method.getDataConfig(),
+				method.getProgramConfig())).doubleValue();
+		double min = ((Number) param.evaluateMinValue(method.getDataConfig(),
+				method.getProgramConfig())).doubleValue();
+		double best = min;
+		for (ParameterSet paramSet : proposed)
+			best = Math.max(best, Double.valueOf(paramSet.get(param.getName())));
+		Assert.assertTrue(best > max - 0.05 * (max - min));
+	}
+
+	@Test
+	public void testDifferentialEvolutionGeneration() throws Exception {
+		String name = "DifferentialEvolutionParameterOptimizationMethod";
+		ParameterOptimizationMethod method = createMethod(name, 3, false);
+		int populationSize = (Integer) method.getClass()
+				.getMethod("getPopulationSize").invoke(method);
+		Assert.assertTrue(populationSize > 1);
+
+		// the whole generation is proposed without any feedback
+		List<Pair<ParameterSet, Long>> generation = method
+				.nextBatch(Integer.MAX_VALUE);
+		Assert.assertEquals(populationSize, generation.size());
+		Assert.assertEquals(populationSize, method.getPendingFeedbackCount());
+		// the next generation depends on the feedback
+		Assert.assertTrue(method.nextBatch(Integer.MAX_VALUE).isEmpty());
+		for (Pair<ParameterSet, Long> p : generation) {
+			assertWithinBounds(method, p.getFirst());
+			method.giveQualityFeedback(getQualities(method, p.getFirst()));
+		}
+		Assert.assertEquals(populationSize,
+				method.nextBatch(Integer.MAX_VALUE).size());
+
+		// the proposed parameter sets do not depend on the batch size
+		assertBatchedEqualsSequential(name, 3);
+	}
+
+	@Test
+	public void testResumeDifferentialEvolution() throws Exception {
+		// in the middle of the third generation
+		assertResumeContinues(
+				"DifferentialEvolutionParameterOptimizationMethod", 3, 40);
+	}
+
+	@Test
+	public void testNSGA2ParetoFront() throws Exception {
+		// two conflicting quality measures
+		List<QualityMeasure> measures = new ArrayList<QualityMeasure>();
+		for (QualityMeasure measure : this.run.getQualityMeasures())
+			if (measure.getClass().getSimpleName()
+					.equals("EdgeCorrectnessQualityMeasure")
+					|| measure.getClass().getSimpleName()
+							.equals("GraphEditDistanceQualityMeasure"))
+				measures.add(measure);
+		Assert.assertEquals(2, measures.size());
+		this.run.getQualityMeasures().retainAll(measures);
+
+		final ParameterOptimizationMethod method = createMethod(
+				"NSGA2ParameterOptimizationMethod", 3, false);
+		Assert.assertEquals(measures,
+				((IMultiObjectiveParameterOptimizationMethod) method)
+						.getOptimizationCriteria());
+		List<ParameterSet> evaluated = new ArrayList<ParameterSet>();
+		while (method.hasNext()) {
+			ParameterSet paramSet = method.next();
+			evaluated.add(paramSet);
+			double sum = 0.0;
+			for (String value : paramSet.values())
+				sum += Double.valueOf(value);
+			QualitySet qualities = new QualitySet();
+			qualities.put(measures.get(0),
+					QualityMeasureValue.getForDouble(Math.abs(Math.sin(sum))));
+			qualities.put(measures.get(1), QualityMeasureValue
+					.getForDouble(Math.abs(Math.cos(1.5 * sum))));
+			method.giveQualityFeedback(qualities);
+		}
+		final ParameterOptimizationResult result = method.getResult();
+
+		// the front is mutually non-dominated and dominates all other
+		// evaluated parameter sets
+		List<ParameterSet> front = result.getParetoFront(measures);
+		Assert.assertFalse(front.isEmpty());
+		Assert.assertTrue(front.size() < new HashSet<ParameterSet>(evaluated)
+				.size());
+		for (ParameterSet p1 : front)
+			for (ParameterSet p2 : front)
+				Assert.assertFalse(NonDominatedSorting.dominates(
+						result.get(p1), result.get(p2), measures));
+		for (ParameterSet paramSet : evaluated) {
+			if (front.contains(paramSet))
+				continue;
+			boolean dominated = false;
+			for (ParameterSet other : front)
+				dominated |= NonDominatedSorting.dominates(result.get(other),
+						result.get(paramSet), measures);
+			Assert.assertTrue(dominated);
+		}
+
+		// the written front
+		File paretoFile = ParameterOptimizationResult
+				.getParetoFrontFile(new File(new File(new File(this.folder,
+						"NSGA2ParameterOptimizationMethod"), "clusters"),
+						"netal_rashid_merge.results.qual.complete"));
+		Assert.assertTrue(paretoFile.getName().endsWith(
+				".results.qual.pareto"));
+		result.writeParetoFrontToFile(paretoFile.getAbsolutePath(), measures);
+		String[] lines = FileUtils.readStringFromFile(
+				paretoFile.getAbsolutePath()).split("\n");
+		Assert.assertEquals(front.size() + 1, lines.length);
+		String[] header = lines[0].split("\t");
+		for (int m = 0; m < measures.size(); m++)
+			Assert.assertEquals(measures.get(m).getClass().getSimpleName(),
+					header[2 + m]);
+		String[] paramNames = header[1].split(",");
+		List<QualitySet> writtenQualities = new ArrayList<QualitySet>();
+		for (int i = 0; i < front.size(); i++) {
+			String[] line = lines[i + 1].split("\t");
+			String[] values = line[1].split(",");
+			ParameterSet paramSet = new ParameterSet();
+			for (int p = 0; p < paramNames.length; p++)
+				paramSet.put(paramNames[p], values[p]);
+			Assert.assertEquals(front.get(i), paramSet);
+			QualitySet qualities = new QualitySet();
+			for (int m = 0; m < measures.size(); m++)
+				qualities.put(measures.get(m),
+						QualityMeasureValue.parseFromString(line[2 + m]));
+			Assert.assertEquals(result.get(paramSet), qualities);
+			writtenQualities.add(qualities);
+		}
+		Assert.assertEquals(1,
+				NonDominatedSorting.sort(writtenQualities, measures).size());
+
+		// the backend serves the optimal parameter set of every measure and
+		// the front of the result
+		ClustevalBackendServer server = new ClustevalBackendServer(
+				this.repository, false) {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see de.clusteval.framework.ClustevalBackendServer#
+			 * parseParameterOptimizationResults(java.lang.String)
+			 */
+			@Override
+			protected List<ParameterOptimizationResult> parseParameterOptimizationResults(
+					String uniqueRunIdentifier) {
+				return Collections.singletonList(result);
+			}
+		};
+		Pair<String, String> configs = Pair.getPair(method.getDataConfig()
+				.getName(), method.getProgramConfig().getName());
+		for (QualityMeasure measure : measures) {
+			ParameterSet best = evaluated.get(0);
+			for (ParameterSet paramSet : evaluated)
+				if (measure.isBetterThan(result.get(paramSet).get(measure),
+						result.get(best).get(measure)))
+					best = paramSet;
+			Map<Pair<String, String>, Map<String, String>> optimal = server
+					.getOptimalParameterSets("",
+							measure.getClass().getSimpleName());
+			Assert.assertEquals(1, optimal.size());
+			Assert.assertEquals(new HashMap<String, String>(best),
+					optimal.get(configs));
+			// the best parameter set regarding a single measure is part of
+			// the front, unless another one is equally good
+			boolean inFront = false;
+			for (ParameterSet paramSet : front)
+				inFront |= result.get(paramSet).get(measure)
+						.equals(result.get(best).get(measure));
+			Assert.assertTrue(inFront);
+		}
+		List<Map<String, String>> servedFront = server.getParetoFronts("")
+				.get(configs);
+		Assert.assertEquals(front.size(), servedFront.size());
+		for (int i = 0; i < front.size(); i++)
+			Assert.assertEquals(new HashMap<String, String>(front.get(i)),
+					servedFront.get(i));
+	}
+
+	protected ParameterSet createParameterSet(final String aa,
+			final String bb, final String cc, final String ii) {
+		ParameterSet result = new ParameterSet();
+		result.put("aa", aa);
+		result.put("bb", bb);
+		result.put("cc", cc);
+		result.put("ii", ii);
+		return result;
+	}
+
+	@Test
+	public void testWarmStart() throws Exception {
+		List<Pair<ParameterSet, QualitySet>> priors = new ArrayList<Pair<ParameterSet, QualitySet>>();
+		priors.add(Pair.getPair(createParameterSet("0.1", "0.2", "0.3", "10"),
+				getQualities(0.2)));
+		priors.add(Pair.getPair(createParameterSet("0.4", "0.5", "0.6", "20"),
+				getQualities(0.9)));
+		priors.add(Pair.getPair(createParameterSet("0.7", "0.8", "0.9", "30"),
+				getQualities(0.5)));
+		QualityMeasure criterion = this.run.getOptimizationMethods().get(0)
+				.getOptimizationCriterion();
+		Pair<ParameterSet, QualitySet> best = priors.get(0);
+		for (Pair<ParameterSet, QualitySet> prior : priors)
+			if (criterion.isBetterThan(prior.getSecond().get(criterion), best
+					.getSecond().get(criterion)))
+				best = prior;
+
+		// the best prior observation is the first parameter set of the
+		// initial population
+		ParameterOptimizationMethod method = createMethod(
+				"DifferentialEvolutionParameterOptimizationMethod", 3, false,
+				priors);
+		ParameterSet first = method.next();
+		for (String param : best.getFirst().keySet())
+			Assert.assertEquals(Double.valueOf(best.getFirst().get(param)),
+					Double.valueOf(first.get(param)), 1e-9);
+		method.giveQualityFeedback(getQualities(method, first));
+		runSequentially(method);
+
+		for (String name : Arrays.asList("NSGA2ParameterOptimizationMethod",
+				"TPEParameterOptimizationMethod")) {
+			method = createMethod(name, 3, false, priors);
+			for (Pair<ParameterSet, Long> p : runSequentially(method))
+				assertWithinBounds(method, p.getFirst());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNextWithPendingFeedback() throws Exception {
+		ParameterOptimizationMethod method = createMethod(
+				"DivisiveParameterOptimizationMethod", 3, false);
+		method.nextBatch(2);
+		method.next();
 	}
 }
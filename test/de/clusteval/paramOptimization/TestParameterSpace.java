@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.clusteval.program.ParameterSet;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestParameterSpace {
+
+	protected ParameterSpace space = new ParameterSpace(new String[]{"T",
+			"k", "method"}, new double[]{0.0, 2.0, 0.0}, new double[]{1.0,
+			10.0, 0.0}, new boolean[]{false, true, false}, new String[][]{
+			null, null, new String[]{"single", "complete"}});
+
+	@Test
+	public void testBounds() {
+		Assert.assertEquals(3, space.getDimension());
+		Assert.assertTrue(space.isCategorical(2));
+		Assert.assertTrue(space.isDiscrete(1));
+		Assert.assertFalse(space.isDiscrete(0));
+		Assert.assertEquals(1.0, space.getUpper(2), 0.0);
+
+		Random rand = new Random(42);
+		for (int i = 0; i < 100; i++) {
+			double[] point = space.sampleUniform(rand);
+			Assert.assertArrayEquals(point, space.clamp(point), 0.0);
+		}
+
+		Assert.assertArrayEquals(new double[]{1.0, 2.0, 1.0},
+				space.clamp(new double[]{1.5, 1.6, 0.7}), 0.0);
+	}
+
+	@Test
+	public void testParameterSet() {
+		ParameterSet paramSet = space.toParameterSet(new double[]{0.25, 4.4,
+				1.0});
+		Assert.assertEquals("0.25", paramSet.get("T"));
+		Assert.assertEquals("4", paramSet.get("k"));
+		Assert.assertEquals("complete", paramSet.get("method"));
+		Assert.assertArrayEquals(new double[]{0.25, 4.0, 1.0},
+				space.toPoint(paramSet), 0.0);
+
+		paramSet.put("method", "average");
+		Assert.assertNull(space.toPoint(paramSet));
+	}
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.paramOptimization;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import utils.Pair;
+import de.clusteval.program.ParameterSet;
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import de.clusteval.quality.StubQualityMeasure;
+import de.clusteval.run.result.ParameterOptimizationResult;
+import file.FileUtils;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestPriorObservations {
+
+	protected File folder;
+
+	protected QualityMeasure measure;
+
+	@Before
+	public void setUp() throws Exception {
+		this.folder = File.createTempFile("priorObservations", "");
+		this.folder.delete();
+		this.folder.mkdirs();
+		this.measure = new StubQualityMeasure(null, false, 0, null);
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.delete(this.folder);
+	}
+
+	protected void writeRunResult(final String id, final String program,
+			final String dataSet, final String complete) {
+		String configs = FileUtils.buildPath(this.folder.getAbsolutePath(),
+				id, "configs");
+		new File(configs).mkdirs();
+		FileUtils.writeStringToFile(
+				FileUtils.buildPath(configs, "graal.config"), "program = "
+						+ program + "\n");
+		FileUtils.writeStringToFile(
+				FileUtils.buildPath(configs, "yeast_human.dataconfig"),
+				"datasetConfig = yeast_human\n");
+		FileUtils.writeStringToFile(
+				FileUtils.buildPath(configs, "yeast_human.dsconfig"),
+				"[dataset1]\ndatasetName = yeast\ndatasetFile = yeast.tab\n"
+						+ "[dataset2]\ndatasetName = " + dataSet
+						+ "\ndatasetFile = " + dataSet + ".tab\n");
+		String calculations = FileUtils.buildPath(
+				this.folder.getAbsolutePath(), id, "calculations");
+		new File(calculations).mkdirs();
+		FileUtils.writeStringToFile(FileUtils.buildPath(calculations,
+				"graal_yeast_human.results.qual.complete"), complete);
+	}
+
+	@Test
+	public void testParseCompleteFile() throws Exception {
+		File f = new File(this.folder, "test.results.qual.complete");
+		FileUtils.writeStringToFile(f.getAbsolutePath(),
+				"iteration\ta,b\tStubQualityMeasure\tUnknownQualityMeasure\n"
+						+ "1\t0.5,1\t0.25\t3\n" + "2\t0.75,2\tNT\t4\n"
+						+ "3\t0.75\t1.0\t4\n");
+
+		List<Pair<ParameterSet, QualitySet>> observations = PriorObservations
+				.parseCompleteFile(f, Arrays.asList("b"),
+						Arrays.asList(this.measure));
+		Assert.assertEquals(2, observations.size());
+		Assert.assertEquals(1, observations.get(0).getFirst().size());
+		Assert.assertEquals("1", observations.get(0).getFirst().get("b"));
+		Assert.assertEquals(1, observations.get(0).getSecond().size());
+		Assert.assertEquals(0.25, observations.get(0).getSecond()
+				.get(this.measure).getValue(), 0.0);
+		Assert.assertEquals(QualityMeasureValue.getForNotTerminated(),
+				observations.get(1).getSecond().get(this.measure));
+
+		// a parameter that is not contained in the file
+		Assert.assertTrue(PriorObservations.parseCompleteFile(f,
+				Arrays.asList("c"), Arrays.asList(this.measure)).isEmpty());
+	}
+
+	@Test
+	public void testParseCompleteFileSkipsSubgraphIterations()
+			throws Exception {
+		File f = new File(this.folder, "test.results.qual.complete");
+		FileUtils.writeStringToFile(f.getAbsolutePath(),
+				"iteration\tb\tStubQualityMeasure\n" + "1\t1\t0.25\n"
+						+ "2\t2\t0.5\n" + "3\t2\t0.75\n");
+		// the parameter set 2 was evaluated on a subgraph first
+		ParameterOptimizationResult.writeDataFraction(f, 2, 0.5);
+
+		List<Pair<ParameterSet, QualitySet>> observations = PriorObservations
+				.parseCompleteFile(f, Arrays.asList("b"),
+						Arrays.asList(this.measure));
+		Assert.assertEquals(2, observations.size());
+		Assert.assertEquals("1", observations.get(0).getFirst().get("b"));
+		Assert.assertEquals("2", observations.get(1).getFirst().get("b"));
+		Assert.assertEquals(0.75, observations.get(1).getSecond()
+				.get(this.measure).getValue(), 0.0);
+	}
+
+	@Test
+	public void testLoad() throws Exception {
+		String header = "iteration\tT\tStubQualityMeasure\n";
+		writeRunResult("01_run", "cgraal/CGRAAL_unix64", "human", header
+				+ "1\t0.1\t0.5\n");
+		writeRunResult("02_run", "cgraal/CGRAAL_unix64", "mouse", header
+				+ "1\t0.2\t0.6\n");
+		writeRunResult("03_run", "magna/MAGNA", "human", header
+				+ "1\t0.3\t0.7\n");
+		writeRunResult("04_current", "cgraal/CGRAAL_unix64", "human", header
+				+ "1\t0.4\t0.8\n");
+
+		File programConfig = new File(this.folder, "cgraal.config");
+		FileUtils.writeStringToFile(programConfig.getAbsolutePath(),
+				"program = cgraal/CGRAAL_unix64\n");
+		File dataSetConfig = new File(this.folder, "yeast_human.dsconfig");
+		FileUtils.writeStringToFile(dataSetConfig.getAbsolutePath(),
+				"[dataset1]\ndatasetName = yeast\ndatasetFile = yeast.tab\n"
+						+ "[dataset2]\ndatasetName = human\n"
+						+ "datasetFile = human.tab\n");
+
+		// same program with other name, the current run result is excluded
+		List<Pair<ParameterSet, QualitySet>> observations = PriorObservations
+				.load(this.folder, new File(this.folder, "04_current"),
+						"cgraal", programConfig, dataSetConfig,
+						Arrays.asList("T"), Arrays.asList(this.measure), 1.0);
+		Assert.assertEquals(1, observations.size());
+		Assert.assertEquals("0.1", observations.get(0).getFirst().get("T"));
+
+		// similar data sorted by similarity
+		observations = PriorObservations.load(this.folder, new File(
+				this.folder, "04_current"), "cgraal", programConfig,
+				dataSetConfig, Arrays.asList("T"), Arrays.asList(this.measure),
+				0.3);
+		Assert.assertEquals(2, observations.size());
+		Assert.assertEquals("0.1", observations.get(0).getFirst().get("T"));
+		Assert.assertEquals("0.2", observations.get(1).getFirst().get("T"));
+	}
+}
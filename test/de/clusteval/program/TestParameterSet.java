@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.program;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestParameterSet {
+
+	@Test
+	public void testMapSemantics() {
+		ParameterSet paramSet = new ParameterSet();
+		paramSet.put("alpha", "0.5");
+		paramSet.put("mode", "fast");
+		ParameterSet other = new ParameterSet();
+		other.put("mode", "fast");
+		other.put("alpha", "0.5");
+
+		// same names in the same order share the schema
+		ParameterSet sameOrder = new ParameterSet();
+		sameOrder.put("alpha", "0.1");
+		sameOrder.put("mode", "slow");
+		Assert.assertSame(paramSet.getSchema(), sameOrder.getSchema());
+		Assert.assertNotSame(paramSet.getSchema(), other.getSchema());
+
+		Map<String, String> map = new HashMap<String, String>();
+		map.put("alpha", "0.5");
+		map.put("mode", "fast");
+		Assert.assertEquals(paramSet, other);
+		Assert.assertEquals(map, paramSet);
+		Assert.assertEquals(paramSet, map);
+		Assert.assertEquals(map.hashCode(), paramSet.hashCode());
+		Assert.assertEquals(map.hashCode(), other.hashCode());
+
+		Assert.assertEquals(0.5, paramSet.getDouble("alpha"), 0.0);
+		Assert.assertTrue(Double.isNaN(paramSet.getDouble("mode")));
+		Assert.assertTrue(Double.isNaN(paramSet.getDouble("beta")));
+
+		Assert.assertEquals("0.5", paramSet.put("alpha", "0.7"));
+		Assert.assertFalse(paramSet.equals(other));
+		Assert.assertEquals("fast", paramSet.remove("mode"));
+		Assert.assertEquals(1, paramSet.size());
+		Assert.assertFalse(paramSet.containsKey("mode"));
+		Iterator<Map.Entry<String, String>> it = paramSet.entrySet()
+				.iterator();
+		Assert.assertEquals("alpha", it.next().getKey());
+		it.remove();
+		Assert.assertTrue(paramSet.isEmpty());
+		Assert.assertEquals(new HashMap<String, String>().hashCode(),
+				paramSet.hashCode());
+	}
+
+	@Test
+	public void testFreezeAndClone() {
+		ParameterSet paramSet = new ParameterSet();
+		paramSet.put("k", "3");
+		paramSet.freeze();
+		try {
+			paramSet.put("k", "4");
+			Assert.fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		ParameterSet clone = paramSet.clone();
+		Assert.assertFalse(clone.isFrozen());
+		clone.put("k", "4");
+		Assert.assertEquals("3", paramSet.get("k"));
+		Assert.assertEquals(4.0, clone.getDouble("k"), 0.0);
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		ParameterSet paramSet = new ParameterSet();
+		paramSet.put("alpha", "0.5");
+		paramSet.put("beta", null);
+		paramSet.put("gamma", "x");
+		paramSet.remove("gamma");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(paramSet);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		ParameterSet read = (ParameterSet) in.readObject();
+		in.close();
+
+		Assert.assertSame(paramSet.getSchema(), read.getSchema());
+		Assert.assertEquals(paramSet, read);
+		Assert.assertEquals(paramSet.hashCode(), read.hashCode());
+		Assert.assertTrue(read.containsKey("beta"));
+		Assert.assertFalse(read.containsKey("gamma"));
+		Assert.assertEquals(0.5, read.getDouble("alpha"), 0.0);
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.quality;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.clusteval.data.DataConfig;
+import de.clusteval.framework.repository.RegisterException;
+import de.clusteval.framework.repository.Repository;
+import de.clusteval.graphmatching.GraphMatching;
+
+/**
+ * A quality measure without repository, which rates every matching by its
+ * size. Larger values are better.
+ * 
+ * @author Christian Wiwie
+ * 
+ */
+public class StubQualityMeasure extends QualityMeasure {
+
+	/**
+	 * @param repository
+	 * @param register
+	 * @param changeDate
+	 * @param absPath
+	 * @throws RegisterException
+	 */
+	public StubQualityMeasure(Repository repository, boolean register,
+			long changeDate, File absPath) throws RegisterException {
+		super(repository, register, changeDate, absPath);
+	}
+
+	/**
+	 * The copy constructor of stub quality measures.
+	 * 
+	 * @param other
+	 *            The object to clone.
+	 * @throws RegisterException
+	 */
+	public StubQualityMeasure(final StubQualityMeasure other)
+			throws RegisterException {
+		super(other);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getQualityOf(de.clusteval.
+	 * graphmatching.GraphMatching, de.clusteval.graphmatching.GraphMatching,
+	 * de.clusteval.data.DataConfig)
+	 */
+	@Override
+	public QualityMeasureValue getQualityOf(GraphMatching clustering,
+			GraphMatching goldStandard, DataConfig dataConfig) {
+		return QualityMeasureValue.getForDouble(clustering.size());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.clusteval.quality.QualityMeasure#isBetterThanHelper(de.clusteval.
+	 * quality.QualityMeasureValue, de.clusteval.quality.QualityMeasureValue)
+	 */
+	@Override
+	protected boolean isBetterThanHelper(QualityMeasureValue quality1,
+			QualityMeasureValue quality2) {
+		return quality1.getValue() > quality2.getValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getMinimum()
+	 */
+	@Override
+	public double getMinimum() {
+		return 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getMaximum()
+	 */
+	@Override
+	public double getMaximum() {
+		return Double.MAX_VALUE;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getRequiredRlibraries()
+	 */
+	@Override
+	public Set<String> getRequiredRlibraries() {
+		return new HashSet<String>();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#requiresGoldstandard()
+	 */
+	@Override
+	public boolean requiresGoldstandard() {
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.quality.QualityMeasure#getAlias()
+	 */
+	@Override
+	public String getAlias() {
+		return "Stub";
+	}
+}
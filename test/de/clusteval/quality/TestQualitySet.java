@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.quality;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.clusteval.framework.repository.RegisterException;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestQualitySet {
+
+	/**
+	 * A second measure class, which gets an ordinal of its own.
+	 */
+	public static class OtherStubQualityMeasure extends StubQualityMeasure {
+
+		public OtherStubQualityMeasure() throws RegisterException {
+			super(null, false, 0, null);
+		}
+	}
+
+	@Test
+	public void testMapView() throws RegisterException {
+		QualityMeasure measure = new StubQualityMeasure(null, false, 0, null);
+		QualityMeasure other = new OtherStubQualityMeasure();
+		Assert.assertFalse(measure.getOrdinal() == other.getOrdinal());
+		Assert.assertEquals(measure.getOrdinal(), new StubQualityMeasure(null,
+				false, 0, null).getOrdinal());
+
+		QualitySet qualities = new QualitySet();
+		Assert.assertNull(qualities.get(measure));
+		Assert.assertTrue(Double.isNaN(qualities.getValue(measure)));
+		qualities.put(measure, QualityMeasureValue.getForDouble(0.5));
+		qualities.put(other, QualityMeasureValue.getForNotTerminated());
+		Assert.assertEquals(2, qualities.size());
+		Assert.assertEquals(0.5, qualities.getValue(measure), 0.0);
+		Assert.assertEquals(0.5, qualities.get(measure).getValue(), 0.0);
+		Assert.assertFalse(qualities.get(other).isTerminated());
+		Assert.assertTrue(Double.isNaN(qualities.getValue(other)));
+
+		Map<QualityMeasure, QualityMeasureValue> map = new HashMap<QualityMeasure, QualityMeasureValue>();
+		map.put(measure, QualityMeasureValue.getForDouble(0.5));
+		map.put(other, QualityMeasureValue.getForNotTerminated());
+		Assert.assertEquals(map, qualities);
+		Assert.assertEquals(qualities, map);
+		Assert.assertEquals(map.hashCode(), qualities.hashCode());
+		Assert.assertEquals(map.keySet(), qualities.keySet());
+
+		QualitySet clone = qualities.clone();
+		clone.put(measure, 0.7);
+		Assert.assertEquals(0.5, qualities.getValue(measure), 0.0);
+		Assert.assertTrue(clone.remove(other) != null);
+		Assert.assertEquals(1, clone.size());
+		Assert.assertFalse(clone.containsKey(other));
+		clone.put(measure, null);
+		Assert.assertTrue(clone.isEmpty());
+	}
+}
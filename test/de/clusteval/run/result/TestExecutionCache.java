@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.result;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.clusteval.quality.QualityMeasure;
+import de.clusteval.quality.QualityMeasureValue;
+import de.clusteval.quality.QualitySet;
+import de.clusteval.quality.StubQualityMeasure;
+import de.clusteval.quality.TestQualitySet.OtherStubQualityMeasure;
+import file.FileUtils;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestExecutionCache {
+
+	protected File folder;
+
+	protected File program;
+
+	protected File input;
+
+	@Before
+	public void setUp() throws Exception {
+		this.folder = File.createTempFile("executionCache", "");
+		this.folder.delete();
+		this.folder.mkdirs();
+		this.program = new File(this.folder, "program.sh");
+		FileUtils.writeStringToFile(this.program.getAbsolutePath(),
+				"echo matching");
+		this.input = new File(this.folder, "input.txt");
+		FileUtils.writeStringToFile(this.input.getAbsolutePath(), "a\tb");
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.delete(this.folder);
+	}
+
+	protected String key(final String... params) throws Exception {
+		Map<String, String> map = new HashMap<String, String>();
+		for (int i = 0; i < params.length; i += 2)
+			map.put(params[i], params[i + 1]);
+		return ExecutionCache.computeKey(this.program, "%e% -p %p%",
+				"TabSeparated", map, Arrays.asList(this.input));
+	}
+
+	@Test
+	public void testKeyNormalizesParameters() throws Exception {
+		Assert.assertEquals(key("p", "1", "q", "a"), key("q", " a ", "p",
+				"1.00"));
+		Assert.assertEquals(key("p", "0"), key("p", "0.0"));
+		Assert.assertFalse(key("p", "1").equals(key("p", "2")));
+
+		// the contents of inputs and program are part of the key
+		String key = key("p", "1");
+		FileUtils.writeStringToFile(this.input.getAbsolutePath(), "a\tc");
+		this.input.setLastModified(this.input.lastModified() + 2000);
+		Assert.assertFalse(key.equals(key("p", "1")));
+	}
+
+	@Test
+	public void testPutAndGet() throws Exception {
+		ExecutionCache cache = new ExecutionCache(new File(this.folder,
+				"cache"));
+		String key = key("p", "1");
+		Assert.assertNull(cache.get(key));
+
+		File matching = new File(this.folder, "matching.conv");
+		FileUtils.writeStringToFile(matching.getAbsolutePath(), "a\tb");
+		QualityMeasure measure = new StubQualityMeasure(null, false, 0, null);
+		QualityMeasure other = new OtherStubQualityMeasure();
+		QualitySet qualities = new QualitySet();
+		qualities.put(measure, 0.5);
+		Assert.assertTrue(cache.put(key, "program", matching, qualities));
+
+		ExecutionCache.Entry entry = cache.get(key);
+		Assert.assertNotNull(entry);
+		Assert.assertEquals("a\tb", FileUtils.readStringFromFile(
+				entry.getMatchingFile().getAbsolutePath()).trim());
+		Assert.assertEquals(0.5, entry.getQuality(measure).getValue(), 0.0);
+		Assert.assertNull(entry.getQuality(other));
+
+		// qualities of further measures are added, existing ones are kept
+		qualities = new QualitySet();
+		qualities.put(measure, 0.7);
+		qualities.put(other, QualityMeasureValue.getForNotTerminated());
+		Assert.assertTrue(cache.put(key, "program", matching, qualities));
+		entry = cache.get(key);
+		Assert.assertEquals(0.5, entry.getQuality(measure).getValue(), 0.0);
+		Assert.assertFalse(entry.getQuality(other).isTerminated());
+	}
+
+	@Test
+	public void testInvalidate() throws Exception {
+		ExecutionCache cache = new ExecutionCache(new File(this.folder,
+				"cache"));
+		File matching = new File(this.folder, "matching.conv");
+		FileUtils.writeStringToFile(matching.getAbsolutePath(), "a\tb");
+		String key1 = key("p", "1");
+		String key2 = key("p", "2");
+		String key3 = key("p", "3");
+		cache.put(key1, "program1", matching, new QualitySet());
+		cache.put(key2, "program1", matching, new QualitySet());
+		cache.put(key3, "program2", matching, new QualitySet());
+
+		Assert.assertTrue(cache.invalidate(key1));
+		Assert.assertFalse(cache.invalidate(key1));
+		Assert.assertNull(cache.get(key1));
+
+		Assert.assertEquals(1, cache.invalidateProgram("program1"));
+		Assert.assertNull(cache.get(key2));
+		Assert.assertNotNull(cache.get(key3));
+
+		Assert.assertEquals(1, cache.invalidateAll());
+		Assert.assertNull(cache.get(key3));
+	}
+}
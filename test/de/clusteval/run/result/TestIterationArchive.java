@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.result;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import file.FileUtils;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestIterationArchive {
+
+	protected File folder;
+
+	@Before
+	public void setUp() {
+		this.folder = new File(System.getProperty("java.io.tmpdir"),
+				"clustevalIterationArchive");
+		new File(this.folder, "calculations").mkdirs();
+		new File(this.folder, "logs").mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.delete(this.folder);
+	}
+
+	protected Map<String, File> writeIterationFiles(final int iteration)
+			throws IOException {
+		Map<String, File> files = new LinkedHashMap<String, File>();
+		String conv = "calculations/p_d." + iteration
+				+ ".results.matching.conv";
+		String log = "logs/p_d." + iteration + ".log";
+		File convFile = new File(this.folder, conv);
+		FileUtils.appendStringToFile(convFile.getAbsolutePath(), "matching "
+				+ iteration);
+		File logFile = new File(this.folder, log);
+		FileUtils.appendStringToFile(logFile.getAbsolutePath(), "log "
+				+ iteration);
+		files.put(conv, convFile);
+		files.put(log, logFile);
+		return files;
+	}
+
+	@Test
+	public void testAppendAndRead() throws IOException {
+		File archiveFile = IterationArchive.getArchiveFile(new File(
+				this.folder, "calculations"), "p_d");
+		IterationArchive archive = new IterationArchive(archiveFile, false);
+		for (int i = 1; i <= 10; i++) {
+			Map<String, File> files = this.writeIterationFiles(i);
+			archive.append(i, files);
+			for (File f : files.values())
+				f.delete();
+		}
+		archive.close();
+
+		archive = new IterationArchive(archiveFile, true);
+		Assert.assertEquals(10, archive.getIterations().size());
+		Assert.assertEquals("matching 7", new String(archive.read(7,
+				"calculations/p_d.7.results.matching.conv")));
+		Assert.assertEquals("log 3",
+				new String(archive.read(3, "logs/p_d.3.log")));
+		Assert.assertNull(archive.read(11, "logs/p_d.11.log"));
+
+		Assert.assertEquals(20, archive.extract(this.folder));
+		archive.close();
+		Assert.assertTrue(new File(this.folder,
+				"calculations/p_d.5.results.matching.conv").exists());
+		Assert.assertTrue(new File(this.folder, "logs/p_d.10.log").exists());
+	}
+
+	@Test
+	public void testRecoveryWithoutFooter() throws IOException {
+		File archiveFile = IterationArchive.getArchiveFile(new File(
+				this.folder, "calculations"), "p_d");
+		IterationArchive archive = new IterationArchive(archiveFile, false);
+		archive.append(1, this.writeIterationFiles(1));
+		archive.append(2, this.writeIterationFiles(2));
+		archive.close();
+
+		// simulate an append that was interrupted after the first bytes
+		RandomAccessFile raf = new RandomAccessFile(archiveFile, "rw");
+		raf.setLength(raf.length() - 5);
+		raf.close();
+
+		archive = new IterationArchive(archiveFile, false);
+		Assert.assertEquals(2, archive.getIterations().size());
+		archive.append(3, this.writeIterationFiles(3));
+		archive.close();
+
+		archive = new IterationArchive(archiveFile, true);
+		Assert.assertEquals(3, archive.getIterations().size());
+		Assert.assertEquals("matching 3", new String(archive.read(3,
+				"calculations/p_d.3.results.matching.conv")));
+		archive.close();
+	}
+
+	@Test
+	public void testSegments() throws IOException {
+		File archiveFile = IterationArchive.getArchiveFile(new File(
+				this.folder, "calculations"), "p_d");
+		IterationArchive archive = new IterationArchive(archiveFile, false);
+		archive.setMaxSegmentSize(50);
+		for (int i = 1; i <= 5; i++)
+			archive.append(i, this.writeIterationFiles(i));
+		Assert.assertTrue(archive.getSegmentCount() > 1);
+		archive.close();
+
+		archive = new IterationArchive(archiveFile, true);
+		Assert.assertEquals(5, archive.getIterations().size());
+		Assert.assertEquals("log 4",
+				new String(archive.read(4, "logs/p_d.4.log")));
+		archive.close();
+	}
+}
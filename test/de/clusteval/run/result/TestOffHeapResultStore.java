@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.result;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import utils.Pair;
+import de.clusteval.graphmatching.GraphMatching;
+import de.clusteval.quality.QualityMeasureValue;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestOffHeapResultStore {
+
+	@Test
+	public void testMatchingsAndQualities() {
+		// small chunks, such that several chunks are allocated
+		OffHeapResultStore store = new OffHeapResultStore(3, 64);
+		for (int i = 1; i <= 10; i++) {
+			GraphMatching matching = new GraphMatching();
+			for (int j = 0; j < i; j++) {
+				if (i % 2 == 0)
+					matching.addMatching(Pair.getPair("a" + j, "b" + (i - j)),
+							j / 10.0);
+				else
+					matching.addMatching(Pair.getPair("a" + j, "b" + (i - j)));
+			}
+			store.putMatching(i, matching);
+			store.putQualities(i, new QualityMeasureValue[]{
+					QualityMeasureValue.getForDouble(i / 10.0),
+					i == 5 ? QualityMeasureValue.getForNotTerminated() : null,
+					QualityMeasureValue.getForDouble(-i)});
+		}
+		Assert.assertTrue(store.getAllocatedBytes() >= store.getUsedBytes());
+
+		GraphMatching matching = store.getMatching(7);
+		Assert.assertEquals(7, matching.size());
+		Assert.assertEquals("b7", matching.getMatchingForGraph1Vertex("a0"));
+		Assert.assertFalse(matching.hasScores());
+		matching = store.getMatching(4);
+		Assert.assertEquals(0.3,
+				matching.getScore(Pair.getPair("a3", "b1")), 0.0);
+		Assert.assertNull(store.getMatching(11));
+
+		QualityMeasureValue[] qualities = store.getQualities(5);
+		Assert.assertEquals(0.5, qualities[0].getValue(), 0.0);
+		Assert.assertFalse(qualities[1].isTerminated());
+		Assert.assertEquals(-5.0, qualities[2].getValue(), 0.0);
+		Assert.assertNull(store.getQualities(6)[1]);
+		Assert.assertNull(store.getQualities(11));
+		store.close();
+	}
+
+	@Test
+	public void testAccessAfterClose() {
+		OffHeapResultStore store = new OffHeapResultStore(1);
+		GraphMatching matching = new GraphMatching();
+		matching.addMatching(Pair.getPair("a", "b"));
+		store.putMatching(1, matching);
+		store.close();
+		Assert.assertTrue(store.isClosed());
+		Assert.assertEquals(0, store.getAllocatedBytes());
+		try {
+			store.getMatching(1);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		// releasing twice has no effect
+		store.close();
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.result;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.clusteval.program.ParameterSet;
+import file.FileUtils;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestQualityTable {
+
+	protected File folder;
+
+	@Before
+	public void setUp() {
+		this.folder = new File(System.getProperty("java.io.tmpdir"),
+				"clustevalQualityTable");
+		this.folder.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.delete(this.folder);
+	}
+
+	protected QualityTable createTable() throws IOException {
+		QualityTable table = QualityTable.create(new File(this.folder,
+				"p_d" + QualityTable.FILE_EXTENSION), Arrays.asList("alpha",
+				"mode"), Arrays.asList("EC", "S3"));
+		for (int i = 1; i <= 10; i++) {
+			ParameterSet paramSet = new ParameterSet();
+			paramSet.put("alpha", "0." + (i - 1));
+			paramSet.put("mode", i % 2 == 0 ? "even" : "odd");
+			double s3 = i == 5 ? Double.NaN : i / 10.0;
+			table.append(i, paramSet, new double[]{1.0 - i / 10.0, s3});
+		}
+		return table;
+	}
+
+	@Test
+	public void testQueries() throws IOException {
+		QualityTable table = this.createTable();
+		Assert.assertEquals(10, table.getRowCount());
+		Assert.assertEquals(0.0, table.getMin("alpha"), 0.0);
+		Assert.assertEquals(0.9, table.getMax("alpha"), 0.0);
+		Assert.assertEquals(1.0, table.getMax("S3"), 0.0);
+		Assert.assertTrue(Double.isNaN(table.getMin("mode")));
+
+		int[] best = table.bestK("S3", 3, true);
+		Assert.assertArrayEquals(new long[]{10, 9, 8},
+				table.getIterations(best));
+		best = table.bestK("EC", 2, false);
+		Assert.assertArrayEquals(new long[]{10, 9}, table.getIterations(best));
+
+		// the not terminated iteration 5 is excluded
+		int[] rows = table.range("S3", 0.4, 0.6);
+		Assert.assertArrayEquals(new long[]{4, 6}, table.getIterations(rows));
+		Assert.assertEquals(0, table.range("S3", 2.0, 3.0).length);
+		rows = table.range("alpha", 0.25, 0.45);
+		Assert.assertArrayEquals(new String[]{"0.3", "0.4"},
+				table.getParameterValues("alpha", rows));
+		Assert.assertArrayEquals(new String[]{"even", "odd"},
+				table.getParameterValues("mode", rows));
+		Assert.assertEquals("odd", table.getParameterSets(new int[]{0})
+				.get(0).get("mode"));
+		table.close();
+	}
+
+	@Test
+	public void testReopenDiscardsUncommittedRows() throws IOException {
+		QualityTable table = this.createTable();
+		table.close();
+		File tableFolder = table.getTableFolder();
+
+		// simulate an append interrupted before the statistics were written
+		RandomAccessFile raf = new RandomAccessFile(new File(tableFolder,
+				"m0.col"), "rw");
+		raf.seek(raf.length());
+		raf.writeDouble(0.5);
+		raf.close();
+
+		table = QualityTable.open(tableFolder, false);
+		Assert.assertEquals(10, table.getRowCount());
+		ParameterSet paramSet = new ParameterSet();
+		paramSet.put("alpha", "1.0");
+		paramSet.put("mode", "odd");
+		table.append(11, paramSet, new double[]{0.25, 0.75});
+		table.close();
+
+		table = QualityTable.open(tableFolder, true);
+		Assert.assertEquals(11, table.getRowCount());
+		Assert.assertEquals(0.25,
+				table.getMeasureValues("EC", new int[]{10})[0], 0.0);
+		Assert.assertEquals(1.0, table.getMax("alpha"), 0.0);
+	}
+
+	@Test
+	public void testTsvRoundTrip() throws IOException {
+		QualityTable table = this.createTable();
+		File tsv = new File(this.folder, "p_d.results.qual.complete");
+		table.exportTsv(tsv);
+		table.close();
+
+		QualityTable imported = QualityTable.importTsv(tsv,
+				QualityTable.getTableFile(tsv.getAbsolutePath()));
+		Assert.assertEquals(10, imported.getRowCount());
+		Assert.assertTrue(Double.isNaN(imported.getMeasureValues("S3",
+				new int[]{4})[0]));
+		File tsv2 = new File(this.folder, "p_d2.results.qual.complete");
+		imported.exportTsv(tsv2);
+		imported.close();
+		Assert.assertEquals(FileUtils.readStringFromFile(tsv.getAbsolutePath()),
+				FileUtils.readStringFromFile(tsv2.getAbsolutePath()));
+	}
+
+	@Test
+	public void testTsvImportSkipsSubgraphIterations() throws IOException {
+		QualityTable table = this.createTable();
+		File tsv = new File(this.folder, "p_d.results.qual.complete");
+		table.exportTsv(tsv);
+		table.close();
+		// the iterations 3 and 4 were evaluated on subgraphs
+		ParameterOptimizationResult.writeDataFraction(tsv, 3, 1.0 / 9);
+		ParameterOptimizationResult.writeDataFraction(tsv, 4, 1.0 / 3);
+
+		QualityTable imported = QualityTable.importTsv(tsv,
+				QualityTable.getTableFile(tsv.getAbsolutePath()));
+		Assert.assertEquals(8, imported.getRowCount());
+		Assert.assertArrayEquals(new long[]{1, 2, 5, 6, 7, 8, 9, 10},
+				imported.getIterations(imported.range("alpha", 0.0, 1.0)));
+		int[] best = imported.bestK("EC", 3, true);
+		Assert.assertArrayEquals(new long[]{1, 2, 5},
+				imported.getIterations(best));
+		imported.close();
+	}
+}
@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.run.runnable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.clusteval.data.DataConfig;
+import de.clusteval.framework.threading.EvaluationPool;
+import de.clusteval.paramOptimization.ParameterOptimizationMethod;
+import de.clusteval.program.ProgramConfig;
+import de.clusteval.run.ParameterOptimizationRun;
+import de.clusteval.run.Run;
+import de.clusteval.utils.TestRepositoryObject;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestExecutionRunRunnable extends TestRepositoryObject {
+
+	/**
+	 * A runnable, whose evaluations only wait for the latch of their iteration
+	 * and whose commits only record the committed iterations.
+	 */
+	protected static class StubRunnable extends ExecutionRunRunnable {
+
+		protected int queueSize;
+
+		protected EvaluationPool pool;
+
+		protected Map<Integer, CountDownLatch> latches = Collections
+				.synchronizedMap(new HashMap<Integer, CountDownLatch>());
+
+		protected List<Integer> finished = Collections
+				.synchronizedList(new ArrayList<Integer>());
+
+		protected List<Integer> committed = Collections
+				.synchronizedList(new ArrayList<Integer>());
+
+		public StubRunnable(Run run, ProgramConfig programConfig,
+				DataConfig dataConfig, final int queueSize,
+				final EvaluationPool pool) {
+			super(run, programConfig, dataConfig, "", false);
+			this.queueSize = queueSize;
+			this.pool = pool;
+		}
+
+		/**
+		 * Blocks the evaluation of the given iteration until
+		 * {@link #release(int)} is invoked.
+		 */
+		public void block(final int iteration) {
+			this.latches.put(iteration, new CountDownLatch(1));
+		}
+
+		public void release(final int iteration) {
+			this.latches.get(iteration).countDown();
+		}
+
+		/**
+		 * Finishes the given iteration as {@link #doRunIteration()} does.
+		 */
+		public void finish(final int iteration) throws Exception {
+			this.optId = iteration;
+			this.finishIteration(this.getCurrentIterationState(), true);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.clusteval.run.runnable.RunRunnable#doRun()
+		 */
+		@Override
+		protected void doRun() {
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * de.clusteval.run.runnable.ExecutionRunRunnable#handleMissingRunResult
+		 * ()
+		 */
+		@Override
+		protected void handleMissingRunResult() {
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * de.clusteval.run.runnable.ExecutionRunRunnable#getEvaluationQueueSize
+		 * ()
+		 */
+		@Override
+		protected int getEvaluationQueueSize() {
+			return this.queueSize;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * de.clusteval.run.runnable.ExecutionRunRunnable#getEvaluationPool()
+		 */
+		@Override
+		protected EvaluationPool getEvaluationPool() {
+			return this.pool;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * de.clusteval.run.runnable.ExecutionRunRunnable#getEvaluationSourceId
+		 * ()
+		 */
+		@Override
+		protected String getEvaluationSourceId() {
+			// one source per iteration, such that the pool evaluates the
+			// iterations in parallel and they can finish out of order
+			return super.getEvaluationSourceId() + "," + this.optId;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * de.clusteval.run.runnable.ExecutionRunRunnable#evaluateIteration(de
+		 * .clusteval.run.runnable.ExecutionRunRunnable.IterationState,
+		 * boolean)
+		 */
+		@Override
+		protected IterationEvaluation evaluateIteration(
+				final IterationState state, final boolean programExecuted) {
+			CountDownLatch latch = this.latches.get(state.optId);
+			if (latch != null) {
+				try {
+					latch.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			this.finished.add(state.optId);
+			IterationEvaluation evaluation = new IterationEvaluation();
+			evaluation.state = state;
+			return evaluation;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * de.clusteval.run.runnable.ExecutionRunRunnable#commitIteration(de
+		 * .clusteval.run.runnable.ExecutionRunRunnable.IterationEvaluation)
+		 */
+		@Override
+		protected void commitIteration(final IterationEvaluation evaluation) {
+			this.committed.add(evaluation.state.optId);
+		}
+	}
+
+	protected Run run;
+
+	/**
+	 * The workers of the evaluation pool, independent of the number of cores.
+	 */
+	protected ForkJoinPool executor;
+
+	protected EvaluationPool pool;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.utils.TestRepositoryObject#setUp()
+	 */
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		this.run = Run.parseFromFile(new File(
+				"testCaseRepository/runs/netal.run").getAbsoluteFile());
+		this.executor = new ForkJoinPool(4);
+		this.pool = new EvaluationPool(4, 4) {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see
+			 * de.clusteval.framework.threading.EvaluationPool#getExecutor()
+			 */
+			@Override
+			protected ForkJoinPool getExecutor() {
+				return executor;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.clusteval.utils.TestRepositoryObject#tearDown()
+	 */
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		this.executor.shutdownNow();
+		super.tearDown();
+	}
+
+	protected StubRunnable createRunnable(final int queueSize) {
+		ParameterOptimizationMethod method = ((ParameterOptimizationRun) this.run)
+				.getOptimizationMethods().get(0);
+		return new StubRunnable(this.run, method.getProgramConfig(),
+				method.getDataConfig(), queueSize, this.pool);
+	}
+
+	protected static void waitFor(final List<Integer> list, final int size)
+			throws InterruptedException {
+		long start = System.currentTimeMillis();
+		while (list.size() < size
+				&& System.currentTimeMillis() - start < 10000)
+			Thread.sleep(10);
+		Assert.assertEquals(size, list.size());
+	}
+
+	@Test
+	public void testCommitOrder() throws Exception {
+		StubRunnable runnable = this.createRunnable(4);
+		runnable.block(1);
+		runnable.block(2);
+		for (int i = 1; i <= 4; i++)
+			runnable.finish(i);
+		Assert.assertEquals(4, runnable.pendingEvaluations.size());
+
+		// the evaluations finish in the order 3, 4, 2, 1
+		waitFor(runnable.finished, 2);
+		runnable.release(2);
+		waitFor(runnable.finished, 3);
+		runnable.release(1);
+		waitFor(runnable.finished, 4);
+		Assert.assertEquals(Arrays.asList(2, 1),
+				runnable.finished.subList(2, 4));
+		Assert.assertTrue(runnable.committed.isEmpty());
+
+		runnable.commitPendingEvaluations();
+		Assert.assertEquals(Arrays.asList(1, 2, 3, 4), runnable.committed);
+	}
+
+	@Test
+	public void testEvaluationQueueBackpressure() throws Exception {
+		final StubRunnable runnable = this.createRunnable(2);
+		runnable.block(1);
+		runnable.finish(1);
+		runnable.finish(2);
+		Assert.assertEquals(2, runnable.pendingEvaluations.size());
+
+		// the queue is full: the next iteration waits for the first one
+		final List<Throwable> exceptions = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		Thread t = new Thread() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.lang.Thread#run()
+			 */
+			@Override
+			public void run() {
+				try {
+					runnable.finish(3);
+				} catch (Throwable e) {
+					exceptions.add(e);
+				}
+			}
+		};
+		t.start();
+		t.join(500);
+		Assert.assertTrue(t.isAlive());
+		Assert.assertTrue(runnable.committed.isEmpty());
+
+		runnable.release(1);
+		t.join(10000);
+		Assert.assertFalse(t.isAlive());
+		Assert.assertTrue(exceptions.isEmpty());
+		Assert.assertEquals(Arrays.asList(1), runnable.committed);
+		Assert.assertEquals(2, runnable.pendingEvaluations.size());
+
+		runnable.commitPendingEvaluations();
+		Assert.assertEquals(Arrays.asList(1, 2, 3), runnable.committed);
+	}
+
+	@Test
+	public void testInterruptWhileCommitting() throws Exception {
+		final StubRunnable runnable = this.createRunnable(1);
+		runnable.block(1);
+		runnable.finish(1);
+
+		final List<Boolean> interrupted = Collections
+				.synchronizedList(new ArrayList<Boolean>());
+		Thread t = new Thread() {
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.lang.Thread#run()
+			 */
+			@Override
+			public void run() {
+				try {
+					runnable.commitNextEvaluation();
+					interrupted.add(Thread.currentThread().isInterrupted());
+				} catch (Exception e) {
+					interrupted.add(null);
+				}
+			}
+		};
+		t.start();
+		t.join(200);
+		t.interrupt();
+		// the iteration is still committed in order
+		t.join(200);
+		Assert.assertTrue(t.isAlive());
+
+		runnable.release(1);
+		t.join(10000);
+		Assert.assertEquals(Arrays.asList(1), runnable.committed);
+		// the interrupt is not swallowed
+		Assert.assertEquals(Arrays.asList(true), interrupted);
+	}
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Christian Wiwie.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Christian Wiwie - initial API and implementation
+ ******************************************************************************/
+/**
+ * 
+ */
+package de.clusteval.utils;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christian Wiwie
+ * 
+ */
+public class TestSoftLRUCache {
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		SoftLRUCache<Long, String> cache = new SoftLRUCache<Long, String>(2);
+		cache.put(1l, "one");
+		cache.put(2l, "two");
+		// access 1, such that 2 becomes the least recently used value
+		Assert.assertEquals("one", cache.get(1l));
+		cache.put(3l, "three");
+
+		Assert.assertEquals(2, cache.size());
+		Assert.assertNull(cache.get(2l));
+		Assert.assertEquals("one", cache.get(1l));
+		Assert.assertEquals("three", cache.get(3l));
+		Assert.assertEquals(Arrays.asList(1l, 3l), cache.keys());
+
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertNull(cache.get(1l));
+	}
+}